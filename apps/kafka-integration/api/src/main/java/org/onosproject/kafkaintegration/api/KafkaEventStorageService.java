@@ -16,6 +16,10 @@
 package org.onosproject.kafkaintegration.api;
 
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.onosproject.store.service.Task;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * APIs to insert and delete into a local store. This store is used to keep
@@ -36,4 +40,31 @@ public interface KafkaEventStorageService {
      * @return the Onos Event
      */
     OnosEvent consumeEvent();
+
+    /**
+     * Inserts a batch of Onos Events into the Distributed Work Queue. The
+     * batch is dropped if the queue already holds the maximum number of
+     * pending events.
+     *
+     * @param events the ONOS Events, in order
+     * @return true if the events were inserted, false if they were dropped
+     */
+    boolean publishEvents(Collection<OnosEvent> events);
+
+    /**
+     * Takes up to the given number of Onos Events from the Distributed Work
+     * Queue. The events stay in the queue until they are completed; events
+     * that are never completed are handed out again once this node leaves.
+     *
+     * @param maxEvents maximum number of events to take
+     * @return the tasks of the Onos Events, in order; empty if there is none
+     */
+    List<Task<OnosEvent>> consumeEvents(int maxEvents);
+
+    /**
+     * Removes the given taken Onos Events from the Distributed Work Queue.
+     *
+     * @param taskIds ids of the tasks of the events
+     */
+    void completeEvents(Collection<String> taskIds);
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.api;
+
+/**
+ * APIs for the statistics of the events published to Kafka.
+ */
+public interface KafkaPublisherStatisticsService {
+
+    /**
+     * Returns the number of events published to Kafka.
+     *
+     * @return number of published events
+     */
+    long publishedEvents();
+
+    /**
+     * Returns the number of events that could not be published to Kafka.
+     * These events are left in the Distributed Work Queue.
+     *
+     * @return number of failed events
+     */
+    long failedEvents();
+
+    /**
+     * Returns the number of batches sent to Kafka.
+     *
+     * @return number of batches
+     */
+    long publishedBatches();
+
+    /**
+     * Returns the time the first event of the last batch waited before it
+     * was acknowledged by Kafka.
+     *
+     * @return lag in milliseconds
+     */
+    long lagMillis();
+}
@@ -37,10 +37,12 @@ public final class KafkaServerConfig {
 
     private final String valueSerializer;
 
+    private final String compressionType;
+
     private KafkaServerConfig(String ipAddress, String port, int numOfRetries,
                               int maxInFlightRequestsPerConnection,
                               int requestRequiredAcks, String keySerializer,
-                              String valueSerializer) {
+                              String valueSerializer, String compressionType) {
 
         this.ipAddress = checkNotNull(ipAddress, "Ip Address Cannot be null");
         this.port = checkNotNull(port, "Port Number cannot be null");
@@ -50,6 +52,7 @@ public final class KafkaServerConfig {
         this.acksRequired = requestRequiredAcks;
         this.keySerializer = keySerializer;
         this.valueSerializer = valueSerializer;
+        this.compressionType = compressionType;
     }
 
     public final String getIpAddress() {
@@ -80,6 +83,10 @@ public final class KafkaServerConfig {
         return valueSerializer;
     }
 
+    public final String getCompressionType() {
+        return compressionType;
+    }
+
     /**
      * To create an instance of the builder.
      *
@@ -107,6 +114,8 @@ public final class KafkaServerConfig {
 
         private String valueSerializer;
 
+        private String compressionType;
+
         public Builder ipAddress(String ipAddress) {
             this.ipAddress = ipAddress;
             return this;
@@ -143,6 +152,11 @@ public final class KafkaServerConfig {
             return this;
         }
 
+        public Builder compressionType(String compressionType) {
+            this.compressionType = compressionType;
+            return this;
+        }
+
         public KafkaServerConfig build() {
             checkNotNull(ipAddress, "App name cannot be null");
             checkNotNull(port, "Subscriber group ID cannot " + "be " + "null");
@@ -150,7 +164,7 @@ public final class KafkaServerConfig {
             return new KafkaServerConfig(ipAddress, port, numOfRetries,
                                          maxInFlightRequestsPerConnection,
                                          acksRequired, keySerializer,
-                                         valueSerializer);
+                                         valueSerializer, compressionType);
         }
     }
 }
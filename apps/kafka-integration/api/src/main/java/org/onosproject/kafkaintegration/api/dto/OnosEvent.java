@@ -24,6 +24,8 @@ import org.onosproject.event.AbstractEvent;
 // FIXME lack of abstraction in subject type is biting us
 public class OnosEvent extends AbstractEvent<OnosEvent.Type, byte[]> {
 
+    private final String key;
+
     /**
      * Creates a new Onos Event.
      *
@@ -31,7 +33,29 @@ public class OnosEvent extends AbstractEvent<OnosEvent.Type, byte[]> {
      * @param subject Protobuf message corresponding to the Onos Event
      */
     public OnosEvent(Type type, byte[] subject) {
+        this(type, subject, null);
+    }
+
+    /**
+     * Creates a new Onos Event with a partitioning key.
+     *
+     * @param type The Type of Onos Event
+     * @param subject Protobuf message corresponding to the Onos Event
+     * @param key key of the Kafka record; events of the same key keep their
+     *            order, such as the events of a device
+     */
+    public OnosEvent(Type type, byte[] subject, String key) {
         super(type, subject);
+        this.key = key;
+    }
+
+    /**
+     * Returns the key of the Kafka record of this event.
+     *
+     * @return record key, or null if events are not partitioned
+     */
+    public String key() {
+        return key;
     }
 
     /**
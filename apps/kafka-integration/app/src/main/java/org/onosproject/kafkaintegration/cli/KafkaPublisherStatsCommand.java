@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.karaf.shell.commands.Command;
+import org.onosproject.cli.AbstractShellCommand;
+import org.onosproject.kafkaintegration.api.KafkaPublisherStatisticsService;
+
+/**
+ * Shows the statistics of the events published to Kafka.
+ */
+@Command(scope = "onos", name = "kafka-publisher-stats",
+        description = "Shows the statistics of the events published to Kafka")
+public class KafkaPublisherStatsCommand extends AbstractShellCommand {
+
+    private static final String FMT = "publishedEvents=%d, failedEvents=%d, batches=%d, lagMillis=%d";
+
+    @Override
+    protected void execute() {
+        KafkaPublisherStatisticsService service = get(KafkaPublisherStatisticsService.class);
+        if (outputJson()) {
+            print("%s", new ObjectMapper().createObjectNode()
+                    .put("publishedEvents", service.publishedEvents())
+                    .put("failedEvents", service.failedEvents())
+                    .put("batches", service.publishedBatches())
+                    .put("lagMillis", service.lagMillis()));
+        } else {
+            print(FMT, service.publishedEvents(), service.failedEvents(),
+                  service.publishedBatches(), service.lagMillis());
+        }
+    }
+}
@@ -61,10 +61,13 @@ public class EventConversionManager implements EventConversionService {
 
     @Override
     public OnosEvent convertEvent(Event<?, ?> event) {
+        // events are keyed by device, so that the events of a device keep their order
         if (event instanceof DeviceEvent) {
-            return new OnosEvent(DEVICE, deviceEventConverter.convertToProtoMessage(event));
+            return new OnosEvent(DEVICE, deviceEventConverter.convertToProtoMessage(event),
+                                 ((DeviceEvent) event).subject().id().toString());
         } else if (event instanceof LinkEvent) {
-            return new OnosEvent(LINK, linkEventConverter.convertToProtoMessage(event));
+            return new OnosEvent(LINK, linkEventConverter.convertToProtoMessage(event),
+                                 ((LinkEvent) event).subject().src().deviceId().toString());
         } else {
             throw new IllegalArgumentException("Unsupported event type");
         }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.kafkaintegration.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Service;
@@ -31,8 +32,12 @@ import org.onosproject.store.service.WorkQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component(immediate = false)
 @Service
@@ -45,8 +50,20 @@ public class KafkaStorageManager implements KafkaEventStorageService {
 
     private static final String KAFKA_WORK_QUEUE = "Kafka-Work-Queue";
 
+    // bound of the events kept in the work queue, pending or in progress, while Kafka is slow or unreachable
+    private static final long MAX_PENDING_EVENTS = 100000;
+
+    private static final long STATS_REFRESH_MILLIS = 1000;
+
     private WorkQueue<OnosEvent> queue;
 
+    // estimate of the pending events, refreshed from the queue statistics
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private volatile long statsRefreshTime;
+
     @Activate
     protected void activate() {
         queue = storageService.<OnosEvent>getWorkQueue(KAFKA_WORK_QUEUE,
@@ -92,4 +109,57 @@ public class KafkaStorageManager implements KafkaEventStorageService {
         return null;
     }
 
+    @Override
+    public boolean publishEvents(Collection<OnosEvent> events) {
+        refreshPendingEvents();
+        if (pendingEvents.get() >= MAX_PENDING_EVENTS) {
+            if (droppedEvents.getAndAdd(events.size()) == 0) {
+                log.warn("Dropping events, {} events are already pending", pendingEvents.get());
+            }
+            return false;
+        }
+        if (droppedEvents.get() > 0) {
+            log.warn("Dropped {} events while the queue was full", droppedEvents.getAndSet(0));
+        }
+        pendingEvents.addAndGet(events.size());
+        queue.addMultiple(events);
+        log.debug("Published {} Events to Distributed Work Queue", events.size());
+        return true;
+    }
+
+    @Override
+    public List<Task<OnosEvent>> consumeEvents(int maxEvents) {
+        Collection<Task<OnosEvent>> tasks = Collections.emptyList();
+        try {
+            tasks = queue.take(maxEvents).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("consumeEvents()", e);
+        }
+
+        log.debug("Took {} Events from Distributed Work Queue", tasks.size());
+        return ImmutableList.copyOf(tasks);
+    }
+
+    @Override
+    public void completeEvents(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        queue.complete(taskIds);
+        pendingEvents.addAndGet(-taskIds.size());
+        log.debug("Consumed {} Events from Distributed Work Queue", taskIds.size());
+    }
+
+    private void refreshPendingEvents() {
+        long now = System.currentTimeMillis();
+        if (now - statsRefreshTime < STATS_REFRESH_MILLIS) {
+            return;
+        }
+        statsRefreshTime = now;
+        // events taken but not acknowledged by Kafka yet still occupy the queue
+        queue.stats().thenAccept(stats -> pendingEvents.set(stats.totalPending() + stats.totalInProgress()));
+    }
+
 }
@@ -23,6 +23,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.util.AbstractAccumulator;
 import org.onosproject.cluster.LeadershipService;
 import org.onosproject.kafkaintegration.api.EventConversionService;
 import org.onosproject.kafkaintegration.api.EventSubscriptionService;
@@ -37,11 +38,10 @@ import org.onosproject.net.link.LinkService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
+import java.util.Timer;
 
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
-import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.DEVICE;
 import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.LINK;
 
@@ -77,16 +77,23 @@ public class EventListener {
     private final DeviceListener deviceListener = new InternalDeviceListener();
     private final LinkListener linkListener = new InternalLinkListener();
 
-    protected ExecutorService eventExecutor;
-
     private static final String PUBLISHER_TOPIC = "WORK_QUEUE_PUBLISHER";
 
+    private static final int MAX_BATCH_EVENTS = 500;
+    private static final int MAX_BATCH_MS = 50;
+    private static final int MAX_IDLE_MS = 10;
+
+    private Timer timer;
+
+    private EventAccumulator accumulator;
+
     private NodeId localNodeId;
 
     @Activate
     protected void activate() {
 
-        eventExecutor = newSingleThreadScheduledExecutor(groupedThreads("onos/onosEvents", "events-%d", log));
+        timer = new Timer("onos-kafka-event-batching");
+        accumulator = new EventAccumulator();
         deviceService.addListener(deviceListener);
         linkService.addListener(linkListener);
 
@@ -102,12 +109,31 @@ public class EventListener {
         deviceService.removeListener(deviceListener);
         linkService.removeListener(linkListener);
 
-        eventExecutor.shutdownNow();
-        eventExecutor = null;
+        // push the events still accumulated before their timer goes away
+        accumulator.flush();
+        timer.cancel();
+        timer = null;
 
         log.info("Stopped");
     }
 
+    /**
+     * Pushes the converted events to the kafka storage in batches.
+     */
+    private class EventAccumulator extends AbstractAccumulator<OnosEvent> {
+
+        EventAccumulator() {
+            super(timer, MAX_BATCH_EVENTS, MAX_BATCH_MS, MAX_IDLE_MS);
+        }
+
+        @Override
+        public void processItems(List<OnosEvent> events) {
+            if (kafkaStoreService.publishEvents(events)) {
+                log.debug("Pushed {} events to kafka storage", events.size());
+            }
+        }
+    }
+
     private class InternalDeviceListener implements DeviceListener {
 
         @Override
@@ -122,10 +148,8 @@ public class EventListener {
 
             if (!eventSubscriptionService.getEventSubscribers(DEVICE).isEmpty()) {
                 OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    kafkaStoreService.publishEvent(onosEvent);
-                });
-                log.debug("Pushed event {} to kafka storage", onosEvent);
+                accumulator.add(onosEvent);
+                log.debug("Queued event {} for kafka storage", onosEvent);
             }
 
         }
@@ -145,10 +169,8 @@ public class EventListener {
 
             if (!eventSubscriptionService.getEventSubscribers(LINK).isEmpty()) {
                 OnosEvent onosEvent = eventConversionService.convertEvent(event);
-                eventExecutor.execute(() -> {
-                    kafkaStoreService.publishEvent(onosEvent);
-                });
-                log.debug("Pushed event {} to kafka storage", onosEvent);
+                accumulator.add(onosEvent);
+                log.debug("Queued event {} for kafka storage", onosEvent);
             }
 
         }
@@ -15,30 +15,53 @@
  */
 package org.onosproject.kafkaintegration.kafka;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.LeadershipService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.kafkaintegration.api.KafkaConfigService;
 import org.onosproject.kafkaintegration.api.KafkaPublisherService;
 import org.onosproject.kafkaintegration.api.KafkaEventStorageService;
+import org.onosproject.kafkaintegration.api.KafkaPublisherStatisticsService;
+import org.onosproject.store.service.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.onosproject.kafkaintegration.api.dto.OnosEvent;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+
+/**
+ * Publishes the events of the Distributed Work Queue to Kafka in batches.
+ * Events are keyed by device, so that the events of a device go to the same
+ * partition in order. A batch is taken from the queue only once the previous
+ * one is acknowledged, so events wait in the bounded queue while Kafka is
+ * slow. Events are removed from the queue only once Kafka acknowledged them.
+ * When a send fails, no new batch is taken until the unacknowledged events
+ * have been sent again, retried with an exponential backoff.
+ */
 @Component(immediate = true)
-public class EventPublisher {
+@Service
+public class EventPublisher implements KafkaPublisherStatisticsService {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -65,10 +88,23 @@ public class EventPublisher {
 
     // Thread Scheduler Parameters
     private final long delay = 0;
-    private final long period = 1;
+    private final long period = 100;
+
+    static final int MAX_BATCH_EVENTS = 500;
+
+    private static final long MIN_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 10000;
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong publishedBatches = new AtomicLong();
+    private volatile long lagMillis;
 
     private EventCollector eventCollector;
 
+    // events taken from the queue but not acknowledged yet, sent again before any new batch
+    private List<Task<OnosEvent>> unsentTasks = ImmutableList.of();
+
     @Activate
     protected void activate() {
 
@@ -84,7 +120,7 @@ public class EventPublisher {
     private void startCollector() {
         exService = Executors.newSingleThreadScheduledExecutor();
         eventCollector = new EventCollector();
-        exService.scheduleAtFixedRate(eventCollector, delay, period, TimeUnit.SECONDS);
+        exService.scheduleWithFixedDelay(eventCollector, delay, period, TimeUnit.MILLISECONDS);
     }
 
     @Deactivate
@@ -97,10 +133,119 @@ public class EventPublisher {
         exService.shutdown();
     }
 
+    /**
+     * Publishes the pending events of the queue, one batch at a time. Events
+     * left unacknowledged by a previous call are sent again first. Stops at
+     * the first batch that is not fully acknowledged.
+     *
+     * @return true if all the events taken were acknowledged
+     */
+    boolean publishPending() {
+        List<Task<OnosEvent>> tasks = unsentTasks.isEmpty()
+                ? kafkaStore.consumeEvents(MAX_BATCH_EVENTS) : unsentTasks;
+        while (!tasks.isEmpty()) {
+            unsentTasks = publishBatch(tasks);
+            if (!unsentTasks.isEmpty()) {
+                return false;
+            }
+            tasks = kafkaStore.consumeEvents(MAX_BATCH_EVENTS);
+        }
+        return true;
+    }
+
+    /**
+     * Sends a batch of events and removes the acknowledged ones from the queue.
+     *
+     * @param tasks tasks of the events to send, in queue order
+     * @return tasks to send again, in queue order
+     */
+    private List<Task<OnosEvent>> publishBatch(List<Task<OnosEvent>> tasks) {
+        // send all records at once, the producer groups and compresses them per partition
+        List<Future<RecordMetadata>> futures = newArrayListWithCapacity(tasks.size());
+        for (Task<OnosEvent> task : tasks) {
+            OnosEvent onosEvent = task.payload();
+            futures.add(kafkaPublisher.send(new ProducerRecord<>(onosEvent.type().toString(),
+                                                                 onosEvent.key(),
+                                                                 onosEvent.subject())));
+        }
+
+        // Only acknowledged events leave the queue. The events of a device
+        // following a failed one are sent again with it, even if acknowledged,
+        // so that the device's last delivered events stay in order.
+        List<String> acknowledged = newArrayListWithCapacity(tasks.size());
+        List<Task<OnosEvent>> unsent = newArrayList();
+        Set<String> failedKeys = Sets.newHashSet();
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Task<OnosEvent> task = tasks.get(i);
+            if (interrupted) {
+                unsent.add(task);
+                continue;
+            }
+            try {
+                futures.get(i).get();
+                if (failedKeys.contains(task.payload().key())) {
+                    unsent.add(task);
+                } else {
+                    acknowledged.add(task.taskId());
+                }
+            } catch (InterruptedException e) {
+                log.error("Thread interupted");
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                unsent.add(task);
+            } catch (ExecutionException e) {
+                log.debug("Cannot publish data to Kafka - {}", e.getCause());
+                failedEvents.incrementAndGet();
+                failedKeys.add(task.payload().key());
+                unsent.add(task);
+            }
+        }
+        kafkaStore.completeEvents(acknowledged);
+
+        if (!failedKeys.isEmpty()) {
+            log.warn("Cannot publish events of {} devices to Kafka, {} of {} events will be sent again",
+                     failedKeys.size(), unsent.size(), tasks.size());
+        }
+
+        // the first event of the batch waited the longest
+        lagMillis = System.currentTimeMillis() - tasks.get(0).payload().time();
+        publishedEvents.addAndGet(acknowledged.size());
+        publishedBatches.incrementAndGet();
+        log.debug("{} events sent in batch, lag {} ms", acknowledged.size(), lagMillis);
+        return unsent;
+    }
+
+    @Override
+    public long publishedEvents() {
+        return publishedEvents.get();
+    }
+
+    @Override
+    public long failedEvents() {
+        return failedEvents.get();
+    }
+
+    @Override
+    public long publishedBatches() {
+        return publishedBatches.get();
+    }
+
+    @Override
+    public long lagMillis() {
+        return lagMillis;
+    }
+
     private class EventCollector implements Runnable {
 
+        private long retryDelayMillis;
+        private long retryTime;
+
         @Override
         public void run() {
+            if (System.currentTimeMillis() < retryTime) {
+                return;
+            }
 
             // do not allow to proceed without leadership
             NodeId leaderNodeId = leadershipService.getLeader(SUBSCRIBER_TOPIC);
@@ -109,21 +254,13 @@ public class EventPublisher {
                 return;
             }
 
-            try {
-                OnosEvent onosEvent = kafkaStore.consumeEvent();
-
-                if (onosEvent != null) {
-                    kafkaPublisher.send(new ProducerRecord<>(onosEvent.type().toString(),
-                                                            onosEvent.subject())).get();
-
-                    log.info("Event Type - {}, Subject {} sent successfully.",
-                             onosEvent.type(), onosEvent.subject());
-                }
-            } catch (InterruptedException e1) {
-                log.error("Thread interupted");
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e2) {
-                log.error("Cannot publish data to Kafka - {}", e2);
+            if (publishPending()) {
+                retryDelayMillis = 0;
+            } else {
+                // back off before sending the unacknowledged events again
+                retryDelayMillis = Math.min(Math.max(retryDelayMillis * 2, MIN_RETRY_DELAY_MILLIS),
+                                            MAX_RETRY_DELAY_MILLIS);
+                retryTime = System.currentTimeMillis() + retryDelayMillis;
             }
         }
     }
@@ -62,6 +62,7 @@ public class KafkaConfigManager implements KafkaConfigService {
             "org.apache.kafka.common.serialization.StringSerializer";
     private static final String VALUE_SERIALIZER =
             "org.apache.kafka.common.serialization.ByteArraySerializer";
+    private static final String COMPRESSION_TYPE = "gzip";
 
     @Property(name = "bootstrap.servers", value = BOOTSTRAP_SERVERS,
             label = "Default IP/Port pair to establish initial connection to Kafka cluster.")
@@ -89,6 +90,10 @@ public class KafkaConfigManager implements KafkaConfigService {
             label = "Serializer class for value that implements the Serializer interface.")
     protected String valueSerializer = VALUE_SERIALIZER;
 
+    @Property(name = "compression.type", value = COMPRESSION_TYPE,
+            label = "Compression of the batches of events sent to Kafka: none, gzip, snappy or lz4")
+    protected String compressionType = COMPRESSION_TYPE;
+
     @Activate
     protected void activate(ComponentContext context) {
         componentConfigService.registerProperties(getClass());
@@ -113,6 +118,7 @@ public class KafkaConfigManager implements KafkaConfigService {
             requestRequiredAcks = REQUEST_REQUIRED_ACKS;
             keySerializer = KEY_SERIALIZER;
             valueSerializer = VALUE_SERIALIZER;
+            compressionType = COMPRESSION_TYPE;
             return;
         }
 
@@ -122,6 +128,7 @@ public class KafkaConfigManager implements KafkaConfigService {
         int newRetries;
         int newMaxInFlightRequestsPerConnection;
         int newRequestRequiredAcks;
+        String newCompressionType;
         try {
             String s = get(properties, "bootstrap.servers");
             newBootstrapServers =
@@ -141,13 +148,17 @@ public class KafkaConfigManager implements KafkaConfigService {
                     isNullOrEmpty(s) ? requestRequiredAcks
                                      : Integer.parseInt(s.trim());
 
+            s = get(properties, "compression.type");
+            newCompressionType =
+                    isNullOrEmpty(s) ? compressionType : s.trim();
+
         } catch (NumberFormatException | ClassCastException e) {
             return;
         }
 
         if (configModified(newBootstrapServers, newRetries,
                            newMaxInFlightRequestsPerConnection,
-                           newRequestRequiredAcks)) {
+                           newRequestRequiredAcks, newCompressionType)) {
             bootstrapServers = newBootstrapServers;
             kafkaServerIp = bootstrapServers
                     .substring(0, bootstrapServers.indexOf(":"));
@@ -162,19 +173,22 @@ public class KafkaConfigManager implements KafkaConfigService {
 
             requestRequiredAcks = newRequestRequiredAcks;
 
+            compressionType = newCompressionType;
+
             kafkaPublisherAdminService.restart(KafkaServerConfig.builder()
                     .ipAddress(kafkaServerIp).port(kafkaServerPortNum)
                     .numOfRetries(retries)
                     .maxInFlightRequestsPerConnection(maxInFlightRequestsPerConnection)
                     .acksRequired(requestRequiredAcks)
                     .keySerializer(keySerializer)
-                    .valueSerializer(valueSerializer).build());
+                    .valueSerializer(valueSerializer)
+                    .compressionType(compressionType).build());
 
             log.info("Kafka Server Config has been Modified - "
                     + "bootstrapServers {}, retries {}, "
                     + "maxInFlightRequestsPerConnection {}, "
-                    + "requestRequiredAcks {}", bootstrapServers, retries,
-                     maxInFlightRequestsPerConnection, requestRequiredAcks);
+                    + "requestRequiredAcks {}, compressionType {}", bootstrapServers, retries,
+                     maxInFlightRequestsPerConnection, requestRequiredAcks, compressionType);
         } else {
             return;
         }
@@ -182,12 +196,14 @@ public class KafkaConfigManager implements KafkaConfigService {
 
     private boolean configModified(String newBootstrapServers, int newRetries,
                                    int newMaxInFlightRequestsPerConnection,
-                                   int newRequestRequiredAcks) {
+                                   int newRequestRequiredAcks,
+                                   String newCompressionType) {
 
         return !newBootstrapServers.equals(bootstrapServers)
                 || newRetries != retries
                 || newMaxInFlightRequestsPerConnection != maxInFlightRequestsPerConnection
-                || newRequestRequiredAcks != requestRequiredAcks;
+                || newRequestRequiredAcks != requestRequiredAcks
+                || !newCompressionType.equals(compressionType);
 
     }
 
@@ -203,7 +219,8 @@ public class KafkaConfigManager implements KafkaConfigService {
                 .numOfRetries(retries)
                 .maxInFlightRequestsPerConnection(maxInFlightRequestsPerConnection)
                 .acksRequired(requestRequiredAcks).keySerializer(keySerializer)
-                .valueSerializer(valueSerializer).build();
+                .valueSerializer(valueSerializer)
+                .compressionType(compressionType).build();
 
     }
 
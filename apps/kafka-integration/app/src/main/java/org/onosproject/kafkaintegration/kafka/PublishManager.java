@@ -40,6 +40,11 @@ import org.slf4j.LoggerFactory;
 public class PublishManager implements KafkaPublisherService, KafkaPublisherAdminService {
     private KafkaProducer<String, byte[]> kafkaProducer = null;
 
+    // the producer groups the records of each partition into batches of up to
+    // this size, waiting at most the linger time for a batch to fill up
+    private static final int BATCH_SIZE_BYTES = 64 * 1024;
+    private static final int LINGER_MILLIS = 5;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     @Activate
@@ -74,6 +79,11 @@ public class PublishManager implements KafkaPublisherService, KafkaPublisherAdmi
         prop.put("request.required.acks", config.getAcksRequired());
         prop.put("key.serializer", config.getKeySerializer());
         prop.put("value.serializer", config.getValueSerializer());
+        prop.put("batch.size", BATCH_SIZE_BYTES);
+        prop.put("linger.ms", LINGER_MILLIS);
+        if (config.getCompressionType() != null) {
+            prop.put("compression.type", config.getCompressionType());
+        }
 
         kafkaProducer = new KafkaProducer<>(prop);
         log.info("Kafka Producer has started.");
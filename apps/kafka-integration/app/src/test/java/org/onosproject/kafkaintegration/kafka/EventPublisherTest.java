@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.kafkaintegration.kafka;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.kafkaintegration.api.KafkaEventStorageService;
+import org.onosproject.kafkaintegration.api.KafkaPublisherService;
+import org.onosproject.kafkaintegration.api.dto.OnosEvent;
+import org.onosproject.store.service.Task;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.kafkaintegration.api.dto.OnosEvent.Type.DEVICE;
+
+/**
+ * Tests of the batched event publisher against a local broker stand-in.
+ */
+public class EventPublisherTest {
+
+    private static final int DEVICES = 16;
+    private static final int EVENTS = 20000;
+
+    private EventPublisher publisher;
+    private TestStorage storage;
+    private TestBroker broker;
+
+    @Before
+    public void setUp() {
+        storage = new TestStorage();
+        broker = new TestBroker();
+        publisher = new EventPublisher();
+        publisher.kafkaStore = storage;
+        publisher.kafkaPublisher = broker;
+    }
+
+    @After
+    public void tearDown() {
+        broker.executor.shutdownNow();
+    }
+
+    private static OnosEvent event(int device, int sequence) {
+        return new OnosEvent(DEVICE, ByteBuffer.allocate(4).putInt(sequence).array(),
+                             "of:" + device);
+    }
+
+    /**
+     * Tests that all events are published in batches, in order per device,
+     * without taking a new batch before the previous one is acknowledged.
+     */
+    @Test
+    public void testPublishPending() {
+        for (int i = 0; i < EVENTS; i++) {
+            storage.queue.add(event(i % DEVICES, i / DEVICES));
+        }
+
+        assertTrue(publisher.publishPending());
+        assertEquals(EVENTS, publisher.publishedEvents());
+        assertEquals(0, publisher.failedEvents());
+        assertEquals(EVENTS / EventPublisher.MAX_BATCH_EVENTS, publisher.publishedBatches());
+        assertEquals(EVENTS, broker.records.size());
+        assertEquals(EVENTS, storage.completed.size());
+        assertTrue(storage.taken.isEmpty());
+        assertEquals(0, storage.overlappingTakes);
+        assertTrue(publisher.lagMillis() >= 0);
+
+        Map<String, Integer> lastSequences = Maps.newHashMap();
+        for (ProducerRecord<String, byte[]> record : broker.records) {
+            int sequence = ByteBuffer.wrap(record.value()).getInt();
+            Integer last = lastSequences.put(record.key(), sequence);
+            assertEquals(last == null ? 0 : last + 1, sequence);
+        }
+        assertEquals(DEVICES, lastSequences.size());
+    }
+
+    /**
+     * Tests that failed records are counted and stop the publisher from
+     * taking new batches until they are sent again, and that the last
+     * delivered events of each device are in order.
+     */
+    @Test
+    public void testPublishFailures() {
+        broker.failEvery = 10;
+        for (int i = 0; i < 1000; i++) {
+            storage.queue.add(event(i % DEVICES, i / DEVICES));
+        }
+
+        assertFalse(publisher.publishPending());
+
+        assertEquals(EventPublisher.MAX_BATCH_EVENTS / 10, publisher.failedEvents());
+        assertEquals(1000 - EventPublisher.MAX_BATCH_EVENTS, storage.queue.size());
+        assertEquals(EventPublisher.MAX_BATCH_EVENTS, storage.taken.size() + storage.completed.size());
+        for (int i = 0; i < EventPublisher.MAX_BATCH_EVENTS; i += 10) {
+            assertTrue(storage.taken.containsKey(String.valueOf(i)));
+        }
+
+        // the unacknowledged events are sent again before any new batch
+        broker.failEvery = 0;
+        int taken = storage.taken.size();
+        int sent = broker.records.size();
+        assertTrue(publisher.publishPending());
+        assertTrue(storage.taken.isEmpty());
+        assertTrue(storage.queue.isEmpty());
+        assertEquals(1000, storage.completed.size());
+        assertEquals(1000, publisher.publishedEvents());
+        assertEquals(sent + taken + 1000 - EventPublisher.MAX_BATCH_EVENTS, broker.records.size());
+
+        Map<String, Map<Integer, Integer>> lastDeliveries = Maps.newHashMap();
+        for (int i = 0; i < broker.delivered.size(); i++) {
+            ProducerRecord<String, byte[]> record = broker.delivered.get(i);
+            lastDeliveries.computeIfAbsent(record.key(), k -> Maps.newTreeMap())
+                    .put(ByteBuffer.wrap(record.value()).getInt(), i);
+        }
+        assertEquals(DEVICES, lastDeliveries.size());
+        for (Map<Integer, Integer> deliveries : lastDeliveries.values()) {
+            int last = -1;
+            for (int index : deliveries.values()) {
+                assertTrue("events of a device delivered out of order", index > last);
+                last = index;
+            }
+        }
+    }
+
+    /**
+     * In-memory stand-in of the Distributed Work Queue.
+     */
+    private class TestStorage implements KafkaEventStorageService {
+        private final Queue<OnosEvent> queue = new ArrayDeque<>();
+        private final Map<String, OnosEvent> taken = Maps.newHashMap();
+        private final List<String> completed = Lists.newArrayList();
+        private int nextTaskId;
+        private int overlappingTakes;
+
+        @Override
+        public void publishEvent(OnosEvent event) {
+            queue.add(event);
+        }
+
+        @Override
+        public OnosEvent consumeEvent() {
+            return queue.poll();
+        }
+
+        @Override
+        public boolean publishEvents(Collection<OnosEvent> events) {
+            return queue.addAll(events);
+        }
+
+        @Override
+        public List<Task<OnosEvent>> consumeEvents(int maxEvents) {
+            if (broker.unacknowledged.get() > 0) {
+                overlappingTakes++;
+            }
+            List<Task<OnosEvent>> tasks = Lists.newArrayList();
+            while (tasks.size() < maxEvents && !queue.isEmpty()) {
+                Task<OnosEvent> task = new Task<>(String.valueOf(nextTaskId++), queue.poll());
+                taken.put(task.taskId(), task.payload());
+                tasks.add(task);
+            }
+            return tasks;
+        }
+
+        @Override
+        public void completeEvents(Collection<String> taskIds) {
+            taskIds.forEach(taken::remove);
+            completed.addAll(taskIds);
+        }
+    }
+
+    /**
+     * Broker stand-in acknowledging records asynchronously, in order.
+     */
+    private static class TestBroker implements KafkaPublisherService {
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        private final List<ProducerRecord<String, byte[]>> records = Lists.newArrayList();
+        private final List<ProducerRecord<String, byte[]>> delivered = Lists.newArrayList();
+        private final AtomicInteger unacknowledged = new AtomicInteger();
+        private int failEvery;
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, byte[]> record) {
+            CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+            boolean fail = failEvery > 0 && records.size() % failEvery == 0;
+            records.add(record);
+            if (!fail) {
+                delivered.add(record);
+            }
+            unacknowledged.incrementAndGet();
+            executor.schedule(() -> {
+                unacknowledged.decrementAndGet();
+                if (fail) {
+                    future.completeExceptionally(new IllegalStateException("Broker unavailable"));
+                } else {
+                    future.complete(null);
+                }
+            }, 10, TimeUnit.MICROSECONDS);
+            return future;
+        }
+    }
+}
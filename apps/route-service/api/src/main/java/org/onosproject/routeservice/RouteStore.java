@@ -44,6 +44,30 @@ public interface RouteStore extends Store<InternalRouteEvent, RouteStoreDelegate
      */
     void removeRoute(Route route);
 
+    /**
+     * Adds or updates the given routes in the store.
+     * <p>
+     * Stores may commit the routes in batches, which is more efficient than
+     * updating the routes one at a time.
+     *
+     * @param routes routes to add or update
+     */
+    default void updateRoutes(Collection<Route> routes) {
+        routes.forEach(this::updateRoute);
+    }
+
+    /**
+     * Removes the given routes from the store.
+     * <p>
+     * Stores may commit the removals in batches, which is more efficient than
+     * removing the routes one at a time.
+     *
+     * @param routes routes to remove
+     */
+    default void removeRoutes(Collection<Route> routes) {
+        routes.forEach(this::removeRoute);
+    }
+
     /**
      * Replaces the all the routes for a prefix
      * with the given route.
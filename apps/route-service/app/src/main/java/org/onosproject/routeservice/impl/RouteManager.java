@@ -17,6 +17,7 @@
 package org.onosproject.routeservice.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -95,6 +96,9 @@ public class RouteManager implements RouteService, RouteAdminService {
     @GuardedBy(value = "this")
     private Map<RouteListener, ListenerQueue> listeners = new HashMap<>();
 
+    // Next hops that are already being monitored
+    private final Set<IpAddress> monitoredNextHops = Sets.newConcurrentHashSet();
+
     private ThreadFactory threadFactory;
 
     protected Executor hostEventExecutor = newSingleThreadExecutor(
@@ -223,20 +227,25 @@ public class RouteManager implements RouteService, RouteAdminService {
     @Override
     public void update(Collection<Route> routes) {
         synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received update {}", route);
-                routeStore.updateRoute(route);
-            });
+            log.debug("Received update of {} routes", routes.size());
+            routes.stream()
+                    .map(Route::nextHop)
+                    .distinct()
+                    .forEach(this::monitorNextHop);
+            routeStore.updateRoutes(routes);
         }
     }
 
     @Override
     public void withdraw(Collection<Route> routes) {
         synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received withdraw {}", route);
-                routeStore.removeRoute(route);
-            });
+            log.debug("Received withdraw of {} routes", routes.size());
+            routeStore.removeRoutes(routes);
+            routes.stream()
+                    .map(Route::nextHop)
+                    .distinct()
+                    .filter(nextHop -> routeStore.getRoutesForNextHop(nextHop).isEmpty())
+                    .forEach(this::unmonitorNextHop);
         }
     }
 
@@ -247,8 +256,20 @@ public class RouteManager implements RouteService, RouteAdminService {
                 .orElse(null);
     }
 
+    private void monitorNextHop(IpAddress nextHop) {
+        if (monitoredNextHops.add(nextHop)) {
+            hostService.startMonitoringIp(nextHop);
+        }
+    }
+
+    private void unmonitorNextHop(IpAddress nextHop) {
+        if (monitoredNextHops.remove(nextHop)) {
+            hostService.stopMonitoringIp(nextHop);
+        }
+    }
+
     private ResolvedRoute resolve(Route route) {
-        hostService.startMonitoringIp(route.nextHop());
+        monitorNextHop(route.nextHop());
         Set<Host> hosts = hostService.getHostsByIp(route.nextHop());
 
         return hosts.stream().findFirst()
@@ -18,27 +18,38 @@ package org.onosproject.routeservice.store;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
 import org.onosproject.routeservice.InternalRouteEvent;
 import org.onosproject.routeservice.Route;
 import org.onosproject.routeservice.RouteSet;
 import org.onosproject.routeservice.RouteStoreDelegate;
 import org.onosproject.routeservice.RouteTableId;
 import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.AsyncConsistentMultimap;
 import org.onosproject.store.service.ConsistentMultimap;
 import org.onosproject.store.service.DistributedPrimitive;
 import org.onosproject.store.service.MultimapEvent;
 import org.onosproject.store.service.MultimapEventListener;
 import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.StorageException;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.Versioned;
 
@@ -50,10 +61,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class DefaultRouteTable implements RouteTable {
 
     private final RouteTableId id;
+    private final AsyncConsistentMultimap<IpPrefix, Route> asyncRoutes;
     private final ConsistentMultimap<IpPrefix, Route> routes;
     private final RouteStoreDelegate delegate;
     private final ExecutorService executor;
     private final RouteTableListener listener = new RouteTableListener();
+    private final Map<IpPrefix, InternalRouteEvent.Type> pendingEvents = Maps.newConcurrentMap();
+    // Routes of the table indexed by next hop. Kept up to date by the table's
+    // own updates and by the events of the map, which apply every update in
+    // order, including the ones of other nodes.
+    private final Map<IpAddress, Set<Route>> nextHopRoutes = Maps.newConcurrentMap();
 
     private final Consumer<DistributedPrimitive.Status> statusChangeListener;
 
@@ -69,7 +86,8 @@ public class DefaultRouteTable implements RouteTable {
                              StorageService storageService, ExecutorService executor) {
         this.delegate = checkNotNull(delegate);
         this.id = checkNotNull(id);
-        this.routes = buildRouteMap(checkNotNull(storageService));
+        this.asyncRoutes = buildRouteMap(checkNotNull(storageService));
+        this.routes = asyncRoutes.asMultimap();
         this.executor = checkNotNull(executor);
 
         statusChangeListener = status -> {
@@ -79,17 +97,34 @@ public class DefaultRouteTable implements RouteTable {
         };
         routes.addStatusChangeListener(statusChangeListener);
 
-        notifyExistingRoutes();
-
         routes.addListener(listener, executor);
+
+        notifyExistingRoutes();
     }
 
     private void notifyExistingRoutes() {
-        getRoutes().forEach(routeSet -> delegate.notify(
-            new InternalRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, routeSet)));
+        getRoutes().forEach(routeSet -> {
+            routeSet.routes().forEach(this::indexRoute);
+            delegate.notify(new InternalRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, routeSet));
+        });
     }
 
-    private ConsistentMultimap<IpPrefix, Route> buildRouteMap(StorageService storageService) {
+    private void indexRoute(Route route) {
+        nextHopRoutes.compute(route.nextHop(), (nextHop, indexed) -> {
+            Set<Route> updated = indexed != null ? indexed : Sets.newConcurrentHashSet();
+            updated.add(route);
+            return updated;
+        });
+    }
+
+    private void unindexRoute(Route route) {
+        nextHopRoutes.computeIfPresent(route.nextHop(), (nextHop, indexed) -> {
+            indexed.remove(route);
+            return indexed.isEmpty() ? null : indexed;
+        });
+    }
+
+    private AsyncConsistentMultimap<IpPrefix, Route> buildRouteMap(StorageService storageService) {
         KryoNamespace routeTableSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API)
                 .register(Route.class)
@@ -99,7 +134,7 @@ public class DefaultRouteTable implements RouteTable {
                 .withName("onos-routes-" + id.name())
                 .withRelaxedReadConsistency()
                 .withSerializer(Serializer.using(routeTableSerializer))
-                .build();
+                .buildMultimap();
     }
 
     @Override
@@ -122,16 +157,58 @@ public class DefaultRouteTable implements RouteTable {
     @Override
     public void update(Route route) {
         routes.put(route.prefix(), route);
+        indexRoute(route);
     }
 
     @Override
     public void remove(Route route) {
         routes.remove(route.prefix(), route);
+        unindexRoute(route);
+    }
+
+    @Override
+    public void update(Collection<Route> routes) {
+        // Commits the routes of each prefix at once, pipelining the commits
+        complete(groupByPrefix(routes).entrySet().stream()
+                         .map(entry -> asyncRoutes.putAll(entry.getKey(), entry.getValue()))
+                         .collect(Collectors.toList()));
+        routes.forEach(this::indexRoute);
+    }
+
+    @Override
+    public void remove(Collection<Route> routes) {
+        complete(groupByPrefix(routes).entrySet().stream()
+                         .map(entry -> asyncRoutes.removeAll(entry.getKey(), entry.getValue()))
+                         .collect(Collectors.toList()));
+        routes.forEach(this::unindexRoute);
+    }
+
+    private Map<IpPrefix, List<Route>> groupByPrefix(Collection<Route> routes) {
+        return routes.stream().collect(Collectors.groupingBy(Route::prefix));
+    }
+
+    private void complete(List<CompletableFuture<Boolean>> futures) {
+        try {
+            Tools.allOf(futures).get(DistributedPrimitive.DEFAULT_OPERATION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException.Interrupted();
+        } catch (TimeoutException e) {
+            throw new StorageException.Timeout();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new StorageException(e.getCause());
+        }
     }
 
     @Override
     public void replace(Route route) {
-        routes.replaceValues(route.prefix(), Sets.newHashSet(route));
+        Versioned<Collection<? extends Route>> replaced =
+                routes.replaceValues(route.prefix(), Sets.newHashSet(route));
+        if (replaced != null) {
+            replaced.value().forEach(this::unindexRoute);
+        }
+        indexRoute(route);
     }
 
     @Override
@@ -157,36 +234,43 @@ public class DefaultRouteTable implements RouteTable {
 
     @Override
     public Collection<Route> getRoutesForNextHop(IpAddress nextHop) {
-        return routes.stream()
-            .map(Map.Entry::getValue)
-            .filter(r -> r.nextHop().equals(nextHop))
-            .collect(Collectors.toSet());
+        Set<Route> indexed = nextHopRoutes.get(nextHop);
+        return indexed != null ? ImmutableSet.copyOf(indexed) : ImmutableSet.of();
     }
 
     private class RouteTableListener
             implements MultimapEventListener<IpPrefix, Route> {
 
-        private InternalRouteEvent createRouteEvent(
-                InternalRouteEvent.Type type, MultimapEvent<IpPrefix, Route> event) {
-            Collection<? extends Route> currentRoutes = Versioned.valueOrNull(routes.get(event.key()));
+        private InternalRouteEvent createRouteEvent(InternalRouteEvent.Type type, IpPrefix prefix) {
+            Collection<? extends Route> currentRoutes = Versioned.valueOrNull(routes.get(prefix));
             return new InternalRouteEvent(type, new RouteSet(
-                id, event.key(), currentRoutes != null ? ImmutableSet.copyOf(currentRoutes) : Collections.emptySet()));
+                id, prefix, currentRoutes != null ? ImmutableSet.copyOf(currentRoutes) : Collections.emptySet()));
         }
 
         @Override
         public void event(MultimapEvent<IpPrefix, Route> event) {
-            InternalRouteEvent ire = null;
+            InternalRouteEvent.Type type;
             switch (event.type()) {
             case INSERT:
-                ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, event);
+                type = InternalRouteEvent.Type.ROUTE_ADDED;
+                indexRoute(event.newValue());
                 break;
             case REMOVE:
-                ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_REMOVED, event);
+                type = InternalRouteEvent.Type.ROUTE_REMOVED;
+                unindexRoute(event.oldValue());
                 break;
             default:
-                break;
+                return;
+            }
+            // Route events carry the routes of the prefix at the time they are
+            // delivered, so further changes to a prefix with an event pending
+            // are coalesced into that event.
+            if (pendingEvents.put(event.key(), type) == null) {
+                executor.execute(() -> {
+                    InternalRouteEvent.Type latestType = pendingEvents.remove(event.key());
+                    delegate.notify(createRouteEvent(latestType, event.key()));
+                });
             }
-            delegate.notify(ire);
         }
     }
 
@@ -42,6 +42,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.onlab.util.Tools.groupedThreads;
 
@@ -120,6 +121,20 @@ public class DistributedRouteStore extends AbstractStore<InternalRouteEvent, Rou
         getDefaultRouteTable(route).remove(route);
     }
 
+    @Override
+    public void updateRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach((table, tableRoutes) -> table.update(tableRoutes));
+    }
+
+    @Override
+    public void removeRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach((table, tableRoutes) -> table.remove(tableRoutes));
+    }
+
     @Override
     public void replaceRoute(Route route) {
         getDefaultRouteTable(route).replace(route);
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Path-compressed binary trie mapping IP prefixes to values, supporting
+ * longest prefix match lookups.
+ * <p>
+ * The trie is immutable under the hood: updates copy the nodes along the path
+ * to the updated prefix and publish a new root, so lookups never block and do
+ * not allocate beyond the octets of the address looked up. Updates are
+ * serialized. A trie is meant to hold prefixes of a single IP version.
+ *
+ * @param <V> type of the values
+ */
+public final class IpPrefixTrie<V> {
+
+    private volatile Node<V> root;
+    private volatile int size;
+
+    /**
+     * Returns the number of prefixes in the trie.
+     *
+     * @return number of prefixes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the given value with the given prefix.
+     *
+     * @param prefix IP prefix
+     * @param value  value
+     * @return value previously associated with the prefix, or null if none
+     */
+    public synchronized V put(IpPrefix prefix, V value) {
+        Update<V> update = new Update<>();
+        root = insert(root, prefix.address().toOctets(), prefix.prefixLength(), value, update);
+        if (update.oldValue == null) {
+            size++;
+        }
+        return update.oldValue;
+    }
+
+    /**
+     * Removes the value associated with the given prefix.
+     *
+     * @param prefix IP prefix
+     * @return value that was associated with the prefix, or null if none
+     */
+    public synchronized V remove(IpPrefix prefix) {
+        Update<V> update = new Update<>();
+        root = delete(root, prefix.address().toOctets(), prefix.prefixLength(), update);
+        if (update.oldValue != null) {
+            size--;
+        }
+        return update.oldValue;
+    }
+
+    /**
+     * Returns the value associated with exactly the given prefix.
+     *
+     * @param prefix IP prefix
+     * @return value associated with the prefix, or null if none
+     */
+    public V get(IpPrefix prefix) {
+        byte[] key = prefix.address().toOctets();
+        int length = prefix.prefixLength();
+        Node<V> node = root;
+        while (node != null && node.length <= length && node.matches(key)) {
+            if (node.length == length) {
+                return node.value;
+            }
+            node = node.child(bit(key, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value associated with the most specific prefix containing
+     * the given address.
+     *
+     * @param ip IP address
+     * @return value of the longest matching prefix, or null if none
+     */
+    public V longestPrefixMatch(IpAddress ip) {
+        byte[] key = ip.toOctets();
+        int length = key.length * Byte.SIZE;
+        V match = null;
+        Node<V> node = root;
+        while (node != null && node.matches(key)) {
+            if (node.value != null) {
+                match = node.value;
+            }
+            if (node.length == length) {
+                break;
+            }
+            node = node.child(bit(key, node.length));
+        }
+        return match;
+    }
+
+    /**
+     * Returns the values in the trie, ordered such that each prefix comes
+     * before the more specific prefixes it contains.
+     *
+     * @return values in the trie
+     */
+    public List<V> values() {
+        ImmutableList.Builder<V> values = ImmutableList.builder();
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.pop();
+            if (node.value != null) {
+                values.add(node.value);
+            }
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+        }
+        return values.build();
+    }
+
+    private static <V> Node<V> insert(Node<V> node, byte[] key, int length, V value, Update<V> update) {
+        if (node == null) {
+            return new Node<>(key, length, value, null, null);
+        }
+        int common = Math.min(commonLength(node.bits, key), Math.min(node.length, length));
+        if (common == node.length && common == length) {
+            update.oldValue = node.value;
+            return new Node<>(node.bits, node.length, value, node.left, node.right);
+        }
+        if (common == node.length) {
+            boolean bit = bit(key, node.length);
+            return node.withChild(bit, insert(node.child(bit), key, length, value, update));
+        }
+        if (common == length) {
+            return bit(node.bits, length)
+                    ? new Node<>(key, length, value, null, node)
+                    : new Node<>(key, length, value, node, null);
+        }
+        Node<V> leaf = new Node<>(key, length, value, null, null);
+        return bit(key, common)
+                ? new Node<>(key, common, null, node, leaf)
+                : new Node<>(key, common, null, leaf, node);
+    }
+
+    private static <V> Node<V> delete(Node<V> node, byte[] key, int length, Update<V> update) {
+        if (node == null || node.length > length || !node.matches(key)) {
+            return node;
+        }
+        if (node.length == length) {
+            if (node.value == null) {
+                return node;
+            }
+            update.oldValue = node.value;
+            return compact(new Node<>(node.bits, node.length, null, node.left, node.right));
+        }
+        boolean bit = bit(key, node.length);
+        Node<V> child = node.child(bit);
+        Node<V> newChild = delete(child, key, length, update);
+        return newChild == child ? node : compact(node.withChild(bit, newChild));
+    }
+
+    // Removes a node carrying no value unless it branches.
+    private static <V> Node<V> compact(Node<V> node) {
+        if (node.value != null || (node.left != null && node.right != null)) {
+            return node;
+        }
+        return node.left != null ? node.left : node.right;
+    }
+
+    private static boolean bit(byte[] bits, int index) {
+        return (bits[index / Byte.SIZE] & (0x80 >>> (index % Byte.SIZE))) != 0;
+    }
+
+    private static int commonLength(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] ^ b[i]) & 0xff;
+            if (diff != 0) {
+                return i * Byte.SIZE + Integer.numberOfLeadingZeros(diff) - (Integer.SIZE - Byte.SIZE);
+            }
+        }
+        return length * Byte.SIZE;
+    }
+
+    /**
+     * Immutable trie node, holding the first bits of the prefixes below it.
+     */
+    private static final class Node<V> {
+        private final byte[] bits;
+        private final int length;
+        private final V value;
+        private final Node<V> left;
+        private final Node<V> right;
+
+        private Node(byte[] bits, int length, V value, Node<V> left, Node<V> right) {
+            this.bits = bits;
+            this.length = length;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+
+        private Node<V> child(boolean bit) {
+            return bit ? right : left;
+        }
+
+        private Node<V> withChild(boolean bit, Node<V> child) {
+            return bit ? new Node<>(bits, length, value, left, child)
+                    : new Node<>(bits, length, value, child, right);
+        }
+
+        // Returns whether the key starts with the bits of this node.
+        private boolean matches(byte[] key) {
+            int bytes = length / Byte.SIZE;
+            for (int i = 0; i < bytes; i++) {
+                if (bits[i] != key[i]) {
+                    return false;
+                }
+            }
+            int remainder = length % Byte.SIZE;
+            if (remainder == 0) {
+                return true;
+            }
+            int mask = 0xff << (Byte.SIZE - remainder);
+            return ((bits[bytes] ^ key[bytes]) & mask) == 0;
+        }
+    }
+
+    /**
+     * Outcome of an update.
+     */
+    private static final class Update<V> {
+        private V oldValue;
+    }
+}
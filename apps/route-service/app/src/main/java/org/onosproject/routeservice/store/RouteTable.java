@@ -43,6 +43,24 @@ public interface RouteTable {
      */
     void remove(Route route);
 
+    /**
+     * Adds or updates the given routes in the route table.
+     *
+     * @param routes routes to add or update
+     */
+    default void update(Collection<Route> routes) {
+        routes.forEach(this::update);
+    }
+
+    /**
+     * Removes the given routes from the route table.
+     *
+     * @param routes routes to remove
+     */
+    default void remove(Collection<Route> routes) {
+        routes.forEach(this::remove);
+    }
+
     /**
      * Replaces a route in the route table.
      *
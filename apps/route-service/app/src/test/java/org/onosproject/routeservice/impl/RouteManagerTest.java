@@ -18,6 +18,7 @@ package org.onosproject.routeservice.impl;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
@@ -54,6 +55,8 @@ import org.onosproject.store.service.DistributedLockBuilder;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WorkQueue;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import static org.easymock.EasyMock.anyObject;
@@ -65,6 +68,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Unit tests for the route manager.
@@ -95,6 +99,7 @@ public class RouteManagerTest {
     private HostListener hostListener;
 
     private RouteManager routeManager;
+    private TestRouteStore routeStore;
 
     @Before
     public void setUp() throws Exception {
@@ -125,7 +130,7 @@ public class RouteManagerTest {
                 .andReturn(createNiceMock(WorkQueue.class));
         replay(routeManager.storageService);
 
-        LocalRouteStore routeStore = new LocalRouteStore();
+        routeStore = new TestRouteStore();
         routeStore.activate();
         routeManager.routeStore = routeStore;
         routeManager.activate();
@@ -170,6 +175,8 @@ public class RouteManagerTest {
                 .andReturn(Sets.newHashSet(host)).anyTimes();
         hostService.startMonitoringIp(ip);
         expectLastCall().anyTimes();
+        hostService.stopMonitoringIp(ip);
+        expectLastCall().anyTimes();
     }
 
     /**
@@ -240,6 +247,73 @@ public class RouteManagerTest {
         verify(routeListener);
     }
 
+    /**
+     * Tests adding several routes to the route manager at once, and verifies
+     * that they are given to the route store in a single batch and that one
+     * event is sent per prefix.
+     */
+    @Test
+    public void testBulkRouteAdd() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+        Route route3 = new Route(Route.Source.STATIC, V6_PREFIX1, V6_NEXT_HOP1);
+        ResolvedRoute resolvedRoute1 = new ResolvedRoute(route1, MAC1, CP1);
+        ResolvedRoute resolvedRoute2 = new ResolvedRoute(route2, MAC1, CP1);
+        ResolvedRoute resolvedRoute3 = new ResolvedRoute(route3, MAC3, CP1);
+
+        reset(routeListener);
+        routeListener.event(event(RouteEvent.Type.ROUTE_ADDED, resolvedRoute1, null,
+                Sets.newHashSet(resolvedRoute1), null));
+        routeListener.event(event(RouteEvent.Type.ROUTE_ADDED, resolvedRoute2, null,
+                Sets.newHashSet(resolvedRoute2), null));
+        routeListener.event(event(RouteEvent.Type.ROUTE_ADDED, resolvedRoute3, null,
+                Sets.newHashSet(resolvedRoute3), null));
+        replay(routeListener);
+
+        List<RouteEvent> events = Lists.newArrayList();
+        routeManager.addListener(events::add);
+
+        routeManager.update(ImmutableList.of(route1, route2, route3));
+
+        verify(routeListener);
+        assertEquals("incorrect store batches", ImmutableList.of(ImmutableList.of(route1, route2, route3)),
+                     routeStore.updateBatches);
+        assertEquals("incorrect event count", 3, events.size());
+    }
+
+    /**
+     * Tests that a next hop stops being monitored once no route points to
+     * it any more.
+     */
+    @Test
+    public void testNextHopMonitoring() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+
+        reset(routeListener);
+        routeListener.event(anyObject(RouteEvent.class));
+        expectLastCall().anyTimes();
+        replay(routeListener);
+
+        reset(hostService);
+        expect(hostService.getHostsByIp(V4_NEXT_HOP1))
+                .andReturn(Sets.newHashSet(createHost(MAC1, V4_NEXT_HOP1))).anyTimes();
+        hostService.startMonitoringIp(V4_NEXT_HOP1);
+        expectLastCall().times(2);
+        hostService.stopMonitoringIp(V4_NEXT_HOP1);
+        expectLastCall().once();
+        replay(hostService);
+
+        routeManager.update(ImmutableList.of(route1, route2));
+        // the next hop is still used by the second route
+        routeManager.withdraw(Collections.singleton(route1));
+        routeManager.withdraw(Collections.singleton(route2));
+        // the next hop is monitored again once a route uses it
+        routeManager.update(Collections.singleton(route1));
+
+        verify(hostService);
+    }
+
     /**
      * Tests updating routes in the route manager.
      */
@@ -399,6 +473,19 @@ public class RouteManagerTest {
         }
     }
 
+    /**
+     * Test route store recording the batches of routes it is given.
+     */
+    private static class TestRouteStore extends LocalRouteStore {
+        private final List<List<Route>> updateBatches = Lists.newArrayList();
+
+        @Override
+        public void updateRoutes(Collection<Route> routes) {
+            updateBatches.add(ImmutableList.copyOf(routes));
+            super.updateRoutes(routes);
+        }
+    }
+
     /**
      * Test route manager that extends the real route manager and injects a test
      * listener queue instead of the real listener queue.
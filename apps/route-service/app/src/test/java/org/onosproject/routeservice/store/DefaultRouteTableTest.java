@@ -0,0 +1,299 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.InternalRouteEvent;
+import org.onosproject.routeservice.Route;
+import org.onosproject.routeservice.RouteTableId;
+import org.onosproject.store.service.AsyncConsistentMultimap;
+import org.onosproject.store.service.ConsistentMultimap;
+import org.onosproject.store.service.ConsistentMultimapBuilder;
+import org.onosproject.store.service.MultimapEvent;
+import org.onosproject.store.service.MultimapEventListener;
+import org.onosproject.store.service.StorageServiceAdapter;
+import org.onosproject.store.service.Versioned;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the default route table.
+ */
+public class DefaultRouteTableTest {
+
+    private static final RouteTableId TABLE_ID = new RouteTableId("ipv4");
+
+    private static final IpPrefix V4_PREFIX1 = Ip4Prefix.valueOf("1.1.1.0/24");
+    private static final IpPrefix V4_PREFIX2 = Ip4Prefix.valueOf("2.2.2.0/24");
+
+    private static final Ip4Address V4_NEXT_HOP1 = Ip4Address.valueOf("192.168.10.1");
+    private static final Ip4Address V4_NEXT_HOP2 = Ip4Address.valueOf("192.168.20.1");
+
+    private ConsistentMultimap<IpPrefix, Route> routes;
+    private AsyncConsistentMultimap<IpPrefix, Route> asyncRoutes;
+    private final Capture<MultimapEventListener<IpPrefix, Route>> listener = new Capture<>();
+    private final List<InternalRouteEvent> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        routes = createNiceMock(ConsistentMultimap.class);
+        expect(routes.stream()).andReturn(Stream.empty()).anyTimes();
+        routes.addListener(capture(listener), anyObject(Executor.class));
+        expectLastCall().once();
+
+        asyncRoutes = createMock(AsyncConsistentMultimap.class);
+        expect(asyncRoutes.asMultimap()).andReturn(routes);
+    }
+
+    /**
+     * Creates the route table once the expectations on the multimap are set.
+     *
+     * @return route table backed by the mocked multimap
+     */
+    private DefaultRouteTable createRouteTable() {
+        return createRouteTable(MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Creates the route table once the expectations on the multimap are set.
+     *
+     * @param executor executor of the route table
+     * @return route table backed by the mocked multimap
+     */
+    private DefaultRouteTable createRouteTable(ExecutorService executor) {
+        replay(routes, asyncRoutes);
+        return new DefaultRouteTable(TABLE_ID, events::add, new TestStorageService(), executor);
+    }
+
+    private static MultimapEvent<IpPrefix, Route> insert(Route route) {
+        return new MultimapEvent<>("onos-routes-ipv4", route.prefix(), route, null);
+    }
+
+    private static MultimapEvent<IpPrefix, Route> remove(Route route) {
+        return new MultimapEvent<>("onos-routes-ipv4", route.prefix(), null, route);
+    }
+
+    /**
+     * Tests that updating several routes commits the routes of each prefix
+     * in a single operation.
+     */
+    @Test
+    public void testBatchUpdate() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP2);
+        Route route3 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+
+        expect(asyncRoutes.putAll(eq(V4_PREFIX1), eq(ImmutableList.of(route1, route2))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        expect(asyncRoutes.putAll(eq(V4_PREFIX2), eq(ImmutableList.of(route3))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        DefaultRouteTable routeTable = createRouteTable();
+
+        routeTable.update(ImmutableList.of(route1, route2, route3));
+
+        verify(asyncRoutes);
+    }
+
+    /**
+     * Tests that removing several routes commits the routes of each prefix
+     * in a single operation.
+     */
+    @Test
+    public void testBatchRemove() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+
+        expect(asyncRoutes.removeAll(eq(V4_PREFIX1), eq(ImmutableList.of(route1))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        expect(asyncRoutes.removeAll(eq(V4_PREFIX2), eq(ImmutableList.of(route2))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        DefaultRouteTable routeTable = createRouteTable();
+
+        routeTable.remove(ImmutableList.of(route1, route2));
+
+        verify(asyncRoutes);
+    }
+
+    /**
+     * Tests that the routes of the table are indexed by next hop, both for
+     * the updates of the table itself and for the updates of other nodes.
+     */
+    @Test
+    public void testRoutesForNextHop() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+        Route route3 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP2);
+
+        expect(asyncRoutes.putAll(eq(V4_PREFIX1), eq(ImmutableList.of(route1))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        expect(asyncRoutes.removeAll(eq(V4_PREFIX1), eq(ImmutableList.of(route1))))
+                .andReturn(CompletableFuture.completedFuture(true)).once();
+        DefaultRouteTable routeTable = createRouteTable();
+
+        routeTable.update(ImmutableList.of(route1));
+        // routes added by other nodes
+        listener.getValue().event(insert(route2));
+        listener.getValue().event(insert(route3));
+        assertEquals(ImmutableSet.of(route1, route2), routeTable.getRoutesForNextHop(V4_NEXT_HOP1));
+        assertEquals(ImmutableSet.of(route3), routeTable.getRoutesForNextHop(V4_NEXT_HOP2));
+
+        routeTable.remove(ImmutableList.of(route1));
+        // late event of the local update, followed by the one of the removal
+        listener.getValue().event(insert(route1));
+        listener.getValue().event(remove(route1));
+        listener.getValue().event(remove(route2));
+        assertTrue(routeTable.getRoutesForNextHop(V4_NEXT_HOP1).isEmpty());
+        assertEquals(ImmutableSet.of(route3), routeTable.getRoutesForNextHop(V4_NEXT_HOP2));
+
+        verify(asyncRoutes);
+    }
+
+    /**
+     * Tests that the updates of a prefix which has an event pending are
+     * coalesced into that event, while other prefixes get their own events.
+     */
+    @Test
+    public void testEventsCoalescedPerPrefix() {
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP2);
+        Route route3 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP1);
+
+        expect(routes.get(V4_PREFIX1))
+                .andReturn(new Versioned<>(ImmutableSet.of(route1, route2), 2)).anyTimes();
+        expect(routes.get(V4_PREFIX2))
+                .andReturn(new Versioned<>(ImmutableSet.of(route3), 3)).anyTimes();
+        QueuedExecutorService executor = new QueuedExecutorService();
+        createRouteTable(executor);
+
+        listener.getValue().event(insert(route1));
+        listener.getValue().event(insert(route3));
+        listener.getValue().event(insert(route2));
+        executor.runAll();
+
+        assertEquals(2, events.size());
+        assertEquals(InternalRouteEvent.Type.ROUTE_ADDED, events.get(0).type());
+        assertEquals(V4_PREFIX1, events.get(0).subject().prefix());
+        assertEquals(ImmutableSet.of(route1, route2), events.get(0).subject().routes());
+        assertEquals(V4_PREFIX2, events.get(1).subject().prefix());
+        assertEquals(ImmutableSet.of(route3), events.get(1).subject().routes());
+
+        // a prefix without a pending event gets a new one
+        listener.getValue().event(remove(route2));
+        executor.runAll();
+        assertEquals(3, events.size());
+        assertEquals(InternalRouteEvent.Type.ROUTE_REMOVED, events.get(2).type());
+        assertEquals(V4_PREFIX1, events.get(2).subject().prefix());
+    }
+
+    /**
+     * Executor service running the submitted tasks only when asked to.
+     */
+    private static class QueuedExecutorService extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return ImmutableList.copyOf(tasks);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+
+    /**
+     * Storage service handing out the mocked route multimap.
+     */
+    private class TestStorageService extends StorageServiceAdapter {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> ConsistentMultimapBuilder<K, V> consistentMultimapBuilder() {
+            return (ConsistentMultimapBuilder<K, V>) new TestMultimapBuilder();
+        }
+    }
+
+    /**
+     * Multimap builder returning the mocked route multimap.
+     */
+    private class TestMultimapBuilder extends ConsistentMultimapBuilder<IpPrefix, Route> {
+        @Override
+        public AsyncConsistentMultimap<IpPrefix, Route> buildMultimap() {
+            return asyncRoutes;
+        }
+
+        @Override
+        public ConsistentMultimap<IpPrefix, Route> build() {
+            return asyncRoutes.asMultimap();
+        }
+    }
+}
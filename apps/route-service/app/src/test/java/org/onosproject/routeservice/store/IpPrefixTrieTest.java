@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the IP prefix trie.
+ */
+public class IpPrefixTrieTest {
+
+    private static final IpPrefix DEFAULT = IpPrefix.valueOf("0.0.0.0/0");
+    private static final IpPrefix P8 = IpPrefix.valueOf("10.0.0.0/8");
+    private static final IpPrefix P16 = IpPrefix.valueOf("10.1.0.0/16");
+    private static final IpPrefix P24 = IpPrefix.valueOf("10.1.2.0/24");
+    private static final IpPrefix OTHER = IpPrefix.valueOf("192.168.0.0/16");
+
+    @Test
+    public void testLongestPrefixMatch() {
+        IpPrefixTrie<IpPrefix> trie = new IpPrefixTrie<>();
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("10.1.2.3")));
+
+        trie.put(P16, P16);
+        trie.put(P24, P24);
+        trie.put(OTHER, OTHER);
+        assertEquals(P24, trie.longestPrefixMatch(IpAddress.valueOf("10.1.2.3")));
+        assertEquals(P16, trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")));
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("10.2.0.1")));
+
+        trie.put(DEFAULT, DEFAULT);
+        trie.put(P8, P8);
+        assertEquals(P8, trie.longestPrefixMatch(IpAddress.valueOf("10.2.0.1")));
+        assertEquals(DEFAULT, trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")));
+        assertEquals(OTHER, trie.longestPrefixMatch(IpAddress.valueOf("192.168.255.255")));
+    }
+
+    @Test
+    public void testUpdates() {
+        IpPrefixTrie<String> trie = new IpPrefixTrie<>();
+        assertNull(trie.put(P24, "a"));
+        assertNull(trie.put(P8, "b"));
+        assertEquals("a", trie.put(P24, "c"));
+        assertEquals(2, trie.size());
+        assertEquals("c", trie.get(P24));
+        assertNull(trie.get(P16));
+
+        assertNull(trie.remove(P16));
+        assertEquals("b", trie.remove(P8));
+        assertNull(trie.get(P8));
+        assertEquals("c", trie.get(P24));
+        assertEquals(1, trie.size());
+        assertEquals("c", trie.longestPrefixMatch(IpAddress.valueOf("10.1.2.3")));
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")));
+    }
+
+    @Test
+    public void testValues() {
+        IpPrefixTrie<IpPrefix> trie = new IpPrefixTrie<>();
+        ImmutableList.of(OTHER, P24, DEFAULT, P8, P16).forEach(p -> trie.put(p, p));
+        assertEquals(ImmutableList.of(DEFAULT, P8, P16, P24, OTHER), trie.values());
+    }
+
+    @Test
+    public void testIp6() {
+        IpPrefixTrie<IpPrefix> trie = new IpPrefixTrie<>();
+        IpPrefix p32 = IpPrefix.valueOf("2001:db8::/32");
+        IpPrefix p64 = IpPrefix.valueOf("2001:db8:0:1::/64");
+        IpPrefix host = IpPrefix.valueOf("2001:db8:0:1::1/128");
+        ImmutableList.of(p32, p64, host).forEach(p -> trie.put(p, p));
+        assertEquals(host, trie.longestPrefixMatch(IpAddress.valueOf("2001:db8:0:1::1")));
+        assertEquals(p64, trie.longestPrefixMatch(IpAddress.valueOf("2001:db8:0:1::2")));
+        assertEquals(p32, trie.longestPrefixMatch(IpAddress.valueOf("2001:db8:ffff::1")));
+        assertNull(trie.longestPrefixMatch(IpAddress.valueOf("2001:db9::1")));
+    }
+
+    @Test
+    public void testRandomPrefixes() {
+        Random random = new Random(0);
+        IpPrefixTrie<IpPrefix> trie = new IpPrefixTrie<>();
+        Map<IpPrefix, IpPrefix> prefixes = Maps.newHashMap();
+        for (int i = 0; i < 2000; i++) {
+            IpPrefix prefix = IpPrefix.valueOf(random.nextInt(), random.nextInt(33));
+            if (random.nextInt(4) == 0) {
+                assertEquals(prefixes.remove(prefix), trie.remove(prefix));
+            } else {
+                assertEquals(prefixes.put(prefix, prefix), trie.put(prefix, prefix));
+            }
+        }
+        assertEquals(prefixes.size(), trie.size());
+        assertEquals(prefixes.size(), trie.values().size());
+
+        for (int i = 0; i < 2000; i++) {
+            IpAddress ip = IpAddress.valueOf(random.nextInt());
+            assertEquals(bruteForceMatch(prefixes.keySet(), ip), trie.longestPrefixMatch(ip));
+        }
+        List<IpPrefix> keys = ImmutableList.copyOf(prefixes.keySet());
+        keys.forEach(prefix -> assertEquals(prefix, trie.get(prefix)));
+    }
+
+    private static IpPrefix bruteForceMatch(Iterable<IpPrefix> prefixes, IpAddress ip) {
+        IpPrefix match = null;
+        for (IpPrefix prefix : prefixes) {
+            if (prefix.contains(ip) && (match == null || prefix.prefixLength() > match.prefixLength())) {
+                match = prefix;
+            }
+        }
+        return match;
+    }
+}
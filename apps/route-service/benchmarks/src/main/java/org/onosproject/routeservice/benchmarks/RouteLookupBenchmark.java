@@ -0,0 +1,205 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.routeservice.benchmarks;
+
+import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
+import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
+import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.RouteTools;
+import org.onosproject.routeservice.store.IpPrefixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the longest prefix match and of the updates of the route
+ * stores, with the IP prefix trie and with the inverted radix tree keyed by
+ * the binary string of the prefixes that the stores used before.
+ * <p>
+ * As in the stores, each IP version has its own trie and radix tree. Both
+ * tables are loaded whatever the version measured, with prefixes generated
+ * from a constant seed and a prefix length distribution close to the one of
+ * the Internet tables: mostly /24 for IPv4, mostly /48 then /32 for IPv6.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteLookupBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final long SEED = 42;
+
+    // prefix lengths and their cumulative share of the table, in percent
+    private static final int[] LENGTHS_4 = {24, 23, 22, 21, 20, 19, 18, 16};
+    private static final int[] SHARES_4 = {58, 67, 78, 83, 88, 92, 95, 100};
+    private static final int[] LENGTHS_6 = {48, 32, 44, 40, 36, 29, 46, 56};
+    private static final int[] SHARES_6 = {45, 62, 71, 79, 85, 89, 95, 100};
+
+    /**
+     * Sizes of the IPv4 and IPv6 tables.
+     */
+    public enum Table {
+        SMALL(10_000, 2_000),
+        INTERNET(900_000, 200_000);
+
+        private final int ip4Prefixes;
+        private final int ip6Prefixes;
+
+        Table(int ip4Prefixes, int ip6Prefixes) {
+            this.ip4Prefixes = ip4Prefixes;
+            this.ip6Prefixes = ip6Prefixes;
+        }
+    }
+
+    @Param({"SMALL", "INTERNET"})
+    private Table table;
+
+    @Param({"INET", "INET6"})
+    private IpAddress.Version version;
+
+    private final IpPrefixTrie<IpPrefix> trie4 = new IpPrefixTrie<>();
+    private final IpPrefixTrie<IpPrefix> trie6 = new IpPrefixTrie<>();
+    private final InvertedRadixTree<IpPrefix> radixTree4 =
+            new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+    private final InvertedRadixTree<IpPrefix> radixTree6 =
+            new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+
+    private IpPrefixTrie<IpPrefix> trie;
+    private InvertedRadixTree<IpPrefix> radixTree;
+
+    private final IpAddress[] addresses = new IpAddress[SIZE];
+    private final IpPrefix[] updates = new IpPrefix[SIZE];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        IpPrefix[] prefixes4 = load(random, IpAddress.Version.INET, table.ip4Prefixes, trie4, radixTree4);
+        IpPrefix[] prefixes6 = load(random, IpAddress.Version.INET6, table.ip6Prefixes, trie6, radixTree6);
+
+        boolean ip4 = version == IpAddress.Version.INET;
+        IpPrefix[] prefixes = ip4 ? prefixes4 : prefixes6;
+        trie = ip4 ? trie4 : trie6;
+        radixTree = ip4 ? radixTree4 : radixTree6;
+        for (int i = 0; i < SIZE; i++) {
+            // half of the addresses fall in a prefix of the table, the others are random
+            IpPrefix prefix = random.nextBoolean()
+                    ? prefixes[random.nextInt(prefixes.length)]
+                    : randomPrefix(random, version, 0);
+            addresses[i] = randomAddress(random, prefix);
+            // host routes are not in the table, so the updates add and remove a prefix
+            updates[i] = randomPrefix(random, version, ip4 ? IpPrefix.MAX_INET_MASK_LENGTH
+                                                           : IpPrefix.MAX_INET6_MASK_LENGTH);
+        }
+    }
+
+    private static IpPrefix[] load(Random random, IpAddress.Version version, int size,
+                                   IpPrefixTrie<IpPrefix> trie, InvertedRadixTree<IpPrefix> radixTree) {
+        int[] lengths = version == IpAddress.Version.INET ? LENGTHS_4 : LENGTHS_6;
+        int[] shares = version == IpAddress.Version.INET ? SHARES_4 : SHARES_6;
+        IpPrefix[] prefixes = new IpPrefix[size];
+        for (int i = 0; i < size; i++) {
+            int share = random.nextInt(100);
+            int j = 0;
+            while (shares[j] <= share) {
+                j++;
+            }
+            prefixes[i] = randomPrefix(random, version, lengths[j]);
+            trie.put(prefixes[i], prefixes[i]);
+            radixTree.put(RouteTools.createBinaryString(prefixes[i]), prefixes[i]);
+        }
+        return prefixes;
+    }
+
+    private static IpPrefix randomPrefix(Random random, IpAddress.Version version, int length) {
+        byte[] octets = new byte[IpAddress.byteLength(version)];
+        random.nextBytes(octets);
+        if (version == IpAddress.Version.INET6) {
+            // global unicast, 2000::/3
+            octets[0] = (byte) (0x20 | (octets[0] & 0x1f));
+        }
+        return IpPrefix.valueOf(IpAddress.valueOf(version, octets), length);
+    }
+
+    private static IpAddress randomAddress(Random random, IpPrefix prefix) {
+        byte[] octets = prefix.address().toOctets();
+        byte[] host = new byte[octets.length];
+        random.nextBytes(host);
+        for (int i = 0; i < octets.length; i++) {
+            int bits = Math.min(Math.max(prefix.prefixLength() - i * Byte.SIZE, 0), Byte.SIZE);
+            int mask = 0xff >>> bits;
+            octets[i] = (byte) (octets[i] | (host[i] & mask));
+        }
+        return IpAddress.valueOf(prefix.address().version(), octets);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void trieLookup(Blackhole blackhole) {
+        for (IpAddress address : addresses) {
+            blackhole.consume(trie.longestPrefixMatch(address));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void radixTreeLookup(Blackhole blackhole) {
+        for (IpAddress address : addresses) {
+            IpPrefix match = null;
+            for (IpPrefix prefix : radixTree.getValuesForKeysPrefixing(
+                    RouteTools.createBinaryString(address.toIpPrefix()))) {
+                match = prefix;
+            }
+            blackhole.consume(match);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void trieUpdate(Blackhole blackhole) {
+        for (IpPrefix prefix : updates) {
+            blackhole.consume(trie.put(prefix, prefix));
+            blackhole.consume(trie.remove(prefix));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void radixTreeUpdate(Blackhole blackhole) {
+        for (IpPrefix prefix : updates) {
+            blackhole.consume(radixTree.put(RouteTools.createBinaryString(prefix), prefix));
+            blackhole.consume(radixTree.remove(RouteTools.createBinaryString(prefix)));
+        }
+    }
+}
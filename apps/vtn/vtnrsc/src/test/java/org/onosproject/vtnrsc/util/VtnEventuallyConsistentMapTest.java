@@ -237,6 +237,11 @@ public final class VtnEventuallyConsistentMapTest<K, V> extends EventuallyConsis
             return this;
         }
 
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withMerkleAntiEntropy() {
+            return this;
+        }
+
         @Override
         public EventuallyConsistentMap<K, V> build() {
             if (name == null) {
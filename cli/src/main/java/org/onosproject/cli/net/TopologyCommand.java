@@ -20,9 +20,11 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.cache.CacheStats;
 import org.apache.karaf.shell.commands.Command;
 import org.apache.karaf.shell.commands.Option;
 import org.onosproject.cli.AbstractShellCommand;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyProvider;
 import org.onosproject.net.topology.TopologyService;
@@ -35,12 +37,19 @@ description = "Lists summary of the current topology")
 public class TopologyCommand extends AbstractShellCommand {
 
     private static final String FMT = "created=%s, uptime=%s, devices=%d, links=%d, clusters=%d";
+    private static final String FMT_PATH_CACHE =
+            "pathCache: requests=%d, hits=%d, misses=%d, hitRate=%.2f, evictions=%d";
 
     @Option(name = "-r", aliases = "--recompute",
             description = "Trigger topology re-computation", required = false,
             multiValued = false)
     private boolean recompute = false;
 
+    @Option(name = "-c", aliases = "--path-cache",
+            description = "Show the path cache statistics of the current topology",
+            required = false, multiValued = false)
+    private boolean pathCache = false;
+
     protected TopologyService service;
     protected Topology topology;
 
@@ -68,7 +77,25 @@ public class TopologyCommand extends AbstractShellCommand {
                     formatElapsedTime(topologyUptime),
                     topology.deviceCount(), topology.linkCount(),
                     topology.clusterCount());
+            if (pathCache) {
+                printPathCacheStats();
+            }
+        }
+    }
+
+    /**
+     * Prints the statistics of the path cache of the current topology. The
+     * cache is created with each topology, so they only cover the queries
+     * made since the last topology change.
+     */
+    private void printPathCacheStats() {
+        if (!(topology instanceof DefaultTopology)) {
+            print("pathCache: not available");
+            return;
         }
+        CacheStats stats = ((DefaultTopology) topology).pathCacheStats();
+        print(FMT_PATH_CACHE, stats.requestCount(), stats.hitCount(), stats.missCount(),
+              stats.hitRate(), stats.evictionCount());
     }
 
     /**
@@ -15,6 +15,8 @@
  */
 package org.onosproject.event;
 
+import org.onlab.metrics.MetricsService;
+
 /**
  * Abstraction of an entity capable of accepting events to be posted and
  * then dispatching them to the appropriate event sink.
@@ -35,4 +37,52 @@ public interface EventDeliveryService extends EventDispatcher, EventSinkRegistry
      */
     long getDispatchTimeLimit();
 
+    /**
+     * Sets the number of dispatch loops for each class of events. Events are
+     * sharded across the loops by subject, so events for the same subject are
+     * still delivered in order, but sinks may then process events for
+     * different subjects concurrently.
+     *
+     * @param shards number of dispatch loops per class of events
+     */
+    default void setDispatchShards(int shards) {
+    }
+
+    /**
+     * Returns the number of dispatch loops for each class of events.
+     *
+     * @return number of dispatch loops per class of events
+     */
+    default int getDispatchShards() {
+        return 1;
+    }
+
+    /**
+     * Sets the maximum number of events queued on each dispatch loop. Posting
+     * to a full queue waits a bounded time for room; events still not queued
+     * are rejected.
+     *
+     * @param size maximum number of events per queue; 0 for unbounded queues
+     */
+    default void setDispatchQueueSize(int size) {
+    }
+
+    /**
+     * Returns the maximum number of events queued on each dispatch loop.
+     *
+     * @return maximum number of events per queue; 0 for unbounded queues
+     */
+    default int getDispatchQueueSize() {
+        return 0;
+    }
+
+    /**
+     * Sets the metrics service used to record dispatch queue depths, rejected
+     * events, sink processing times and listener latencies.
+     *
+     * @param metricsService metrics service; null to disable dispatch metrics
+     */
+    default void setMetricsService(MetricsService metricsService) {
+    }
+
 }
@@ -15,10 +15,17 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.Histogram;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.slf4j.Logger;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -34,8 +41,17 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
 
     private final Logger log = getLogger(getClass());
 
-    private long lastStart;
-    private L lastListener;
+    // Listener progress is tracked per dispatching thread, since a sink may
+    // be fed by several dispatch loops at once. Dispatch loops are replaced
+    // when reconfigured, so the progress of terminated threads is pruned
+    // whenever a new thread starts dispatching.
+    private final Map<Thread, Progress<L>> progress = new ConcurrentHashMap<>();
+    private final ThreadLocal<Progress<L>> localProgress = ThreadLocal.withInitial(() -> {
+        progress.keySet().removeIf(thread -> !thread.isAlive());
+        return progress.computeIfAbsent(Thread.currentThread(), t -> new Progress<>());
+    });
+
+    private volatile ListenerMetrics<L> metrics;
 
     /**
      * Set of listeners that have registered.
@@ -54,18 +70,47 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         if (!listeners.remove(listener)) {
             log.warn("Listener {} not registered", listener);
         }
+        ListenerMetrics<L> metrics = this.metrics;
+        if (metrics != null) {
+            metrics.histograms.remove(listener);
+        }
+    }
+
+    /**
+     * Sets the metrics service used to record the latency of each listener,
+     * in microseconds, in a histogram named after the listener class.
+     *
+     * @param metricsService metrics service; null to disable listener metrics
+     * @param componentName  name of the metrics component
+     * @param featureName    name of the metrics feature
+     */
+    public void setMetricsService(MetricsService metricsService,
+                                  String componentName, String featureName) {
+        ListenerMetrics<L> oldMetrics = metrics;
+        metrics = metricsService != null
+                ? new ListenerMetrics<>(metricsService, componentName, featureName) : null;
+        if (oldMetrics != null) {
+            oldMetrics.remove();
+        }
     }
 
     @Override
     public void process(E event) {
+        Progress<L> current = localProgress.get();
+        ListenerMetrics<L> metrics = this.metrics;
         for (L listener : listeners) {
             try {
-                lastListener = listener;
-                lastStart = System.currentTimeMillis();
+                current.lastListener = listener;
+                current.lastStart = System.currentTimeMillis();
+                long start = metrics != null ? System.nanoTime() : 0;
                 if (listener.isRelevant(event)) {
                     listener.event(event);
                 }
-                lastStart = 0;
+                if (metrics != null) {
+                    metrics.histogram(listener).update(
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                }
+                current.lastStart = 0;
             } catch (Exception error) {
                 reportProblem(event, error);
             }
@@ -74,16 +119,22 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
 
     @Override
     public void onProcessLimit() {
-        if (lastStart > 0) {
-            long duration = System.currentTimeMillis() - lastStart;
-            if (duration > LIMIT) {
-                log.error("Listener {} exceeded execution time limit: {} ms; ejected",
-                          lastListener.getClass().getName(),
-                          duration);
-                removeListener(lastListener);
+        progress.forEach((thread, current) -> {
+            long lastStart = current.lastStart;
+            if (lastStart > 0) {
+                long duration = System.currentTimeMillis() - lastStart;
+                if (duration > LIMIT) {
+                    log.error("Listener {} exceeded execution time limit: {} ms; ejected",
+                              current.lastListener.getClass().getName(),
+                              duration);
+                    removeListener(current.lastListener);
+                }
+                current.lastStart = 0;
             }
-            lastStart = 0;
-        }
+            if (!thread.isAlive()) {
+                progress.remove(thread);
+            }
+        });
     }
 
     /**
@@ -96,4 +147,36 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         log.warn("Exception encountered while processing event " + event, error);
     }
 
+    // Progress of event processing on a single dispatching thread.
+    private static final class Progress<L> {
+        private volatile long lastStart;
+        private volatile L lastListener;
+    }
+
+    // Latency histograms of the listeners.
+    private static final class ListenerMetrics<L> {
+        private final MetricsService metricsService;
+        private final MetricsComponent component;
+        private final MetricsFeature feature;
+        private final Map<L, Histogram> histograms = new ConcurrentHashMap<>();
+
+        private ListenerMetrics(MetricsService metricsService,
+                                String componentName, String featureName) {
+            this.metricsService = metricsService;
+            this.component = metricsService.registerComponent(componentName);
+            this.feature = component.registerFeature(featureName);
+        }
+
+        private Histogram histogram(L listener) {
+            return histograms.computeIfAbsent(listener, l ->
+                    metricsService.createHistogram(component, feature, l.getClass().getName()));
+        }
+
+        private void remove() {
+            histograms.keySet().forEach(listener ->
+                    metricsService.removeMetric(component, feature, listener.getClass().getName()));
+            histograms.clear();
+        }
+    }
+
 }
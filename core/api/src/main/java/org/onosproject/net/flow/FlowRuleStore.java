@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.flow;
 
+import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEvent;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
@@ -60,6 +61,24 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     Iterable<FlowEntry> getFlowEntries(DeviceId deviceId);
 
+    /**
+     * Returns the flow entries of all devices associated with an application.
+     *
+     * @param appId the application ID
+     * @return the flow entries
+     */
+    Iterable<FlowEntry> getFlowEntriesByAppId(ApplicationId appId);
+
+    /**
+     * Returns the flow entries of all devices whose identifiers were
+     * generated for the given application group.
+     *
+     * @param appId   the application ID
+     * @param groupId the group ID
+     * @return the flow entries
+     */
+    Iterable<FlowEntry> getFlowEntriesByGroupId(ApplicationId appId, short groupId);
+
     /**
      * // TODO: Better description of method behavior.
      * Stores a new flow rule without generating events.
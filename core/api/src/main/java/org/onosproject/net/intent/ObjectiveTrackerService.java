@@ -64,4 +64,13 @@ public interface ObjectiveTrackerService {
      * @param intentData intent data object to be tracked
      */
     void trackIntent(IntentData intentData);
+
+    /**
+     * Submits the specified intent data objects to be tracked in bulk.
+     *
+     * @param intentData intent data objects to be tracked
+     */
+    default void trackIntents(Collection<IntentData> intentData) {
+        intentData.forEach(this::trackIntent);
+    }
 }
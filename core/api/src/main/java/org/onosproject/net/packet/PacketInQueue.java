@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet;
+
+import org.onosproject.net.DeviceId;
+
+/**
+ * Queue of the inbound packets received from a device and awaiting
+ * processing, tracking its depth, drops and queueing latency.
+ */
+public interface PacketInQueue {
+
+    /**
+     * Returns the device from which the queued packets were received.
+     *
+     * @return device identifier
+     */
+    DeviceId deviceId();
+
+    /**
+     * Returns the number of packets currently queued.
+     *
+     * @return queue depth
+     */
+    int depth();
+
+    /**
+     * Returns the number of packets dropped because the queue was full.
+     *
+     * @return number of dropped packets
+     */
+    long dropped();
+
+    /**
+     * Returns the number of queued packets that have been processed.
+     *
+     * @return number of processed packets
+     */
+    long processed();
+
+    /**
+     * Returns the total time, in nanoseconds, spent by packets in the queue.
+     *
+     * @return total queueing time in nanos
+     */
+    long totalLatencyNanos();
+
+    /**
+     * Returns the average time, in nanoseconds, spent by packets in the queue.
+     *
+     * @return average queueing time in nanos
+     */
+    long averageLatencyNanos();
+}
@@ -15,6 +15,9 @@
  */
 package org.onosproject.net.packet;
 
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.TrafficSelector;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -35,6 +38,15 @@ public interface PacketProcessorEntry {
      */
     int priority();
 
+    /**
+     * Returns the selector of the packets given to the packet processor.
+     *
+     * @return packet selector; empty if the processor is given all packets
+     */
+    default TrafficSelector selector() {
+        return DefaultTrafficSelector.emptySelector();
+    }
+
     /**
      * Returns the number of invocations.
      *
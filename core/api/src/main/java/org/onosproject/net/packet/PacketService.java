@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.collect.ImmutableList;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.TrafficSelector;
@@ -42,7 +43,30 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only the packets matching the specified selector. The selector
+     * may match on the ethernet type, IP protocol and TCP or UDP ports of
+     * the packets; a processor registered with an empty selector is given
+     * all packets. Processors are otherwise ordered as by
+     * {@link #addProcessor(PacketProcessor, int)}.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of the packets given to the processor
+     * @throws java.lang.IllegalArgumentException if the selector contains
+     *                                            unsupported criteria
+     * @throws java.lang.UnsupportedOperationException if the service does
+     *                                            not select packets for
+     *                                            processors and the selector
+     *                                            is not empty
+     */
+    default void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
+        if (!selector.criteria().isEmpty()) {
+            throw new UnsupportedOperationException("Packet selection is not supported by " + getClass().getName());
+        }
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -58,6 +82,17 @@ public interface PacketService {
      */
     List<PacketProcessorEntry> getProcessors();
 
+    /**
+     * Returns the queues of the inbound packets awaiting processing, one per
+     * device. Inbound packets are only queued when they are processed off
+     * the threads of the packet providers.
+     *
+     * @return list of inbound packet queues
+     */
+    default List<PacketInQueue> getPacketInQueues() {
+        return ImmutableList.of();
+    }
+
     /**
      * Requests that packets matching the given selector are punted from the
      * dataplane to the controller.
@@ -20,9 +20,13 @@ import com.google.common.collect.ImmutableList;
 import org.onosproject.event.ListenerService;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -81,6 +85,57 @@ public interface ResourceService extends ResourceQueryService, ListenerService<R
         return allocate(consumer, Arrays.asList(resources));
     }
 
+    /**
+     * Transactionally allocates the given number of available child resources of the specified parent,
+     * whose values are of the specified type, to the specified user.
+     * All allocations are made when this method succeeds, or no allocation is made when this method fails.
+     *
+     * @param consumer resource user which the resources are allocated to
+     * @param parent   parent of the resources to be allocated
+     * @param cls      class of the values of the resources to be allocated
+     * @param count    number of resources to be allocated
+     * @return non-empty list of allocation information if succeeded, otherwise empty list
+     */
+    default List<ResourceAllocation> allocateAny(ResourceConsumer consumer, DiscreteResourceId parent,
+                                                 Class<?> cls, int count) {
+        checkNotNull(parent);
+
+        return allocateAny(consumer, ImmutableList.of(parent), cls, count);
+    }
+
+    /**
+     * Transactionally allocates the given number of values of the specified type, which are available
+     * as child resources of every one of the specified parents, to the specified user.
+     * Each value is allocated under all the parents, e.g. the same VLAN ID on both ports of a link.
+     * All allocations are made when this method succeeds, or no allocation is made when this method fails.
+     *
+     * @param consumer resource user which the resources are allocated to
+     * @param parents  parents of the resources to be allocated
+     * @param cls      class of the values of the resources to be allocated
+     * @param count    number of values to be allocated
+     * @return non-empty list of allocation information if succeeded, otherwise empty list
+     */
+    default List<ResourceAllocation> allocateAny(ResourceConsumer consumer, List<DiscreteResourceId> parents,
+                                                 Class<?> cls, int count) {
+        checkNotNull(consumer);
+        checkNotNull(parents);
+        checkArgument(!parents.isEmpty(), "parents must not be empty");
+        checkNotNull(cls);
+
+        Set<Object> values = new LinkedHashSet<>(getAvailableResourceValues(parents.get(0), cls));
+        parents.forEach(parent -> values.retainAll(getAvailableResourceValues(parent, cls)));
+        if (values.size() < count) {
+            return ImmutableList.of();
+        }
+
+        List<Resource> candidates = parents.stream()
+                .flatMap(parent -> values.stream()
+                        .limit(count)
+                        .map(value -> Resources.discrete(parent, value).resource()))
+                .collect(Collectors.toList());
+        return allocate(consumer, candidates);
+    }
+
     /**
      * Releases the specified resource allocation.
      *
@@ -16,11 +16,16 @@
 package org.onosproject.net.resource;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import org.onlab.util.Tools;
 import org.onosproject.store.Store;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for storing resource and consumer information.
@@ -62,6 +67,57 @@ public interface ResourceStore extends Store<ResourceEvent, ResourceStoreDelegat
      */
     boolean allocate(List<? extends Resource> resources, ResourceConsumer consumer);
 
+    /**
+     * Allocates the given number of available child resources of the specified parent,
+     * whose values are of the specified type, to the specified consumer in transactional way.
+     * Either all the resources are allocated to the consumer, or none of them.
+     *
+     * @param parent   parent of the resources to be allocated
+     * @param cls      class of the values of the resources to be allocated
+     * @param count    number of resources to be allocated
+     * @param consumer resource consumer which the resources are allocated to
+     * @return allocated resources, or an empty list if the allocation fails
+     */
+    default List<Resource> allocateAny(DiscreteResourceId parent, Class<?> cls, int count,
+                                       ResourceConsumer consumer) {
+        return allocateAny(ImmutableList.of(parent), cls, count, consumer);
+    }
+
+    /**
+     * Allocates the given number of values of the specified type, which are available
+     * as child resources of every one of the specified parents, to the specified consumer
+     * in transactional way. Each value is allocated under all the parents.
+     * Either all the resources are allocated to the consumer, or none of them.
+     *
+     * @param parents  parents of the resources to be allocated
+     * @param cls      class of the values of the resources to be allocated
+     * @param count    number of values to be allocated
+     * @param consumer resource consumer which the resources are allocated to
+     * @return allocated resources, or an empty list if the allocation fails
+     */
+    default List<Resource> allocateAny(List<DiscreteResourceId> parents, Class<?> cls, int count,
+                                       ResourceConsumer consumer) {
+        Map<DiscreteResourceId, Set<Resource>> registered = parents.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), x -> getChildResources(x, cls)));
+        List<Resource> candidates = getChildResources(parents.get(0), cls).stream()
+                .filter(x -> x instanceof DiscreteResource)
+                .map(x -> x.valueAs(Object.class))
+                .flatMap(Tools::stream)
+                .map(value -> parents.stream()
+                        .map(parent -> (Resource) Resources.discrete(parent, value).resource())
+                        .collect(Collectors.toList()))
+                .filter(group -> group.stream()
+                        .allMatch(x -> registered.get(x.parent().get().id()).contains(x) && isAvailable(x)))
+                .limit(count)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        if (candidates.size() < count * parents.size() || !allocate(candidates, consumer)) {
+            return ImmutableList.of();
+        }
+        return candidates;
+    }
+
     /**
      * Releases the specified allocated resources in transactional way.
      * The state after completion of this method is all the resources
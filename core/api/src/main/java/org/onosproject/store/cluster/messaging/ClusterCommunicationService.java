@@ -23,6 +23,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.onosproject.cluster.NodeId;
+import org.onosproject.store.service.Serializer;
 
 /**
  * Service for assisting communications between controller cluster nodes.
@@ -79,6 +80,25 @@ public interface ClusterCommunicationService {
             Function<M, byte[]> encoder,
             NodeId toNodeId);
 
+    /**
+     * Sends a message to the specified controller node, serializing the
+     * message straight into the outbound transport buffer if the messaging
+     * implementation supports it.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param serializer serializer for encoding the message
+     * @param toNodeId destination node identifier
+     * @param <M> message type
+     * @return future that is completed when the message is sent
+     */
+    default <M> CompletableFuture<Void> unicast(M message,
+            MessageSubject subject,
+            Serializer serializer,
+            NodeId toNodeId) {
+        return unicast(message, subject, serializer::encode, toNodeId);
+    }
+
     /**
      * Multicasts a message to a set of controller nodes.
      *
@@ -111,6 +131,26 @@ public interface ClusterCommunicationService {
             Function<byte[], R> decoder,
             NodeId toNodeId);
 
+    /**
+     * Sends a message and expects a reply, serializing the request straight
+     * into the outbound transport buffer if the messaging implementation
+     * supports it.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param serializer serializer for encoding the request and decoding the response
+     * @param toNodeId recipient node identifier
+     * @param <M> request type
+     * @param <R> reply type
+     * @return reply future
+     */
+    default <M, R> CompletableFuture<R> sendAndReceive(M message,
+            MessageSubject subject,
+            Serializer serializer,
+            NodeId toNodeId) {
+        return sendAndReceive(message, subject, serializer::encode, serializer::decode, toNodeId);
+    }
+
     /**
      * Adds a new subscriber for the specified message subject.
      *
@@ -157,6 +197,24 @@ public interface ClusterCommunicationService {
             Consumer<M> handler,
             Executor executor);
 
+    /**
+     * Adds a new subscriber for the specified message subject, deserializing
+     * incoming messages straight from the inbound transport buffer if the
+     * messaging implementation supports it.
+     *
+     * @param subject message subject
+     * @param serializer serializer for resurrecting incoming message
+     * @param handler handler for handling message
+     * @param executor executor to run this handler on
+     * @param <M> incoming message type
+     */
+    default <M> void addSubscriber(MessageSubject subject,
+            Serializer serializer,
+            Consumer<M> handler,
+            Executor executor) {
+        addSubscriber(subject, (Function<byte[], M>) serializer::decode, handler, executor);
+    }
+
     /**
      * Removes a subscriber for the specified message subject.
      *
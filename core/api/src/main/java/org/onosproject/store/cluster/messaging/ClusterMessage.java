@@ -121,16 +121,29 @@ public class ClusterMessage {
      * @return bytes
      */
     public byte[] getBytes() {
+        byte[] headerBytes = getHeaderBytes(sender, subject);
+        ByteBuffer buffer = ByteBuffer.allocate(headerBytes.length + 4 + payload.length);
+        buffer.put(headerBytes);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * Serializes the header of a message; the serialized message consists of
+     * the header followed by the payload length and the payload.
+     * @param sender message sender
+     * @param subject message subject
+     * @return header bytes
+     */
+    public static byte[] getHeaderBytes(NodeId sender, MessageSubject subject) {
         byte[] senderBytes = sender.toString().getBytes(Charsets.UTF_8);
         byte[] subjectBytes = subject.value().getBytes(Charsets.UTF_8);
-        int capacity = 12 + senderBytes.length + subjectBytes.length + payload.length;
-        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + senderBytes.length + subjectBytes.length);
         buffer.putInt(senderBytes.length);
         buffer.put(senderBytes);
         buffer.putInt(subjectBytes.length);
         buffer.put(subjectBytes);
-        buffer.putInt(payload.length);
-        buffer.put(payload);
         return buffer.array();
     }
 
@@ -153,6 +166,23 @@ public class ClusterMessage {
                 payloadBytes);
     }
 
+    /**
+     * Returns a view of the payload of a serialized message, without copying
+     * the payload out of the given buffer.
+     * @param buffer buffer holding the serialized message
+     * @return buffer holding the message payload
+     */
+    public static ByteBuffer payload(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        int senderLength = view.getInt();
+        view.position(view.position() + senderLength);
+        int subjectLength = view.getInt();
+        view.position(view.position() + subjectLength);
+        int payloadLength = view.getInt();
+        view.limit(view.position() + payloadLength);
+        return view.slice();
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(sender, subject, Arrays.hashCode(payload));
@@ -15,10 +15,17 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Interface for low level messaging primitives.
@@ -35,6 +42,22 @@ public interface MessagingService {
      */
     CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously to the specified communication end point.
+     * The message payload consists of the given header, followed by the length
+     * of the body as a 4 byte integer and the body written by the given writer.
+     * Implementations may write the body straight into their transport buffers
+     * rather than into an intermediate byte array.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param header message payload header bytes.
+     * @param body writer of the message payload body.
+     * @return future that is completed when the message is sent
+     */
+    default CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] header, Consumer<OutputStream> body) {
+        return sendAsync(ep, type, payload(header, body));
+    }
+
     /**
      * Sends a message asynchronously and expects a response.
      * @param ep end point to send the message to.
@@ -54,6 +77,45 @@ public interface MessagingService {
      */
     CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload, Executor executor);
 
+    /**
+     * Sends a message asynchronously and expects a response. The message
+     * payload consists of the given header, followed by the length of the
+     * body as a 4 byte integer and the body written by the given writer.
+     * Implementations may write the body straight into their transport buffers
+     * rather than into an intermediate byte array.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param header message payload header bytes.
+     * @param body writer of the message payload body.
+     * @param executor executor over which any follow up actions after completion will be executed.
+     * @return a response future
+     */
+    default CompletableFuture<byte[]> sendAndReceive(
+            Endpoint ep, String type, byte[] header, Consumer<OutputStream> body, Executor executor) {
+        return sendAndReceive(ep, type, payload(header, body), executor);
+    }
+
+    /**
+     * Assembles a message payload from a header and a length prefixed body.
+     * @param header payload header bytes.
+     * @param body writer of the payload body.
+     * @return message payload bytes
+     */
+    static byte[] payload(byte[] header, Consumer<OutputStream> body) {
+        ByteArrayOutputStream bodyStream = new ByteArrayOutputStream();
+        body.accept(bodyStream);
+        ByteArrayOutputStream payloadStream =
+                new ByteArrayOutputStream(header.length + Integer.BYTES + bodyStream.size());
+        try (DataOutputStream out = new DataOutputStream(payloadStream)) {
+            out.write(header);
+            out.writeInt(bodyStream.size());
+            bodyStream.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return payloadStream.toByteArray();
+    }
+
     /**
      * Registers a new message handler for message type.
      * @param type message type.
@@ -62,6 +124,20 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor);
 
+    /**
+     * Registers a new message handler for message type, which is handed the
+     * message payload as a buffer. Implementations may hand the handler a view
+     * of their transport buffers rather than a copy of the payload; the buffer
+     * is only valid until the handler returns.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        registerHandler(type, (BiConsumer<Endpoint, byte[]>) (ep, payload) ->
+                handler.accept(ep, ByteBuffer.wrap(payload)), executor);
+    }
+
     /**
      * Registers a new message handler for message type.
      * @param type message type.
@@ -15,10 +15,13 @@
  */
 package org.onosproject.store.service;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 import org.onosproject.store.primitives.DistributedPrimitiveOptions;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -28,8 +31,13 @@ import org.onosproject.store.primitives.DistributedPrimitiveOptions;
 public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K, V>, K, V>
     extends DistributedPrimitiveOptions<O> {
 
+    private static final int DEFAULT_NEAR_CACHE_SIZE = 10000;
+    private static final long DEFAULT_NEAR_CACHE_EXPIRATION_MILLIS = 60_000;
+
     private boolean nullValues = false;
     private boolean purgeOnUninstall = false;
+    private int nearCacheSize = 0;
+    private long nearCacheExpirationMillis = DEFAULT_NEAR_CACHE_EXPIRATION_MILLIS;
     protected BiFunction<V, org.onosproject.core.Version, V> compatibilityFunction;
 
     public ConsistentMapOptions() {
@@ -56,6 +64,47 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return (O) this;
     }
 
+    /**
+     * Enables a near-cache of the map entries with the default maximum size.
+     *
+     * @return this builder
+     * @see #withNearCache(int)
+     */
+    public O withNearCache() {
+        return withNearCache(DEFAULT_NEAR_CACHE_SIZE);
+    }
+
+    /**
+     * Enables a near-cache of up to the given number of map entries.
+     * <p>
+     * Reads of cached keys are served locally. Cached entries are kept up to
+     * date from the map event stream, and a key is invalidated once a write to
+     * it issued from this instance completes, so that the writer reads its
+     * own writes. Entries also expire a while after they were cached, which
+     * bounds the staleness of entries that missed an update.
+     *
+     * @param maxSize maximum number of cached entries
+     * @return this builder
+     */
+    public O withNearCache(int maxSize) {
+        checkArgument(maxSize > 0, "Near-cache size must be positive");
+        nearCacheSize = maxSize;
+        return (O) this;
+    }
+
+    /**
+     * Sets the time after which entries of the near-cache expire.
+     *
+     * @param expiration expiration time after an entry was cached
+     * @param timeUnit   expiration time unit
+     * @return this builder
+     */
+    public O withNearCacheExpiration(long expiration, TimeUnit timeUnit) {
+        checkArgument(expiration > 0, "Near-cache expiration must be positive");
+        nearCacheExpirationMillis = timeUnit.toMillis(expiration);
+        return (O) this;
+    }
+
     /**
      * Sets a compatibility function on the map.
      *
@@ -86,4 +135,31 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return purgeOnUninstall;
     }
 
+    /**
+     * Returns whether a near-cache is enabled for the map.
+     *
+     * @return {@code true} if reads are served from a near-cache; {@code false} otherwise
+     */
+    public boolean nearCacheEnabled() {
+        return nearCacheSize > 0;
+    }
+
+    /**
+     * Returns the maximum number of entries held in the near-cache.
+     *
+     * @return near-cache size; 0 if the near-cache is disabled
+     */
+    public int nearCacheSize() {
+        return nearCacheSize;
+    }
+
+    /**
+     * Returns the time after which entries of the near-cache expire.
+     *
+     * @return near-cache expiration time in milliseconds
+     */
+    public long nearCacheExpirationMillis() {
+        return nearCacheExpirationMillis;
+    }
+
 }
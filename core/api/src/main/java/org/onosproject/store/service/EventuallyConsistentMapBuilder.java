@@ -190,6 +190,25 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configure anti-entropy to exchange hierarchical hash (Merkle tree)
+     * digests instead of a digest for every entry in the map.
+     * <p>
+     * Peers first compare the root hash of their trees and only exchange
+     * entry digests for the subtrees that differ, so the cost of each
+     * anti-entropy round scales with the divergence between replicas rather
+     * than with the size of the map. This comes at the cost of hashing each
+     * key and timestamp on every update. Suited to large maps that are
+     * usually in sync. All instances of the map must use the same setting.
+     * </p>
+     * <p>
+     * The default behavior is to advertise digests for all entries.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withMerkleAntiEntropy();
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
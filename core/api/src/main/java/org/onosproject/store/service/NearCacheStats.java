@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics for the near-cache of a {@link ConsistentMap}.
+ */
+public final class NearCacheStats {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * Returns a {@code NearCacheStats} builder.
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private NearCacheStats() {
+    }
+
+    public static class Builder {
+
+        NearCacheStats nearCacheStats = new NearCacheStats();
+
+        public Builder withSize(long value) {
+            nearCacheStats.size = value;
+            return this;
+        }
+
+        public Builder withHitCount(long value) {
+            nearCacheStats.hitCount = value;
+            return this;
+        }
+
+        public Builder withMissCount(long value) {
+            nearCacheStats.missCount = value;
+            return this;
+        }
+
+        public Builder withEvictionCount(long value) {
+            nearCacheStats.evictionCount = value;
+            return this;
+        }
+
+        public Builder withInvalidationCount(long value) {
+            nearCacheStats.invalidationCount = value;
+            return this;
+        }
+
+        public NearCacheStats build() {
+            return nearCacheStats;
+        }
+    }
+
+    /**
+     * Returns the number of entries currently held in the cache.
+     * @return cache size
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of reads served from the cache.
+     * @return hit count
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the number of reads forwarded to the map.
+     * @return miss count
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full.
+     * @return eviction count
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Returns the number of entries updated or invalidated by map events
+     * and local writes.
+     * @return invalidation count
+     */
+    public long invalidationCount() {
+        return this.invalidationCount;
+    }
+
+    /**
+     * Returns the ratio of reads served from the cache.
+     * @return hit ratio between 0 and 1; 1 if there was no read yet
+     */
+    public double hitRatio() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("size", size)
+                .add("hitCount", hitCount)
+                .add("missCount", missCount)
+                .add("evictionCount", evictionCount)
+                .add("invalidationCount", invalidationCount)
+                .toString();
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.onosproject.store.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,6 +39,20 @@ public interface Serializer {
      */
     <T> byte[] encode(T object);
 
+    /**
+     * Serialize the specified object into the given stream.
+     * @param object object to serialize.
+     * @param stream stream to write serialized bytes to.
+     * @param <T> encoded type
+     */
+    default <T> void encode(T object, OutputStream stream) {
+        try {
+            stream.write(encode(object));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Deserialize the specified bytes.
      * @param bytes byte array to deserialize.
@@ -43,6 +61,18 @@ public interface Serializer {
      */
     <T> T decode(byte[] bytes);
 
+    /**
+     * Deserialize the remaining bytes of the specified buffer.
+     * @param buffer buffer to deserialize.
+     * @return deserialized object.
+     * @param <T> decoded type
+     */
+    default <T> T decode(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return decode(bytes);
+    }
+
     /**
      * Copies the specified object.
      * @param object object to copy.
@@ -65,11 +95,21 @@ public interface Serializer {
                 return kryo.serialize(object);
             }
 
+            @Override
+            public <T> void encode(T object, OutputStream stream) {
+                kryo.serialize(object, stream);
+            }
+
             @Override
             public <T> T decode(byte[] bytes) {
                 return kryo.deserialize(bytes);
             }
 
+            @Override
+            public <T> T decode(ByteBuffer buffer) {
+                return kryo.deserialize(buffer.slice());
+            }
+
             @Override
             public <T> T copy(T object) {
                 return kryo.run(k -> k.copy(object));
@@ -106,11 +146,21 @@ public interface Serializer {
                 return namespace.serialize(object);
             }
 
+            @Override
+            public <T> void encode(T object, OutputStream stream) {
+                namespace.serialize(object, stream);
+            }
+
             @Override
             public <T> T decode(byte[] bytes) {
                 return namespace.deserialize(bytes);
             }
 
+            @Override
+            public <T> T decode(ByteBuffer buffer) {
+                return namespace.deserialize(buffer.slice());
+            }
+
             @Override
             public <T> T copy(T object) {
                 return namespace.run(kryo -> kryo.copy(object));
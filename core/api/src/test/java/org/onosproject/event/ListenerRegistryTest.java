@@ -15,9 +15,15 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricFilter;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -71,4 +77,21 @@ public class ListenerRegistryTest {
         assertTrue("BAR not processed", secondListener.events.contains(BAR_EVENT));
     }
 
+    @Test
+    public void listenerLatencies() {
+        MetricsManager metricsService = new MetricsManager();
+        manager.setMetricsService(metricsService, "Test", "TestEvent");
+        manager.addListener(listener);
+
+        manager.process(FOO_EVENT);
+        manager.process(BAR_EVENT);
+        Map<String, Histogram> histograms = metricsService.getHistograms(MetricFilter.ALL);
+        assertEquals("incorrect histograms", 1, histograms.size());
+        assertEquals("incorrect latency count", 2,
+                     histograms.get("Test.TestEvent." + TestListener.class.getName()).getCount());
+
+        manager.setMetricsService(null, "Test", "TestEvent");
+        assertTrue("histograms not removed", metricsService.getHistograms(MetricFilter.ALL).isEmpty());
+    }
+
 }
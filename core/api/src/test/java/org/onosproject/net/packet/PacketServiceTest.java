@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet;
+
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the default methods of the packet service.
+ */
+public class PacketServiceTest {
+
+    private final TestPacketService service = new TestPacketService();
+
+    /**
+     * Tests that a processor registered with an empty selector is added as
+     * a processor of all packets.
+     */
+    @Test
+    public void testEmptySelector() {
+        service.addProcessor(context -> { }, 1, DefaultTrafficSelector.emptySelector());
+        assertEquals(1, service.added);
+    }
+
+    /**
+     * Tests that a processor registered with a selector is rejected by a
+     * service that does not select packets for processors.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnsupportedSelector() {
+        service.addProcessor(context -> { }, 1,
+                             DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+    }
+
+    private static class TestPacketService extends PacketServiceAdapter {
+        private int added;
+
+        @Override
+        public void addProcessor(PacketProcessor processor, int priority) {
+            added++;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.benchmarks;
+
+import org.onlab.packet.ARP;
+import org.onlab.packet.Data;
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.Deserializer;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip6Address;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Ethernet frame parsing and serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EthernetBenchmark {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:00:00:00:00:02");
+    private static final int PAYLOAD_LENGTH = 64;
+
+    private static final Deserializer<Ethernet> DESERIALIZER = Ethernet.deserializer();
+
+    /**
+     * Frames parsed by the benchmarks.
+     */
+    public enum Frame {
+        ARP_REQUEST,
+        IPV4_UDP,
+        IPV6_TCP
+    }
+
+    @Param
+    private Frame frame;
+
+    private Ethernet packet;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        packet = build(frame);
+        bytes = packet.serialize();
+    }
+
+    @Benchmark
+    public Ethernet deserialize() throws DeserializationException {
+        return DESERIALIZER.deserialize(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return packet.serialize();
+    }
+
+    private static Ethernet build(Frame frame) {
+        switch (frame) {
+            case ARP_REQUEST:
+                return arpRequest();
+            case IPV4_UDP:
+                return ipv4Udp();
+            case IPV6_TCP:
+                return ipv6Tcp();
+            default:
+                throw new IllegalArgumentException("Unknown frame " + frame);
+        }
+    }
+
+    private static Ethernet arpRequest() {
+        return ARP.buildArpRequest(SRC_MAC.toBytes(),
+                                   Ip4Address.valueOf("10.0.0.1").toOctets(),
+                                   Ip4Address.valueOf("10.0.0.2").toOctets(),
+                                   Ethernet.VLAN_UNTAGGED);
+    }
+
+    private static Ethernet ipv4Udp() {
+        UDP udp = new UDP();
+        udp.setSourcePort(49152);
+        udp.setDestinationPort(4789);
+        udp.setPayload(new Data(new byte[PAYLOAD_LENGTH]));
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress("10.0.0.1");
+        ipv4.setDestinationAddress("10.0.0.2");
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setTtl((byte) 64);
+        ipv4.setPayload(udp);
+        return frame(Ethernet.TYPE_IPV4, ipv4).setVlanID((short) 100);
+    }
+
+    private static Ethernet ipv6Tcp() {
+        TCP tcp = new TCP();
+        tcp.setSourcePort(49152);
+        tcp.setDestinationPort(80);
+        tcp.setPayload(new Data(new byte[PAYLOAD_LENGTH]));
+        IPv6 ipv6 = new IPv6();
+        ipv6.setSourceAddress(Ip6Address.valueOf("2001:db8::1").toOctets());
+        ipv6.setDestinationAddress(Ip6Address.valueOf("2001:db8::2").toOctets());
+        ipv6.setNextHeader(IPv6.PROTOCOL_TCP);
+        ipv6.setHopLimit((byte) 64);
+        ipv6.setPayload(tcp);
+        return frame(Ethernet.TYPE_IPV6, ipv6);
+    }
+
+    private static Ethernet frame(short etherType, IPacket payload) {
+        Ethernet ethernet = new Ethernet();
+        ethernet.setSourceMACAddress(SRC_MAC);
+        ethernet.setDestinationMACAddress(DST_MAC);
+        ethernet.setEtherType(etherType);
+        ethernet.setPayload(payload);
+        return ethernet;
+    }
+}
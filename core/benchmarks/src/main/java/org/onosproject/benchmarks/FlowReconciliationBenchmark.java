@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.benchmarks;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.Ip4Prefix;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleProvider;
+import org.onosproject.net.flow.FlowRuleProviderService;
+import org.onosproject.net.flow.FlowRuleStore;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.impl.FlowRuleManager;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+import org.onosproject.net.provider.AbstractProvider;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.trivial.SimpleFlowRuleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the flow statistics reconciliation of {@link FlowRuleManager},
+ * which matches the flow entries reported by a device against the flow entries
+ * stored for it on every poll.
+ * <p>
+ * The entries are pushed through the provider service of the manager, backed
+ * by the trivial flow rule store. The device reports all stored entries, or
+ * all but a hundredth of them, which the manager then finds missing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowReconciliationBenchmark {
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmarks");
+    private static final ProviderId PROVIDER_ID = new ProviderId("of", "org.onosproject.benchmarks");
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("of:0000000000000001");
+    private static final TrafficTreatment TREATMENT = DefaultTrafficTreatment.builder()
+            .setOutput(PortNumber.portNumber(2))
+            .build();
+
+    /**
+     * Number of flow entries stored for the device.
+     */
+    @Param({"1000", "10000", "50000"})
+    private int entries;
+
+    /**
+     * Whether the device reports all stored entries.
+     */
+    @Param({"true", "false"})
+    private boolean inSync;
+
+    private FlowRuleManager manager;
+    private BenchmarkProvider provider;
+    private FlowRuleProviderService providerService;
+    private List<FlowEntry> reportedEntries;
+
+    @Setup
+    public void setup() {
+        FlowRuleStore store = new SimpleFlowRuleStore();
+        reportedEntries = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            FlowRule rule = flowRule(i);
+            store.storeFlowRule(rule);
+            store.addOrUpdateFlowRule(new DefaultFlowEntry(rule, FlowEntryState.ADDED));
+            // Devices report copies of the stored entries, which are equal but not identical
+            if (inSync || i % 100 != 0) {
+                reportedEntries.add(new DefaultFlowEntry(flowRule(i), FlowEntryState.ADDED));
+            }
+        }
+
+        manager = new BenchmarkFlowRuleManager(store);
+        provider = new BenchmarkProvider();
+        providerService = manager.register(provider);
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.unregister(provider);
+    }
+
+    @Benchmark
+    public void pushFlowMetrics() {
+        providerService.pushFlowMetrics(DEVICE_ID, reportedEntries);
+    }
+
+    private static FlowRule flowRule(int index) {
+        return DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .withSelector(DefaultTrafficSelector.builder()
+                        .matchInPort(PortNumber.portNumber(1 + index % 48))
+                        .matchEthType(Ethernet.TYPE_IPV4)
+                        .matchIPDst(Ip4Prefix.valueOf(0x0a000000 + index, 32))
+                        .build())
+                .withTreatment(TREATMENT)
+                .withPriority(40000)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+
+    /**
+     * Flow rule manager wired to the given store, with no devices known.
+     */
+    private static final class BenchmarkFlowRuleManager extends FlowRuleManager {
+        private BenchmarkFlowRuleManager(FlowRuleStore store) {
+            this.store = store;
+            this.deviceService = new DeviceServiceAdapter();
+        }
+    }
+
+    /**
+     * Flow rule provider ignoring all operations.
+     */
+    private static final class BenchmarkProvider extends AbstractProvider implements FlowRuleProvider {
+        private BenchmarkProvider() {
+            super(PROVIDER_ID);
+        }
+
+        @Override
+        public void applyFlowRule(FlowRule... flowRules) {
+        }
+
+        @Override
+        public void removeFlowRule(FlowRule... flowRules) {
+        }
+
+        @Override
+        public void removeRulesById(ApplicationId id, FlowRule... flowRules) {
+        }
+
+        @Override
+        public void executeBatch(FlowRuleBatchOperation batch) {
+        }
+    }
+}
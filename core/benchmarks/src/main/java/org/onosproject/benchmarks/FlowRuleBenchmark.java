@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.onosproject.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.VlanId;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks of flow rule and traffic selector construction, hashing and equality.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowRuleBenchmark {
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmarks");
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("of:0000000000000001");
+    private static final TrafficTreatment TREATMENT = DefaultTrafficTreatment.builder()
+            .setOutput(PortNumber.portNumber(2))
+            .build();
+
+    // Criteria of a typical L2-L4 match, in the order they are added to selectors
+    private static final List<Consumer<TrafficSelector.Builder>> CRITERIA = ImmutableList.of(
+            builder -> builder.matchInPort(PortNumber.portNumber(1)),
+            builder -> builder.matchEthType(Ethernet.TYPE_IPV4),
+            builder -> builder.matchEthDst(MacAddress.valueOf("00:00:00:00:00:02")),
+            builder -> builder.matchVlanId(VlanId.vlanId((short) 100)),
+            builder -> builder.matchIPDst(IpPrefix.valueOf("10.1.0.0/16")),
+            builder -> builder.matchIPSrc(IpPrefix.valueOf("10.0.0.1/32")),
+            builder -> builder.matchIPProtocol(IPv4.PROTOCOL_UDP),
+            builder -> builder.matchUdpDst(TpPort.tpPort(4789)));
+
+    /**
+     * Number of criteria of the selector, up to 8.
+     */
+    @Param({"1", "4", "8"})
+    private int criteria;
+
+    private TrafficSelector selector;
+    private TrafficSelector equalSelector;
+    private FlowRule flowRule;
+    private FlowRule equalFlowRule;
+
+    @Setup
+    public void setup() {
+        selector = selector(criteria);
+        equalSelector = selector(criteria);
+        flowRule = flowRule(selector);
+        equalFlowRule = flowRule(equalSelector);
+    }
+
+    @Benchmark
+    public TrafficSelector buildSelector() {
+        return selector(criteria);
+    }
+
+    @Benchmark
+    public FlowRule buildFlowRule() {
+        return flowRule(selector);
+    }
+
+    @Benchmark
+    public int selectorHashCode() {
+        return selector.hashCode();
+    }
+
+    @Benchmark
+    public boolean selectorEquals() {
+        return selector.equals(equalSelector);
+    }
+
+    @Benchmark
+    public int flowRuleHashCode() {
+        return flowRule.hashCode();
+    }
+
+    @Benchmark
+    public boolean flowRuleEquals() {
+        return flowRule.equals(equalFlowRule);
+    }
+
+    @Benchmark
+    public boolean flowRuleExactMatch() {
+        return flowRule.exactMatch(equalFlowRule);
+    }
+
+    private static TrafficSelector selector(int criteria) {
+        TrafficSelector.Builder builder = DefaultTrafficSelector.builder();
+        CRITERIA.stream().limit(criteria).forEach(criterion -> criterion.accept(builder));
+        return builder.build();
+    }
+
+    private static FlowRule flowRule(TrafficSelector selector) {
+        return DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .withSelector(selector)
+                .withTreatment(TREATMENT)
+                .withPriority(40000)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.benchmarks;
+
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of IP prefix parsing, containment checks and hashing.
+ * <p>
+ * Each invocation goes over a fixed set of prefixes and addresses generated
+ * from a constant seed, so that results are comparable across runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpPrefixBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final long SEED = 42;
+
+    @Param
+    private IpAddress.Version version;
+
+    private final String[] strings = new String[SIZE];
+    private final IpPrefix[] prefixes = new IpPrefix[SIZE];
+    private final IpPrefix[] equalPrefixes = new IpPrefix[SIZE];
+    private final IpAddress[] addresses = new IpAddress[SIZE];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        int octets = version == IpAddress.Version.INET ? IpAddress.INET_BYTE_LENGTH : IpAddress.INET6_BYTE_LENGTH;
+        for (int i = 0; i < SIZE; i++) {
+            byte[] address = new byte[octets];
+            random.nextBytes(address);
+            int prefixLength = random.nextInt(octets * Byte.SIZE + 1);
+            prefixes[i] = IpPrefix.valueOf(version, address, prefixLength);
+            equalPrefixes[i] = IpPrefix.valueOf(version, address, prefixLength);
+            strings[i] = prefixes[i].toString();
+            // half of the addresses are contained in the prefix of the same index
+            addresses[i] = random.nextBoolean() ? IpAddress.valueOf(version, address)
+                    : IpAddress.valueOf(version, randomBytes(random, octets));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void parse(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(IpPrefix.valueOf(string));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void format(Blackhole blackhole) {
+        for (IpPrefix prefix : prefixes) {
+            blackhole.consume(prefix.toString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void containsAddress(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(prefixes[i].contains(addresses[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void containsPrefix(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(prefixes[i].contains(prefixes[(i + 1) % SIZE]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void hash(Blackhole blackhole) {
+        for (IpPrefix prefix : prefixes) {
+            blackhole.consume(prefix.hashCode());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void equality(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++) {
+            blackhole.consume(prefixes[i].equals(equalPrefixes[i]));
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.benchmarks;
+
+import org.onlab.packet.IpPrefix;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of serialization of core API types with the {@link KryoNamespaces#API} namespace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoSerializerBenchmark {
+
+    private static final KryoNamespace SERIALIZER = KryoNamespaces.API;
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * Objects serialized by the benchmarks.
+     */
+    public enum Subject {
+        DEVICE_ID(() -> DeviceId.deviceId("of:0000000000000001")),
+        CONNECT_POINT(() -> new ConnectPoint(DeviceId.deviceId("of:0000000000000001"),
+                                             PortNumber.portNumber(1))),
+        IP_PREFIX(() -> IpPrefix.valueOf("10.1.0.0/16")),
+        FLOW_RULE(() -> DefaultFlowRule.builder()
+                .forDevice(DeviceId.deviceId("of:0000000000000001"))
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(1))
+                                      .matchEthType((short) 0x0800)
+                                      .matchIPDst(IpPrefix.valueOf("10.1.0.0/16"))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(2))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(new DefaultApplicationId(1, "org.onosproject.benchmarks"))
+                .makePermanent()
+                .build());
+
+        private final Supplier<Object> supplier;
+
+        Subject(Supplier<Object> supplier) {
+            this.supplier = supplier;
+        }
+    }
+
+    @Param
+    private Subject subject;
+
+    private Object object;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        object = subject.supplier.get();
+        bytes = SERIALIZER.serialize(object);
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return SERIALIZER.serialize(object);
+    }
+
+    @Benchmark
+    public ByteBuffer serializeToBuffer() {
+        buffer.clear();
+        SERIALIZER.serialize(object, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return SERIALIZER.deserialize(bytes);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.Hasher;
+import org.mapdb.Serializer;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.persistence.impl.LogStore;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the restart of the local persistence engines: the time to
+ * reopen a store holding serialized flow entries and to read all of them.
+ * Entries are read in serialized form, as decoding costs the same for all
+ * engines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceRestartBenchmark {
+
+    private static final KryoNamespace SERIALIZER = KryoNamespaces.API;
+    private static final String NAME = "map:flows";
+
+    /**
+     * Local persistence engines.
+     */
+    public enum Engine {
+        LOG {
+            @Override
+            Store open(Path directory) throws IOException {
+                LogStore store = new LogStore(directory);
+                return new Store(store.map(NAME), store::close);
+            }
+        },
+        MAPDB {
+            @Override
+            Store open(Path directory) {
+                DB db = DBMaker.newFileDB(directory.resolve("cache").toFile())
+                        .asyncWriteEnable()
+                        .make();
+                Map<byte[], byte[]> map = db.createHashMap(NAME)
+                        .keySerializer(Serializer.BYTE_ARRAY)
+                        .valueSerializer(Serializer.BYTE_ARRAY)
+                        .hasher(Hasher.BYTE_ARRAY)
+                        .makeOrGet();
+                return new Store(map, () -> {
+                    db.commit();
+                    db.close();
+                });
+            }
+        };
+
+        abstract Store open(Path directory) throws IOException;
+    }
+
+    /**
+     * Opened store and the action closing it.
+     */
+    static final class Store {
+        private final Map<byte[], byte[]> map;
+        private final Runnable closer;
+
+        private Store(Map<byte[], byte[]> map, Runnable closer) {
+            this.map = map;
+            this.closer = closer;
+        }
+    }
+
+    @Param({"1000000"})
+    private int entries;
+
+    @Param
+    private Engine engine;
+
+    private Path directory;
+    private Store store;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("persistence-benchmark");
+        Store writer = engine.open(directory);
+        for (int i = 0; i < entries; i++) {
+            FlowEntry entry = flowEntry(i);
+            writer.map.put(SERIALIZER.serialize(entry.id()), SERIALIZER.serialize(entry));
+        }
+        writer.closer.run();
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        if (store != null) {
+            store.closer.run();
+            store = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long restart() throws IOException {
+        store = engine.open(directory);
+        long bytes = 0;
+        for (Map.Entry<byte[], byte[]> entry : store.map.entrySet()) {
+            bytes += entry.getKey().length + entry.getValue().length;
+        }
+        return bytes;
+    }
+
+    private static FlowEntry flowEntry(int index) {
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(DeviceId.deviceId(String.format("of:%016x", index % 100)))
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(index % 48))
+                                      .matchEthType((short) 0x0800)
+                                      .matchIPDst(Ip4Prefix.valueOf(index << 8, 24))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber((index + 1) % 48))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(new DefaultApplicationId(1, "org.onosproject.benchmarks"))
+                .makePermanent()
+                .build();
+        return new DefaultFlowEntry(rule, FlowEntry.FlowEntryState.ADDED);
+    }
+}
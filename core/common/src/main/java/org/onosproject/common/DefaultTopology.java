@@ -18,10 +18,14 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
+import com.google.common.collect.Sets;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
@@ -59,9 +63,13 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -94,8 +102,15 @@ public class DefaultTopology extends AbstractModel implements Topology {
             new LazyKShortestPathsSearch<>();
 
 
+    /**
+     * Default maximum number of path query results cached by each topology;
+     * path caching is disabled by default.
+     */
+    public static final int DEFAULT_PATH_CACHE_SIZE = 0;
+
     private static LinkWeigher defaultLinkWeigher = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
+    private static volatile int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
 
     private final long time;
     private final long creationTime;
@@ -104,12 +119,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterResults> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
+    private final Supplier<ImmutableSetMultimap<ClusterId, Link>> broadcastTrees;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
+    private final Cache<PathKey, Set<Path>> pathCache;
 
     /**
      * Sets the default link-weight to be used when computing paths. If null is
@@ -135,6 +152,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Sets the maximum number of shortest path query results cached by each
+     * subsequently created topology. Results are cached per source, destination,
+     * link weigher and maximum number of paths, with link weighers compared by
+     * equality, so the weights assigned by equal link weighers are expected to
+     * depend only on the topology. Weighers that do not define equality are
+     * compared by identity, so weighers created for each query only hit the
+     * cache when they implement equals and hashCode.
+     * If 0 is specified, path query results will not be cached.
+     *
+     * @param size maximum number of cached path query results
+     */
+    public static void setPathCacheSize(int size) {
+        checkArgument(size >= 0, "Path cache size must not be negative");
+        log.info("Setting new path cache size to {}", size);
+        pathCacheSize = size;
+    }
+
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -145,6 +180,25 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * incrementally deriving its clusters and broadcast trees from those of
+     * the given previous topology. Clusters are searched for again only where
+     * devices or links have been removed, unless the added links may have
+     * merged clusters, and broadcast trees are rebuilt only for the clusters
+     * whose trees are no longer intact.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -154,14 +208,26 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
+        // Results derived from the previous topology are computed eagerly so
+        // that the previous topology is not retained.
+        ClusterResults updatedClusters = previous != null ? updateClusters(previous) : null;
+        this.clusterResults = updatedClusters != null
+                ? Suppliers.ofInstance(updatedClusters)
+                : Suppliers.memoize(this::searchForClusters);
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
         this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
 
         this.hopCountWeigher = new HopCountLinkWeigher(graph.getVertexes().size());
+        this.broadcastTrees = updatedClusters != null
+                ? Suppliers.ofInstance(updateBroadcastTrees(previous))
+                : Suppliers.memoize(this::buildBroadcastTrees);
         this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
+        int cacheSize = pathCacheSize;
+        this.pathCache = cacheSize > 0
+                ? CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build()
+                : null;
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
 
@@ -376,6 +442,31 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public Set<Path> getPaths(DeviceId src, DeviceId dst, LinkWeigher weigher,
                               int maxPaths) {
+        if (pathCache == null) {
+            return searchPaths(src, dst, weigher, maxPaths);
+        }
+
+        // Concurrent misses on the same key may both search; the results are equal.
+        PathKey key = new PathKey(src, dst, weigher, graphPathSearch(), maxPaths);
+        Set<Path> paths = pathCache.getIfPresent(key);
+        if (paths == null) {
+            paths = searchPaths(src, dst, weigher, maxPaths);
+            pathCache.put(key, paths);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the statistics of the shortest path query result cache.
+     *
+     * @return path cache statistics; empty if path caching is disabled
+     */
+    public CacheStats pathCacheStats() {
+        return pathCache != null ? pathCache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    private Set<Path> searchPaths(DeviceId src, DeviceId dst, LinkWeigher weigher,
+                                  int maxPaths) {
         DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
         DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
         Set<TopologyVertex> vertices = graph.getVertexes();
@@ -629,23 +720,111 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private ClusterResults searchForClusters() {
+        SccResult<TopologyVertex, TopologyEdge> results =
+                TARJAN.search(graph, new NoIndirectLinksWeigher());
+        return new ClusterResults(results.clusterVertexes(), results.clusterEdges());
+    }
+
+    // Derives the clusters from those of the previous topology, searching
+    // again only the clusters that lost devices or viable links. Returns null
+    // if viable links were added between clusters or to new devices, as such
+    // links may merge clusters and require a search of the whole graph.
+    private ClusterResults updateClusters(DefaultTopology previous) {
+        TopologyGraph prevGraph = previous.graph;
+        ImmutableMap<DeviceId, TopologyCluster> prevClusters = previous.clustersByDevice();
+        Set<TopologyEdge> prevEdges = viableEdges(prevGraph);
+        Set<TopologyEdge> newEdges = viableEdges(graph);
+
+        for (TopologyEdge edge : Sets.difference(newEdges, prevEdges)) {
+            TopologyCluster cluster = prevClusters.get(edge.src().deviceId());
+            if (cluster == null || cluster != prevClusters.get(edge.dst().deviceId())) {
+                return null;
+            }
+        }
+
+        // Removing devices or links can only split the clusters containing them.
+        Set<Integer> affected = new HashSet<>();
+        for (TopologyEdge edge : Sets.difference(prevEdges, newEdges)) {
+            TopologyCluster cluster = prevClusters.get(edge.src().deviceId());
+            if (cluster != null && cluster == prevClusters.get(edge.dst().deviceId())) {
+                affected.add(cluster.id().index());
+            }
+        }
+        for (TopologyVertex vertex : prevGraph.getVertexes()) {
+            if (!graph.getVertexes().contains(vertex)) {
+                affected.add(prevClusters.get(vertex.deviceId()).id().index());
+            }
+        }
+
+        List<Set<TopologyVertex>> clusterVertexes = new ArrayList<>();
+        List<Set<TopologyVertex>> prevClusterVertexes = previous.clusterResults.get().clusterVertexes;
+        for (int i = 0; i < prevClusterVertexes.size(); i++) {
+            if (!affected.contains(i)) {
+                clusterVertexes.add(prevClusterVertexes.get(i));
+                continue;
+            }
+
+            // A split cluster can only yield clusters within itself.
+            Set<TopologyVertex> vertexes = prevClusterVertexes.get(i).stream()
+                    .filter(graph.getVertexes()::contains)
+                    .collect(Collectors.toSet());
+            if (!vertexes.isEmpty()) {
+                TopologyGraph subgraph =
+                        new DefaultTopologyGraph(vertexes, findClusterEdges(vertexes));
+                clusterVertexes.addAll(TARJAN.search(subgraph, new NoIndirectLinksWeigher())
+                                               .clusterVertexes());
+            }
+        }
+
+        // New devices without viable links form clusters of their own.
+        for (TopologyVertex vertex : graph.getVertexes()) {
+            if (!prevGraph.getVertexes().contains(vertex)) {
+                clusterVertexes.add(ImmutableSet.of(vertex));
+            }
+        }
+
+        List<Set<TopologyEdge>> clusterEdges = clusterVertexes.stream()
+                .map(this::findClusterEdges)
+                .collect(Collectors.toList());
+        return new ClusterResults(Collections.unmodifiableList(clusterVertexes),
+                                  Collections.unmodifiableList(clusterEdges));
+    }
+
+    // Returns the edges which may be traversed when searching for clusters.
+    private static Set<TopologyEdge> viableEdges(TopologyGraph graph) {
+        LinkWeigher weigher = new NoIndirectLinksWeigher();
+        return graph.getEdges().stream()
+                .filter(edge -> weigher.weight(edge).isViable())
+                .collect(Collectors.toSet());
+    }
+
+    // Returns all edges of the graph between the specified vertexes.
+    private Set<TopologyEdge> findClusterEdges(Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterResults results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges;
 
         // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+        for (int i = 0, n = clusterVertexes.size(); i < n; i++) {
             Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
             Set<TopologyEdge> edgeSet = clusterEdges.get(i);
 
@@ -675,17 +854,46 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // Processes a map of broadcast sets for each cluster.
     private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+        broadcastTrees.get().forEach((clusterId, link) -> {
+            builder.put(clusterId, link.src());
+            builder.put(clusterId, link.dst());
+        });
+        return builder.build();
+    }
+
+    // Processes a map of broadcast tree links for each cluster.
+    private ImmutableSetMultimap<ClusterId, Link> buildBroadcastTrees() {
+        Builder<ClusterId, Link> builder = ImmutableSetMultimap.builder();
         for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+            addClusterBroadcastTree(cluster, builder);
         }
         return builder.build();
     }
 
-    // Finds all broadcast points for the cluster. These are those connection
-    // points which lie along the shortest paths between the cluster root and
-    // all other devices within the cluster.
-    private void addClusterBroadcastSet(TopologyCluster cluster,
-                                        Builder<ClusterId, ConnectPoint> builder) {
+    // Reuses the broadcast trees of the previous topology for clusters with
+    // the same root and devices whose tree links are all still present; the
+    // trees of the remaining clusters are built anew.
+    private ImmutableSetMultimap<ClusterId, Link> updateBroadcastTrees(DefaultTopology previous) {
+        ImmutableSetMultimap<ClusterId, Link> prevTrees = previous.broadcastTrees.get();
+        Builder<ClusterId, Link> builder = ImmutableSetMultimap.builder();
+        for (TopologyCluster cluster : clusters.get().values()) {
+            TopologyCluster prevCluster = previous.getCluster(cluster.root().deviceId());
+            if (prevCluster != null && prevCluster.root().equals(cluster.root()) &&
+                    previous.getClusterDevices(prevCluster).equals(getClusterDevices(cluster)) &&
+                    getClusterLinks(cluster).containsAll(prevTrees.get(prevCluster.id()))) {
+                builder.putAll(cluster.id(), prevTrees.get(prevCluster.id()));
+            } else {
+                addClusterBroadcastTree(cluster, builder);
+            }
+        }
+        return builder.build();
+    }
+
+    // Finds all broadcast tree links for the cluster. These are those links
+    // which lie along the shortest paths between the cluster root and all
+    // other devices within the cluster.
+    private void addClusterBroadcastTree(TopologyCluster cluster,
+                                         Builder<ClusterId, Link> builder) {
         // Use the graph root search results to build the broadcast set.
         Result<TopologyVertex, TopologyEdge> result =
                 DIJKSTRA.search(graph, cluster.root(), null, hopCountWeigher, 1);
@@ -704,11 +912,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
                 continue;
             }
 
-            // Use the first back-link source and destinations to add to the
-            // broadcast set.
-            Link link = parents.iterator().next().link();
-            builder.put(cluster.id(), link.src());
-            builder.put(cluster.id(), link.dst());
+            // Use the first back-link to add to the broadcast tree.
+            builder.put(cluster.id(), parents.iterator().next().link());
         }
     }
 
@@ -743,13 +948,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().clusterVertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().clusterEdges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -780,6 +985,59 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Key of a shortest path query; the weigher and search algorithm are
+    // compared by equality.
+    private static final class PathKey {
+        private final DeviceId src;
+        private final DeviceId dst;
+        private final LinkWeigher weigher;
+        private final GraphPathSearch<TopologyVertex, TopologyEdge> search;
+        private final int maxPaths;
+
+        private PathKey(DeviceId src, DeviceId dst, LinkWeigher weigher,
+                        GraphPathSearch<TopologyVertex, TopologyEdge> search,
+                        int maxPaths) {
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+            this.search = search;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst, weigher, search, maxPaths);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PathKey)) {
+                return false;
+            }
+            PathKey that = (PathKey) obj;
+            return maxPaths == that.maxPaths
+                    && src.equals(that.src) && dst.equals(that.dst)
+                    && Objects.equals(weigher, that.weigher)
+                    && Objects.equals(search, that.search);
+        }
+    }
+
+    // Strongly connected device clusters and the links within them; the
+    // lists form pairs along the same index.
+    private static final class ClusterResults {
+        final List<Set<TopologyVertex>> clusterVertexes;
+        final List<Set<TopologyEdge>> clusterEdges;
+
+        ClusterResults(List<Set<TopologyVertex>> clusterVertexes,
+                       List<Set<TopologyEdge>> clusterEdges) {
+            this.clusterVertexes = clusterVertexes;
+            this.clusterEdges = clusterEdges;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
@@ -77,7 +77,27 @@ public class DefaultTopologyTest {
     }
     public static final LinkWeigher WEIGHER = new TestLinkWeigher();
 
+    private static final class EqualLinkWeigher
+            extends DefaultEdgeWeigher<TopologyVertex, TopologyEdge>
+            implements LinkWeigher {
+        @Override
+        public Weight weight(TopologyEdge edge) {
+            return new ScalarWeight(HOP_WEIGHT_VALUE);
+        }
 
+        @Override
+        public int hashCode() {
+            return EqualLinkWeigher.class.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EqualLinkWeigher;
+        }
+    }
+
+
+    private GraphDescription graphDescription;
     private DefaultTopology dt;
 
     public static final ClusterId C0 = ClusterId.clusterId(0);
@@ -93,7 +113,7 @@ public class DefaultTopologyTest {
                              link("3", 2, "2", 2), link("2", 2, "3", 2),
                              link("1", 3, "4", 3), link("4", 3, "1", 3),
                              link("3", 4, "4", 4), link("4", 4, "3", 4));
-        GraphDescription graphDescription =
+        graphDescription =
                 new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
 
         dt = new DefaultTopology(PID, graphDescription);
@@ -128,6 +148,88 @@ public class DefaultTopologyTest {
 
     }
 
+    @Test
+    public void pathCacheDisabledByDefault() {
+        dt.getPaths(D1, D3, WEIGHER);
+        dt.getPaths(D1, D3, WEIGHER);
+        assertEquals("no cache requests expected", 0, dt.pathCacheStats().requestCount());
+    }
+
+    @Test
+    public void pathCache() {
+        DefaultTopology.setPathCacheSize(2);
+        try {
+            DefaultTopology topology = new DefaultTopology(PID, graphDescription);
+            Set<Path> paths = topology.getPaths(D1, D3, WEIGHER);
+            assertSame("cached paths expected", paths, topology.getPaths(D1, D3, WEIGHER));
+            assertEquals("incorrect cache hit count", 1, topology.pathCacheStats().hitCount());
+
+            // this weigher does not define equality, so it is compared by identity
+            assertEquals("incorrect path count", 1, topology.getPaths(D1, D3, new TestLinkWeigher()).size());
+            assertEquals("incorrect cache hit count", 1, topology.pathCacheStats().hitCount());
+
+            // equal weighers share their cached results
+            paths = topology.getPaths(D1, D3, new EqualLinkWeigher());
+            assertSame("cached paths expected", paths, topology.getPaths(D1, D3, new EqualLinkWeigher()));
+            assertEquals("incorrect cache hit count", 2, topology.pathCacheStats().hitCount());
+
+            // the cache is bounded
+            topology.getPaths(D1, D2, WEIGHER);
+            topology.getPaths(D2, D3, WEIGHER);
+            assertTrue("evictions expected", topology.pathCacheStats().evictionCount() > 0);
+        } finally {
+            DefaultTopology.setPathCacheSize(DefaultTopology.DEFAULT_PATH_CACHE_SIZE);
+        }
+    }
+
+    @Test
+    public void incrementalCompute() {
+        Set<Device> devices = of(device("1"), device("2"), device("3"),
+                                 device("4"), device("5"));
+
+        // Removing a link that does not split the cluster keeps the clusters.
+        DefaultTopology t1 = update(dt, devices,
+                                    of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                       link("3", 2, "2", 2),
+                                       link("1", 3, "4", 3), link("4", 3, "1", 3),
+                                       link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 2, t1.clusterCount());
+        assertEquals("incorrect cluster device count", 4,
+                     t1.getClusterDevices(t1.getCluster(D1)).size());
+        assertEquals("incorrect cluster link count", 7,
+                     t1.getClusterLinks(t1.getCluster(D1)).size());
+        assertTrue("should be broadcast point", t1.isBroadcastPoint(new ConnectPoint(D1, P1)));
+
+        // Removing the links between 1 and 4 splits the cluster.
+        DefaultTopology t2 = update(t1, devices,
+                                    of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                       link("3", 2, "2", 2),
+                                       link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 3, t2.clusterCount());
+        assertTrue("cluster should contain D2",
+                   t2.getClusterDevices(t2.getCluster(D1)).contains(D2));
+        assertFalse("cluster should not contain D3",
+                    t2.getClusterDevices(t2.getCluster(D1)).contains(D3));
+
+        // Adding a link between clusters merges them again.
+        DefaultTopology t3 = update(t2, devices,
+                                    of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                       link("3", 2, "2", 2), link("2", 2, "3", 2),
+                                       link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 2, t3.clusterCount());
+        assertEquals("incorrect broadcast set size", 6,
+                     t3.broadcastSetSize(t3.getCluster(D1).id()));
+    }
+
+    // Creates a new topology incrementally derived from the previous one.
+    private static DefaultTopology update(DefaultTopology previous,
+                                          Set<Device> devices, Set<Link> links) {
+        long now = System.currentTimeMillis();
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(now, now, devices, links);
+        return new DefaultTopology(PID, graphDescription, null, previous);
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
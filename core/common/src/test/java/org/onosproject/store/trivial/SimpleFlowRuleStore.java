@@ -32,6 +32,7 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.util.Tools;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.DefaultFlowEntry;
@@ -141,6 +142,15 @@ public class SimpleFlowRuleStore
         return sum;
     }
 
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId) {
+        int sum = 0;
+        for (List<StoredFlowEntry> fes : getFlowTable(deviceId).values()) {
+            sum += fes.size();
+        }
+        return sum;
+    }
+
     /**
      * Extracts properties from the component configuration context.
      *
@@ -208,6 +218,23 @@ public class SimpleFlowRuleStore
                 .transformAndConcat(Collections::unmodifiableList);
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByAppId(ApplicationId appId) {
+        return FluentIterable.from(flowEntries.keySet())
+                .transformAndConcat(this::getFlowEntries)
+                .filter(entry -> entry.appId() == appId.id())
+                .toList();
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByGroupId(ApplicationId appId, short groupId) {
+        long toLookUp = ((appId.id() & 0xffffL) << 16) | (groupId & 0xffffL);
+        return FluentIterable.from(flowEntries.keySet())
+                .transformAndConcat(this::getFlowEntries)
+                .filter(entry -> (entry.id().value() >>> 32) == toLookUp)
+                .toList();
+    }
+
     @Override
     public void storeFlowRule(FlowRule rule) {
         storeFlowRuleInternal(rule);
@@ -94,6 +94,22 @@ public class CoreManager implements CoreService {
             label = "Enable queue performance check on shared pool")
     private boolean calculatePoolPerformance = DEFAULT_PERFORMANCE_CHECK;
 
+    private static final int DEFAULT_EVENT_SHARDS = 1;
+    @Property(name = "eventDispatchShards", intValue = DEFAULT_EVENT_SHARDS,
+            label = "Number of dispatch loops per class of events; events are sharded across loops by subject")
+    private int eventDispatchShards = DEFAULT_EVENT_SHARDS;
+
+    private static final int DEFAULT_EVENT_QUEUE_SIZE = 0;
+    @Property(name = "eventDispatchQueueSize", intValue = DEFAULT_EVENT_QUEUE_SIZE,
+            label = "Maximum number of events queued per dispatch loop, beyond which posting waits " +
+                    "for room and then rejects events; 0 for unbounded queues")
+    private int eventDispatchQueueSize = DEFAULT_EVENT_QUEUE_SIZE;
+
+    private static final boolean DEFAULT_EVENT_METRICS = false;
+    @Property(name = "eventDispatchMetrics", boolValue = DEFAULT_EVENT_METRICS,
+            label = "Enable queue, sink processing time and listener latency metrics on event dispatch loops")
+    private boolean eventDispatchMetrics = DEFAULT_EVENT_METRICS;
+
 
     @Activate
     protected void activate() {
@@ -180,7 +196,31 @@ public class CoreManager implements CoreService {
             SharedExecutors.setMetricsService(calculatePoolPerformance ? metricsService : null);
         }
 
-        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, calculatePoolPerformance={}",
-                 sharedThreadPoolSize, maxEventTimeLimit, calculatePoolPerformance);
+        Integer shards = Tools.getIntegerProperty(properties, "eventDispatchShards");
+        if (shards != null && shards > 0) {
+            eventDispatchShards = shards;
+            eventDeliveryService.setDispatchShards(eventDispatchShards);
+        } else if (shards != null) {
+            log.warn("eventDispatchShards must be greater than 0");
+        }
+
+        Integer queueSize = Tools.getIntegerProperty(properties, "eventDispatchQueueSize");
+        if (queueSize != null && queueSize >= 0) {
+            eventDispatchQueueSize = queueSize;
+            eventDeliveryService.setDispatchQueueSize(eventDispatchQueueSize);
+        } else if (queueSize != null) {
+            log.warn("eventDispatchQueueSize must be greater than or equal to 0");
+        }
+
+        Boolean eventMetrics = Tools.isPropertyEnabled(properties, "eventDispatchMetrics");
+        if (eventMetrics != null) {
+            eventDispatchMetrics = eventMetrics;
+            eventDeliveryService.setMetricsService(eventDispatchMetrics ? metricsService : null);
+        }
+
+        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, calculatePoolPerformance={}, " +
+                         "eventDispatchShards={}, eventDispatchQueueSize={}, eventDispatchMetrics={}",
+                 sharedThreadPoolSize, maxEventTimeLimit, calculatePoolPerformance,
+                 eventDispatchShards, eventDispatchQueueSize, eventDispatchMetrics);
     }
 }
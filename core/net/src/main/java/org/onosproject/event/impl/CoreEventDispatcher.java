@@ -15,6 +15,8 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimerTask;
@@ -23,31 +25,50 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.event.ListenerRegistry;
+import org.onosproject.net.Element;
+import org.onosproject.net.Link;
 import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -55,6 +76,15 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Events are dispatched by one group of dispatch loops per class of events.
+ * By default each group has a single loop, which delivers all events of the
+ * group in order. Groups may instead be sharded across several loops, in which
+ * case events are assigned to a loop by subject, so that a slow sink only
+ * holds up the events sharing a loop with the event it is processing.
+ * Posting to a full queue waits for the loop to make room for a bounded
+ * time, except when posting from the loop itself; events that still find
+ * the queue full are rejected, counted and reported at a limited rate.
  */
 @Component(immediate = true)
 @Service
@@ -63,13 +93,17 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
+    // Dispatch settings; declared ahead of the groups, which read them on creation.
+    private int dispatchShards = 1;
+    private int dispatchQueueSize = 0;
+    private MetricsService metricsService;
 
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
-    private DispatchLoop defaultDispatcher = new DispatchLoop("default");
+    private DispatchGroup topologyDispatcher = new DispatchGroup("topology");
+    private DispatchGroup programmingDispatcher = new DispatchGroup("programming");
+    private DispatchGroup defaultDispatcher = new DispatchGroup("default");
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
+    private Map<Class, DispatchGroup> dispatcherMap =
+            new ImmutableMap.Builder<Class, DispatchGroup>()
                 .put(TopologyEvent.class, topologyDispatcher)
                 .put(DeviceEvent.class, topologyDispatcher)
                 .put(LinkEvent.class, topologyDispatcher)
@@ -78,8 +112,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                 .put(IntentEvent.class, programmingDispatcher)
                 .build();
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
+    private Set<DispatchGroup> dispatchers =
+            new ImmutableSet.Builder<DispatchGroup>()
                 .addAll(dispatcherMap.values())
                 .add(defaultDispatcher)
                 .build();
@@ -87,6 +121,12 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
+    // Number of millis posting waits for room in a full queue.
+    private static final long POST_TIMEOUT_MS = 1_000; // ms
+    // Minimum number of millis between reports of rejected events.
+    private static final long REJECTED_LOG_MS = 10_000; // ms
+
+    private static final String METRICS_COMPONENT = "EventDispatcher";
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
@@ -94,27 +134,68 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
-    private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
+    private final AtomicLong rejectedEvents = new AtomicLong();
+    private final AtomicLong lastRejectedLogMillis = new AtomicLong();
+
+    private DispatchGroup getDispatcher(Event event) {
+        DispatchGroup dispatcher = dispatcherMap.get(event.getClass());
         if (dispatcher == null) {
             dispatcher = defaultDispatcher;
         }
         return dispatcher;
     }
 
+    // Returns the key by which events are sharded; events with equal keys
+    // are always dispatched by the same loop. Device and link events are keyed
+    // by device, the source device of links, so that the events of a device
+    // and of its links stay ordered. Events with subjects that have no stable
+    // identity are keyed by their class, which keeps them ordered.
+    private static Object shardKey(Event event) {
+        Object subject = event.subject();
+        if (subject instanceof Element) {
+            return ((Element) subject).id();
+        } else if (subject instanceof Link) {
+            return ((Link) subject).src().deviceId();
+        } else if (subject instanceof FlowRule) {
+            return ((FlowRule) subject).deviceId();
+        } else if (subject instanceof Intent) {
+            return ((Intent) subject).key();
+        }
+        return event.getClass();
+    }
+
     @Override
     public void post(Event event) {
 
         if (!getDispatcher(event).add(event)) {
-            log.error("Unable to post event {}", event);
+            rejected("post", event);
         }
     }
 
+    // Counts a rejected event, reporting rejections at most once per interval.
+    private void rejected(String action, Event event) {
+        long rejected = rejectedEvents.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long lastLog = lastRejectedLogMillis.get();
+        if (now - lastLog >= REJECTED_LOG_MS && lastRejectedLogMillis.compareAndSet(lastLog, now)) {
+            log.error("Unable to {} event {}; {} events rejected so far", action, event, rejected);
+        }
+    }
+
+    /**
+     * Returns the number of events rejected by full dispatch queues.
+     *
+     * @return number of rejected events
+     */
+    long getRejectedEventCount() {
+        return rejectedEvents.get();
+    }
+
     @Activate
     public void activate() {
 
         if (maxProcessMillis != 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            dispatchers.forEach(DispatchGroup::startWatchdog);
         }
 
         log.info("Started");
@@ -122,7 +203,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Deactivate
     public void deactivate() {
-        dispatchers.forEach(DispatchLoop::stop);
+        dispatchers.forEach(DispatchGroup::stop);
 
         log.info("Stopped");
     }
@@ -136,9 +217,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            dispatchers.forEach(DispatchGroup::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            dispatchers.forEach(DispatchGroup::startWatchdog);
         }
     }
 
@@ -148,34 +229,202 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    @Override
+    public synchronized void setDispatchShards(int shards) {
+        checkPermission(EVENT_WRITE);
+        checkArgument(shards > 0, "Number of shards must be positive");
+        if (shards != dispatchShards) {
+            dispatchShards = shards;
+            dispatchers.forEach(DispatchGroup::reconfigure);
+        }
+    }
+
+    @Override
+    public int getDispatchShards() {
+        checkPermission(EVENT_READ);
+        return dispatchShards;
+    }
+
+    @Override
+    public synchronized void setDispatchQueueSize(int size) {
+        checkPermission(EVENT_WRITE);
+        checkArgument(size >= 0, "Queue size must not be negative");
+        if (size != dispatchQueueSize) {
+            dispatchQueueSize = size;
+            dispatchers.forEach(DispatchGroup::reconfigure);
+        }
+    }
+
+    @Override
+    public int getDispatchQueueSize() {
+        checkPermission(EVENT_READ);
+        return dispatchQueueSize;
+    }
+
+    @Override
+    public synchronized void setMetricsService(MetricsService metricsService) {
+        checkPermission(EVENT_WRITE);
+        if (metricsService != this.metricsService) {
+            this.metricsService = metricsService;
+            dispatchers.forEach(DispatchGroup::reconfigure);
+            getSinks().forEach(eventClass -> setListenerMetrics(eventClass, getSink(eventClass), metricsService));
+        }
+    }
+
+    @Override
+    public synchronized <E extends Event> void addSink(Class<E> eventClass, EventSink<E> sink) {
+        super.addSink(eventClass, sink);
+        setListenerMetrics(eventClass, sink, metricsService);
+    }
+
+    @Override
+    public synchronized <E extends Event> void removeSink(Class<E> eventClass) {
+        EventSink<E> sink = getSink(eventClass);
+        super.removeSink(eventClass);
+        setListenerMetrics(eventClass, sink, null);
+    }
+
+    // Listeners are invoked by listener registries, so their latencies are
+    // recorded by the registries themselves.
+    private static void setListenerMetrics(Class<? extends Event> eventClass, EventSink<?> sink,
+                                           MetricsService metricsService) {
+        if (sink instanceof ListenerRegistry) {
+            ((ListenerRegistry<?, ?>) sink).setMetricsService(metricsService, METRICS_COMPONENT,
+                                                              eventClass.getSimpleName());
+        }
+    }
+
+    // Group of dispatch loops serving one class of events.
+    private class DispatchGroup {
+        private final String name;
+        // Guards the replacement of the loops against events being added to them.
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile List<DispatchLoop> loops;
+
+        DispatchGroup(String name) {
+            this.name = name;
+            this.loops = createLoops();
+        }
+
+        private List<DispatchLoop> createLoops() {
+            if (dispatchShards == 1) {
+                return ImmutableList.of(new DispatchLoop(name));
+            }
+            ImmutableList.Builder<DispatchLoop> builder = ImmutableList.builder();
+            for (int i = 0; i < dispatchShards; i++) {
+                builder.add(new DispatchLoop(name + "-" + i));
+            }
+            return builder.build();
+        }
+
+        boolean add(Event event) {
+            Lock readLock = lock.readLock();
+            readLock.lock();
+            try {
+                return loop(event).add(event);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        private DispatchLoop loop(Event event) {
+            if (loops.size() == 1) {
+                return loops.get(0);
+            }
+            return loops.get(Math.floorMod(shardKey(event).hashCode(), loops.size()));
+        }
+
+        // Replaces the loops of the group. Events still queued on the old
+        // loops are moved to the new loops, ahead of any event posted after
+        // the replacement, so that the events of a subject stay ordered; only
+        // the events being processed by the old loops may complete later.
+        void reconfigure() {
+            List<DispatchLoop> newLoops = createLoops();
+            if (maxProcessMillis != 0) {
+                newLoops.forEach(DispatchLoop::startWatchdog);
+            }
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                List<DispatchLoop> oldLoops = loops;
+                loops = newLoops;
+                List<Event> pending = new ArrayList<>();
+                for (DispatchLoop loop : oldLoops) {
+                    loop.shutdown(pending);
+                }
+                for (Event event : pending) {
+                    if (!loop(event).add(event)) {
+                        rejected("requeue", event);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void startWatchdog() {
+            loops.forEach(DispatchLoop::startWatchdog);
+        }
+
+        void stopWatchdog() {
+            loops.forEach(DispatchLoop::stopWatchdog);
+        }
+
+        void stop() {
+            loops.forEach(DispatchLoop::stop);
+        }
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private final String name;
         private volatile boolean stopped;
         private volatile EventSink lastSink;
+        private volatile Thread thread;
         // Means to detect long-running sinks
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
         private TimerTask watchdog;
         private volatile Future<?> dispatchFuture;
         private final BlockingQueue<Event> eventsQueue;
         private final ExecutorService executor;
+        private final DispatchMetrics metrics;
 
         DispatchLoop(String name) {
             this.name = name;
             executor = newSingleThreadExecutor(
                     groupedThreads("onos/event",
                     "dispatch-" + name + "%d", log));
-            eventsQueue = new LinkedBlockingQueue<>();
+            eventsQueue = dispatchQueueSize > 0
+                    ? new LinkedBlockingQueue<>(dispatchQueueSize)
+                    : new LinkedBlockingQueue<>();
+            metrics = metricsService != null ? new DispatchMetrics(this, metricsService) : null;
             dispatchFuture = executor.submit(this);
         }
 
         public boolean add(Event event) {
-            return eventsQueue.add(event);
+            if (eventsQueue.offer(event)) {
+                return true;
+            }
+            // A sink posting to its own loop would wait for itself.
+            if (Thread.currentThread() != thread) {
+                try {
+                    if (eventsQueue.offer(event, POST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (metrics != null) {
+                metrics.rejected.inc();
+            }
+            return false;
         }
 
         @Override
         public void run() {
             stopped = false;
+            thread = Thread.currentThread();
             log.info("Dispatch loop({}) initiated", name);
             while (!stopped) {
                 try {
@@ -199,9 +448,11 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
                 lastSink = sink;
+                Timer.Context timer = startTimer(metrics != null ? metrics.timer(event.getClass()) : null);
                 stopwatch.start();
                 sink.process(event);
                 stopwatch.reset();
+                stopTimer(timer);
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -210,7 +461,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
         void stop() {
             stopped = true;
-            add(KILL_PILL);
+            // A full queue is drained by the loop, which then sees the flag.
+            eventsQueue.offer(KILL_PILL);
         }
 
         void restart() {
@@ -218,6 +470,19 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             dispatchFuture = executor.submit(this);
         }
 
+        // Stops the loop, hands over its queued events and releases its thread.
+        void shutdown(List<Event> pending) {
+            stopWatchdog();
+            stopped = true;
+            eventsQueue.drainTo(pending);
+            pending.remove(KILL_PILL);
+            eventsQueue.offer(KILL_PILL);
+            executor.shutdown();
+            if (metrics != null) {
+                metrics.remove();
+            }
+        }
+
         // Monitors event sinks to make sure none take too long to execute.
         private class Watchdog extends TimerTask {
             @Override
@@ -254,5 +519,34 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         }
     }
 
+    // Metrics of a single dispatch loop: queue depth, events rejected and
+    // sink processing times.
+    private static class DispatchMetrics {
+        private static final String QUEUE_SIZE = "queueSize";
+
+        private final MetricsService metricsService;
+        private final MetricsComponent component;
+        private final MetricsFeature feature;
+        private final Counter rejected;
+        private final Map<Class, Timer> timers = Maps.newConcurrentMap();
+
+        DispatchMetrics(DispatchLoop loop, MetricsService metricsService) {
+            this.metricsService = metricsService;
+            this.component = metricsService.registerComponent(METRICS_COMPONENT);
+            this.feature = component.registerFeature(loop.name);
+            this.rejected = metricsService.createCounter(component, feature, "rejected");
+            metricsService.removeMetric(component, feature, QUEUE_SIZE);
+            metricsService.registerMetric(component, feature, QUEUE_SIZE,
+                                          (Gauge<Integer>) loop.eventsQueue::size);
+        }
+
+        Timer timer(Class eventClass) {
+            return timers.computeIfAbsent(eventClass, c ->
+                    metricsService.createTimer(component, feature, c.getSimpleName()));
+        }
 
+        void remove() {
+            metricsService.removeMetric(component, feature, QUEUE_SIZE);
+        }
+    }
 }
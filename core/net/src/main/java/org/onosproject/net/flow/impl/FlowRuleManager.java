@@ -35,7 +35,6 @@ import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.mastership.MastershipService;
-import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
@@ -295,46 +294,21 @@ public class FlowRuleManager
     public Iterable<FlowRule> getFlowRulesById(ApplicationId id) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowRule> flowEntries = Sets.newHashSet();
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if (flowEntry.appId() == id.id()) {
-                    flowEntries.add(flowEntry);
-                }
-            }
-        }
-        return flowEntries;
+        return Sets.newHashSet(store.getFlowEntriesByAppId(id));
     }
 
     @Override
     public Iterable<FlowEntry> getFlowEntriesById(ApplicationId id) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowEntry> flowEntries = Sets.newHashSet();
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if (flowEntry.appId() == id.id()) {
-                    flowEntries.add(flowEntry);
-                }
-            }
-        }
-        return flowEntries;
+        return Sets.newHashSet(store.getFlowEntriesByAppId(id));
     }
 
     @Override
     public Iterable<FlowRule> getFlowRulesByGroupId(ApplicationId appId, short groupId) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowRule> matches = Sets.newHashSet();
-        long toLookUp = ((long) appId.id() << 16) | groupId;
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if ((flowEntry.id().value() >>> 32) == toLookUp) {
-                    matches.add(flowEntry);
-                }
-            }
-        }
-        return matches;
+        return Sets.newHashSet(store.getFlowEntriesByGroupId(appId, groupId));
     }
 
     @Override
@@ -467,11 +441,11 @@ public class FlowRuleManager
             log.debug("Flow {} is on switch but not in store.", flowRule);
         }
 
-        private void flowAdded(FlowEntry flowEntry) {
+        private void flowAdded(FlowEntry flowEntry, FlowEntry storedEntry) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
+            if (checkRuleLiveness(flowEntry, storedEntry)) {
                 FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
                 if (event == null) {
                     log.debug("No flow store event generated.");
@@ -538,16 +512,18 @@ public class FlowRuleManager
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
-
+            // Reported rules are looked up in the store, which already indexes the flows of the device by ID,
+            // rather than copying the device's flow table on every poll. The stored rules are only scanned for
+            // missing rules when fewer stored rules were reported than the store holds for the device.
+            int reportedStoredRules = 0;
             for (FlowEntry rule : flowEntries) {
                 try {
-                    FlowEntry storedRule = storedRules.remove(rule);
+                    FlowEntry storedRule = store.getFlowEntry(rule);
                     if (storedRule != null) {
+                        reportedStoredRules++;
                         if (storedRule.exactMatch(rule)) {
                             // we both have the rule, let's update some info then.
-                            flowAdded(rule);
+                            flowAdded(rule, storedRule);
                         } else {
                             // the two rules are not an exact match - remove the
                             // switch's rule and install our rule
@@ -567,8 +543,12 @@ public class FlowRuleManager
             }
 
             // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
+            if (useMissingFlow && reportedStoredRules < store.getFlowRuleCount(deviceId)) {
+                Set<FlowEntry> reportedRules = Sets.newHashSet(flowEntries);
+                for (FlowEntry rule : store.getFlowEntries(deviceId)) {
+                    if (reportedRules.contains(rule)) {
+                        continue;
+                    }
                     try {
                         // there are rules in the store that aren't on the switch
                         log.debug("Adding the rule that is present in store but not on switch : {}", rule);
@@ -70,6 +70,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -110,6 +111,14 @@ public class IntentManager
             label = "Indicates whether skipping resource releases on withdrawal is enabled or not")
     private boolean skipReleaseResourcesOnWithdrawal = DEFAULT_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL;
 
+    // Intent operations are spread by key over the batch shards; each shard
+    // has one batch in flight at a time, but shards run concurrently.
+    private static final int DEFAULT_NUM_BATCH_SHARDS = 4;
+    @Property(name = "numBatchShards",
+            intValue = DEFAULT_NUM_BATCH_SHARDS,
+            label = "Number of intent batches processed concurrently, each for a distinct set of intent keys")
+    private int numBatchShards = DEFAULT_NUM_BATCH_SHARDS;
+
     private static final int DEFAULT_NUM_THREADS = 12;
     @Property(name = "numThreads",
             intValue = DEFAULT_NUM_THREADS,
@@ -146,7 +155,6 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetworkConfigService networkConfigService;
 
-    private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
     private final CompilerRegistry compilerRegistry = new CompilerRegistry();
@@ -155,12 +163,10 @@ public class IntentManager
     private final IntentStoreDelegate delegate = new InternalStoreDelegate();
     private final IntentStoreDelegate testOnlyDelegate = new TestOnlyIntentStoreDelegate();
     private final TopologyChangeDelegate topoDelegate = new InternalTopoChangeDelegate();
-    private final IntentBatchDelegate batchDelegate = new InternalBatchDelegate();
+    private volatile BatchShard[] batchShards;
     private InstallCoordinator installCoordinator;
     private IdGenerator idGenerator;
 
-    private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
-
     @Activate
     public void activate() {
         configService.registerProperties(getClass());
@@ -171,7 +177,7 @@ public class IntentManager
         }
         trackerService.setDelegate(topoDelegate);
         eventDispatcher.addSink(IntentEvent.class, listenerRegistry);
-        batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch", log));
+        batchShards = createBatchShards(numBatchShards);
         workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
         idGenerator = coreService.getIdGenerator("intent-ids");
         Intent.unbindIdGenerator(idGenerator);
@@ -190,7 +196,9 @@ public class IntentManager
         configService.unregisterProperties(getClass(), false);
         trackerService.unsetDelegate(topoDelegate);
         eventDispatcher.removeSink(IntentEvent.class);
-        batchExecutor.shutdown();
+        for (BatchShard shard : batchShards) {
+            shard.batchExecutor.shutdown();
+        }
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
         log.info("Stopped");
@@ -229,6 +237,47 @@ public class IntentManager
             }
             logConfig("Reconfigured number of worker threads");
         }
+
+        s = Tools.get(context.getProperties(), "numBatchShards");
+        int newNumBatchShards = isNullOrEmpty(s) ? numBatchShards : Integer.parseInt(s.trim());
+        if (newNumBatchShards > 0 && newNumBatchShards != numBatchShards) {
+            numBatchShards = newNumBatchShards;
+            reshard(numBatchShards);
+            log.info("Reconfigured number of batch shards to {}", numBatchShards);
+        }
+    }
+
+    private BatchShard[] createBatchShards(int numShards) {
+        BatchShard[] shards = new BatchShard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new BatchShard(i);
+        }
+        return shards;
+    }
+
+    // Replaces the batch shards. The new shards only start processing once the
+    // operations left in the old shards are done, so that operations on the
+    // same intent are never processed concurrently or out of order.
+    private void reshard(int numShards) {
+        BatchShard[] oldShards = batchShards;
+        BatchShard[] newShards = createBatchShards(numShards);
+        for (BatchShard shard : newShards) {
+            shard.batchExecutor.execute(() -> awaitTermination(oldShards));
+        }
+        batchShards = newShards;
+        for (BatchShard shard : oldShards) {
+            shard.retire();
+        }
+    }
+
+    private void awaitTermination(BatchShard[] shards) {
+        try {
+            for (BatchShard shard : shards) {
+                shard.batchExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private void logConfig(String prefix) {
@@ -393,7 +442,7 @@ public class IntentManager
 
         @Override
         public void process(IntentData data) {
-            accumulator.add(data);
+            batchShard(data.key()).accumulator.add(data);
         }
 
         @Override
@@ -444,7 +493,7 @@ public class IntentManager
     private class TestOnlyIntentStoreDelegate implements IntentStoreDelegate {
         @Override
         public void process(IntentData data) {
-            accumulator.add(data);
+            batchShard(data.key()).accumulator.add(data);
         }
 
         @Override
@@ -507,13 +556,45 @@ public class IntentManager
         }
     }
 
-    private class InternalBatchDelegate implements IntentBatchDelegate {
+    // Returns the batch shard processing the operations on the given intent.
+    private BatchShard batchShard(Key key) {
+        BatchShard[] shards = batchShards;
+        return shards[(int) Math.floorMod(key.hash(), (long) shards.length)];
+    }
+
+    /**
+     * Shard of the intent operations, processed in batches. Operations on an
+     * intent always go to the same shard, which keeps them in order.
+     */
+    private class BatchShard implements IntentBatchDelegate {
+        private final IntentAccumulator accumulator = new IntentAccumulator(this);
+        private final ExecutorService batchExecutor;
+        private boolean retired;
+
+        BatchShard(int index) {
+            batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch-" + index, log));
+        }
+
+        // Submits the operations left in this shard and stops taking new batches.
+        synchronized void retire() {
+            accumulator.flush();
+            retired = true;
+            batchExecutor.shutdown();
+        }
+
         @Override
-        public void execute(Collection<IntentData> operations) {
+        public synchronized void execute(Collection<IntentData> operations) {
+            if (retired) {
+                // Added to this shard while it was being replaced; hand over
+                // to the current shards.
+                operations.forEach(data -> batchShard(data.key()).accumulator.add(data));
+                return;
+            }
             log.debug("Execute {} operation(s).", operations.size());
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
+            // batchExecutor is single-threaded, so only one batch of this shard
+            // is in flight at a time
             CompletableFuture.runAsync(() -> {
                 // process intent until the phase reaches one of the final phases
                 List<CompletableFuture<IntentData>> futures = operations.stream()
@@ -16,8 +16,10 @@
 package org.onosproject.net.intent.impl;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -62,6 +64,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -69,7 +73,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -91,12 +94,13 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    // Reverse indexes of the tracked resources; updates lock only the bin of
+    // the resource being updated and lookups do not lock at all.
+    private final ConcurrentMap<LinkKey, Set<Key>> intentsByLink =
+            new ConcurrentHashMap<>();
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    private final ConcurrentMap<ElementId, Set<Key>> intentsByDevice =
+            new ConcurrentHashMap<>();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -206,29 +210,46 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Override
     public void addTrackedResources(Key intentKey,
                                     Collection<NetworkResource> resources) {
-        for (NetworkResource resource : resources) {
-            if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
-            } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
-            }
-        }
+        TrackingUpdate update = new TrackingUpdate();
+        update.add(intentKey, resources);
+        update.track();
     }
 
     @Override
     public void removeTrackedResources(Key intentKey,
                                        Collection<NetworkResource> resources) {
-        for (NetworkResource resource : resources) {
-            if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
-            } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
-            }
-        }
+        TrackingUpdate update = new TrackingUpdate();
+        update.add(intentKey, resources);
+        update.untrack();
     }
 
     @Override
     public void trackIntent(IntentData intentData) {
+        TrackingUpdate toTrack = new TrackingUpdate();
+        TrackingUpdate toUntrack = new TrackingUpdate();
+        collectTracking(intentData, toTrack, toUntrack);
+        toTrack.track();
+        toUntrack.untrack();
+    }
+
+    @Override
+    public void trackIntents(Collection<IntentData> intentData) {
+        TrackingUpdate toTrack = new TrackingUpdate();
+        TrackingUpdate toUntrack = new TrackingUpdate();
+        for (IntentData data : intentData) {
+            try {
+                collectTracking(data, toTrack, toUntrack);
+            } catch (NullPointerException npe) {
+                log.warn("intent error {}", data.key(), npe);
+            }
+        }
+        toTrack.track();
+        toUntrack.untrack();
+    }
+
+    // Collects the resources of the given intent to track or to stop tracking.
+    private void collectTracking(IntentData intentData,
+                                 TrackingUpdate toTrack, TrackingUpdate toUntrack) {
 
         //NOTE: This will be called for intents that are being added to the store
         //      locally (i.e. every intent update)
@@ -243,7 +264,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      intentsByDevice.values().stream().anyMatch(keys -> keys.contains(key)),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -257,18 +278,62 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
         // FIXME Intents will be added 3 times (once directly using addTracked,
         //       then when installing and when installed)
-        if (isLocal && isInstalled) {
-            addTrackedResources(key, intent.resources());
-            for (Intent installable : installables) {
-                addTrackedResources(key, installable.resources());
-            }
-            // FIXME check all resources against current topo service(s); recompile if necessary
-        } else {
-            removeTrackedResources(key, intent.resources());
-            for (Intent installable : installables) {
-                removeTrackedResources(key, installable.resources());
+        TrackingUpdate update = isLocal && isInstalled ? toTrack : toUntrack;
+        update.add(key, intent.resources());
+        for (Intent installable : installables) {
+            update.add(key, installable.resources());
+        }
+        // FIXME check all resources against current topo service(s); recompile if necessary
+    }
+
+    /**
+     * Set of index updates grouped by resource, so that each resource entry
+     * is updated once regardless of the number of intents involved.
+     */
+    private final class TrackingUpdate {
+        private final SetMultimap<LinkKey, Key> links = HashMultimap.create();
+        private final SetMultimap<ElementId, Key> elements = HashMultimap.create();
+
+        private void add(Key intentKey, Collection<NetworkResource> resources) {
+            for (NetworkResource resource : resources) {
+                if (resource instanceof Link) {
+                    links.put(linkKey((Link) resource), intentKey);
+                } else if (resource instanceof ElementId) {
+                    elements.put((ElementId) resource, intentKey);
+                }
             }
         }
+
+        private void track() {
+            links.asMap().forEach((link, keys) -> track(intentsByLink, link, keys));
+            elements.asMap().forEach((element, keys) -> track(intentsByDevice, element, keys));
+        }
+
+        private void untrack() {
+            links.asMap().forEach((link, keys) -> untrack(intentsByLink, link, keys));
+            elements.asMap().forEach((element, keys) -> untrack(intentsByDevice, element, keys));
+        }
+
+        private <K> void track(ConcurrentMap<K, Set<Key>> index, K resource, Collection<Key> keys) {
+            index.compute(resource, (k, tracked) -> {
+                Set<Key> updated = tracked != null ? tracked : Sets.newConcurrentHashSet();
+                updated.addAll(keys);
+                return updated;
+            });
+        }
+
+        private <K> void untrack(ConcurrentMap<K, Set<Key>> index, K resource, Collection<Key> keys) {
+            index.computeIfPresent(resource, (k, tracked) -> {
+                tracked.removeAll(keys);
+                return tracked.isEmpty() ? null : tracked;
+            });
+        }
+    }
+
+    // Returns a snapshot of the intents tracking the given resource.
+    private static <K> Set<Key> trackedBy(ConcurrentMap<K, Set<Key>> index, K resource) {
+        Set<Key> keys = index.get(resource);
+        return keys == null ? ImmutableSet.of() : ImmutableSet.copyOf(keys);
     }
 
     // Internal re-actor to topology change events.
@@ -308,12 +373,10 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
                         final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
+                        Set<Key> intentKeys = trackedBy(intentsByLink, linkKey);
+                        log.debug("recompile triggered by LinkEvent {} ({}) for {}",
+                                linkKey, linkEvent.type(), intentKeys);
+                        intentsToRecompile.addAll(intentKeys);
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
                                 (linkEvent.type() == LINK_UPDATED &&
@@ -364,11 +427,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
-            delegate.triggerCompile(snapshot, available);
+            delegate.triggerCompile(trackedBy(intentsByDevice, id), available);
         }
     }
 
@@ -428,13 +487,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
             }
             try {
                 //FIXME very inefficient
-                for (IntentData intentData : intentService.getIntentData()) {
-                    try {
-                        trackIntent(intentData);
-                    } catch (NullPointerException npe) {
-                        log.warn("intent error {}", intentData.key(), npe);
-                    }
-                }
+                trackIntents(ImmutableList.copyOf(intentService.getIntentData()));
             } catch (Exception e) {
                 log.warn("Exception caught during update task", e);
             }
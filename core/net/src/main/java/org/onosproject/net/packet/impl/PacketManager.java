@@ -16,13 +16,26 @@
 package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -34,9 +47,15 @@ import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.driver.Driver;
 import org.onosproject.net.driver.DriverService;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
 import org.onosproject.net.flowobjective.DefaultForwardingObjective;
 import org.onosproject.net.flowobjective.FlowObjectiveService;
 import org.onosproject.net.flowobjective.ForwardingObjective;
@@ -47,6 +66,7 @@ import org.onosproject.net.packet.DefaultPacketRequest;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
+import org.onosproject.net.packet.PacketInQueue;
 import org.onosproject.net.packet.PacketPriority;
 import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProcessorEntry;
@@ -59,13 +79,22 @@ import org.onosproject.net.packet.PacketStore;
 import org.onosproject.net.packet.PacketStoreDelegate;
 import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
+import java.util.Dictionary;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -91,6 +120,28 @@ public class PacketManager
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
     private static final String SUPPORT_PACKET_REQUEST_PROPERTY = "supportPacketRequest";
 
+    private static final Set<Criterion.Type> SUPPORTED_CRITERIA =
+            Sets.immutableEnumSet(Criterion.Type.ETH_TYPE, Criterion.Type.IP_PROTO,
+                                  Criterion.Type.TCP_SRC, Criterion.Type.TCP_DST,
+                                  Criterion.Type.UDP_SRC, Criterion.Type.UDP_DST);
+
+    private static final int DEFAULT_PACKET_IN_WORKERS = 0;
+    @Property(name = "packetInWorkers", intValue = DEFAULT_PACKET_IN_WORKERS,
+            label = "Number of worker threads processing inbound packets off the provider threads; " +
+                    "0 processes them on the provider threads")
+    private int packetInWorkers = DEFAULT_PACKET_IN_WORKERS;
+
+    private static final int DEFAULT_PACKET_IN_QUEUE_SIZE = 1024;
+    @Property(name = "packetInQueueSize", intValue = DEFAULT_PACKET_IN_QUEUE_SIZE,
+            label = "Maximum number of inbound packets queued per device")
+    private int packetInQueueSize = DEFAULT_PACKET_IN_QUEUE_SIZE;
+
+    private static final boolean DEFAULT_PACKET_IN_DROP_WHEN_FULL = true;
+    @Property(name = "packetInDropWhenFull", boolValue = DEFAULT_PACKET_IN_DROP_WHEN_FULL,
+            label = "Drop inbound packets from devices whose queue is full; " +
+                    "otherwise block the provider thread until the queue has room")
+    private boolean packetInDropWhenFull = DEFAULT_PACKET_IN_DROP_WHEN_FULL;
+
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -111,11 +162,18 @@ public class PacketManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveService objectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     private ExecutorService eventHandlingExecutor;
 
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile DispatchTable dispatchTable = new DispatchTable(ImmutableList.of());
+
+    private final Map<DeviceId, DeviceQueue> packetInQueues = Maps.newConcurrentMap();
+    private volatile PacketInPipeline packetInPipeline;
 
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
@@ -123,9 +181,11 @@ public class PacketManager
     private NodeId localNodeId;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         eventHandlingExecutor = Executors.newSingleThreadExecutor(
                 groupedThreads("onos/net/packet", "event-handler", log));
+        cfgService.registerProperties(getClass());
+        modified(context);
         localNodeId = clusterService.getLocalNode().id();
         appId = coreService.getAppId(CoreService.CORE_APP_NAME);
         store.setDelegate(delegate);
@@ -148,12 +208,49 @@ public class PacketManager
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         store.unsetDelegate(delegate);
         deviceService.removeListener(deviceListener);
         eventHandlingExecutor.shutdown();
+        if (packetInPipeline != null) {
+            packetInPipeline.shutdown();
+            packetInPipeline = null;
+        }
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        Integer newQueueSize = Tools.getIntegerProperty(properties, "packetInQueueSize");
+        if (newQueueSize != null && newQueueSize > 0) {
+            packetInQueueSize = newQueueSize;
+            // packets waiting for room may fit in a larger queue
+            packetInQueues.values().forEach(DeviceQueue::wakeUp);
+        }
+
+        Boolean newDropWhenFull = Tools.isPropertyEnabled(properties, "packetInDropWhenFull");
+        if (newDropWhenFull != null) {
+            packetInDropWhenFull = newDropWhenFull;
+        }
+
+        Integer newWorkers = Tools.getIntegerProperty(properties, "packetInWorkers");
+        if (newWorkers != null && newWorkers >= 0 && newWorkers != packetInWorkers) {
+            packetInWorkers = newWorkers;
+            PacketInPipeline oldPipeline = packetInPipeline;
+            packetInPipeline = packetInWorkers > 0 ? new PacketInPipeline(packetInWorkers) : null;
+            if (oldPipeline != null) {
+                oldPipeline.shutdown();
+            }
+        }
+        log.info("Settings: packetInWorkers={}, packetInQueueSize={}, packetInDropWhenFull={}",
+                 packetInWorkers, packetInQueueSize, packetInDropWhenFull);
+    }
+
     @Override
     protected PacketProvider defaultProvider() {
         return defaultProvider;
@@ -161,9 +258,15 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, DefaultTrafficSelector.emptySelector());
+    }
+
+    @Override
+    public synchronized void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        checkNotNull(selector, ERROR_NULL_SELECTOR);
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selector);
 
         // Insert the new processor according to its priority.
         int i = 0;
@@ -173,10 +276,11 @@ public class PacketManager
             }
         }
         processors.add(i, entry);
+        dispatchTable = new DispatchTable(processors);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
@@ -187,6 +291,7 @@ public class PacketManager
                 break;
             }
         }
+        dispatchTable = new DispatchTable(processors);
     }
 
     @Override
@@ -195,6 +300,12 @@ public class PacketManager
         return ImmutableList.copyOf(processors);
     }
 
+    @Override
+    public List<PacketInQueue> getPacketInQueues() {
+        checkPermission(PACKET_READ);
+        return ImmutableList.copyOf(packetInQueues.values());
+    }
+
     @Override
     public void requestPackets(TrafficSelector selector, PacketPriority priority,
                                ApplicationId appId) {
@@ -393,28 +504,51 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
-                try {
-                    if (log.isTraceEnabled()) {
-                        log.trace("Starting packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
+            PacketInPipeline pipeline = packetInPipeline;
+            if (pipeline != null) {
+                // the pipeline needs the headers to keep the packets of a flow in order
+                pipeline.submit(context, new PacketHeaders(context.inPacket().parsed()));
+                return;
+            }
+            DispatchTable table = dispatchTable;
+            process(context, table.selective ? new PacketHeaders(context.inPacket().parsed()) : null, table);
+        }
 
-                    long start = System.nanoTime();
-                    entry.processor().process(context);
-                    entry.addNanos(System.nanoTime() - start);
+    }
 
-                    if (log.isTraceEnabled()) {
-                        log.trace("Finished packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
+    /**
+     * Gives an inbound packet to the processors registered for it.
+     *
+     * @param context packet context
+     * @param headers header fields of the packet, null if none of the
+     *                processors of the table has a selector
+     * @param table   dispatch table of the processors
+     */
+    private void process(PacketContext context, PacketHeaders headers, DispatchTable table) {
+        List<ProcessorEntry> entries = headers != null ?
+                table.processors(headers.ethType) : table.processors(-1);
+        for (ProcessorEntry entry : entries) {
+            if (headers != null && !entry.matches(headers)) {
+                continue;
+            }
+            try {
+                if (log.isTraceEnabled()) {
+                    log.trace("Starting packet processing by {}",
+                            entry.processor().getClass().getName());
+                }
+
+                long start = System.nanoTime();
+                entry.processor().process(context);
+                entry.addNanos(System.nanoTime() - start);
+
+                if (log.isTraceEnabled()) {
+                    log.trace("Finished packet processing by {}",
+                            entry.processor().getClass().getName());
                 }
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
             }
         }
-
     }
 
 
@@ -466,11 +600,17 @@ public class PacketManager
         @Override
         public boolean isRelevant(DeviceEvent event) {
             return event.type() == DeviceEvent.Type.DEVICE_ADDED ||
-                    event.type() == DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED;
+                    event.type() == DeviceEvent.Type.DEVICE_AVAILABILITY_CHANGED ||
+                    event.type() == DeviceEvent.Type.DEVICE_REMOVED;
         }
 
         @Override
         public void event(DeviceEvent event) {
+            if (event.type() == DeviceEvent.Type.DEVICE_REMOVED) {
+                // packets already queued still release the room they hold in the discarded queue
+                packetInQueues.remove(event.subject().id());
+                return;
+            }
             eventHandlingExecutor.execute(() -> {
                 try {
                     if (driverService == null) {
@@ -496,18 +636,333 @@ public class PacketManager
         }
     }
 
+    /**
+     * Header fields of an inbound packet used to select the processors the
+     * packet is given to, extracted once per packet. Absent fields are -1.
+     */
+    private static final class PacketHeaders {
+        private int ethType = -1;
+        private int ipProto = -1;
+        private int tcpSrc = -1;
+        private int tcpDst = -1;
+        private int udpSrc = -1;
+        private int udpDst = -1;
+        private int addressHash;
+
+        PacketHeaders(Ethernet eth) {
+            if (eth == null) {
+                return;
+            }
+            ethType = eth.getEtherType() & 0xffff;
+
+            IPacket l4 = null;
+            IPacket payload = eth.getPayload();
+            if (payload instanceof IPv4) {
+                IPv4 ipv4 = (IPv4) payload;
+                ipProto = ipv4.getProtocol() & 0xff;
+                addressHash = 31 * ipv4.getSourceAddress() + ipv4.getDestinationAddress();
+                l4 = payload.getPayload();
+            } else if (payload instanceof IPv6) {
+                IPv6 ipv6 = (IPv6) payload;
+                ipProto = ipv6.getNextHeader() & 0xff;
+                addressHash = 31 * Arrays.hashCode(ipv6.getSourceAddress()) +
+                        Arrays.hashCode(ipv6.getDestinationAddress());
+                l4 = payload.getPayload();
+            } else {
+                addressHash = eth.getSourceMAC() != null ? eth.getSourceMAC().hashCode() : 0;
+            }
+
+            if (l4 instanceof TCP) {
+                tcpSrc = ((TCP) l4).getSourcePort();
+                tcpDst = ((TCP) l4).getDestinationPort();
+            } else if (l4 instanceof UDP) {
+                udpSrc = ((UDP) l4).getSourcePort();
+                udpDst = ((UDP) l4).getDestinationPort();
+            }
+        }
+
+        /**
+         * Returns a hash of the flow of the packet, combining its addresses,
+         * IP protocol and transport ports; packets received from non-IP
+         * hosts are hashed by source MAC address.
+         *
+         * @return flow hash
+         */
+        int flowHash() {
+            int hash = addressHash;
+            hash = 31 * hash + ipProto;
+            hash = 31 * hash + Math.max(tcpSrc, udpSrc);
+            return 31 * hash + Math.max(tcpDst, udpDst);
+        }
+    }
+
+    /**
+     * Dispatch table of the packet processors by the ethernet type they are
+     * registered for. Each list holds, in priority order, the processors for
+     * the ethernet type together with the processors registered for all
+     * ethernet types. Packet headers are only needed once a processor is
+     * registered with a selector.
+     */
+    private static final class DispatchTable {
+        private final Map<Integer, List<ProcessorEntry>> processorsByEthType;
+        private final List<ProcessorEntry> anyEthTypeProcessors;
+        private final boolean selective;
+
+        DispatchTable(List<ProcessorEntry> processors) {
+            selective = processors.stream()
+                    .anyMatch(entry -> !entry.selector().criteria().isEmpty());
+            anyEthTypeProcessors = processors.stream()
+                    .filter(entry -> entry.ethType < 0)
+                    .collect(ImmutableList.toImmutableList());
+            ImmutableMap.Builder<Integer, List<ProcessorEntry>> builder = ImmutableMap.builder();
+            processors.stream()
+                    .map(entry -> entry.ethType)
+                    .filter(ethType -> ethType >= 0)
+                    .distinct()
+                    .forEach(ethType -> builder.put(ethType, processors.stream()
+                            .filter(entry -> entry.ethType < 0 || entry.ethType == ethType)
+                            .collect(ImmutableList.toImmutableList())));
+            processorsByEthType = builder.build();
+        }
+
+        /**
+         * Returns the processors possibly interested in packets of the given
+         * ethernet type, in priority order.
+         *
+         * @param ethType ethernet type or -1 if unknown
+         * @return list of processor entries
+         */
+        List<ProcessorEntry> processors(int ethType) {
+            return processorsByEthType.getOrDefault(ethType, anyEthTypeProcessors);
+        }
+    }
+
+    /**
+     * Pipeline processing inbound packets on a pool of single-threaded
+     * workers, off the threads of the packet providers. Packets are assigned
+     * to workers by device and flow, so the packets of a flow are processed
+     * in order, and are bounded per device by the device's queue.
+     */
+    private final class PacketInPipeline {
+        private final ExecutorService[] workers;
+
+        PacketInPipeline(int workerCount) {
+            workers = new ExecutorService[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = Executors.newSingleThreadExecutor(
+                        groupedThreads("onos/net/packet", "packet-in-" + i, log));
+            }
+        }
+
+        /**
+         * Queues an inbound packet for processing.
+         *
+         * @param context packet context
+         * @param headers header fields of the packet
+         */
+        void submit(PacketContext context, PacketHeaders headers) {
+            DeviceId deviceId = context.inPacket().receivedFrom().deviceId();
+            DeviceQueue queue = packetInQueues.computeIfAbsent(deviceId, DeviceQueue::new);
+            if (!queue.enqueue()) {
+                return;
+            }
+
+            int hash = 31 * deviceId.hashCode() + headers.flowHash();
+            ExecutorService worker = workers[Math.floorMod(hash, workers.length)];
+            long queued = System.nanoTime();
+            try {
+                worker.execute(() -> {
+                    queue.dequeue(System.nanoTime() - queued);
+                    process(context, headers, dispatchTable);
+                });
+            } catch (RejectedExecutionException e) {
+                queue.dequeue(System.nanoTime() - queued);
+                log.debug("Unable to process packet from {}, pipeline is shut down", deviceId);
+            }
+        }
+
+        /**
+         * Shuts the pipeline down once the queued packets have been processed.
+         */
+        void shutdown() {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Bounded queue of the inbound packets received from a device.
+     */
+    private final class DeviceQueue implements PacketInQueue {
+        private final DeviceId deviceId;
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+
+        DeviceQueue(DeviceId deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        /**
+         * Reserves room in the queue for a packet, either dropping the
+         * packet or waiting for room if the queue is full.
+         *
+         * @return true if the packet should be queued, false if dropped
+         */
+        boolean enqueue() {
+            int current = depth.get();
+            while (current < packetInQueueSize) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                current = depth.get();
+            }
+            if (packetInDropWhenFull) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            synchronized (this) {
+                // registered before checking the depth, so that a packet
+                // dequeued after the check always wakes this waiter up
+                waiters.incrementAndGet();
+                try {
+                    while (true) {
+                        current = depth.get();
+                        if (current >= packetInQueueSize) {
+                            wait();
+                        } else if (depth.compareAndSet(current, current + 1)) {
+                            return true;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return false;
+                } finally {
+                    waiters.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Releases the room held in the queue by a packet taken for processing.
+         *
+         * @param latency time in nanoseconds the packet spent in the queue
+         */
+        void dequeue(long latency) {
+            latencyNanos.addAndGet(latency);
+            processed.incrementAndGet();
+            depth.decrementAndGet();
+            if (waiters.get() > 0) {
+                wakeUp();
+            }
+        }
+
+        /**
+         * Wakes up the packets waiting for room in the queue.
+         */
+        synchronized void wakeUp() {
+            notifyAll();
+        }
+
+        @Override
+        public DeviceId deviceId() {
+            return deviceId;
+        }
+
+        @Override
+        public int depth() {
+            return depth.get();
+        }
+
+        @Override
+        public long dropped() {
+            return dropped.get();
+        }
+
+        @Override
+        public long processed() {
+            return processed.get();
+        }
+
+        @Override
+        public long totalLatencyNanos() {
+            return latencyNanos.get();
+        }
+
+        @Override
+        public long averageLatencyNanos() {
+            long count = processed.get();
+            return count > 0 ? latencyNanos.get() / count : 0;
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final TrafficSelector selector;
+        private final int ethType;
+        private final int ipProto;
+        private final int tcpSrc;
+        private final int tcpDst;
+        private final int udpSrc;
+        private final int udpDst;
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority, TrafficSelector selector) {
             this.processor = processor;
             this.priority = priority;
+            this.selector = selector;
+            for (Criterion criterion : selector.criteria()) {
+                checkArgument(SUPPORTED_CRITERIA.contains(criterion.type()),
+                              "Unsupported packet processor criterion %s", criterion.type());
+            }
+            this.ethType = selector.getCriterion(Criterion.Type.ETH_TYPE) != null ?
+                    ((EthTypeCriterion) selector.getCriterion(Criterion.Type.ETH_TYPE)).ethType().toShort() & 0xffff :
+                    -1;
+            this.ipProto = selector.getCriterion(Criterion.Type.IP_PROTO) != null ?
+                    ((IPProtocolCriterion) selector.getCriterion(Criterion.Type.IP_PROTO)).protocol() : -1;
+            this.tcpSrc = tcpPort(selector, Criterion.Type.TCP_SRC);
+            this.tcpDst = tcpPort(selector, Criterion.Type.TCP_DST);
+            this.udpSrc = udpPort(selector, Criterion.Type.UDP_SRC);
+            this.udpDst = udpPort(selector, Criterion.Type.UDP_DST);
+        }
+
+        private int tcpPort(TrafficSelector selector, Criterion.Type type) {
+            TcpPortCriterion criterion = (TcpPortCriterion) selector.getCriterion(type);
+            return criterion != null ? criterion.tcpPort().toInt() : -1;
+        }
+
+        private int udpPort(TrafficSelector selector, Criterion.Type type) {
+            UdpPortCriterion criterion = (UdpPortCriterion) selector.getCriterion(type);
+            return criterion != null ? criterion.udpPort().toInt() : -1;
+        }
+
+        /**
+         * Returns whether the packet with the given headers matches the
+         * selector of the processor.
+         *
+         * @param headers packet headers
+         * @return true if the processor should be given the packet
+         */
+        boolean matches(PacketHeaders headers) {
+            return matches(ethType, headers.ethType) &&
+                    matches(ipProto, headers.ipProto) &&
+                    matches(tcpSrc, headers.tcpSrc) &&
+                    matches(tcpDst, headers.tcpDst) &&
+                    matches(udpSrc, headers.udpSrc) &&
+                    matches(udpDst, headers.udpDst);
+        }
+
+        private boolean matches(int expected, int actual) {
+            return expected < 0 || expected == actual;
         }
 
         @Override
@@ -520,6 +975,11 @@ public class PacketManager
             return priority;
         }
 
+        @Override
+        public TrafficSelector selector() {
+            return selector;
+        }
+
         @Override
         public long invocations() {
             return invocations;
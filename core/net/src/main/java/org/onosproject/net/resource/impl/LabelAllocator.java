@@ -19,6 +19,7 @@ package org.onosproject.net.resource.impl;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.math.RandomUtils;
@@ -29,6 +30,7 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.EncapsulationType;
 import org.onosproject.net.Link;
 import org.onosproject.net.LinkKey;
+import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resource;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumer;
@@ -328,6 +330,60 @@ public final class LabelAllocator {
         return ids;
     }
 
+    /**
+     * Allocates the first available Ids, which are common to both ports of
+     * each link, or to all the ports of the links if labels are not swapped.
+     *
+     * @param links the links where to allocate Ids
+     * @param resourceConsumer the resource consumer
+     * @param type the encapsulation type
+     * @return the mappings between key and id
+     */
+    private Map<LinkKey, Identifier<?>> allocateFirstFitIDs(Set<LinkKey> links,
+                                                          ResourceConsumer resourceConsumer,
+                                                          EncapsulationType type) {
+        Class<?> idType = getEncapsulationClass(type);
+        Map<LinkKey, Identifier<?>> ids = Maps.newHashMap();
+        if (optLabelSelection == OptimizationBehavior.NO_SWAP) {
+            List<DiscreteResourceId> ports = links.stream()
+                    .flatMap(link -> Stream.of(link.src(), link.dst()))
+                    .distinct()
+                    .map(this::getPortId)
+                    .collect(Collectors.toList());
+            List<ResourceAllocation> allocations = resourceService.allocateAny(resourceConsumer, ports, idType, 1);
+            if (allocations.isEmpty()) {
+                log.warn("No common label for path");
+                return Collections.emptyMap();
+            }
+            Identifier<?> selected = getAllocatedID(allocations);
+            links.forEach(linkKey -> ids.put(linkKey, selected));
+            return ImmutableMap.copyOf(ids);
+        }
+
+        List<ResourceAllocation> allocated = Lists.newArrayList();
+        for (LinkKey link : links) {
+            List<ResourceAllocation> allocations = resourceService.allocateAny(
+                    resourceConsumer, ImmutableList.of(getPortId(link.src()), getPortId(link.dst())), idType, 1);
+            if (allocations.isEmpty()) {
+                log.warn("No labels for {}", link);
+                // Labels are allocated to all the links or to none of them
+                resourceService.release(allocated);
+                return Collections.emptyMap();
+            }
+            allocated.addAll(allocations);
+            ids.put(link, getAllocatedID(allocations));
+        }
+        return ImmutableMap.copyOf(ids);
+    }
+
+    private DiscreteResourceId getPortId(ConnectPoint cp) {
+        return Resources.discrete(cp.deviceId(), cp.port()).id();
+    }
+
+    private Identifier<?> getAllocatedID(List<ResourceAllocation> allocations) {
+        return (Identifier<?>) allocations.get(0).resource().valueAs(Object.class).get();
+    }
+
     /**
      * Looks for available Ids associated to the given connection point.
      *
@@ -377,6 +433,11 @@ public final class LabelAllocator {
                 .map(LinkKey::linkKey)
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
+        // First fit labels are picked and allocated by the resource service at once
+        if (labelSelection instanceof FirstFitSelection && optLabelSelection != OptimizationBehavior.MIN_SWAP) {
+            return allocateFirstFitIDs(linkRequest, resourceConsumer, type);
+        }
+
         Map<LinkKey, Identifier<?>> availableIds = findAvailableIDs(linkRequest, type);
         if (availableIds.isEmpty()) {
             return Collections.emptyMap();
@@ -17,6 +17,7 @@ package org.onosproject.net.resource.impl;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -25,6 +26,7 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.util.Tools;
 import org.onosproject.event.AbstractListenerManager;
+import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.ResourceAdminService;
 import org.onosproject.net.resource.ResourceAllocation;
@@ -42,7 +44,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.RESOURCE_WRITE;
@@ -98,6 +102,21 @@ public final class ResourceManager extends AbstractListenerManager<ResourceEvent
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ResourceAllocation> allocateAny(ResourceConsumer consumer, List<DiscreteResourceId> parents,
+                                                Class<?> cls, int count) {
+        checkPermission(RESOURCE_WRITE);
+        checkNotNull(consumer);
+        checkNotNull(parents);
+        checkArgument(!parents.isEmpty(), "parents must not be empty");
+        checkNotNull(cls);
+        checkArgument(count > 0, "count must be positive");
+
+        return store.allocateAny(parents, cls, count, consumer).stream()
+                .map(x -> new ResourceAllocation(x, consumer))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public boolean release(List<ResourceAllocation> allocations) {
         checkPermission(RESOURCE_WRITE);
@@ -164,9 +183,7 @@ public final class ResourceManager extends AbstractListenerManager<ResourceEvent
         checkNotNull(parent);
         checkNotNull(cls);
 
-        return store.getChildResources(parent, cls).stream()
-                // We access store twice in this method, then the store may be updated by others
-                .filter(store::isAvailable)
+        return availableChildren(parent, cls)
                 .collect(Collectors.toSet());
     }
 
@@ -176,9 +193,7 @@ public final class ResourceManager extends AbstractListenerManager<ResourceEvent
         checkNotNull(parent);
         checkNotNull(cls);
 
-        return store.getChildResources(parent, cls).stream()
-                // We access store twice in this method, then the store may be updated by others
-                .filter(store::isAvailable)
+        return availableChildren(parent, cls)
                 .map(x -> x.valueAs(cls))
                 .flatMap(Tools::stream)
                 .collect(Collectors.toSet());
@@ -214,6 +229,15 @@ public final class ResourceManager extends AbstractListenerManager<ResourceEvent
         return store.unregister(ids);
     }
 
+    // Returns the children of the given type not allocated to any consumer. Allocated
+    // discrete children are looked up at once rather than checking each child.
+    private <T> Stream<Resource> availableChildren(DiscreteResourceId parent, Class<T> cls) {
+        Set<Resource> allocated = ImmutableSet.copyOf(store.getAllocatedResources(parent, cls));
+        return store.getChildResources(parent, cls).stream()
+                // We access store twice in this method, then the store may be updated by others
+                .filter(x -> x instanceof DiscreteResource ? !allocated.contains(x) : store.isAvailable(x));
+    }
+
     private class InternalStoreDelegate implements ResourceStoreDelegate {
         @Override
         public void notify(ResourceEvent event) {
@@ -18,11 +18,29 @@ package org.onosproject.event.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ChassisId;
 import org.onosproject.event.AbstractEvent;
+import org.onosproject.event.Event;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.provider.ProviderId;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -34,6 +52,8 @@ import static org.junit.Assert.assertTrue;
  */
 public class CoreEventDispatcherTest {
 
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
     private final CoreEventDispatcher dispatcher = new CoreEventDispatcher();
     private final PrickleSink prickleSink = new PrickleSink();
     private final GooSink gooSink = new GooSink();
@@ -88,6 +108,111 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postEventsWithShards() throws Exception {
+        dispatcher.setDispatchShards(4);
+        dispatcher.setDispatchQueueSize(256);
+        TopologySink topologySink = new TopologySink();
+        dispatcher.addSink(DeviceEvent.class, topologySink.deviceSink);
+        dispatcher.addSink(LinkEvent.class, topologySink.linkSink);
+
+        // Events of each device and of the links leaving it, in posting order
+        Map<DeviceId, List<Event>> expected = new HashMap<>();
+        int devices = 8;
+        int rounds = 10;
+        topologySink.latch = new CountDownLatch(devices * rounds * 2);
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < devices; i++) {
+                Device device = device(i);
+                Event deviceEvent = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device);
+                Event linkEvent = new LinkEvent(LinkEvent.Type.LINK_UPDATED, link(device, device((i + 1) % devices)));
+                dispatcher.post(deviceEvent);
+                dispatcher.post(linkEvent);
+                List<Event> deviceEvents = expected.computeIfAbsent(device.id(), id -> new ArrayList<>());
+                deviceEvents.add(deviceEvent);
+                deviceEvents.add(linkEvent);
+            }
+        }
+        assertTrue("events not delivered", topologySink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertEquals("events of a device delivered out of order", expected, topologySink.events);
+        assertTrue("events not sharded", topologySink.threads.size() > 1);
+    }
+
+    @Test
+    public void reconfigureRequeuesEvents() throws Exception {
+        dispatcher.setDispatchShards(2);
+        BlockingSink blockingSink = new BlockingSink();
+        dispatcher.addSink(Blob.class, blockingSink);
+        blockingSink.latch = new CountDownLatch(9);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.post(new Blob("yo" + i));
+        }
+        assertTrue("first event not delivered", blockingSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+
+        // Events queued behind the blocked sink are moved to the new loops
+        dispatcher.setDispatchShards(4);
+        assertTrue("queued events not requeued", blockingSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertEquals("incorrect event count", 9, blockingSink.subjects.size());
+        blockingSink.release.countDown();
+    }
+
+    @Test
+    public void postWaitsForRoom() throws Exception {
+        dispatcher.setDispatchQueueSize(1);
+        BlockingSink blockingSink = new BlockingSink();
+        dispatcher.addSink(Blob.class, blockingSink);
+        blockingSink.latch = new CountDownLatch(2);
+        dispatcher.post(new Blob("yo0"));
+        assertTrue("first event not delivered", blockingSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.post(new Blob("yo1"));
+
+        // The queue is full until the sink is released
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            blockingSink.release.countDown();
+        }).start();
+        dispatcher.post(new Blob("yo2"));
+        assertTrue("queued events not delivered", blockingSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertEquals("incorrect events", Arrays.asList("yo1", "yo2"), blockingSink.subjects);
+        assertEquals("events rejected", 0, dispatcher.getRejectedEventCount());
+    }
+
+    @Test
+    public void postRejectsWhenFull() throws Exception {
+        dispatcher.setDispatchQueueSize(1);
+        BlockingSink blockingSink = new BlockingSink();
+        dispatcher.addSink(Blob.class, blockingSink);
+        blockingSink.latch = new CountDownLatch(1);
+        dispatcher.post(new Blob("yo0"));
+        assertTrue("first event not delivered", blockingSink.blocked.await(1000, TimeUnit.MILLISECONDS));
+        dispatcher.post(new Blob("yo1"));
+
+        // The sink stays blocked past the time posting waits for room
+        dispatcher.post(new Blob("yo2"));
+        assertEquals("incorrect rejected event count", 1, dispatcher.getRejectedEventCount());
+        blockingSink.release.countDown();
+        assertTrue("queued event not delivered", blockingSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertEquals("incorrect events", Collections.singletonList("yo1"), blockingSink.subjects);
+    }
+
+    private static Device device(int index) {
+        return new DefaultDevice(PID, DeviceId.deviceId("of:" + index), Device.Type.SWITCH,
+                                 "", "", "", "", new ChassisId());
+    }
+
+    private static Link link(Device src, Device dst) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(new ConnectPoint(src.id(), PortNumber.portNumber(1)))
+                .dst(new ConnectPoint(dst.id(), PortNumber.portNumber(2)))
+                .type(Link.Type.DIRECT)
+                .build();
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -116,6 +241,12 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class Blob extends Thing {
+        protected Blob(String subject) {
+            super(subject);
+        }
+    }
+
     private static class Sink {
         final List<String> subjects = new ArrayList<>();
         CountDownLatch latch;
@@ -141,6 +272,45 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    // Blocks on the first event until released.
+    private static class BlockingSink implements EventSink<Blob> {
+        final List<String> subjects = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch latch;
+
+        @Override
+        public void process(Blob event) {
+            if (blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            subjects.add(event.subject());
+            latch.countDown();
+        }
+    }
+
+    // Records device and link events by device, the source device of links.
+    private static class TopologySink {
+        final Map<DeviceId, List<Event>> events = new ConcurrentHashMap<>();
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch;
+
+        final EventSink<DeviceEvent> deviceSink = event -> process(event.subject().id(), event);
+        final EventSink<LinkEvent> linkSink = event -> process(event.subject().src().deviceId(), event);
+
+        private void process(DeviceId deviceId, Event event) {
+            threads.add(Thread.currentThread());
+            events.computeIfAbsent(deviceId, id -> Collections.synchronizedList(new ArrayList<>())).add(event);
+            latch.countDown();
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
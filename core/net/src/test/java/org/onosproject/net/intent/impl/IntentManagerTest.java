@@ -15,10 +15,16 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
@@ -26,6 +32,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.TestApplicationId;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cfg.ComponentConfigService;
@@ -59,6 +66,8 @@ import org.onosproject.store.trivial.SimpleIntentStore;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -96,9 +105,11 @@ public class IntentManagerTest {
 
     private static final int SUBMIT_TIMEOUT_MS = 1000;
     private static final ApplicationId APPID = new TestApplicationId("manager-test");
+    private static final String SKIP_RELEASE_RESOURCES = "skipReleaseResourcesOnWithdrawal";
 
     private IntentManager manager;
     private MockFlowRuleService flowRuleService;
+    private RecordingIntentStore store;
 
     protected IntentService service;
     protected IntentExtensionService extensionService;
@@ -288,7 +299,8 @@ public class IntentManagerTest {
     public void setUp() {
         manager = new IntentManager();
         flowRuleService = new MockFlowRuleService();
-        manager.store = new SimpleIntentStore();
+        store = new RecordingIntentStore();
+        manager.store = store;
         injectEventDispatcher(manager, new TestEventDispatcher());
         manager.trackerService = trackerService;
         manager.flowRuleService = flowRuleService;
@@ -378,6 +390,142 @@ public class IntentManagerTest {
         verifyState();
     }
 
+    /**
+     * Tests that intents are spread over all batch shards, and that the
+     * operations on an intent are all processed in order by the same shard.
+     */
+    @Test
+    public void submitIntentsAcrossShards() {
+        flowRuleService.setFuture(true);
+        configure(ImmutableMap.of(SKIP_RELEASE_RESOURCES, "true"));
+
+        List<Intent> intents = submit(20);
+        withdraw(intents);
+        // The withdrawn event may come before the batch is written.
+        assertAfter(SUBMIT_TIMEOUT_MS, () -> {
+            assertEquals("intents not spread over all shards", 4, store.writers().size());
+            verifyShards(intents);
+        });
+    }
+
+    /**
+     * Tests that changing the number of batch shards keeps operations on an
+     * intent in order.
+     */
+    @Test
+    public void reconfigureBatchShards() {
+        flowRuleService.setFuture(true);
+        configure(ImmutableMap.of(SKIP_RELEASE_RESOURCES, "true"));
+
+        int count = 20;
+        List<Intent> intents = Lists.newArrayList();
+        listener.setLatch(count, Type.INSTALLED);
+        for (int i = 0; i < count; i++) {
+            Intent intent = new MockIntent(MockIntent.nextId());
+            intents.add(intent);
+            service.submit(intent);
+        }
+        // Operations still queued in the old shards are handed over.
+        configure(ImmutableMap.of(SKIP_RELEASE_RESOURCES, "true", "numBatchShards", "2"));
+        listener.await(Type.INSTALLED);
+        withdraw(intents);
+        assertAfter(SUBMIT_TIMEOUT_MS, () -> {
+            intents.forEach(this::verifyOrder);
+            verifyState();
+        });
+
+        store.clear();
+        List<Intent> moreIntents = submit(count);
+        withdraw(moreIntents);
+        assertAfter(SUBMIT_TIMEOUT_MS, () -> {
+            assertEquals("intents not spread over the new shards", 2, store.writers().size());
+            verifyShards(moreIntents);
+        });
+    }
+
+    private List<Intent> submit(int count) {
+        List<Intent> intents = Lists.newArrayList();
+        listener.setLatch(count, Type.INSTALLED);
+        for (int i = 0; i < count; i++) {
+            Intent intent = new MockIntent(MockIntent.nextId());
+            intents.add(intent);
+            service.submit(intent);
+        }
+        listener.await(Type.INSTALLED);
+        return intents;
+    }
+
+    private void withdraw(List<Intent> intents) {
+        listener.setLatch(intents.size(), Type.WITHDRAWN);
+        intents.forEach(service::withdraw);
+        listener.await(Type.WITHDRAWN);
+    }
+
+    // Verifies that each intent was processed by a single shard, in order.
+    private void verifyShards(List<Intent> intents) {
+        for (Intent intent : intents) {
+            assertThat("intent processed by several shards", store.writers(intent.key()), hasSize(1));
+            verifyOrder(intent);
+        }
+        verifyState();
+    }
+
+    // Verifies that the operations on the intent were processed in order.
+    private void verifyOrder(Intent intent) {
+        List<IntentState> states = store.writes(intent.key()).stream()
+                .map(IntentData::state)
+                .collect(Collectors.toList());
+        assertEquals("operations processed out of order",
+                     ImmutableList.of(INSTALLING, WITHDRAWING), states);
+        assertEquals(WITHDRAWN, service.getIntentState(intent.key()));
+    }
+
+    // No resource service is set, so releasing resources on withdrawal has to be skipped.
+    private void configure(Map<String, String> properties) {
+        manager.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                return new Hashtable<>(properties);
+            }
+        });
+    }
+
+    /**
+     * Intent store recording the intents written by each batch thread.
+     */
+    private static class RecordingIntentStore extends SimpleIntentStore {
+        private final SetMultimap<Key, Thread> writers = HashMultimap.create();
+        private final ListMultimap<Key, IntentData> writes = ArrayListMultimap.create();
+
+        @Override
+        public void batchWrite(Iterable<IntentData> updates) {
+            synchronized (this) {
+                for (IntentData data : updates) {
+                    writers.put(data.key(), Thread.currentThread());
+                    writes.put(data.key(), data);
+                }
+            }
+            super.batchWrite(updates);
+        }
+
+        synchronized Set<Thread> writers() {
+            return ImmutableSet.copyOf(writers.values());
+        }
+
+        synchronized Set<Thread> writers(Key key) {
+            return ImmutableSet.copyOf(writers.get(key));
+        }
+
+        synchronized List<IntentData> writes(Key key) {
+            return ImmutableList.copyOf(writes.get(key));
+        }
+
+        synchronized void clear() {
+            writers.clear();
+            writes.clear();
+        }
+    }
+
     @Test
     @Ignore("This is disabled because we are seeing intermittent failures on Jenkins")
     public void stressSubmitWithdrawUnique() {
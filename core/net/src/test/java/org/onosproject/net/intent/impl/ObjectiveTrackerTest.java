@@ -26,6 +26,7 @@ import org.onosproject.event.Event;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
 import org.onosproject.net.NetworkResource;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceEvent;
@@ -44,6 +45,8 @@ import org.onosproject.net.topology.TopologyListener;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -216,6 +219,42 @@ public class ObjectiveTrackerTest extends AbstractIntentTest {
                    equalTo("0x333"));
     }
 
+    /**
+     * Tests that intents no longer tracking a link are not recompiled when the
+     * link goes down, and that the index drops links no longer tracked.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testEventLinkDownAfterUntrack() throws Exception {
+        final Link link = link("src", 1, "dst", 2);
+        final Link otherLink = link("src", 3, "dst", 4);
+        reasons.add(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link));
+
+        final TopologyEvent event = new TopologyEvent(
+                TopologyEvent.Type.TOPOLOGY_CHANGED,
+                topology,
+                reasons);
+
+        final Key key1 = Key.of(0x333L, APP_ID);
+        final Key key2 = Key.of(0x444L, APP_ID);
+        tracker.addTrackedResources(key1, ImmutableSet.of(link, otherLink));
+        tracker.addTrackedResources(key2, ImmutableSet.of(link));
+        tracker.removeTrackedResources(key1, ImmutableSet.of(link, otherLink));
+
+        Map<LinkKey, Set<Key>> intentsByLink = TestUtils.getField(tracker, "intentsByLink");
+        assertThat(intentsByLink.keySet(), hasSize(1));
+
+        listener.event(event);
+        assertThat(
+                delegate.latch.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(true));
+
+        assertThat(delegate.intentIdsFromEvent, hasSize(1));
+        assertThat(delegate.intentIdsFromEvent.get(0).toString(),
+                   equalTo("0x444"));
+    }
+
     /**
      * Tests a resource available event.
      *
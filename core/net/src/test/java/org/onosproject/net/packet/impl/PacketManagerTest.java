@@ -18,37 +18,68 @@ package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContextAdapter;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 
 /**
@@ -75,17 +106,20 @@ public class PacketManagerTest {
 
     private TestDriverManager driverService;
 
+    private TestDeviceService deviceService;
+
     @Before
     public void setUp() {
         mgr = new PacketManager();
         injectEventDispatcher(mgr, new TestEventDispatcher());
         mgr.store = new SimplePacketStore();
         mgr.clusterService = new ClusterServiceAdapter();
-        mgr.deviceService = new TestDeviceService();
-        mgr.deviceService = new TestDeviceService();
+        deviceService = new TestDeviceService();
+        mgr.deviceService = deviceService;
         mgr.coreService = new TestCoreService();
+        mgr.cfgService = new ComponentConfigAdapter();
         providerRegistry = mgr;
-        mgr.activate();
+        mgr.activate(null);
 
         DriverRegistryManager driverRegistry = new DriverRegistryManager();
         driverService = new TestDriverManager(driverRegistry);
@@ -95,6 +129,13 @@ public class PacketManagerTest {
                                                    ImmutableMap.of()));
     }
 
+    @After
+    public void tearDown() {
+        // stops the packet-in pipeline, if enabled
+        mgr.deactivate();
+        injectEventDispatcher(mgr, null);
+    }
+
     /**
      * Tests the correct usage of fallback driver provider for packets.
      */
@@ -106,7 +147,255 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are given only to the processors whose selectors they match.
+     */
+    @Test
+    public void processorSelectors() {
+        List<String> processed = Lists.newArrayList();
+        mgr.addProcessor(context -> processed.add("all"), 3);
+        mgr.addProcessor(context -> processed.add("arp"), 1,
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(context -> processed.add("dhcp"), 2,
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                 .matchUdpDst(TpPort.tpPort(UDP.DHCP_SERVER_PORT))
+                                 .build());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        providerService.processPacket(packetContext(new Ethernet().setEtherType(Ethernet.TYPE_ARP)));
+        assertEquals(ImmutableList.of("arp", "all"), processed);
+
+        processed.clear();
+        UDP udp = new UDP();
+        udp.setDestinationPort(UDP.DHCP_SERVER_PORT);
+        IPv4 ip = new IPv4();
+        ip.setProtocol(IPv4.PROTOCOL_UDP);
+        ip.setPayload(udp);
+        Ethernet eth = new Ethernet().setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ip);
+        providerService.processPacket(packetContext(eth));
+        assertEquals(ImmutableList.of("dhcp", "all"), processed);
+
+        processed.clear();
+        udp.setDestinationPort(UDP.DHCP_CLIENT_PORT);
+        providerService.processPacket(packetContext(eth));
+        assertEquals(ImmutableList.of("all"), processed);
+    }
+
+    /**
+     * Tests that the packet headers are not read for dispatching while no
+     * processor is registered with a selector.
+     */
+    @Test
+    public void processorsWithoutSelectors() {
+        List<String> processed = Lists.newArrayList();
+        mgr.addProcessor(context -> processed.add("first"), 1);
+        mgr.addProcessor(context -> processed.add("second"), 2, DefaultTrafficSelector.emptySelector());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        AtomicInteger headerReads = new AtomicInteger();
+        Ethernet eth = new Ethernet() {
+            @Override
+            public short getEtherType() {
+                headerReads.incrementAndGet();
+                return super.getEtherType();
+            }
+        };
+        eth.setEtherType(Ethernet.TYPE_ARP);
+
+        providerService.processPacket(packetContext(eth));
+        assertEquals(ImmutableList.of("first", "second"), processed);
+        assertEquals(0, headerReads.get());
+
+        mgr.addProcessor(context -> processed.add("arp"), 3,
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        processed.clear();
+        providerService.processPacket(packetContext(eth));
+        assertEquals(ImmutableList.of("first", "second", "arp"), processed);
+        assertEquals(1, headerReads.get());
+    }
+
+    /**
+     * Tests that packets are processed in order off the provider thread when
+     * the packet-in pipeline is enabled.
+     */
+    @Test
+    public void packetInPipeline() throws InterruptedException {
+        enablePacketInPipeline();
+
+        int flows = 8;
+        int packetsPerFlow = 25;
+        CountDownLatch latch = new CountDownLatch(flows * packetsPerFlow);
+        Map<Integer, List<Short>> processed = Maps.newConcurrentMap();
+        Set<Thread> threads = Sets.newConcurrentHashSet();
+        mgr.addProcessor(context -> {
+            Ethernet eth = context.inPacket().parsed();
+            UDP udp = (UDP) eth.getPayload().getPayload();
+            threads.add(Thread.currentThread());
+            processed.computeIfAbsent(udp.getSourcePort(), port -> Lists.newCopyOnWriteArrayList())
+                    .add(eth.getVlanID());
+            latch.countDown();
+        }, 1);
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        for (short i = 0; i < packetsPerFlow; i++) {
+            for (int flow = 0; flow < flows; flow++) {
+                providerService.processPacket(packetContext(udpPacket(flow, i)));
+            }
+        }
+        assertTrue("packets not processed", latch.await(5, TimeUnit.SECONDS));
+
+        assertFalse("packets processed on the provider thread", threads.contains(Thread.currentThread()));
+        assertTrue("flows not spread across workers", threads.size() > 1);
+        List<Short> sequence = Lists.newArrayList();
+        for (short i = 0; i < packetsPerFlow; i++) {
+            sequence.add(i);
+        }
+        assertEquals(flows, processed.size());
+        processed.values().forEach(packets -> assertEquals(sequence, packets));
+        assertEquals(1, mgr.getPacketInQueues().size());
+        assertEquals(flows * packetsPerFlow, mgr.getPacketInQueues().get(0).processed());
+        assertEquals(0, mgr.getPacketInQueues().get(0).dropped());
+    }
+
+    /**
+     * Tests that packets waiting for room in a full queue proceed when the queue is enlarged.
+     */
+    @Test
+    public void packetInQueueEnlarged() throws InterruptedException {
+        enablePacketInPipeline();
+        setPacketInQueueSize(1);
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch processed = new CountDownLatch(3);
+        mgr.addProcessor(context -> {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.countDown();
+        }, 1);
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        // the first packet holds the worker of its flow, the second one fills the queue
+        providerService.processPacket(packetContext(udpPacket(0, (short) 0)));
+        assertTrue("packet not processed", blocked.await(5, TimeUnit.SECONDS));
+        providerService.processPacket(packetContext(udpPacket(0, (short) 1)));
+
+        CountDownLatch queued = new CountDownLatch(1);
+        new Thread(() -> {
+            providerService.processPacket(packetContext(udpPacket(0, (short) 2)));
+            queued.countDown();
+        }).start();
+        assertFalse("packet queued in a full queue", queued.await(100, TimeUnit.MILLISECONDS));
+
+        setPacketInQueueSize(4);
+        assertTrue("packet not queued in the enlarged queue", queued.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue("packets not processed", processed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, mgr.getPacketInQueues().get(0).dropped());
+    }
+
+    /**
+     * Tests that the packet-in queue of a device is discarded when the device is removed.
+     */
+    @Test
+    public void packetInQueueRemoved() throws InterruptedException {
+        enablePacketInPipeline();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        mgr.addProcessor(context -> latch.countDown(), 1);
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        providerService.processPacket(packetContext(udpPacket(0, (short) 0)));
+        assertTrue("packet not processed", latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, mgr.getPacketInQueues().size());
+
+        DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, FOO_DEV);
+        assertTrue(deviceService.listener.isRelevant(event));
+        deviceService.listener.event(event);
+        assertTrue(mgr.getPacketInQueues().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedProcessorSelector() {
+        PacketProcessor processor = context -> { };
+        mgr.addProcessor(processor, 1, DefaultTrafficSelector.builder().matchInPort(PortNumber.portNumber(1)).build());
+    }
+
+    private void enablePacketInPipeline() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("packetInWorkers", "4");
+                props.put("packetInDropWhenFull", "false");
+                return props;
+            }
+        });
+    }
+
+    private void setPacketInQueueSize(int size) {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("packetInQueueSize", String.valueOf(size));
+                return props;
+            }
+        });
+    }
+
+    // UDP packet of the given flow, carrying its sequence number in the VLAN ID
+    private static Ethernet udpPacket(int flow, short sequence) {
+        UDP udp = new UDP();
+        udp.setSourcePort(10000 + flow);
+        udp.setDestinationPort(UDP.DHCP_SERVER_PORT);
+        IPv4 ip = new IPv4();
+        ip.setSourceAddress("10.0.0.1");
+        ip.setDestinationAddress("10.0.0.2");
+        ip.setProtocol(IPv4.PROTOCOL_UDP);
+        ip.setPayload(udp);
+        Ethernet eth = new Ethernet().setEtherType(Ethernet.TYPE_IPV4);
+        eth.setVlanID(sequence);
+        eth.setPayload(ip);
+        return eth;
+    }
+
+    private static PacketContextAdapter packetContext(Ethernet eth) {
+        return new PacketContextAdapter(0, new DefaultInboundPacket(new ConnectPoint(FOO_DID, PortNumber.portNumber(1)),
+                                                                    eth, ByteBuffer.allocate(0)),
+                                        null, false);
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(new ProviderId("packet", "test"));
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
+        private DeviceListener listener;
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void removeListener(DeviceListener listener) {
+            this.listener = null;
+        }
+
         @Override
         public int getDeviceCount() {
             return 1;
@@ -32,6 +32,7 @@ import org.onosproject.net.LinkKey;
 import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.MockIdGenerator;
 import org.onosproject.net.resource.MockResourceService;
+import org.onosproject.net.resource.Resources;
 import org.onosproject.net.resource.impl.LabelAllocator.FirstFitSelection;
 import org.onosproject.net.resource.impl.LabelAllocator.LabelSelection;
 import org.onosproject.net.resource.impl.LabelAllocator.RandomSelection;
@@ -639,6 +640,9 @@ public class LabelAllocatorTest {
         id = allocation.get(LinkKey.linkKey(d3p0, d2p1));
         // value has to be null
         assertNull(id);
+        // label allocated on the first link has been released
+        assertTrue(this.resourceService.getResourceAllocations(
+                Resources.discrete(d1p1.deviceId(), d1p1.port(), VlanId.vlanId((short) 10)).id()).isEmpty());
 
         // Verify the random behavior with NONE_SWAP optimization
         this.allocator.setLabelSelection(random);
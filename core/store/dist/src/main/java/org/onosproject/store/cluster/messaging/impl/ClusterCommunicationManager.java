@@ -17,6 +17,7 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -33,10 +34,13 @@ import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.cluster.messaging.MessagingService;
+import org.onosproject.store.service.Serializer;
 import org.onosproject.utils.MeteringAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -137,6 +141,24 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
+    @Override
+    public <M> CompletableFuture<Void> unicast(M message,
+                                               MessageSubject subject,
+                                               Serializer serializer,
+                                               NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            Endpoint nodeEp = endpoint(toNodeId);
+            MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
+            return messagingService.sendAsync(nodeEp, subject.toString(),
+                                              ClusterMessage.getHeaderBytes(localNodeId, subject),
+                                              bodyWriter(message, serializer))
+                    .whenComplete((r, e) -> context.stop(e));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public <M> void multicast(M message,
                               MessageSubject subject,
@@ -171,18 +193,52 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
+    @Override
+    public <M, R> CompletableFuture<R> sendAndReceive(M message,
+                                                      MessageSubject subject,
+                                                      Serializer serializer,
+                                                      NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            Endpoint nodeEp = endpoint(toNodeId);
+            Function<byte[], R> decoder = serializer::decode;
+            MeteringAgent.Context epContext = endpointMeteringAgent.
+                    startTimer(NODE_PREFIX + toNodeId.toString() + ROUND_TRIP_SUFFIX);
+            MeteringAgent.Context subjectContext = subjectMeteringAgent.
+                    startTimer(subject.toString() + ROUND_TRIP_SUFFIX);
+            return messagingService.sendAndReceive(nodeEp, subject.toString(),
+                                                   ClusterMessage.getHeaderBytes(localNodeId, subject),
+                                                   bodyWriter(message, serializer),
+                                                   MoreExecutors.directExecutor())
+                    .whenComplete((bytes, throwable) -> {
+                        subjectContext.stop(throwable);
+                        epContext.stop(throwable);
+                    })
+                    .thenApply(bytes -> timeFunction(decoder, subjectMeteringAgent, DESERIALIZING).apply(bytes));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    // Returns a timed writer serializing the message into the message body stream.
+    private <M> Consumer<OutputStream> bodyWriter(M message, Serializer serializer) {
+        return timeConsumer(stream -> serializer.encode(message, stream), subjectMeteringAgent, SERIALIZING);
+    }
+
+    private Endpoint endpoint(NodeId nodeId) {
+        ControllerNode node = clusterService.getNode(nodeId);
+        checkArgument(node != null, "Unknown nodeId: %s", nodeId);
+        return new Endpoint(node.ip(), node.tcpPort());
+    }
+
     private CompletableFuture<Void> doUnicast(MessageSubject subject, byte[] payload, NodeId toNodeId) {
-        ControllerNode node = clusterService.getNode(toNodeId);
-        checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
-        Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+        Endpoint nodeEp = endpoint(toNodeId);
         MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
         return messagingService.sendAsync(nodeEp, subject.toString(), payload).whenComplete((r, e) -> context.stop(e));
     }
 
     private CompletableFuture<byte[]> sendAndReceive(MessageSubject subject, byte[] payload, NodeId toNodeId) {
-        ControllerNode node = clusterService.getNode(toNodeId);
-        checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
-        Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+        Endpoint nodeEp = endpoint(toNodeId);
         MeteringAgent.Context epContext = endpointMeteringAgent.
                 startTimer(NODE_PREFIX + toNodeId.toString() + ROUND_TRIP_SUFFIX);
         MeteringAgent.Context subjectContext = subjectMeteringAgent.
@@ -252,6 +308,19 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                 executor);
     }
 
+    @Override
+    public <M> void addSubscriber(MessageSubject subject,
+            Serializer serializer,
+            Consumer<M> handler,
+            Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        Function<ByteBuffer, M> decoder = timeFunction(
+                buffer -> serializer.decode(ClusterMessage.payload(buffer)), subjectMeteringAgent, DESERIALIZING);
+        messagingService.registerBufferHandler(subject.toString(),
+                (sender, buffer) -> handler.accept(decoder.apply(buffer)),
+                executor);
+    }
+
     /**
      * Performs the timed function, returning the value it would while timing the operation.
      *
@@ -285,6 +354,32 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         };
     }
 
+    /**
+     * Performs the timed consumer, timing the operation.
+     *
+     * @param timedConsumer the consumer to be timed
+     * @param meter the metering agent to be used to time the consumer
+     * @param opName the opname to be used when starting the meter
+     * @param <A> The param type of the consumer
+     * @return the timed consumer
+     */
+    private <A> Consumer<A> timeConsumer(Consumer<A> timedConsumer,
+                                         MeteringAgent meter, String opName) {
+        checkNotNull(timedConsumer);
+        checkNotNull(meter);
+        checkNotNull(opName);
+        return a -> {
+            final MeteringAgent.Context context = meter.startTimer(opName);
+            try {
+                timedConsumer.accept(a);
+                context.stop(null);
+            } catch (Exception e) {
+                context.stop(e);
+                Throwables.throwIfUnchecked(Throwables.getRootCause(e));
+                throw new IllegalStateException(e.getCause());
+            }
+        };
+    }
 
     private class InternalClusterMessageHandler implements BiFunction<Endpoint, byte[], byte[]> {
         private ClusterMessageHandler handler;
@@ -15,6 +15,11 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.onosproject.core.HybridLogicalTime;
 
 /**
@@ -62,10 +67,16 @@ public abstract class InternalMessage {
         }
     }
 
+    private static final AtomicReferenceFieldUpdater<InternalMessage, ByteBuf> BUFFER =
+            AtomicReferenceFieldUpdater.newUpdater(InternalMessage.class, ByteBuf.class, "buffer");
+
     private final int preamble;
     private final HybridLogicalTime time;
     private final long id;
     private final byte[] payload;
+    private final boolean framed;
+    private final int length;
+    private volatile ByteBuf buffer;
 
     protected InternalMessage(int preamble,
             HybridLogicalTime time,
@@ -75,6 +86,22 @@ public abstract class InternalMessage {
         this.time = time;
         this.id = id;
         this.payload = payload;
+        this.framed = false;
+        this.length = payload.length;
+    }
+
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuf buffer,
+            boolean framed) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.payload = null;
+        this.framed = framed;
+        this.length = buffer.readableBytes();
+        this.buffer = buffer;
     }
 
     public abstract Type type();
@@ -99,7 +126,81 @@ public abstract class InternalMessage {
         return id;
     }
 
+    /**
+     * Returns the message payload.
+     * <p>
+     * If the payload is held in an inbound buffer, it is copied out of the buffer, which must not have been
+     * released yet.
+     *
+     * @return the payload bytes, or null if the message has been encoded into a frame
+     */
     public byte[] payload() {
-        return payload;
+        if (payload != null) {
+            return payload;
+        }
+        ByteBuf buffer = this.buffer;
+        return !framed && buffer != null ? ByteBufUtil.getBytes(buffer) : null;
+    }
+
+    /**
+     * Returns a view of the message payload, without copying it out of the inbound buffer holding it.
+     * <p>
+     * The view is only valid until the message is released.
+     *
+     * @return the payload buffer, or null if the message has been encoded into a frame
+     */
+    public ByteBuffer payloadBuffer() {
+        if (payload != null) {
+            return ByteBuffer.wrap(payload);
+        }
+        ByteBuf buffer = this.buffer;
+        return !framed && buffer != null ? buffer.nioBuffer() : null;
+    }
+
+    /**
+     * Returns the length of the message payload, or of the whole frame if the message has been encoded into one.
+     *
+     * @return the payload length
+     */
+    public int payloadLength() {
+        return length;
+    }
+
+    /**
+     * Returns whether the payload is held in a buffer rather than a byte array.
+     *
+     * @return whether the payload is held in a buffer
+     */
+    public boolean isBuffered() {
+        return payload == null;
+    }
+
+    /**
+     * Returns whether the message has been encoded into a frame up front.
+     *
+     * @return whether the message has been encoded into a frame
+     */
+    public boolean isFramed() {
+        return framed;
+    }
+
+    /**
+     * Takes ownership of the encoded frame, if the message has been encoded into one. Once taken, the frame is
+     * no longer released by {@link #release()}, and must be written to the channel or released by the caller.
+     *
+     * @return the encoded frame, or null if the message has no frame or it has already been taken or released
+     */
+    public ByteBuf takeFrame() {
+        return framed ? BUFFER.getAndSet(this, null) : null;
+    }
+
+    /**
+     * Releases the buffer held by the message, if any. Subsequent calls have no effect.
+     */
+    public void release() {
+        ByteBuf buffer = BUFFER.getAndSet(this, null);
+        if (buffer != null) {
+            buffer.release();
+        }
     }
-}
\ No newline at end of file
+}
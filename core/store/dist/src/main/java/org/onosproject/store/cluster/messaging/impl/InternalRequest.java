@@ -17,6 +17,7 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -39,6 +40,47 @@ public final class InternalRequest extends InternalMessage {
         this.subject = subject;
     }
 
+    public InternalRequest(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String subject,
+                           ByteBuf payload) {
+        this(preamble, time, id, sender, subject, payload, false);
+    }
+
+    private InternalRequest(int preamble,
+                            HybridLogicalTime time,
+                            long id,
+                            Endpoint sender,
+                            String subject,
+                            ByteBuf buffer,
+                            boolean framed) {
+        super(preamble, time, id, buffer, framed);
+        this.sender = sender;
+        this.subject = subject;
+    }
+
+    /**
+     * Returns a request that has been encoded into a frame up front, to be written to the channel as is.
+     *
+     * @param preamble the message preamble
+     * @param time     the message time
+     * @param id       the message identifier
+     * @param sender   the message sender
+     * @param subject  the message subject
+     * @param frame    the encoded frame
+     * @return the request
+     */
+    static InternalRequest framed(int preamble,
+                                  HybridLogicalTime time,
+                                  long id,
+                                  Endpoint sender,
+                                  String subject,
+                                  ByteBuf frame) {
+        return new InternalRequest(preamble, time, id, sender, subject, frame, true);
+    }
+
     @Override
     public Type type() {
         return Type.REQUEST;
@@ -59,7 +101,7 @@ public final class InternalRequest extends InternalMessage {
                 .add("id", id())
                 .add("subject", subject)
                 .add("sender", sender)
-                .add("payload", ByteArraySizeHashPrinter.of(payload()))
+                .add("payload", isBuffered() ? payloadLength() : ByteArraySizeHashPrinter.of(payload()))
                 .toString();
     }
 }
\ No newline at end of file
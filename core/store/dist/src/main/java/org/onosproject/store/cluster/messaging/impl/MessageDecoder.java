@@ -18,8 +18,10 @@ package org.onosproject.store.cluster.messaging.impl;
 import com.google.common.base.Charsets;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.TooLongFrameException;
 
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
@@ -30,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 /**
@@ -39,6 +42,9 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final int maxContentLength;
+    private boolean discarding;
+
     private Version ipVersion;
     private IpAddress senderIp;
     private int senderPort;
@@ -50,12 +56,20 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private long messageId;
     private int contentLength;
     private byte[] content;
+    private ByteBuf requestContent;
     private int subjectLength;
     private String subject;
     private InternalReply.Status status;
 
-    public MessageDecoder() {
+    /**
+     * Creates a decoder rejecting messages whose content exceeds the given length.
+     *
+     * @param maxContentLength maximum content length in bytes
+     */
+    public MessageDecoder(int maxContentLength) {
         super(DecoderState.READ_SENDER_IP_VERSION);
+        checkArgument(maxContentLength > 0, "Maximum content length must be positive");
+        this.maxContentLength = maxContentLength;
     }
 
     @Override
@@ -65,6 +79,12 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             ByteBuf buffer,
             List<Object> out) throws Exception {
 
+        if (discarding) {
+            // The connection is being closed after an invalid frame; drop whatever still arrives
+            buffer.skipBytes(actualReadableBytes());
+            return;
+        }
+
         switch (state()) {
             case READ_SENDER_IP_VERSION:
                 ipVersion = buffer.readByte() == 0x0 ? Version.INET : Version.INET6;
@@ -102,22 +122,30 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                 // FALLTHROUGH
             case READ_CONTENT_LENGTH:
                 contentLength = buffer.readInt();
+                if (contentLength < 0 || contentLength > maxContentLength) {
+                    // Refuse the frame before retaining or allocating anything for it
+                    discarding = true;
+                    buffer.skipBytes(actualReadableBytes());
+                    throw new TooLongFrameException("Invalid content length " + contentLength
+                            + ", maximum is " + maxContentLength);
+                }
                 checkpoint(DecoderState.READ_CONTENT);
                 // FALLTHROUGH
             case READ_CONTENT:
-                if (contentLength > 0) {
-                    //TODO Perform a sanity check on the size before allocating
-                    content = new byte[contentLength];
-                    buffer.readBytes(content);
-                } else {
-                    content = new byte[0];
-                }
-
                 switch (type) {
                     case REQUEST:
+                        // Requests keep a retained slice of the inbound buffer, released once handled.
+                        requestContent = contentLength > 0
+                                ? buffer.readRetainedSlice(contentLength) : Unpooled.EMPTY_BUFFER;
                         checkpoint(DecoderState.READ_SUBJECT_LENGTH);
                         break;
                     case REPLY:
+                        if (contentLength > 0) {
+                            content = new byte[contentLength];
+                            buffer.readBytes(content);
+                        } else {
+                            content = new byte[0];
+                        }
                         checkpoint(DecoderState.READ_STATUS);
                         break;
                     default:
@@ -144,7 +172,8 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                                 messageId,
                                 new Endpoint(senderIp, senderPort),
                                 subject,
-                                content);
+                                requestContent);
+                        requestContent = null;
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -173,6 +202,14 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        if (requestContent != null) {
+            requestContent.release();
+            requestContent = null;
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
         log.error("Exception inside channel handling pipeline.", cause);
@@ -16,13 +16,20 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
 
+import com.esotericsoftware.kryo.io.Output;
 import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
+import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +41,12 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
 // Effectively MessageToByteEncoder<InternalMessage>,
 // had to specify <Object> to avoid Class Loader not being able to find some classes.
 
+    // Size of the per-thread buffer in front of the frames into which message bodies are written
+    private static final int BODY_BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<Output> BODY_OUTPUT =
+            ThreadLocal.withInitial(() -> new Output(BODY_BUFFER_SIZE));
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final Endpoint endpoint;
@@ -46,6 +59,85 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         this.preamble = preamble;
     }
 
+    /**
+     * Encodes a request into a pooled buffer holding its whole frame, to be written to the channel as is.
+     * <p>
+     * The request payload consists of the given header, followed by the length of the body and the body. The
+     * body is written through a reusable Kryo output in front of the frame, so that Kryo serializers write
+     * straight into the frame rather than into an intermediate buffer. The frame is encoded on the calling
+     * thread, and does not include the sender endpoint, which is written once per channel by the encoder.
+     *
+     * @param preamble the message preamble
+     * @param time     the message time
+     * @param id       the message identifier
+     * @param subject  the message subject
+     * @param header   the payload header
+     * @param body     the payload body writer
+     * @return the buffer holding the encoded frame
+     */
+    static ByteBuf encodeRequest(int preamble,
+                                 HybridLogicalTime time,
+                                 long id,
+                                 String subject,
+                                 byte[] header,
+                                 Consumer<OutputStream> body) {
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try {
+            writeMessageHeader(InternalMessage.Type.REQUEST, preamble, time, id, frame);
+
+            // write payload, back filling the payload and body lengths
+            int payloadLengthIndex = frame.writerIndex();
+            frame.writeInt(0);
+            frame.writeBytes(header);
+            int bodyLengthIndex = frame.writerIndex();
+            frame.writeInt(0);
+            writeBody(body, frame);
+            frame.setInt(bodyLengthIndex, frame.writerIndex() - bodyLengthIndex - Integer.BYTES);
+            frame.setInt(payloadLengthIndex, frame.writerIndex() - payloadLengthIndex - Integer.BYTES);
+
+            writeSubject(subject, frame);
+            return frame;
+        } catch (RuntimeException e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    private static void writeBody(Consumer<OutputStream> body, ByteBuf frame) {
+        Output output = BODY_OUTPUT.get();
+        if (output.getOutputStream() != null) {
+            // The body writer is encoding another message on this thread; do not share the output with it.
+            body.accept(new ByteBufOutputStream(frame));
+            return;
+        }
+        output.setOutputStream(new ByteBufOutputStream(frame));
+        try {
+            body.accept(output);
+            output.flush();
+        } finally {
+            output.setOutputStream(null);
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext context, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof InternalMessage && ((InternalMessage) msg).isFramed()) {
+            ByteBuf frame = ((InternalMessage) msg).takeFrame();
+            if (frame == null) {
+                promise.setFailure(new IllegalStateException("Message frame has already been released"));
+                return;
+            }
+            if (!endpointWritten) {
+                ByteBuf out = context.alloc().ioBuffer();
+                writeEndpoint(out);
+                context.write(out, context.voidPromise());
+            }
+            context.write(frame, promise);
+        } else {
+            super.write(context, msg, promise);
+        }
+    }
+
     @Override
     protected void encode(
             ChannelHandlerContext context,
@@ -58,32 +150,51 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         }
     }
 
-    private void encodeMessage(InternalMessage message, ByteBuf out) {
-        // If the endpoint hasn't been written to the channel, write it.
-        if (!endpointWritten) {
-            IpAddress senderIp = endpoint.host();
-            if (senderIp.version() == Version.INET) {
-                out.writeByte(0);
-            } else {
-                out.writeByte(1);
-            }
-            out.writeBytes(senderIp.toOctets());
+    private void writeEndpoint(ByteBuf out) {
+        IpAddress senderIp = endpoint.host();
+        if (senderIp.version() == Version.INET) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+        }
+        out.writeBytes(senderIp.toOctets());
 
-            // write sender port
-            out.writeInt(endpoint.port());
+        // write sender port
+        out.writeInt(endpoint.port());
 
-            endpointWritten = true;
-        }
+        endpointWritten = true;
+    }
 
-        out.writeByte(message.type().id());
-        out.writeInt(this.preamble);
+    private static void writeMessageHeader(
+            InternalMessage.Type type, int preamble, HybridLogicalTime time, long id, ByteBuf out) {
+        out.writeByte(type.id());
+        out.writeInt(preamble);
 
         // write time
-        out.writeLong(message.time().logicalTime());
-        out.writeLong(message.time().logicalCounter());
+        out.writeLong(time.logicalTime());
+        out.writeLong(time.logicalCounter());
 
         // write message id
-        out.writeLong(message.id());
+        out.writeLong(id);
+    }
+
+    private static void writeSubject(String subject, ByteBuf out) {
+        byte[] messageTypeBytes = subject.getBytes(Charsets.UTF_8);
+
+        // write length of message type
+        out.writeShort(messageTypeBytes.length);
+
+        // write message type bytes
+        out.writeBytes(messageTypeBytes);
+    }
+
+    private void encodeMessage(InternalMessage message, ByteBuf out) {
+        // If the endpoint hasn't been written to the channel, write it.
+        if (!endpointWritten) {
+            writeEndpoint(out);
+        }
+
+        writeMessageHeader(message.type(), this.preamble, message.time(), message.id(), out);
 
         byte[] payload = message.payload();
 
@@ -96,15 +207,7 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
 
     private void encodeRequest(InternalRequest request, ByteBuf out) {
         encodeMessage(request, out);
-
-        byte[] messageTypeBytes = request.subject().getBytes(Charsets.UTF_8);
-
-        // write length of message type
-        out.writeShort(messageTypeBytes.length);
-
-        // write message type bytes
-        out.writeBytes(messageTypeBytes);
-
+        writeSubject(request.subject(), out);
     }
 
     private void encodeReply(InternalReply reply, ByteBuf out) {
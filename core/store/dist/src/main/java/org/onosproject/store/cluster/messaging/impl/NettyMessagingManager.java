@@ -22,13 +22,16 @@ import javax.net.ssl.TrustManagerFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.OutputStream;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
 import java.security.KeyStore;
 import java.security.MessageDigest;
 import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
@@ -49,8 +52,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -66,6 +71,8 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -82,15 +89,25 @@ import org.apache.commons.math3.stat.descriptive.SynchronizedDescriptiveStatisti
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.core.HybridLogicalClockService;
+import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.cluster.messaging.MessagingService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -118,6 +135,34 @@ public class NettyMessagingManager implements MessagingService {
 
     private static final byte[] EMPTY_PAYLOAD = new byte[0];
 
+    private static final String METRICS_COMPONENT = "NettyMessaging";
+    private static final String METRICS_FEATURE = "writeBatch";
+
+    private static final boolean DEFAULT_COALESCE_WRITES = false;
+    @Property(name = "coalesceWrites", boolValue = DEFAULT_COALESCE_WRITES,
+            label = "Enable coalescing the messages written to a connection into batches flushed together")
+    protected boolean coalesceWrites = DEFAULT_COALESCE_WRITES;
+
+    private static final int DEFAULT_COALESCE_WINDOW_MICROS = 100;
+    @Property(name = "coalesceWindowMicros", intValue = DEFAULT_COALESCE_WINDOW_MICROS,
+            label = "Maximum time in microseconds a coalesced message waits for its batch to be flushed")
+    protected int coalesceWindowMicros = DEFAULT_COALESCE_WINDOW_MICROS;
+
+    private static final int DEFAULT_COALESCE_MAX_MESSAGES = 64;
+    @Property(name = "coalesceMaxMessages", intValue = DEFAULT_COALESCE_MAX_MESSAGES,
+            label = "Number of coalesced messages after which a batch is flushed immediately")
+    protected int coalesceMaxMessages = DEFAULT_COALESCE_MAX_MESSAGES;
+
+    private static final int DEFAULT_COALESCE_MAX_BYTES = 64 * 1024;
+    @Property(name = "coalesceMaxBytes", intValue = DEFAULT_COALESCE_MAX_BYTES,
+            label = "Number of coalesced payload bytes after which a batch is flushed immediately")
+    protected int coalesceMaxBytes = DEFAULT_COALESCE_MAX_BYTES;
+
+    private static final int DEFAULT_MAX_MESSAGE_BYTES = 128 * 1024 * 1024;
+    @Property(name = "maxMessageBytes", intValue = DEFAULT_MAX_MESSAGE_BYTES,
+            label = "Maximum payload size in bytes of an inbound message; larger frames close the connection")
+    protected int maxMessageBytes = DEFAULT_MAX_MESSAGE_BYTES;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final LocalClientConnection localClientConnection = new LocalClientConnection();
@@ -160,7 +205,49 @@ public class NettyMessagingManager implements MessagingService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterMetadataService clusterMetadataService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
+
+    // This must be optional to avoid a cyclic dependency
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            bind = "bindComponentConfigService",
+            unbind = "unbindComponentConfigService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected ComponentConfigService cfgService;
+
+    private Histogram batchMessages;
+    private Histogram batchBytes;
+
+    /**
+     * Hook for wiring up optional reference to a service.
+     *
+     * @param service service being announced
+     */
+    protected void bindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == null) {
+            cfgService = service;
+            cfgService.registerProperties(getClass());
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to a service.
+     *
+     * @param service service being withdrawn
+     */
+    protected void unbindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == service) {
+            cfgService.unregisterProperties(getClass(), false);
+            cfgService = null;
+        }
+    }
+
     @Activate
+    public void activate(ComponentContext context) throws InterruptedException {
+        modified(context);
+        activate();
+    }
+
     public void activate() throws InterruptedException {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
@@ -171,6 +258,12 @@ public class NettyMessagingManager implements MessagingService {
         }
         this.preamble = clusterMetadataService.getClusterMetadata().getName().hashCode();
         this.localEndpoint = new Endpoint(localNode.ip(), localNode.tcpPort());
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            batchMessages = metricsService.createHistogram(component, feature, "messages");
+            batchBytes = metricsService.createHistogram(component, feature, "bytes");
+        }
         initEventLoopGroup();
         startAcceptingConnections();
         timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
@@ -193,6 +286,42 @@ public class NettyMessagingManager implements MessagingService {
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        Boolean newCoalesceWrites = Tools.isPropertyEnabled(properties, "coalesceWrites");
+        if (newCoalesceWrites != null) {
+            coalesceWrites = newCoalesceWrites;
+        }
+
+        Integer newWindowMicros = Tools.getIntegerProperty(properties, "coalesceWindowMicros");
+        if (newWindowMicros != null && newWindowMicros >= 0) {
+            coalesceWindowMicros = newWindowMicros;
+        }
+
+        Integer newMaxMessages = Tools.getIntegerProperty(properties, "coalesceMaxMessages");
+        if (newMaxMessages != null && newMaxMessages > 0) {
+            coalesceMaxMessages = newMaxMessages;
+        }
+
+        Integer newMaxBytes = Tools.getIntegerProperty(properties, "coalesceMaxBytes");
+        if (newMaxBytes != null && newMaxBytes > 0) {
+            coalesceMaxBytes = newMaxBytes;
+        }
+
+        Integer newMaxMessageBytes = Tools.getIntegerProperty(properties, "maxMessageBytes");
+        if (newMaxMessageBytes != null && newMaxMessageBytes > 0) {
+            maxMessageBytes = newMaxMessageBytes;
+        }
+        log.info("Settings: coalesceWrites={}, coalesceWindowMicros={}, coalesceMaxMessages={}, coalesceMaxBytes={}, "
+                        + "maxMessageBytes={}",
+                coalesceWrites, coalesceWindowMicros, coalesceMaxMessages, coalesceMaxBytes, maxMessageBytes);
+    }
+
     private void getTlsParameters() {
         // default is TLS enabled unless key stores cannot be loaded
         enableNettyTls = Boolean.parseBoolean(System.getProperty("enableNettyTLS", Boolean.toString(TLS_ENABLED)));
@@ -305,6 +434,24 @@ public class NettyMessagingManager implements MessagingService {
         return executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor());
     }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] header, Consumer<OutputStream> body) {
+        checkPermission(CLUSTER_WRITE);
+        if (ep.equals(localEndpoint)) {
+            return sendAsync(ep, type, MessagingService.payload(header, body));
+        }
+        HybridLogicalTime time = clockService.timeNow();
+        long messageId = messageIdGenerator.incrementAndGet();
+        InternalRequest message = InternalRequest.framed(preamble,
+                time,
+                messageId,
+                localEndpoint,
+                type,
+                MessageEncoder.encodeRequest(preamble, time, messageId, type, header, body));
+        return executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor())
+                .whenComplete((r, e) -> message.release());
+    }
+
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload) {
         checkPermission(CLUSTER_WRITE);
@@ -324,6 +471,25 @@ public class NettyMessagingManager implements MessagingService {
         return executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), executor);
     }
 
+    @Override
+    public CompletableFuture<byte[]> sendAndReceive(
+            Endpoint ep, String type, byte[] header, Consumer<OutputStream> body, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        if (ep.equals(localEndpoint)) {
+            return sendAndReceive(ep, type, MessagingService.payload(header, body), executor);
+        }
+        HybridLogicalTime time = clockService.timeNow();
+        long messageId = messageIdGenerator.incrementAndGet();
+        InternalRequest message = InternalRequest.framed(preamble,
+                time,
+                messageId,
+                localEndpoint,
+                type,
+                MessageEncoder.encodeRequest(preamble, time, messageId, type, header, body));
+        return executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), executor)
+                .whenComplete((r, e) -> message.release());
+    }
+
     private List<CompletableFuture<Channel>> getChannelPool(Endpoint endpoint) {
         return channels.computeIfAbsent(endpoint, e -> {
             List<CompletableFuture<Channel>> defaultList = new ArrayList<>(CHANNEL_POOL_SIZE);
@@ -451,31 +617,36 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() ->
-                handler.accept(message.sender(), message.payload())));
+        handlers.put(type, (message, connection) -> {
+            byte[] payload = detachPayload(message);
+            executor.execute(() -> handler.accept(message.sender(), payload));
+        });
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() -> {
-            byte[] responsePayload = null;
-            InternalReply.Status status = InternalReply.Status.OK;
-            try {
-                responsePayload = handler.apply(message.sender(), message.payload());
-            } catch (Exception e) {
-                log.debug("An error occurred in a message handler: {}", e);
-                status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
-            }
-            connection.reply(message, status, Optional.ofNullable(responsePayload));
-        }));
+        handlers.put(type, (message, connection) -> {
+            byte[] payload = detachPayload(message);
+            executor.execute(() -> {
+                byte[] responsePayload = null;
+                InternalReply.Status status = InternalReply.Status.OK;
+                try {
+                    responsePayload = handler.apply(message.sender(), payload);
+                } catch (Exception e) {
+                    log.debug("An error occurred in a message handler: {}", e);
+                    status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
+                }
+                connection.reply(message, status, Optional.ofNullable(responsePayload));
+            });
+        });
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
         checkPermission(CLUSTER_WRITE);
         handlers.put(type, (message, connection) -> {
-            handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
+            handler.apply(message.sender(), detachPayload(message)).whenComplete((result, error) -> {
                 InternalReply.Status status;
                 if (error == null) {
                     status = InternalReply.Status.OK;
@@ -488,6 +659,39 @@ public class NettyMessagingManager implements MessagingService {
         });
     }
 
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, (message, connection) -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        handler.accept(message.sender(), message.payloadBuffer());
+                    } finally {
+                        message.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                message.release();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Copies the payload of an inbound request out of the inbound buffer holding it, and releases the buffer.
+     *
+     * @param message the request
+     * @return the payload bytes
+     */
+    private static byte[] detachPayload(InternalRequest message) {
+        try {
+            return message.payload();
+        } finally {
+            message.release();
+        }
+    }
+
     @Override
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
@@ -580,7 +784,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(serverSslEngine))
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(maxMessageBytes))
                     .addLast("handler", dispatcher);
         }
     }
@@ -605,7 +809,7 @@ public class NettyMessagingManager implements MessagingService {
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(clientSslEngine))
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(maxMessageBytes))
                     .addLast("handler", dispatcher);
         }
     }
@@ -620,7 +824,7 @@ public class NettyMessagingManager implements MessagingService {
         protected void initChannel(SocketChannel channel) throws Exception {
             channel.pipeline()
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
-                    .addLast("decoder", new MessageDecoder())
+                    .addLast("decoder", new MessageDecoder(maxMessageBytes))
                     .addLast("handler", dispatcher);
         }
     }
@@ -898,14 +1102,17 @@ public class NettyMessagingManager implements MessagingService {
     private final class RemoteClientConnection extends AbstractClientConnection {
         private final Channel channel;
 
+        private final ChannelWriter writer;
+
         RemoteClientConnection(Channel channel) {
             this.channel = channel;
+            this.writer = new ChannelWriter(channel);
         }
 
         @Override
         public CompletableFuture<Void> sendAsync(InternalRequest message) {
             CompletableFuture<Void> future = new CompletableFuture<>();
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            writer.write(message).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     future.completeExceptionally(channelFuture.cause());
                 } else {
@@ -919,7 +1126,7 @@ public class NettyMessagingManager implements MessagingService {
         public CompletableFuture<byte[]> sendAndReceive(InternalRequest message) {
             CompletableFuture<byte[]> future = new CompletableFuture<>();
             registerCallback(message.id(), message.subject(), future);
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            writer.write(message).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     Callback callback = failCallback(message.id());
                     if (callback != null) {
@@ -966,10 +1173,10 @@ public class NettyMessagingManager implements MessagingService {
      * Remote server connection.
      */
     private final class RemoteServerConnection implements ServerConnection {
-        private final Channel channel;
+        private final ChannelWriter writer;
 
         RemoteServerConnection(Channel channel) {
-            this.channel = channel;
+            this.writer = new ChannelWriter(channel);
         }
 
         /**
@@ -980,6 +1187,7 @@ public class NettyMessagingManager implements MessagingService {
         private void dispatch(InternalRequest message) {
             if (message.preamble() != preamble) {
                 log.debug("Received {} with invalid preamble from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.PROTOCOL_EXCEPTION, Optional.empty());
                 return;
             }
@@ -991,6 +1199,7 @@ public class NettyMessagingManager implements MessagingService {
                 handler.accept(message, this);
             } else {
                 log.debug("No handler for message type {} from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.ERROR_NO_HANDLER, Optional.empty());
             }
         }
@@ -1002,7 +1211,86 @@ public class NettyMessagingManager implements MessagingService {
                     message.id(),
                     payload.orElse(EMPTY_PAYLOAD),
                     status);
-            channel.writeAndFlush(response);
+            writer.write(response);
+        }
+    }
+
+    /**
+     * Writes messages to a channel, optionally coalescing them into batches that are flushed together.
+     * <p>
+     * When write coalescing is enabled, messages are written to the channel without being flushed and
+     * the batch is flushed once the coalescing window expires or the batch reaches its message or byte
+     * threshold, so that a burst of small messages costs a single system call. Each message is still
+     * framed individually by the {@link MessageEncoder}, so batches need no support from the receiver.
+     */
+    private final class ChannelWriter {
+        private final Channel channel;
+
+        // Only accessed from the channel's event loop
+        private int pendingMessages;
+        private int pendingBytes;
+        private boolean flushScheduled;
+
+        ChannelWriter(Channel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Writes a message to the channel.
+         *
+         * @param message the message to write
+         * @return a future to be completed once the message has been written to the socket
+         */
+        ChannelFuture write(InternalMessage message) {
+            if (!coalesceWrites) {
+                return channel.writeAndFlush(message);
+            }
+            ChannelPromise promise = channel.newPromise();
+            EventLoop eventLoop = channel.eventLoop();
+            if (eventLoop.inEventLoop()) {
+                coalesce(message, promise);
+            } else {
+                try {
+                    eventLoop.execute(() -> coalesce(message, promise));
+                } catch (RejectedExecutionException e) {
+                    message.release();
+                    promise.setFailure(e);
+                }
+            }
+            return promise;
+        }
+
+        private void coalesce(InternalMessage message, ChannelPromise promise) {
+            pendingBytes += message.payloadLength();
+            pendingMessages++;
+            channel.write(message, promise);
+            if (pendingMessages >= coalesceMaxMessages || pendingBytes >= coalesceMaxBytes) {
+                flush();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                if (coalesceWindowMicros > 0) {
+                    channel.eventLoop().schedule(this::flushBatch, coalesceWindowMicros, TimeUnit.MICROSECONDS);
+                } else {
+                    channel.eventLoop().execute(this::flushBatch);
+                }
+            }
+        }
+
+        private void flushBatch() {
+            flushScheduled = false;
+            if (pendingMessages > 0) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batchMessages != null) {
+                batchMessages.update(pendingMessages);
+                batchBytes.update(pendingBytes);
+            }
+            pendingMessages = 0;
+            pendingBytes = 0;
+            channel.flush();
         }
     }
 
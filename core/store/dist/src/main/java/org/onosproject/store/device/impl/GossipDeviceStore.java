@@ -59,15 +59,8 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.impl.MastershipBasedTimestamp;
 import org.onosproject.store.impl.Timestamped;
-import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.serializers.custom.DistributedStoreSerializers;
-import org.onosproject.store.service.EventuallyConsistentMap;
-import org.onosproject.store.service.EventuallyConsistentMapEvent;
-import org.onosproject.store.service.EventuallyConsistentMapListener;
-import org.onosproject.store.service.MultiValuedTimestamp;
 import org.onosproject.store.service.Serializer;
-import org.onosproject.store.service.StorageService;
-import org.onosproject.store.service.WallClockTimestamp;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -102,7 +95,6 @@ import static org.onosproject.cluster.ControllerNodeToNodeId.toNodeId;
 import static org.onosproject.net.device.DeviceEvent.Type.*;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.*;
 import static org.onosproject.store.device.impl.GossipDeviceStoreMessageSubjects.DEVICE_REMOVED;
-import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.PUT;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -120,6 +112,10 @@ public class GossipDeviceStore
     private static final String DEVICE_NOT_FOUND = "Device with ID %s not found";
     // Timeout in milliseconds to process device or ports on remote master node
     private static final int REMOTE_MASTER_TIMEOUT = 1000;
+    // Window in milliseconds during which port statistics are batched before replication
+    private static final long PORT_STATS_BATCH_MILLIS = 500;
+    // Every n-th port statistics update of a device is replicated as a full snapshot
+    private static final long PORT_STATS_SNAPSHOT_INTERVAL = 12;
 
     // innerMap is used to lock a Device, thus instance should never be replaced.
     // collection of Description given from various providers
@@ -130,10 +126,17 @@ public class GossipDeviceStore
     private final ConcurrentMap<DeviceId, Device> devices = Maps.newConcurrentMap();
     private final ConcurrentMap<DeviceId, ConcurrentMap<PortNumber, Port>> devicePorts = Maps.newConcurrentMap();
 
-    private EventuallyConsistentMap<DeviceId, Map<PortNumber, PortStatistics>> devicePortStats;
-    private EventuallyConsistentMap<DeviceId, Map<PortNumber, PortStatistics>> devicePortDeltaStats;
-    private final EventuallyConsistentMapListener<DeviceId, Map<PortNumber, PortStatistics>>
-            portStatsListener = new InternalPortStatsListener();
+    private final ConcurrentMap<DeviceId, Map<PortNumber, PortStatistics>> devicePortStats =
+            Maps.newConcurrentMap();
+    private final ConcurrentMap<DeviceId, Map<PortNumber, PortStatistics>> devicePortDeltaStats =
+            Maps.newConcurrentMap();
+    // last port statistics update applied from a peer, per device
+    private final ConcurrentMap<DeviceId, PortStatsVersion> portStatsVersions = Maps.newConcurrentMap();
+    // port statistics polled locally and waiting for the next batch to be sent
+    private final ConcurrentMap<DeviceId, Map<PortNumber, PortStatistics>> pendingPortStats =
+            Maps.newConcurrentMap();
+    // port statistics last sent to peers, base of the next delta
+    private final ConcurrentMap<DeviceId, PortStatsVersion> sentPortStats = Maps.newConcurrentMap();
 
     // to be updated under Device lock
     private final Map<DeviceId, Timestamp> offline = Maps.newHashMap();
@@ -145,9 +148,6 @@ public class GossipDeviceStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceClockService deviceClockService;
 
-    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
-    protected StorageService storageService;
-
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterCommunicationService clusterCommunicator;
 
@@ -173,6 +173,7 @@ public class GossipDeviceStore
                     .register(DeviceAntiEntropyAdvertisement.class)
                     .register(DeviceFragmentId.class)
                     .register(PortFragmentId.class)
+                    .register(new InternalPortStatsBatchSerializer(), InternalPortStatsBatch.class)
                     .build("GossipDevice"));
 
     private ExecutorService executor;
@@ -197,33 +198,18 @@ public class GossipDeviceStore
         addSubscriber(PORT_UPDATE, this::handlePortEvent);
         addSubscriber(PORT_STATUS_UPDATE, this::handlePortStatusEvent);
         addSubscriber(DEVICE_ADVERTISE, this::handleDeviceAdvertisement);
+        addSubscriber(PORT_STATS_UPDATE, this::handlePortStatsBatch);
+        addSubscriber(PORT_STATS_SNAPSHOT_REQ, this::handlePortStatsSnapshotRequest);
 
         // start anti-entropy thread
         backgroundExecutor.scheduleAtFixedRate(new SendAdvertisementTask(),
                                                initialDelaySec, periodSec, TimeUnit.SECONDS);
 
-        // Create a distributed map for port stats.
-        KryoNamespace.Builder deviceDataSerializer = KryoNamespace.newBuilder()
-                .register(KryoNamespaces.API)
-                .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID)
-                .register(MultiValuedTimestamp.class);
-
-        devicePortStats = storageService.<DeviceId, Map<PortNumber, PortStatistics>>eventuallyConsistentMapBuilder()
-                .withName("port-stats")
-                .withSerializer(deviceDataSerializer)
-                .withAntiEntropyPeriod(5, TimeUnit.SECONDS)
-                .withTimestampProvider((k, v) -> new WallClockTimestamp())
-                .withTombstonesDisabled()
-                .build();
-        devicePortDeltaStats = storageService.<DeviceId, Map<PortNumber, PortStatistics>>
-                eventuallyConsistentMapBuilder()
-                .withName("port-stats-delta")
-                .withSerializer(deviceDataSerializer)
-                .withAntiEntropyPeriod(5, TimeUnit.SECONDS)
-                .withTimestampProvider((k, v) -> new WallClockTimestamp())
-                .withTombstonesDisabled()
-                .build();
-        devicePortStats.addListener(portStatsListener);
+        // start port statistics replication thread
+        backgroundExecutor.scheduleWithFixedDelay(this::sendPortStatistics,
+                                                  PORT_STATS_BATCH_MILLIS, PORT_STATS_BATCH_MILLIS,
+                                                  TimeUnit.MILLISECONDS);
+
         log.info("Started");
     }
 
@@ -233,9 +219,6 @@ public class GossipDeviceStore
 
     @Deactivate
     public void deactivate() {
-        devicePortStats.removeListener(portStatsListener);
-        devicePortStats.destroy();
-        devicePortDeltaStats.destroy();
         executor.shutdownNow();
 
         backgroundExecutor.shutdownNow();
@@ -252,6 +235,11 @@ public class GossipDeviceStore
         devices.clear();
         devicePorts.clear();
         availableDevices.clear();
+        devicePortStats.clear();
+        devicePortDeltaStats.clear();
+        portStatsVersions.clear();
+        pendingPortStats.clear();
+        sentPortStats.clear();
         clusterCommunicator.removeSubscriber(DEVICE_UPDATE);
         clusterCommunicator.removeSubscriber(DEVICE_STATUS_CHANGE);
         clusterCommunicator.removeSubscriber(DEVICE_REMOVE_REQ);
@@ -259,6 +247,8 @@ public class GossipDeviceStore
         clusterCommunicator.removeSubscriber(PORT_UPDATE);
         clusterCommunicator.removeSubscriber(PORT_STATUS_UPDATE);
         clusterCommunicator.removeSubscriber(DEVICE_ADVERTISE);
+        clusterCommunicator.removeSubscriber(PORT_STATS_UPDATE);
+        clusterCommunicator.removeSubscriber(PORT_STATS_SNAPSHOT_REQ);
         log.info("Stopped");
     }
 
@@ -888,32 +878,36 @@ public class GossipDeviceStore
     public DeviceEvent updatePortStatistics(ProviderId providerId, DeviceId deviceId,
                                             Collection<PortStatistics> newStatsCollection) {
 
-        Map<PortNumber, PortStatistics> prvStatsMap = devicePortStats.get(deviceId);
         Map<PortNumber, PortStatistics> newStatsMap = Maps.newHashMap();
+        for (PortStatistics newStats : newStatsCollection) {
+            newStatsMap.put(PortNumber.portNumber(newStats.port()), newStats);
+        }
+        // statistics are polled locally from now on, stop applying deltas from peers
+        portStatsVersions.remove(deviceId);
+        storePortStatistics(deviceId, newStatsMap);
+        pendingPortStats.put(deviceId, newStatsMap);
+
+        Device device = devices.get(deviceId);
+        return device == null ? null : new DeviceEvent(PORT_STATS_UPDATED, device);
+    }
+
+    private void storePortStatistics(DeviceId deviceId, Map<PortNumber, PortStatistics> newStatsMap) {
+        Map<PortNumber, PortStatistics> prvStatsMap = devicePortStats.get(deviceId);
         Map<PortNumber, PortStatistics> deltaStatsMap = Maps.newHashMap();
 
         if (prvStatsMap != null) {
-            for (PortStatistics newStats : newStatsCollection) {
-                PortNumber port = PortNumber.portNumber(newStats.port());
-                PortStatistics prvStats = prvStatsMap.get(port);
+            for (Entry<PortNumber, PortStatistics> entry : newStatsMap.entrySet()) {
+                PortStatistics prvStats = prvStatsMap.get(entry.getKey());
                 DefaultPortStatistics.Builder builder = DefaultPortStatistics.builder();
                 PortStatistics deltaStats = builder.build();
                 if (prvStats != null) {
-                    deltaStats = calcDeltaStats(deviceId, prvStats, newStats);
+                    deltaStats = calcDeltaStats(deviceId, prvStats, entry.getValue());
                 }
-                deltaStatsMap.put(port, deltaStats);
-                newStatsMap.put(port, newStats);
-            }
-        } else {
-            for (PortStatistics newStats : newStatsCollection) {
-                PortNumber port = PortNumber.portNumber(newStats.port());
-                newStatsMap.put(port, newStats);
+                deltaStatsMap.put(entry.getKey(), deltaStats);
             }
         }
         devicePortDeltaStats.put(deviceId, deltaStatsMap);
         devicePortStats.put(deviceId, newStatsMap);
-        // DeviceEvent returns null because of InternalPortStatsListener usage
-        return null;
     }
 
     /**
@@ -1653,16 +1647,127 @@ public class GossipDeviceStore
         }
     }
 
-    private class InternalPortStatsListener
-            implements EventuallyConsistentMapListener<DeviceId, Map<PortNumber, PortStatistics>> {
-        @Override
-        public void event(EventuallyConsistentMapEvent<DeviceId, Map<PortNumber, PortStatistics>> event) {
-            if (event.type() == PUT) {
-                Device device = devices.get(event.key());
-                if (device != null) {
-                    notifyDelegate(new DeviceEvent(PORT_STATS_UPDATED, device));
+    private void handlePortStatsBatch(InternalPortStatsBatch batch) {
+        log.trace("Received port statistics from {}: {}", batch.sender(), batch);
+        for (InternalPortStatsEvent event : batch.events()) {
+            try {
+                if (applyPortStatistics(batch.sender(), event)) {
+                    notifyDelegateIfNotNull(portStatsUpdated(event.deviceId()));
+                } else {
+                    requestPortStatsSnapshot(batch.sender(), event.deviceId());
                 }
+            } catch (Exception e) {
+                log.warn("Exception thrown handling port statistics", e);
             }
         }
     }
+
+    private void handlePortStatsSnapshotRequest(DeviceId deviceId) {
+        log.debug("Port statistics snapshot of {} requested", deviceId);
+        // the next batch starts over with a snapshot of the statistics last sent
+        PortStatsVersion sent = sentPortStats.remove(deviceId);
+        if (sent != null) {
+            pendingPortStats.putIfAbsent(deviceId, sent.stats);
+        }
+    }
+
+    /**
+     * Asks the node polling a device for a snapshot of its port statistics,
+     * after a delta could not be applied, for instance because this node
+     * joined the cluster after the last snapshot was sent.
+     *
+     * @param sender   node which polled the statistics
+     * @param deviceId device identifier
+     */
+    private void requestPortStatsSnapshot(NodeId sender, DeviceId deviceId) {
+        try {
+            unicastMessage(sender, PORT_STATS_SNAPSHOT_REQ, deviceId);
+        } catch (IOException e) {
+            log.debug("Failed to request port statistics snapshot of {} from {}", deviceId, sender);
+        }
+    }
+
+    private DeviceEvent portStatsUpdated(DeviceId deviceId) {
+        Device device = devices.get(deviceId);
+        return device == null ? null : new DeviceEvent(PORT_STATS_UPDATED, device);
+    }
+
+    /**
+     * Applies port statistics received from a peer. A delta is only applied
+     * on top of the update preceding it from the same sender; otherwise it is
+     * dropped and a snapshot is requested from the sender.
+     *
+     * @param sender node which polled the statistics
+     * @param event  port statistics of a device
+     * @return true if the statistics were applied
+     */
+    private boolean applyPortStatistics(NodeId sender, InternalPortStatsEvent event) {
+        DeviceId deviceId = event.deviceId();
+        PortStatsVersion applied = portStatsVersions.compute(deviceId, (id, current) -> {
+            if (!event.isSnapshot() && (current == null || !current.sender.equals(sender)
+                    || current.sequence + 1 != event.sequence())) {
+                log.debug("Dropping out of sequence port statistics {} from {}", event, sender);
+                return current;
+            }
+            Map<PortNumber, PortStatistics> stats = event.apply(devicePortStats.get(deviceId));
+            storePortStatistics(deviceId, stats);
+            // another node polls this device, next local poll starts over with a snapshot
+            sentPortStats.remove(deviceId);
+            return new PortStatsVersion(sender, event.sequence(), stats);
+        });
+        return applied != null && applied.sender.equals(sender) && applied.sequence == event.sequence();
+    }
+
+    /**
+     * Sends the port statistics polled since the last batch to all peers in
+     * a single message.
+     */
+    private void sendPortStatistics() {
+        try {
+            List<InternalPortStatsEvent> events = new ArrayList<>(pendingPortStats.size());
+            for (DeviceId deviceId : pendingPortStats.keySet()) {
+                Map<PortNumber, PortStatistics> stats = pendingPortStats.remove(deviceId);
+                if (stats != null) {
+                    events.add(encodePortStatistics(deviceId, stats));
+                }
+            }
+            if (!events.isEmpty()) {
+                NodeId self = clusterService.getLocalNode().id();
+                broadcastMessage(PORT_STATS_UPDATE, new InternalPortStatsBatch(self, events));
+            }
+        } catch (Exception e) {
+            // catch all Exception to avoid Scheduled task being suppressed.
+            log.error("Exception thrown while sending port statistics", e);
+        }
+    }
+
+    private InternalPortStatsEvent encodePortStatistics(DeviceId deviceId,
+                                                        Map<PortNumber, PortStatistics> stats) {
+        NodeId self = clusterService.getLocalNode().id();
+        PortStatsVersion sent = sentPortStats.get(deviceId);
+        long sequence = sent == null ? 0 : sent.sequence + 1;
+        sentPortStats.put(deviceId, new PortStatsVersion(self, sequence, stats));
+
+        if (sent == null || sequence % PORT_STATS_SNAPSHOT_INTERVAL == 0
+                || !sent.stats.keySet().equals(stats.keySet())) {
+            return InternalPortStatsEvent.snapshot(deviceId, sequence, stats);
+        }
+        return InternalPortStatsEvent.delta(deviceId, sequence, sent.stats, stats);
+    }
+
+    /**
+     * Port statistics of a device as of a given update of a sender.
+     */
+    private static final class PortStatsVersion {
+        private final NodeId sender;
+        private final long sequence;
+        private final Map<PortNumber, PortStatistics> stats;
+
+        private PortStatsVersion(NodeId sender, long sequence,
+                                 Map<PortNumber, PortStatistics> stats) {
+            this.sender = sender;
+            this.sequence = sequence;
+            this.stats = stats;
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import java.util.List;
+
+import org.onosproject.cluster.NodeId;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Port statistics of several devices collected by GossipDeviceStore during
+ * one batching window and published to its peers in a single message.
+ */
+public class InternalPortStatsBatch {
+
+    private final NodeId sender;
+    private final List<InternalPortStatsEvent> events;
+
+    /**
+     * Creates an InternalPortStatsBatch.
+     *
+     * @param sender node which polled the statistics
+     * @param events port statistics of each device
+     */
+    public InternalPortStatsBatch(NodeId sender, List<InternalPortStatsEvent> events) {
+        this.sender = sender;
+        this.events = ImmutableList.copyOf(events);
+    }
+
+    public NodeId sender() {
+        return sender;
+    }
+
+    public List<InternalPortStatsEvent> events() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("events", events)
+                .toString();
+    }
+}
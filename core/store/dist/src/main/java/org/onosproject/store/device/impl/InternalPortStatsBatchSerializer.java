@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import static org.onosproject.store.serializers.DeviceIdSerializer.deviceIdSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.PortStatistics;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link InternalPortStatsBatch}.
+ * <p>
+ * Port statistics values are written as zig-zag variable length longs, so
+ * the small differences carried by delta events take a byte or two each.
+ * Port statistics which are not flattened are written as objects.
+ */
+public class InternalPortStatsBatchSerializer extends Serializer<InternalPortStatsBatch> {
+
+    /**
+     * Creates a serializer for {@link InternalPortStatsBatch}.
+     */
+    public InternalPortStatsBatchSerializer() {
+        // does not accept null
+        super(false);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, InternalPortStatsBatch batch) {
+        output.writeString(batch.sender().toString());
+        output.writeInt(batch.events().size(), true);
+        for (InternalPortStatsEvent event : batch.events()) {
+            kryo.writeObject(output, event.deviceId(), deviceIdSerializer());
+            output.writeLong(event.sequence(), true);
+            output.writeBoolean(event.isSnapshot());
+            long[] values = event.values();
+            output.writeInt(values.length, true);
+            for (long value : values) {
+                output.writeLong(value, false);
+            }
+            output.writeInt(event.stats().size(), true);
+            for (PortStatistics stats : event.stats()) {
+                kryo.writeClassAndObject(output, stats);
+            }
+        }
+    }
+
+    @Override
+    public InternalPortStatsBatch read(Kryo kryo, Input input,
+                                       Class<InternalPortStatsBatch> type) {
+        NodeId sender = new NodeId(input.readString());
+        int size = input.readInt(true);
+        List<InternalPortStatsEvent> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            DeviceId deviceId = kryo.readObject(input, DeviceId.class, deviceIdSerializer());
+            long sequence = input.readLong(true);
+            boolean snapshot = input.readBoolean();
+            long[] values = new long[input.readInt(true)];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = input.readLong(false);
+            }
+            int count = input.readInt(true);
+            List<PortStatistics> stats = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                stats.add((PortStatistics) kryo.readClassAndObject(input));
+            }
+            events.add(new InternalPortStatsEvent(deviceId, sequence, snapshot, values, stats));
+        }
+        return new InternalPortStatsBatch(sender, events);
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.onosproject.net.Annotations;
+import org.onosproject.net.AnnotationsUtil;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DefaultPortStatistics;
+import org.onosproject.net.device.PortStatistics;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Port statistics of a device published by GossipDeviceStore to its peers.
+ * <p>
+ * Statistics are flattened into a primitive array holding {@link #STRIDE}
+ * values per port. A snapshot carries the absolute counters of every port
+ * of the device, while a delta only carries the ports whose counters changed
+ * since the previous update of the same sender, as differences from it.
+ * <p>
+ * Statistics which the flattened values cannot represent, because they are
+ * annotated or their port number is named, are carried as they are by
+ * snapshots. Deltas carry them as they are only when their annotations or
+ * port name changed; flattened deltas keep both from the previous update.
+ */
+public class InternalPortStatsEvent {
+
+    /**
+     * Number of values encoded per port: the port number, the eight
+     * counters and the duration in seconds and nanoseconds.
+     */
+    static final int STRIDE = 11;
+
+    private final DeviceId deviceId;
+    private final long sequence;
+    private final boolean snapshot;
+    private final long[] values;
+    private final List<PortStatistics> stats;
+
+    /**
+     * Creates an InternalPortStatsEvent.
+     *
+     * @param deviceId device identifier
+     * @param sequence per-device sequence number of the sender
+     * @param snapshot true if values are absolute, false if they are
+     *                 differences from the update preceding this one
+     * @param values   flattened port statistics
+     * @param stats    port statistics carried as they are
+     */
+    InternalPortStatsEvent(DeviceId deviceId, long sequence,
+                           boolean snapshot, long[] values,
+                           List<PortStatistics> stats) {
+        checkArgument(values.length % STRIDE == 0, "Malformed port statistics");
+        this.deviceId = deviceId;
+        this.sequence = sequence;
+        this.snapshot = snapshot;
+        this.values = values;
+        this.stats = ImmutableList.copyOf(stats);
+    }
+
+    /**
+     * Creates an event carrying the absolute statistics of all given ports.
+     *
+     * @param deviceId device identifier
+     * @param sequence per-device sequence number of the sender
+     * @param stats    statistics of every port of the device
+     * @return port statistics event
+     */
+    static InternalPortStatsEvent snapshot(DeviceId deviceId, long sequence,
+                                           Map<PortNumber, PortStatistics> stats) {
+        long[] values = new long[stats.size() * STRIDE];
+        List<PortStatistics> objects = new ArrayList<>();
+        int offset = 0;
+        for (PortStatistics portStats : stats.values()) {
+            if (isFlattenable(portStats)) {
+                flatten(portStats, values, offset);
+                offset += STRIDE;
+            } else {
+                objects.add(portStats);
+            }
+        }
+        return new InternalPortStatsEvent(deviceId, sequence, true,
+                                          Arrays.copyOf(values, offset), objects);
+    }
+
+    /**
+     * Creates an event carrying only the ports whose statistics differ from
+     * the previously sent ones. Both maps must hold the same set of ports.
+     *
+     * @param deviceId device identifier
+     * @param sequence per-device sequence number of the sender
+     * @param base     statistics sent with the previous update
+     * @param stats    statistics of every port of the device
+     * @return port statistics event
+     */
+    static InternalPortStatsEvent delta(DeviceId deviceId, long sequence,
+                                        Map<PortNumber, PortStatistics> base,
+                                        Map<PortNumber, PortStatistics> stats) {
+        long[] values = new long[stats.size() * STRIDE];
+        long[] previous = new long[STRIDE];
+        List<PortStatistics> objects = new ArrayList<>();
+        int offset = 0;
+        for (Map.Entry<PortNumber, PortStatistics> entry : stats.entrySet()) {
+            PortStatistics basePortStats = base.get(entry.getKey());
+            PortStatistics portStats = entry.getValue();
+            flatten(basePortStats, previous, 0);
+            flatten(portStats, values, offset);
+            boolean changed = false;
+            for (int i = 1; i < STRIDE; i++) {
+                values[offset + i] -= previous[i];
+                changed |= values[offset + i] != 0;
+            }
+            if (!AnnotationsUtil.isEqual(basePortStats.annotations(), portStats.annotations())
+                    || !basePortStats.portNumber().exactlyEquals(portStats.portNumber())) {
+                objects.add(portStats);
+            } else if (changed) {
+                offset += STRIDE;
+            }
+        }
+        return new InternalPortStatsEvent(deviceId, sequence, false,
+                                          Arrays.copyOf(values, offset), objects);
+    }
+
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    long[] values() {
+        return values;
+    }
+
+    List<PortStatistics> stats() {
+        return stats;
+    }
+
+    /**
+     * Returns the number of ports carried by this event.
+     *
+     * @return number of ports
+     */
+    public int size() {
+        return values.length / STRIDE + stats.size();
+    }
+
+    /**
+     * Rebuilds the statistics of the device by applying this event on top of
+     * the statistics of the update preceding it.
+     *
+     * @param base statistics of the previous update; ignored for snapshots
+     * @return statistics of every port of the device
+     */
+    Map<PortNumber, PortStatistics> apply(Map<PortNumber, PortStatistics> base) {
+        checkState(snapshot || base != null, "Delta without base statistics");
+        Map<PortNumber, PortStatistics> applied = snapshot ? new HashMap<>() : new HashMap<>(base);
+        long[] port = new long[STRIDE];
+        for (int offset = 0; offset < values.length; offset += STRIDE) {
+            System.arraycopy(values, offset, port, 0, STRIDE);
+            PortNumber portNumber = PortNumber.portNumber(port[0]);
+            if (snapshot) {
+                applied.put(portNumber, build(deviceId, portNumber, port).build());
+            } else {
+                PortStatistics previous = applied.get(portNumber);
+                checkState(previous != null, "Delta for unknown port %s", portNumber);
+                long[] absolute = new long[STRIDE];
+                flatten(previous, absolute, 0);
+                for (int i = 1; i < STRIDE; i++) {
+                    port[i] += absolute[i];
+                }
+                // keep the port name and annotations, which the flattened values do not carry
+                applied.put(portNumber, build(deviceId, previous.portNumber(), port)
+                        .setAnnotations(previous.annotations())
+                        .build());
+            }
+        }
+        for (PortStatistics portStats : stats) {
+            applied.put(portStats.portNumber(), portStats);
+        }
+        return applied;
+    }
+
+    /**
+     * Returns whether the given statistics are fully represented by their
+     * flattened values.
+     *
+     * @param stats port statistics
+     * @return true if the statistics are not annotated and their port number
+     *         is not named
+     */
+    private static boolean isFlattenable(PortStatistics stats) {
+        Annotations annotations = stats.annotations();
+        return (annotations == null || annotations.keys().isEmpty()) && !stats.portNumber().hasName();
+    }
+
+    private static void flatten(PortStatistics stats, long[] values, int offset) {
+        values[offset] = stats.portNumber().toLong();
+        values[offset + 1] = stats.packetsReceived();
+        values[offset + 2] = stats.packetsSent();
+        values[offset + 3] = stats.bytesReceived();
+        values[offset + 4] = stats.bytesSent();
+        values[offset + 5] = stats.packetsRxDropped();
+        values[offset + 6] = stats.packetsTxDropped();
+        values[offset + 7] = stats.packetsRxErrors();
+        values[offset + 8] = stats.packetsTxErrors();
+        values[offset + 9] = stats.durationSec();
+        values[offset + 10] = stats.durationNano();
+    }
+
+    private static DefaultPortStatistics.Builder build(DeviceId deviceId, PortNumber portNumber,
+                                                       long[] values) {
+        return DefaultPortStatistics.builder()
+                .setDeviceId(deviceId)
+                .setPort(portNumber)
+                .setPacketsReceived(values[1])
+                .setPacketsSent(values[2])
+                .setBytesReceived(values[3])
+                .setBytesSent(values[4])
+                .setPacketsRxDropped(values[5])
+                .setPacketsTxDropped(values[6])
+                .setPacketsRxErrors(values[7])
+                .setPacketsTxErrors(values[8])
+                .setDurationSec(values[9])
+                .setDurationNano(values[10]);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("deviceId", deviceId)
+                .add("sequence", sequence)
+                .add("snapshot", snapshot)
+                .add("ports", size())
+                .toString();
+    }
+}
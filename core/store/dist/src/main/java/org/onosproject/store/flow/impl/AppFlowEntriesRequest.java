@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Request for the flow entries of an application, or of an application group,
+ * on the devices mastered by the node receiving the request.
+ */
+public class AppFlowEntriesRequest {
+    private final short appId;
+    private final Short groupId;
+
+    AppFlowEntriesRequest(short appId, Short groupId) {
+        this.appId = appId;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Returns the application identifier.
+     *
+     * @return the application identifier
+     */
+    public short appId() {
+        return appId;
+    }
+
+    /**
+     * Returns the group identifier.
+     *
+     * @return the group identifier or {@code null} if all of the application's flow entries are requested
+     */
+    public Short groupId() {
+        return groupId;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("appId", appId)
+            .add("groupId", groupId)
+            .toString();
+    }
+}
@@ -55,10 +55,15 @@ import org.slf4j.LoggerFactory;
  * table performs communication independent of other device flow tables for more parallelism.
  * <p>
  * This implementation uses several different replication protocols. Changes that occur on the device master are
- * replicated to the backups provided in the {@link DeviceReplicaInfo} for the master's term. Additionally, a periodic
+ * replicated to the backups provided in the {@link DeviceReplicaInfo} for the master's term. Once a bucket has been
+ * backed up to a node, only the changes made since the last successful backup are replicated to that node, falling
+ * back to replicating the full bucket when the bucket's change log no longer covers them. Additionally, a periodic
  * anti-entropy protocol is used to detect missing flows on backups (e.g. due to a node restart). Finally, when a
  * device mastership change occurs, the new master synchronizes flows with the prior master and/or backups for the
  * device, allowing mastership to be reassigned to non-backup nodes.
+ * <p>
+ * Both anti-entropy and mastership synchronization compare bucket content hashes first and then per-flow digests
+ * for the buckets that differ, so that only the entries for diverging flow identifiers are transferred.
  */
 public class DeviceFlowTable {
     private static final int NUM_BUCKETS = 1024;
@@ -69,13 +74,19 @@ public class DeviceFlowTable {
         .register(FlowBucketDigest.class)
         .register(LogicalTimestamp.class)
         .register(Timestamped.class)
+        .register(FlowBucketDelta.class)
+        .register(FlowBucketRepair.class)
+        .register(FlowBucketRepairRequest.class)
         .build());
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final MessageSubject getDigestsSubject;
-    private final MessageSubject getBucketSubject;
+    private final MessageSubject getFlowDigestsSubject;
+    private final MessageSubject getRepairSubject;
     private final MessageSubject backupSubject;
+    private final MessageSubject backupDeltaSubject;
+    private final MessageSubject repairSubject;
 
     private final DeviceId deviceId;
     private final ClusterCommunicationService clusterCommunicator;
@@ -125,8 +136,11 @@ public class DeviceFlowTable {
         }
 
         getDigestsSubject = new MessageSubject(String.format("flow-store-%s-digests", deviceId));
-        getBucketSubject = new MessageSubject(String.format("flow-store-%s-bucket", deviceId));
+        getFlowDigestsSubject = new MessageSubject(String.format("flow-store-%s-flow-digests", deviceId));
+        getRepairSubject = new MessageSubject(String.format("flow-store-%s-get-repair", deviceId));
         backupSubject = new MessageSubject(String.format("flow-store-%s-backup", deviceId));
+        backupDeltaSubject = new MessageSubject(String.format("flow-store-%s-backup-delta", deviceId));
+        repairSubject = new MessageSubject(String.format("flow-store-%s-repair", deviceId));
 
         setBackupPeriod(backupPeriod);
         setAntiEntropyPeriod(antiEntropyPeriod);
@@ -181,9 +195,11 @@ public class DeviceFlowTable {
      * @return the flow entry for the given rule
      */
     public StoredFlowEntry getFlowEntry(FlowRule rule) {
-        return getBucket(rule.id())
-            .getFlowEntries(rule.id())
-            .get(rule);
+        // Look up the flow without creating an entry for it, since rules reported by devices may be unknown.
+        Map<StoredFlowEntry, StoredFlowEntry> flowEntries = getBucket(rule.id())
+            .getFlowBucket()
+            .get(rule.id());
+        return flowEntries != null ? flowEntries.get(rule) : null;
     }
 
     /**
@@ -198,6 +214,31 @@ public class DeviceFlowTable {
             .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the set of flow entries in the table for the given application.
+     *
+     * @param appId the application identifier
+     * @return the set of flow entries for the given application
+     */
+    public Set<FlowEntry> getFlowEntriesByAppId(short appId) {
+        return flowBuckets.values().stream()
+            .flatMap(bucket -> bucket.getFlowEntriesByAppId(appId).stream())
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the set of flow entries in the table for the given application group.
+     *
+     * @param appId   the application identifier
+     * @param groupId the group identifier
+     * @return the set of flow entries for the given application group
+     */
+    public Set<FlowEntry> getFlowEntriesByGroupId(short appId, short groupId) {
+        return flowBuckets.values().stream()
+            .flatMap(bucket -> bucket.getFlowEntriesByGroupId(appId, groupId).stream())
+            .collect(Collectors.toSet());
+    }
+
     /**
      * Returns the bucket for the given flow identifier.
      *
@@ -373,18 +414,39 @@ public class DeviceFlowTable {
             // If the backup can be run (no concurrent backup to the node in progress) then run it.
             BackupOperation operation = new BackupOperation(nodeId, bucket.bucketId().bucket());
             if (startBackup(operation, timestamp)) {
-                backup(bucket.copy(), nodeId).whenCompleteAsync((succeeded, error) -> {
-                    if (error != null) {
-                        log.debug("Backup operation {} failed", operation, error);
-                        failBackup(operation);
-                    } else if (succeeded) {
-                        succeedBackup(operation, timestamp);
-                        backup(nodeId, term);
-                    } else {
-                        log.debug("Backup operation {} failed: term mismatch", operation);
-                        failBackup(operation);
-                    }
-                }, executorService);
+                // If the bucket has already been backed up to the node, attempt to replicate only the changes
+                // made since the last backup. Otherwise, replicate the full bucket.
+                LogicalTimestamp lastBackupTime = lastBackupTimes.get(operation);
+                FlowBucketDelta delta = lastBackupTime != null ? bucket.delta(lastBackupTime) : null;
+                if (delta != null) {
+                    backup(delta, nodeId).whenCompleteAsync((succeeded, error) -> {
+                        if (error != null) {
+                            log.debug("Backup operation {} failed", operation, error);
+                            failBackup(operation);
+                        } else if (succeeded) {
+                            succeedBackup(operation, delta.timestamp());
+                            backup(nodeId, term);
+                        } else {
+                            // The delta could not be applied by the backup node, so force a full bucket backup.
+                            log.debug("Backup operation {} failed: delta rejected", operation);
+                            failBackup(operation);
+                            resetBackup(operation);
+                        }
+                    }, executorService);
+                } else {
+                    backup(bucket.copy(), nodeId).whenCompleteAsync((succeeded, error) -> {
+                        if (error != null) {
+                            log.debug("Backup operation {} failed", operation, error);
+                            failBackup(operation);
+                        } else if (succeeded) {
+                            succeedBackup(operation, timestamp);
+                            backup(nodeId, term);
+                        } else {
+                            log.debug("Backup operation {} failed: term mismatch", operation);
+                            failBackup(operation);
+                        }
+                    }, executorService);
+                }
             }
         }
     }
@@ -452,6 +514,20 @@ public class DeviceFlowTable {
         return sendWithTimestamp(bucket, backupSubject, nodeId);
     }
 
+    /**
+     * Performs the given delta backup operation.
+     *
+     * @param delta  the bucket delta to backup
+     * @param nodeId the node to which to backup the delta
+     * @return a future to be completed with a boolean indicating whether the delta was applied
+     */
+    private CompletableFuture<Boolean> backup(FlowBucketDelta delta, NodeId nodeId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Backing up {} flow entry changes in bucket {} to {}", delta.count(), delta.bucketId(), nodeId);
+        }
+        return sendWithTimestamp(delta, backupDeltaSubject, nodeId);
+    }
+
     /**
      * Handles a flow bucket backup from a remote peer.
      *
@@ -482,6 +558,39 @@ public class DeviceFlowTable {
         }
     }
 
+    /**
+     * Handles a flow bucket delta backup from a remote peer.
+     *
+     * @param delta the flow bucket delta to apply
+     * @return indicates whether the delta was applied to the local bucket
+     */
+    private boolean onBackupDelta(FlowBucketDelta delta) {
+        if (log.isDebugEnabled()) {
+            log.debug("{} - Received {} flow entry changes in bucket {} to backup",
+                deviceId, delta.count(), delta.bucketId());
+        }
+
+        try {
+            DeviceReplicaInfo replicaInfo = lifecycleManager.getReplicaInfo();
+
+            // If the backup is for a different term, reject the request until we learn about the new term.
+            if (delta.term() != replicaInfo.term()) {
+                log.debug("Term mismatch for device {}: {} != {}", deviceId, delta.term(), replicaInfo);
+                return false;
+            }
+
+            // If the local bucket is missing changes prior to the delta, reject it to force a full bucket backup.
+            if (!getBucket(delta.bucketId().bucket()).apply(delta)) {
+                log.debug("Missing flow entries in bucket {} prior to {}", delta.bucketId(), delta.base());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failure processing backup request", e);
+            return false;
+        }
+    }
+
     /**
      * Runs the anti-entropy protocol.
      */
@@ -502,11 +611,18 @@ public class DeviceFlowTable {
      * @param nodeId the node with which to execute the anti-entropy protocol
      */
     private void runAntiEntropy(NodeId nodeId) {
+        long term = lifecycleManager.getReplicaInfo().term();
         requestDigests(nodeId).thenAcceptAsync((digests) -> {
-            // Compute a set of missing BucketIds based on digest times and send them back to the master.
+            // Compare the content of each bucket and repair the diverging flows on the backup. If the bucket is not
+            // in the current term, fall back to marking the bucket for a full backup once it is.
             for (FlowBucketDigest remoteDigest : digests) {
                 FlowBucket localBucket = getBucket(remoteDigest.bucket());
-                if (localBucket.getDigest().isNewerThan(remoteDigest)) {
+                FlowBucketDigest localDigest = localBucket.getDigest();
+                if (localBucket.term() == term && localDigest.isDivergentFrom(remoteDigest)) {
+                    log.debug("Detected diverging flow entries on node {} in bucket {}/{}",
+                        nodeId, deviceId, remoteDigest.bucket());
+                    repair(localBucket, nodeId);
+                } else if (localDigest.isNewerThan(remoteDigest) && localDigest.isDivergentFrom(remoteDigest)) {
                     log.debug("Detected missing flow entries on node {} in bucket {}/{}",
                         nodeId, deviceId, remoteDigest.bucket());
                     resetBackup(new BackupOperation(nodeId, remoteDigest.bucket()));
@@ -515,6 +631,75 @@ public class DeviceFlowTable {
         }, executorService);
     }
 
+    /**
+     * Repairs the diverging flows of the given bucket on the given node.
+     * <p>
+     * The repair is performed as a backup operation. If the repair succeeds, the node is considered backed up to
+     * the bucket timestamp at which the repair was computed. If it fails, a full backup of the bucket is forced.
+     *
+     * @param bucket the bucket to repair
+     * @param nodeId the node on which to repair the bucket
+     */
+    private void repair(FlowBucket bucket, NodeId nodeId) {
+        BackupOperation operation = new BackupOperation(nodeId, bucket.bucketId().bucket());
+        if (!inFlightUpdates.add(operation)) {
+            return;
+        }
+
+        requestFlowDigests(nodeId, bucket.bucketId().bucket())
+            .thenApplyAsync(bucket::repair, executorService)
+            .thenCompose(repair -> {
+                log.debug("Repairing {} flows in bucket {} on {}", repair.flows().size(), repair.bucketId(), nodeId);
+                return this.<FlowBucketRepair, Boolean>sendWithTimestamp(repair, repairSubject, nodeId)
+                    .thenApply(succeeded -> succeeded ? repair.timestamp() : null);
+            })
+            .whenCompleteAsync((timestamp, error) -> {
+                if (error == null && timestamp != null) {
+                    succeedBackup(operation, timestamp);
+                } else {
+                    log.debug("Repair operation {} failed", operation, error);
+                    failBackup(operation);
+                    resetBackup(operation);
+                }
+            }, executorService);
+    }
+
+    /**
+     * Handles a flow bucket repair from the master.
+     *
+     * @param repair the repair to apply
+     * @return indicates whether the repair was applied
+     */
+    private boolean onRepair(FlowBucketRepair repair) {
+        try {
+            DeviceReplicaInfo replicaInfo = lifecycleManager.getReplicaInfo();
+
+            // If the repair is for a different term, reject the request until we learn about the new term.
+            if (repair.term() != replicaInfo.term()) {
+                log.debug("Term mismatch for device {}: {} != {}", deviceId, repair.term(), replicaInfo);
+                return false;
+            }
+
+            log.debug("{} - Repairing {} flows in bucket {}", deviceId, repair.flows().size(), repair.bucketId());
+            getBucket(repair.bucketId().bucket()).apply(repair);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failure processing repair request", e);
+            return false;
+        }
+    }
+
+    /**
+     * Requests the flow digests for the given bucket from the given node.
+     *
+     * @param nodeId the node from which to request the flow digests
+     * @param bucket the bucket for which to request flow digests
+     * @return a future to be completed with the flow digests for the bucket, keyed by flow identifier
+     */
+    private CompletableFuture<Map<FlowId, Long>> requestFlowDigests(NodeId nodeId, int bucket) {
+        return sendWithTimestamp(bucket, getFlowDigestsSubject, nodeId);
+    }
+
     /**
      * Sends a digest request to the given node.
      *
@@ -603,7 +788,10 @@ public class DeviceFlowTable {
     private CompletableFuture<Void> syncFlowsOn(NodeId nodeId) {
         return requestDigests(nodeId)
             .thenCompose(digests -> Tools.allOf(digests.stream()
-                .filter(digest -> digest.isNewerThan(getDigest(digest.bucket())))
+                .filter(digest -> {
+                    FlowBucketDigest localDigest = getDigest(digest.bucket());
+                    return digest.isNewerThan(localDigest) && digest.isDivergentFrom(localDigest);
+                })
                 .map(digest -> syncBucketOn(nodeId, digest.bucket()))
                 .collect(Collectors.toList())))
             .thenApply(v -> null);
@@ -611,39 +799,53 @@ public class DeviceFlowTable {
 
     /**
      * Synchronizes the given bucket on the given node.
+     * <p>
+     * Only the flows whose digests differ from the flows on the given node are transferred.
      *
      * @param nodeId       the node on which to synchronize the bucket
      * @param bucketNumber the bucket to synchronize
      * @return a future to be completed once the bucket has been synchronizes
      */
     private CompletableFuture<Void> syncBucketOn(NodeId nodeId, int bucketNumber) {
-        return requestBucket(nodeId, bucketNumber)
-            .thenAcceptAsync(flowBucket -> {
-                flowBuckets.compute(flowBucket.bucketId().bucket(),
-                    (id, bucket) -> flowBucket.getDigest().isNewerThan(bucket.getDigest()) ? flowBucket : bucket);
+        FlowBucket bucket = getBucket(bucketNumber);
+        return requestRepair(nodeId, new FlowBucketRepairRequest(bucketNumber, bucket.getFlowDigests()))
+            .thenAcceptAsync(repair -> {
+                if (repair.isNewerThan(bucket.getDigest())) {
+                    bucket.apply(repair);
+                }
             }, executorService);
     }
 
     /**
-     * Requests the given bucket from the given node.
+     * Requests a repair of the given bucket from the given node.
+     *
+     * @param nodeId  the node from which to request the repair
+     * @param request the repair request carrying the local flow digests for the bucket
+     * @return a future to be completed with the repair
+     */
+    private CompletableFuture<FlowBucketRepair> requestRepair(NodeId nodeId, FlowBucketRepairRequest request) {
+        log.debug("Requesting repair of flow bucket {} from {}", request.bucket(), nodeId);
+        return sendWithTimestamp(request, getRepairSubject, nodeId);
+    }
+
+    /**
+     * Handles a flow digests request.
      *
-     * @param nodeId the node from which to request the bucket
-     * @param bucket the bucket to request
-     * @return a future to be completed with the bucket
+     * @param bucket the bucket number
+     * @return the flow digests for the bucket, keyed by flow identifier
      */
-    private CompletableFuture<FlowBucket> requestBucket(NodeId nodeId, int bucket) {
-        log.debug("Requesting flow bucket {} from {}", bucket, nodeId);
-        return sendWithTimestamp(bucket, getBucketSubject, nodeId);
+    private Map<FlowId, Long> onGetFlowDigests(int bucket) {
+        return getBucket(bucket).getFlowDigests();
     }
 
     /**
-     * Handles a flow bucket request.
+     * Handles a flow bucket repair request.
      *
-     * @param bucketId the bucket number
-     * @return the flow bucket
+     * @param request the repair request
+     * @return the repair of the flows that diverge from the requester's flow digests
      */
-    private FlowBucket onGetBucket(int bucketId) {
-        return flowBuckets.get(bucketId).copy();
+    private FlowBucketRepair onGetRepair(FlowBucketRepairRequest request) {
+        return getBucket(request.bucket()).repair(request.flowDigests());
     }
 
     /**
@@ -758,7 +960,7 @@ public class DeviceFlowTable {
      */
     private <M, R> CompletableFuture<R> sendWithTimestamp(M message, MessageSubject subject, NodeId toNodeId) {
         return clusterCommunicator.<Timestamped<M>, Timestamped<R>>sendAndReceive(
-            clock.timestamp(message), subject, SERIALIZER::encode, SERIALIZER::decode, toNodeId)
+            clock.timestamp(message), subject, SERIALIZER, toNodeId)
             .thenApply(response -> {
                 clock.tick(response.timestamp());
                 return response.value();
@@ -788,8 +990,11 @@ public class DeviceFlowTable {
      */
     private void registerSubscribers() {
         receiveWithTimestamp(getDigestsSubject, v -> getDigests());
-        receiveWithTimestamp(getBucketSubject, this::onGetBucket);
+        receiveWithTimestamp(getFlowDigestsSubject, this::onGetFlowDigests);
+        receiveWithTimestamp(getRepairSubject, this::onGetRepair);
         receiveWithTimestamp(backupSubject, this::onBackup);
+        receiveWithTimestamp(backupDeltaSubject, this::onBackupDelta);
+        receiveWithTimestamp(repairSubject, this::onRepair);
     }
 
     /**
@@ -797,8 +1002,11 @@ public class DeviceFlowTable {
      */
     private void unregisterSubscribers() {
         clusterCommunicator.removeSubscriber(getDigestsSubject);
-        clusterCommunicator.removeSubscriber(getBucketSubject);
+        clusterCommunicator.removeSubscriber(getFlowDigestsSubject);
+        clusterCommunicator.removeSubscriber(getRepairSubject);
         clusterCommunicator.removeSubscriber(backupSubject);
+        clusterCommunicator.removeSubscriber(backupDeltaSubject);
+        clusterCommunicator.removeSubscriber(repairSubject);
     }
 
     /**
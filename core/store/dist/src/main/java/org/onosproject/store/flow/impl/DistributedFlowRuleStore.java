@@ -27,11 +27,12 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
@@ -45,6 +46,7 @@ import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.mastership.MastershipService;
@@ -314,10 +316,29 @@ public class DistributedFlowRuleStore
     @Override
     public int getFlowRuleCount() {
         return Streams.stream(deviceService.getDevices()).parallel()
-                .mapToInt(device -> Iterables.size(getFlowEntries(device.id())))
+                .mapToInt(device -> getFlowRuleCount(device.id()))
                 .sum();
     }
 
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId) {
+        if (mastershipService.getMasterFor(deviceId) != null) {
+            DocumentPath path = getPathFor(deviceId);
+            try {
+                return flows.getChildren(path)
+                        .values()
+                        .stream()
+                        .mapToInt(v -> v.value().size())
+                        .sum();
+            } catch (NoSuchDocumentPathException e) {
+                return 0;
+            }
+        } else {
+            log.debug("Failed to getFlowRuleCount: No master for {}", deviceId);
+            return 0;
+        }
+    }
+
     /**
      * Returns the {@link DocumentPath} for the given {@link DeviceId}.
      *
@@ -380,6 +401,36 @@ public class DistributedFlowRuleStore
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByAppId(ApplicationId appId) {
+        return getFlowEntries(entry -> entry.appId() == appId.id());
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByGroupId(ApplicationId appId, short groupId) {
+        long toLookUp = ((appId.id() & 0xffffL) << 16) | (groupId & 0xffffL);
+        return getFlowEntries(entry -> (entry.id().value() >>> 32) == toLookUp);
+    }
+
+    private Iterable<FlowEntry> getFlowEntries(Predicate<FlowEntry> filter) {
+        try {
+            return flows.getChildren(flows.root())
+                    .keySet()
+                    .stream()
+                    .flatMap(deviceId -> {
+                        try {
+                            return Streams.stream(getFlowEntries(getPathFor(DeviceId.deviceId(deviceId))));
+                        } catch (NoSuchDocumentPathException e) {
+                            return Stream.empty();
+                        }
+                    })
+                    .filter(filter)
+                    .collect(Collectors.toList());
+        } catch (NoSuchDocumentPathException e) {
+            return Collections.emptyList();
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void storeFlowRule(FlowRule rule) {
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -45,7 +46,9 @@ import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
+import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.AbstractListenerManager;
@@ -100,6 +103,7 @@ import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.APPLY_BATCH_FLOWS;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.FLOW_TABLE_BACKUP;
+import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_APP_FLOW_ENTRIES;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_COUNT;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_ENTRIES;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_FLOW_ENTRY;
@@ -189,6 +193,7 @@ public class ECFlowRuleStore
         .register(KryoNamespaces.API)
         .register(BucketId.class)
         .register(FlowBucket.class)
+        .register(AppFlowEntriesRequest.class)
         .build());
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
@@ -316,6 +321,8 @@ public class ECFlowRuleStore
             GET_FLOW_ENTRY, serializer::decode, flowTable::getFlowEntry, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
             GET_DEVICE_FLOW_ENTRIES, serializer::decode, flowTable::getFlowEntries, serializer::encode, executor);
+        clusterCommunicator.addSubscriber(
+            GET_APP_FLOW_ENTRIES, serializer::decode, flowTable::getAppFlowEntries, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
             GET_DEVICE_FLOW_COUNT, serializer::decode, flowTable::getFlowRuleCount, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
@@ -325,6 +332,7 @@ public class ECFlowRuleStore
     private void unregisterMessageHandlers() {
         clusterCommunicator.removeSubscriber(REMOVE_FLOW_ENTRY);
         clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_ENTRIES);
+        clusterCommunicator.removeSubscriber(GET_APP_FLOW_ENTRIES);
         clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_COUNT);
         clusterCommunicator.removeSubscriber(GET_FLOW_ENTRY);
         clusterCommunicator.removeSubscriber(APPLY_BATCH_FLOWS);
@@ -420,6 +428,44 @@ public class ECFlowRuleStore
             Collections.emptyList());
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByAppId(ApplicationId appId) {
+        return getAppFlowEntries(new AppFlowEntriesRequest(appId.id(), null));
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByGroupId(ApplicationId appId, short groupId) {
+        return getAppFlowEntries(new AppFlowEntriesRequest(appId.id(), groupId));
+    }
+
+    /**
+     * Looks up the flow entries of an application on all devices. Every active node answers
+     * for the devices it masters from the indexes of their flow tables.
+     *
+     * @param request the request identifying the application or application group
+     * @return the flow entries for the application or application group
+     */
+    private Iterable<FlowEntry> getAppFlowEntries(AppFlowEntriesRequest request) {
+        List<CompletableFuture<Set<FlowEntry>>> replies = clusterService.getNodes().stream()
+            .map(ControllerNode::id)
+            .filter(nodeId -> !nodeId.equals(local) && clusterService.getState(nodeId).isActive())
+            .map(nodeId -> clusterCommunicator.<AppFlowEntriesRequest, Set<FlowEntry>>sendAndReceive(request,
+                GET_APP_FLOW_ENTRIES,
+                serializer::encode,
+                serializer::decode,
+                nodeId))
+            .collect(Collectors.toList());
+
+        Set<FlowEntry> flowEntries = new HashSet<>(flowTable.getAppFlowEntries(request));
+        for (CompletableFuture<Set<FlowEntry>> reply : replies) {
+            flowEntries.addAll(Tools.futureGetOrElse(reply,
+                FLOW_RULE_STORE_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS,
+                Collections.emptySet()));
+        }
+        return flowEntries;
+    }
+
     @Override
     public void storeFlowRule(FlowRule rule) {
         storeBatch(new FlowRuleBatchOperation(
@@ -763,6 +809,22 @@ public class ECFlowRuleStore
             return getFlowTable(deviceId).getFlowEntries();
         }
 
+        /**
+         * Returns the set of flow entries for the given application or application group
+         * on the devices mastered by this node.
+         *
+         * @param request the request identifying the application or application group
+         * @return the set of flow entries for the given application or application group
+         */
+        public Set<FlowEntry> getAppFlowEntries(AppFlowEntriesRequest request) {
+            return flowTables.entrySet().stream()
+                .filter(entry -> mastershipService.isLocalMaster(entry.getKey()))
+                .flatMap(entry -> (request.groupId() != null
+                    ? entry.getValue().getFlowEntriesByGroupId(request.appId(), request.groupId())
+                    : entry.getValue().getFlowEntriesByAppId(request.appId())).stream())
+                .collect(Collectors.toSet());
+        }
+
         /**
          * Adds the given flow rule.
          *
@@ -32,6 +32,9 @@ public final class ECFlowRuleStoreMessageSubjects {
     public static final MessageSubject GET_DEVICE_FLOW_ENTRIES
         = new MessageSubject("peer-forward-get-device-flow-entries");
 
+    public static final MessageSubject GET_APP_FLOW_ENTRIES
+        = new MessageSubject("peer-forward-get-app-flow-entries");
+
     public static final MessageSubject GET_DEVICE_FLOW_COUNT
         = new MessageSubject("peer-forward-get-flow-count");
 
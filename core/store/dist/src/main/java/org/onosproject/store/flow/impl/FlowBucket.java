@@ -15,12 +15,17 @@
  */
 package org.onosproject.store.flow.impl;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowId;
@@ -34,14 +39,29 @@ import org.slf4j.LoggerFactory;
  * Container for a bucket of flows assigned to a specific device.
  * <p>
  * The bucket is mutable. When changes are made to the bucket, the term and timestamp in which the change
- * occurred is recorded for ordering changes.
+ * occurred is recorded for ordering changes. The most recent changes are also recorded in a local change log
+ * from which deltas can be computed for replication. The change log is never replicated; a bucket received from
+ * a peer starts with an empty log truncated at the bucket's timestamp.
+ * <p>
+ * Replicas of the bucket can be compared by content through per-flow digests, each of which hashes the identity,
+ * creation time and state of the entries for a flow identifier. Flow statistics are not included in the digests.
+ * The bucket content hash combines the hashes of all entries, and is maintained incrementally as entries change
+ * so that bucket digests can be compared in every anti-entropy round without rehashing the bucket.
+ * <p>
+ * Flows are also indexed locally by application and by application group so that lookups by application need not
+ * scan the bucket. Like the change log, the index is not replicated and is rebuilt on first use by a receiving node.
  */
 public class FlowBucket {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowBucket.class);
+    private static final int MAX_CHANGES = 256;
+    private static final HashFunction HASH = Hashing.murmur3_128();
     private final BucketId bucketId;
     private volatile long term;
     private volatile LogicalTimestamp timestamp;
     private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowBucket;
+    private transient FlowBucketChangeLog changeLog;
+    private transient volatile FlowBucketIndex index;
+    private transient volatile AtomicLong contentHash;
 
     FlowBucket(BucketId bucketId) {
         this(bucketId, 0, new LogicalTimestamp(0), Maps.newConcurrentMap());
@@ -91,7 +111,94 @@ public class FlowBucket {
      * @return the digest for the bucket
      */
     public FlowBucketDigest getDigest() {
-        return new FlowBucketDigest(bucketId().bucket(), term(), timestamp());
+        return new FlowBucketDigest(bucketId().bucket(), term(), timestamp(), hash());
+    }
+
+    /**
+     * Returns the hash of the contents of the bucket.
+     *
+     * @return the bucket content hash
+     */
+    private long hash() {
+        return contentHash().get();
+    }
+
+    /**
+     * Returns the bucket's content hash, computing it if necessary.
+     * <p>
+     * The hash is transient and is therefore absent from buckets received from peers. Changes to the bucket must
+     * obtain the hash before they are made, so that they are not counted both in the computed hash and in the
+     * update applied to it.
+     */
+    private AtomicLong contentHash() {
+        AtomicLong contentHash = this.contentHash;
+        if (contentHash == null) {
+            synchronized (this) {
+                contentHash = this.contentHash;
+                if (contentHash == null) {
+                    long hash = 0;
+                    for (Map<StoredFlowEntry, StoredFlowEntry> flowEntries : flowBucket.values()) {
+                        for (StoredFlowEntry entry : flowEntries.values()) {
+                            hash ^= hash(entry);
+                        }
+                    }
+                    contentHash = new AtomicLong(hash);
+                    this.contentHash = contentHash;
+                }
+            }
+        }
+        return contentHash;
+    }
+
+    /**
+     * Updates the given content hash for the replacement of the given entry.
+     *
+     * @param contentHash the content hash obtained before the change
+     * @param previous    the replaced entry, or {@code null} if the entry was added
+     * @param current     the new entry, or {@code null} if the entry was removed
+     */
+    private static void rehash(AtomicLong contentHash, StoredFlowEntry previous, StoredFlowEntry current) {
+        rehash(contentHash, (previous != null ? hash(previous) : 0) ^ (current != null ? hash(current) : 0));
+    }
+
+    private static void rehash(AtomicLong contentHash, long delta) {
+        if (delta != 0) {
+            contentHash.accumulateAndGet(delta, (x, y) -> x ^ y);
+        }
+    }
+
+    /**
+     * Returns the digests of the flows in the bucket.
+     *
+     * @return the flow digests, keyed by flow identifier
+     */
+    Map<FlowId, Long> getFlowDigests() {
+        Map<FlowId, Long> digests = Maps.newHashMap();
+        flowBucket.forEach((flowId, flowEntries) -> {
+            if (!flowEntries.isEmpty()) {
+                digests.put(flowId, flowEntries.values()
+                    .stream()
+                    .mapToLong(FlowBucket::hash)
+                    .reduce(0, (x, y) -> x ^ y));
+            }
+        });
+        return digests;
+    }
+
+    /**
+     * Returns the hash of the given flow entry.
+     *
+     * @param entry the flow entry to hash
+     * @return the flow entry hash
+     */
+    private static long hash(StoredFlowEntry entry) {
+        long created = entry instanceof DefaultFlowEntry ? ((DefaultFlowEntry) entry).created() : 0;
+        return HASH.newHasher()
+            .putLong(entry.id().value())
+            .putLong(created)
+            .putInt(entry.state().ordinal())
+            .hash()
+            .asLong();
     }
 
     /**
@@ -114,6 +221,44 @@ public class FlowBucket {
         return flowEntries != null ? flowEntries : flowBucket.computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
     }
 
+    /**
+     * Returns the flow entries in the bucket for the given application.
+     *
+     * @param appId the application identifier
+     * @return the flow entries for the given application
+     */
+    public List<StoredFlowEntry> getFlowEntriesByAppId(short appId) {
+        List<StoredFlowEntry> entries = Lists.newArrayList();
+        for (FlowId flowId : index().getFlowIdsByAppId(appId)) {
+            Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(flowId);
+            if (flowEntries != null) {
+                flowEntries.values().stream()
+                    .filter(entry -> entry.appId() == appId)
+                    .forEach(entries::add);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the flow entries in the bucket whose identifiers were generated for the given application group.
+     *
+     * @param appId   the application identifier
+     * @param groupId the group identifier
+     * @return the flow entries for the given application group
+     */
+    public List<StoredFlowEntry> getFlowEntriesByGroupId(short appId, short groupId) {
+        long groupKey = FlowBucketIndex.groupKey(appId, groupId);
+        List<StoredFlowEntry> entries = Lists.newArrayList();
+        for (FlowId flowId : index().getFlowIdsByGroupKey(groupKey)) {
+            Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(flowId);
+            if (flowId.value() >>> 32 == groupKey && flowEntries != null) {
+                entries.addAll(flowEntries.values());
+            }
+        }
+        return entries;
+    }
+
     /**
      * Counts the flows in the bucket.
      *
@@ -143,9 +288,169 @@ public class FlowBucket {
     }
 
     /**
-     * Records an update to the bucket.
+     * Returns the changes made to the bucket since the given timestamp.
+     *
+     * @param since the timestamp since which to return changes
+     * @return the bucket delta or {@code null} if the change log no longer covers the given timestamp
      */
-    private void recordUpdate(long term, LogicalTimestamp timestamp) {
+    synchronized FlowBucketDelta delta(LogicalTimestamp since) {
+        FlowBucketChangeLog changeLog = changeLog();
+        if (!changeLog.covers(since)) {
+            return null;
+        }
+        return changeLog.delta(bucketId, term, since, timestamp);
+    }
+
+    /**
+     * Applies the given delta to the bucket.
+     * <p>
+     * The delta is only applied if the bucket has already seen all changes up to the delta's base timestamp.
+     *
+     * @param delta the delta to apply
+     * @return indicates whether the delta could be applied to the bucket
+     */
+    boolean apply(FlowBucketDelta delta) {
+        if (timestamp.isOlderThan(delta.base())) {
+            return false;
+        }
+        if (delta.term() <= term && !delta.timestamp().isNewerThan(timestamp)) {
+            return true;
+        }
+
+        // Entries are updated outside the bucket lock since the lock may be acquired while updating entries.
+        FlowBucketIndex index = index();
+        AtomicLong contentHash = contentHash();
+        for (StoredFlowEntry entry : delta.updates()) {
+            StoredFlowEntry previous = getFlowEntries(entry.id()).put(entry, entry);
+            index.replace(previous, entry);
+            rehash(contentHash, previous, entry);
+        }
+        for (StoredFlowEntry entry : delta.removals()) {
+            flowBucket.computeIfPresent(entry.id(), (flowId, flowEntries) -> {
+                StoredFlowEntry removed = flowEntries.remove(entry);
+                index.replace(removed, null);
+                rehash(contentHash, removed, null);
+                return flowEntries.isEmpty() ? null : flowEntries;
+            });
+        }
+        synchronized (this) {
+            term = delta.term();
+            timestamp = delta.timestamp();
+            changeLog().reset(timestamp);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a repair of the flows that diverge from the given flow digests.
+     *
+     * @param flowDigests the flow digests of the replica to repair
+     * @return the repair of all flows whose digests differ from the given digests
+     */
+    FlowBucketRepair repair(Map<FlowId, Long> flowDigests) {
+        long term = this.term;
+        LogicalTimestamp timestamp = this.timestamp;
+        Map<FlowId, Long> localDigests = getFlowDigests();
+        Map<FlowId, List<StoredFlowEntry>> flows = Maps.newHashMap();
+        localDigests.forEach((flowId, digest) -> {
+            if (!digest.equals(flowDigests.get(flowId))) {
+                Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(flowId);
+                flows.put(flowId, flowEntries != null
+                    ? Lists.newArrayList(flowEntries.values()) : Lists.newArrayList());
+            }
+        });
+        flowDigests.keySet().forEach(flowId -> {
+            if (!localDigests.containsKey(flowId)) {
+                flows.put(flowId, Lists.newArrayList());
+            }
+        });
+        return new FlowBucketRepair(bucketId, term, timestamp, flows);
+    }
+
+    /**
+     * Applies the given repair to the bucket.
+     * <p>
+     * The entries for each flow in the repair replace the local entries for the flow, and the bucket's term and
+     * timestamp are updated to those of the repair.
+     *
+     * @param repair the repair to apply
+     */
+    void apply(FlowBucketRepair repair) {
+        FlowBucketIndex index = index();
+        AtomicLong contentHash = contentHash();
+        repair.flows().forEach((flowId, entries) -> {
+            Map<StoredFlowEntry, StoredFlowEntry> oldEntries;
+            if (entries.isEmpty()) {
+                oldEntries = flowBucket.remove(flowId);
+            } else {
+                Map<StoredFlowEntry, StoredFlowEntry> flowEntries = Maps.newConcurrentMap();
+                entries.forEach(entry -> flowEntries.put(entry, entry));
+                entries.forEach(index::add);
+                flowEntries.values().forEach(entry -> rehash(contentHash, null, entry));
+                oldEntries = flowBucket.put(flowId, flowEntries);
+            }
+            if (oldEntries != null) {
+                oldEntries.values().forEach(index::remove);
+                oldEntries.values().forEach(entry -> rehash(contentHash, entry, null));
+            }
+        });
+        synchronized (this) {
+            term = repair.term();
+            timestamp = repair.timestamp();
+            changeLog().reset(timestamp);
+        }
+    }
+
+    /**
+     * Returns the bucket's change log, creating it if necessary.
+     * <p>
+     * The change log is transient and is therefore absent from buckets received from peers.
+     */
+    private FlowBucketChangeLog changeLog() {
+        if (changeLog == null) {
+            changeLog = new FlowBucketChangeLog(MAX_CHANGES, timestamp);
+        }
+        return changeLog;
+    }
+
+    /**
+     * Returns the bucket's index, building it if necessary.
+     * <p>
+     * The index is transient and is therefore absent from buckets received from peers.
+     */
+    private FlowBucketIndex index() {
+        FlowBucketIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = new FlowBucketIndex();
+                    for (Map<StoredFlowEntry, StoredFlowEntry> flowEntries : flowBucket.values()) {
+                        flowEntries.values().forEach(index::add);
+                    }
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Records an addition or update to the bucket.
+     */
+    private synchronized void recordUpdate(StoredFlowEntry entry, long term, LogicalClock clock) {
+        LogicalTimestamp timestamp = clock.getTimestamp();
+        changeLog().update(entry, timestamp);
+        this.term = term;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Records a removal from the bucket.
+     */
+    private synchronized void recordRemove(StoredFlowEntry entry, long term, LogicalClock clock) {
+        LogicalTimestamp timestamp = clock.getTimestamp();
+        changeLog().remove(entry, timestamp);
         this.term = term;
         this.timestamp = timestamp;
     }
@@ -158,12 +463,15 @@ public class FlowBucket {
      * @param clock the logical clock
      */
     public void add(FlowEntry rule, long term, LogicalClock clock) {
+        AtomicLong contentHash = contentHash();
         Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(rule.id());
         if (flowEntries == null) {
             flowEntries = flowBucket.computeIfAbsent(rule.id(), id -> Maps.newConcurrentMap());
         }
-        flowEntries.put((StoredFlowEntry) rule, (StoredFlowEntry) rule);
-        recordUpdate(term, clock.getTimestamp());
+        StoredFlowEntry previous = flowEntries.put((StoredFlowEntry) rule, (StoredFlowEntry) rule);
+        index().replace(previous, (StoredFlowEntry) rule);
+        rehash(contentHash, previous, (StoredFlowEntry) rule);
+        recordUpdate((StoredFlowEntry) rule, term, clock);
     }
 
     /**
@@ -174,6 +482,7 @@ public class FlowBucket {
      * @param clock the logical clock
      */
     public void update(FlowEntry rule, long term, LogicalClock clock) {
+        AtomicLong contentHash = contentHash();
         Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(rule.id());
         if (flowEntries == null) {
             flowEntries = flowBucket.computeIfAbsent(rule.id(), id -> Maps.newConcurrentMap());
@@ -184,7 +493,9 @@ public class FlowBucket {
                 if (stored instanceof DefaultFlowEntry) {
                     DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
                     if (updated.created() >= storedEntry.created()) {
-                        recordUpdate(term, clock.getTimestamp());
+                        index().replace(stored, updated);
+                        rehash(contentHash, stored, updated);
+                        recordUpdate(updated, term, clock);
                         return updated;
                     } else {
                         LOGGER.debug("Trying to update more recent flow entry {} (stored: {})", updated, stored);
@@ -207,6 +518,7 @@ public class FlowBucket {
      * @return the update result or {@code null} if the rule was not updated
      */
     public <T> T update(FlowRule rule, Function<StoredFlowEntry, T> function, long term, LogicalClock clock) {
+        AtomicLong contentHash = contentHash();
         Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(rule.id());
         if (flowEntries == null) {
             flowEntries = flowBucket.computeIfAbsent(rule.id(), id -> Maps.newConcurrentMap());
@@ -215,9 +527,11 @@ public class FlowBucket {
         AtomicReference<T> resultRef = new AtomicReference<>();
         flowEntries.computeIfPresent(new DefaultFlowEntry(rule), (k, stored) -> {
             if (stored != null) {
+                long previousHash = hash(stored);
                 T result = function.apply(stored);
+                rehash(contentHash, previousHash ^ hash(stored));
                 if (result != null) {
-                    recordUpdate(term, clock.getTimestamp());
+                    recordUpdate(stored, term, clock);
                     resultRef.set(result);
                 }
             }
@@ -235,6 +549,7 @@ public class FlowBucket {
      * @return the removed flow entry
      */
     public FlowEntry remove(FlowEntry rule, long term, LogicalClock clock) {
+        AtomicLong contentHash = contentHash();
         final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
         flowBucket.computeIfPresent(rule.id(), (flowId, flowEntries) -> {
             flowEntries.computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
@@ -256,7 +571,9 @@ public class FlowBucket {
         });
 
         if (removedRule.get() != null) {
-            recordUpdate(term, clock.getTimestamp());
+            index().remove((StoredFlowEntry) removedRule.get());
+            rehash(contentHash, (StoredFlowEntry) removedRule.get(), null);
+            recordRemove((StoredFlowEntry) removedRule.get(), term, clock);
             return removedRule.get();
         } else {
             return null;
@@ -267,8 +584,13 @@ public class FlowBucket {
      * Clears the bucket.
      */
     public void clear() {
-        term = 0;
-        timestamp = new LogicalTimestamp(0);
         flowBucket.clear();
+        synchronized (this) {
+            index = null;
+            contentHash = null;
+            term = 0;
+            timestamp = new LogicalTimestamp(0);
+            changeLog().reset(timestamp);
+        }
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.LogicalTimestamp;
+
+/**
+ * Log of the most recent changes to a flow bucket, keyed by logical timestamp.
+ * <p>
+ * The log keeps at most one change per flow entry: a newer change to an entry replaces any prior change to the
+ * same entry. When the log grows beyond its capacity, the oldest changes are dropped and the log records the
+ * point up to which it has been truncated. Deltas can only be computed from timestamps at or after that point.
+ * <p>
+ * The change log is not thread-safe and must be accessed while holding the owning bucket's lock.
+ */
+final class FlowBucketChangeLog {
+    private final int capacity;
+    private final NavigableMap<Long, Change> changes = new TreeMap<>();
+    private final Map<StoredFlowEntry, Long> index = Maps.newHashMap();
+    private LogicalTimestamp truncated;
+
+    FlowBucketChangeLog(int capacity, LogicalTimestamp truncated) {
+        this.capacity = capacity;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Records an addition or update of the given entry.
+     *
+     * @param entry     the added or updated entry
+     * @param timestamp the timestamp at which the change occurred
+     */
+    void update(StoredFlowEntry entry, LogicalTimestamp timestamp) {
+        record(entry, timestamp, false);
+    }
+
+    /**
+     * Records the removal of the given entry.
+     *
+     * @param entry     the removed entry
+     * @param timestamp the timestamp at which the change occurred
+     */
+    void remove(StoredFlowEntry entry, LogicalTimestamp timestamp) {
+        record(entry, timestamp, true);
+    }
+
+    private void record(StoredFlowEntry entry, LogicalTimestamp timestamp, boolean removed) {
+        Long previous = index.put(entry, timestamp.value());
+        if (previous != null) {
+            changes.remove(previous);
+        }
+        changes.put(timestamp.value(), new Change(entry, removed));
+
+        while (changes.size() > capacity) {
+            Map.Entry<Long, Change> oldest = changes.pollFirstEntry();
+            index.remove(oldest.getValue().entry);
+            truncated = new LogicalTimestamp(oldest.getKey());
+        }
+    }
+
+    /**
+     * Returns a boolean indicating whether the log can produce a delta from the given timestamp.
+     *
+     * @param timestamp the timestamp from which to compute the delta
+     * @return indicates whether all changes after the given timestamp are still in the log
+     */
+    boolean covers(LogicalTimestamp timestamp) {
+        return timestamp != null && !truncated.isNewerThan(timestamp);
+    }
+
+    /**
+     * Returns a delta of all changes that occurred after the given timestamp.
+     *
+     * @param bucketId  the bucket identifier
+     * @param term      the bucket term
+     * @param base      the timestamp after which to include changes
+     * @param timestamp the current bucket timestamp
+     * @return the bucket delta
+     */
+    FlowBucketDelta delta(BucketId bucketId, long term, LogicalTimestamp base, LogicalTimestamp timestamp) {
+        FlowBucketDelta delta = new FlowBucketDelta(
+            bucketId, term, base, timestamp, Lists.newArrayList(), Lists.newArrayList());
+        for (Change change : changes.tailMap(base.value(), false).values()) {
+            if (change.removed) {
+                delta.removals().add(change.entry);
+            } else {
+                delta.updates().add(change.entry);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Discards all changes, truncating the log at the given timestamp.
+     *
+     * @param timestamp the timestamp at which to truncate the log
+     */
+    void reset(LogicalTimestamp timestamp) {
+        changes.clear();
+        index.clear();
+        truncated = timestamp;
+    }
+
+    /**
+     * Single change to a flow entry.
+     */
+    private static final class Change {
+        private final StoredFlowEntry entry;
+        private final boolean removed;
+
+        private Change(StoredFlowEntry entry, boolean removed) {
+            this.entry = entry;
+            this.removed = removed;
+        }
+    }
+}
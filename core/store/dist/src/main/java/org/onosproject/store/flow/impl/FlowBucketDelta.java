@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.LogicalTimestamp;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Changes made to a flow bucket since a prior logical timestamp.
+ * <p>
+ * A delta can only be applied to a replica of the bucket that has already seen all changes up to the delta's
+ * base timestamp.
+ */
+public class FlowBucketDelta {
+    private final BucketId bucketId;
+    private final long term;
+    private final LogicalTimestamp base;
+    private final LogicalTimestamp timestamp;
+    private final List<StoredFlowEntry> updates;
+    private final List<StoredFlowEntry> removals;
+
+    FlowBucketDelta(
+        BucketId bucketId,
+        long term,
+        LogicalTimestamp base,
+        LogicalTimestamp timestamp,
+        List<StoredFlowEntry> updates,
+        List<StoredFlowEntry> removals) {
+        this.bucketId = bucketId;
+        this.term = term;
+        this.base = base;
+        this.timestamp = timestamp;
+        this.updates = updates;
+        this.removals = removals;
+    }
+
+    /**
+     * Returns the flow bucket identifier.
+     *
+     * @return the flow bucket identifier
+     */
+    public BucketId bucketId() {
+        return bucketId;
+    }
+
+    /**
+     * Returns the flow bucket term.
+     *
+     * @return the flow bucket term
+     */
+    public long term() {
+        return term;
+    }
+
+    /**
+     * Returns the timestamp after which the changes in the delta occurred.
+     *
+     * @return the delta base timestamp
+     */
+    public LogicalTimestamp base() {
+        return base;
+    }
+
+    /**
+     * Returns the flow bucket timestamp once the delta has been applied.
+     *
+     * @return the flow bucket timestamp
+     */
+    public LogicalTimestamp timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the flow entries added or updated since the base timestamp.
+     *
+     * @return the added or updated flow entries
+     */
+    public List<StoredFlowEntry> updates() {
+        return updates;
+    }
+
+    /**
+     * Returns the flow entries removed since the base timestamp.
+     *
+     * @return the removed flow entries
+     */
+    public List<StoredFlowEntry> removals() {
+        return removals;
+    }
+
+    /**
+     * Returns the number of changes in the delta.
+     *
+     * @return the number of changes in the delta
+     */
+    public int count() {
+        return updates.size() + removals.size();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("bucketId", bucketId)
+            .add("term", term)
+            .add("base", base)
+            .add("timestamp", timestamp)
+            .add("updates", updates.size())
+            .add("removals", removals.size())
+            .toString();
+    }
+}
@@ -21,16 +21,21 @@ import org.onosproject.store.LogicalTimestamp;
 
 /**
  * Flow bucket digest.
+ * <p>
+ * In addition to the bucket's term and timestamp, the digest carries a hash of the bucket's contents which can be
+ * used to detect diverging replicas independent of their timestamps.
  */
 public class FlowBucketDigest {
     private final int bucket;
     private final long term;
     private final LogicalTimestamp timestamp;
+    private final long hash;
 
-    FlowBucketDigest(int bucket, long term, LogicalTimestamp timestamp) {
+    FlowBucketDigest(int bucket, long term, LogicalTimestamp timestamp, long hash) {
         this.bucket = bucket;
         this.term = term;
         this.timestamp = timestamp;
+        this.hash = hash;
     }
 
     /**
@@ -60,6 +65,25 @@ public class FlowBucketDigest {
         return timestamp;
     }
 
+    /**
+     * Returns the hash of the bucket's contents.
+     *
+     * @return the bucket content hash
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns a boolean indicating whether the contents of the bucket differ from the given digest's bucket.
+     *
+     * @param digest the digest to check
+     * @return indicates whether the bucket contents differ
+     */
+    public boolean isDivergentFrom(FlowBucketDigest digest) {
+        return digest == null || hash != digest.hash;
+    }
+
     /**
      * Returns a boolean indicating whether this digest is newer than the given digest.
      *
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+/**
+ * Secondary indexes of the flows in a bucket by application and by application group.
+ * <p>
+ * Each index maps a key to the identifiers of the flows having entries for that key, along with the number of such
+ * entries. The group key of a flow is the upper 32 bits of its identifier, which encode the application and group
+ * identifiers of flows whose identifiers were generated from them. The indexes may briefly lag the bucket while
+ * changes are in progress, so callers must filter the entries found through the index.
+ */
+final class FlowBucketIndex {
+    private final Map<Short, Map<FlowId, Integer>> appFlows = Maps.newConcurrentMap();
+    private final Map<Long, Map<FlowId, Integer>> groupFlows = Maps.newConcurrentMap();
+
+    /**
+     * Returns the group key for the given flow identifier.
+     *
+     * @param flowId the flow identifier
+     * @return the group key of the flow
+     */
+    static long groupKey(FlowId flowId) {
+        return flowId.value() >>> 32;
+    }
+
+    /**
+     * Returns the group key for the given application and group identifiers.
+     *
+     * @param appId   the application identifier
+     * @param groupId the group identifier
+     * @return the group key
+     */
+    static long groupKey(short appId, short groupId) {
+        return ((appId & 0xffffL) << 16) | (groupId & 0xffffL);
+    }
+
+    /**
+     * Replaces an entry in the index.
+     *
+     * @param oldEntry the replaced entry or {@code null} if no entry was replaced
+     * @param newEntry the new entry or {@code null} if the entry was removed
+     */
+    void replace(StoredFlowEntry oldEntry, StoredFlowEntry newEntry) {
+        // Add before removing to avoid transiently dropping flows whose entries are replaced in place.
+        if (newEntry != null) {
+            add(newEntry);
+        }
+        if (oldEntry != null) {
+            remove(oldEntry);
+        }
+    }
+
+    /**
+     * Adds an entry to the index.
+     *
+     * @param entry the entry to add
+     */
+    void add(StoredFlowEntry entry) {
+        increment(appFlows, entry.appId(), entry.id());
+        increment(groupFlows, groupKey(entry.id()), entry.id());
+    }
+
+    /**
+     * Removes an entry from the index.
+     *
+     * @param entry the entry to remove
+     */
+    void remove(StoredFlowEntry entry) {
+        decrement(appFlows, entry.appId(), entry.id());
+        decrement(groupFlows, groupKey(entry.id()), entry.id());
+    }
+
+    /**
+     * Returns the identifiers of the flows with entries for the given application.
+     *
+     * @param appId the application identifier
+     * @return the flow identifiers for the application
+     */
+    Set<FlowId> getFlowIdsByAppId(short appId) {
+        Map<FlowId, Integer> flows = appFlows.get(appId);
+        return flows != null ? flows.keySet() : Collections.emptySet();
+    }
+
+    /**
+     * Returns the identifiers of the flows with the given group key.
+     *
+     * @param groupKey the group key
+     * @return the flow identifiers for the group key
+     */
+    Set<FlowId> getFlowIdsByGroupKey(long groupKey) {
+        Map<FlowId, Integer> flows = groupFlows.get(groupKey);
+        return flows != null ? flows.keySet() : Collections.emptySet();
+    }
+
+    private static <K> void increment(Map<K, Map<FlowId, Integer>> index, K key, FlowId flowId) {
+        index.compute(key, (k, flows) -> {
+            Map<FlowId, Integer> updatedFlows = flows != null ? flows : Maps.newConcurrentMap();
+            updatedFlows.merge(flowId, 1, Integer::sum);
+            return updatedFlows;
+        });
+    }
+
+    private static <K> void decrement(Map<K, Map<FlowId, Integer>> index, K key, FlowId flowId) {
+        index.computeIfPresent(key, (k, flows) -> {
+            flows.computeIfPresent(flowId, (id, count) -> count > 1 ? count - 1 : null);
+            return flows.isEmpty() ? null : flows;
+        });
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.LogicalTimestamp;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Repair of the diverging flows in a flow bucket replica.
+ * <p>
+ * The repair carries the complete set of entries for each diverging flow identifier. Applying the repair replaces
+ * the entries for each of those flow identifiers, removing them when the set is empty.
+ */
+public class FlowBucketRepair {
+    private final BucketId bucketId;
+    private final long term;
+    private final LogicalTimestamp timestamp;
+    private final Map<FlowId, List<StoredFlowEntry>> flows;
+
+    FlowBucketRepair(
+        BucketId bucketId,
+        long term,
+        LogicalTimestamp timestamp,
+        Map<FlowId, List<StoredFlowEntry>> flows) {
+        this.bucketId = bucketId;
+        this.term = term;
+        this.timestamp = timestamp;
+        this.flows = flows;
+    }
+
+    /**
+     * Returns the flow bucket identifier.
+     *
+     * @return the flow bucket identifier
+     */
+    public BucketId bucketId() {
+        return bucketId;
+    }
+
+    /**
+     * Returns the flow bucket term.
+     *
+     * @return the flow bucket term
+     */
+    public long term() {
+        return term;
+    }
+
+    /**
+     * Returns the flow bucket timestamp at which the repair was computed.
+     *
+     * @return the flow bucket timestamp
+     */
+    public LogicalTimestamp timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the repaired flow entries, keyed by flow identifier.
+     *
+     * @return the repaired flow entries
+     */
+    public Map<FlowId, List<StoredFlowEntry>> flows() {
+        return flows;
+    }
+
+    /**
+     * Returns a boolean indicating whether this repair is newer than the given digest.
+     *
+     * @param digest the digest to check
+     * @return indicates whether this repair is newer than the given digest
+     */
+    public boolean isNewerThan(FlowBucketDigest digest) {
+        return digest == null || term > digest.term() || timestamp.isNewerThan(digest.timestamp());
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("bucketId", bucketId)
+            .add("term", term)
+            .add("timestamp", timestamp)
+            .add("flows", flows.size())
+            .toString();
+    }
+}
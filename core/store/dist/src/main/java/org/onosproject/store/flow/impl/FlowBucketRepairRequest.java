@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+
+import org.onosproject.net.flow.FlowId;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Request for a {@link FlowBucketRepair} carrying the requester's per-flow digests for a bucket.
+ */
+public class FlowBucketRepairRequest {
+    private final int bucket;
+    private final Map<FlowId, Long> flowDigests;
+
+    FlowBucketRepairRequest(int bucket, Map<FlowId, Long> flowDigests) {
+        this.bucket = bucket;
+        this.flowDigests = flowDigests;
+    }
+
+    /**
+     * Returns the bucket number.
+     *
+     * @return the bucket number
+     */
+    public int bucket() {
+        return bucket;
+    }
+
+    /**
+     * Returns the requester's flow digests for the bucket.
+     *
+     * @return the requester's flow digests, keyed by flow identifier
+     */
+    public Map<FlowId, Long> flowDigests() {
+        return flowDigests;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("bucket", bucket)
+            .add("flows", flowDigests.size())
+            .toString();
+    }
+}
@@ -81,6 +81,7 @@ public class DistributedFlowObjectiveStore
                                 .register(byte[].class)
                                 .register(Versioned.class)
                                 .build("DistributedFlowObjectiveStore")))
+                .withNearCache()
                 .build();
         nextGroups.addListener(mapListener);
         nextIds = storageService.getAtomicIdGenerator("next-objective-id-generator");
@@ -16,6 +16,7 @@
 package org.onosproject.store.host.impl;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -51,16 +52,17 @@ import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.DistributedPrimitive.Status;
 import org.slf4j.Logger;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -87,7 +89,16 @@ public class DistributedHostStore
 
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
     private Map<HostId, DefaultHost> hosts;
-    private Map<IpAddress, Set<Host>> hostsByIp;
+    private volatile Map<IpAddress, Set<Host>> hostsByIp = new ConcurrentHashMap<>();
+    private volatile HostIndex<MacAddress> hostsByMac = new HostIndex<>(host -> ImmutableSet.of(host.mac()));
+    private volatile HostIndex<VlanId> hostsByVlan = new HostIndex<>(host -> ImmutableSet.of(host.vlan()));
+    private volatile HostIndex<ConnectPoint> hostsByLocation = new HostIndex<>(Host::locations);
+    private volatile HostIndex<DeviceId> hostsByDevice = new HostIndex<>(host -> host.locations().stream()
+            .map(HostLocation::deviceId)
+            .collect(Collectors.toSet()));
+    // updates of the indexes made while they are rebuilt, replayed on the rebuilt indexes
+    private final Object indexLock = new Object();
+    private List<Runnable> pendingIndexUpdates;
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
@@ -110,11 +121,11 @@ public class DistributedHostStore
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/hosts", "status-listener", log));
         statusChangeListener = status -> {
             if (status == Status.ACTIVE) {
-                executor.execute(this::loadHostsByIp);
+                executor.execute(this::loadHostIndexes);
             }
         };
         hostsConsistentMap.addStatusChangeListener(statusChangeListener);
-        loadHostsByIp();
+        loadHostIndexes();
         log.info("Started");
     }
 
@@ -126,18 +137,56 @@ public class DistributedHostStore
         log.info("Stopped");
     }
 
-    private void loadHostsByIp() {
-        hostsByIp = new ConcurrentHashMap<IpAddress, Set<Host>>();
+    private synchronized void loadHostIndexes() {
+        // the map is read without holding indexLock, since map events are
+        // delivered on the threads completing the reads
+        synchronized (indexLock) {
+            pendingIndexUpdates = new ArrayList<>();
+        }
+        Map<IpAddress, Set<Host>> ipIndex = new ConcurrentHashMap<>();
+        HostIndex<MacAddress> macIndex = hostsByMac.emptyCopy();
+        HostIndex<VlanId> vlanIndex = hostsByVlan.emptyCopy();
+        HostIndex<ConnectPoint> locationIndex = hostsByLocation.emptyCopy();
+        HostIndex<DeviceId> deviceIndex = hostsByDevice.emptyCopy();
         hostsConsistentMap.asJavaMap().values().forEach(host -> {
             host.ipAddresses().forEach(ip -> {
-                Set<Host> existingHosts = hostsByIp.get(ip);
+                Set<Host> existingHosts = ipIndex.get(ip);
                 if (existingHosts == null) {
-                    hostsByIp.put(ip, addHosts(host));
+                    ipIndex.put(ip, addHosts(host));
                 } else {
                     existingHosts.add(host);
                 }
             });
+            macIndex.update(null, host);
+            vlanIndex.update(null, host);
+            locationIndex.update(null, host);
+            deviceIndex.update(null, host);
         });
+        synchronized (indexLock) {
+            hostsByIp = ipIndex;
+            hostsByMac = macIndex;
+            hostsByVlan = vlanIndex;
+            hostsByLocation = locationIndex;
+            hostsByDevice = deviceIndex;
+            // updates may already be part of the snapshot, replaying them is idempotent
+            pendingIndexUpdates.forEach(Runnable::run);
+            pendingIndexUpdates = null;
+        }
+    }
+
+    /**
+     * Applies an update to the current indexes, keeping it to be replayed
+     * if the indexes are being rebuilt.
+     *
+     * @param update update of the indexes
+     */
+    private void updateIndexes(Runnable update) {
+        synchronized (indexLock) {
+            update.run();
+            if (pendingIndexUpdates != null) {
+                pendingIndexUpdates.add(update);
+            }
+        }
     }
 
     private boolean shouldUpdate(DefaultHost existingHost,
@@ -244,7 +293,7 @@ public class DistributedHostStore
                 if (addresses != null && addresses.contains(ipAddress)) {
                     addresses = new HashSet<>(existingHost.ipAddresses());
                     addresses.remove(ipAddress);
-                    removeIpFromHostsByIp(existingHost, ipAddress);
+                    updateIndexes(() -> removeIpFromHostsByIp(existingHost, ipAddress));
                     return new DefaultHost(existingHost.providerId(),
                             hostId,
                             existingHost.mac(),
@@ -328,12 +377,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return hostsByVlan.get(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return hostsByMac.get(mac);
     }
 
     @Override
@@ -344,25 +393,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().contains(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return hostsByLocation.get(connectPoint);
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().stream()
-                        .map(HostLocation::deviceId).anyMatch(dpid -> dpid.equals(deviceId)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
-    }
-
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+        return hostsByDevice.get(deviceId);
     }
 
     private Set<Host> addHosts(Host host) {
@@ -417,18 +453,88 @@ public class DistributedHostStore
         hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host));
     }
 
+    private void updateHostIndexes(DefaultHost oldHost, DefaultHost newHost) {
+        hostsByMac.update(oldHost, newHost);
+        hostsByVlan.update(oldHost, newHost);
+        hostsByLocation.update(oldHost, newHost);
+        hostsByDevice.update(oldHost, newHost);
+    }
+
+    /**
+     * Index of the hosts by a derived attribute, such as their MAC address or their locations.
+     *
+     * @param <K> type of the index keys
+     */
+    private static final class HostIndex<K> {
+        private final Map<K, Map<HostId, Host>> index = Maps.newConcurrentMap();
+        private final Function<Host, Set<? extends K>> keys;
+
+        HostIndex(Function<Host, Set<? extends K>> keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * Returns a new empty index keyed the same way as this one.
+         *
+         * @return empty index
+         */
+        HostIndex<K> emptyCopy() {
+            return new HostIndex<>(keys);
+        }
+
+        /**
+         * Replaces a host in the index.
+         *
+         * @param oldHost the previous version of the host or {@code null} if the host was added
+         * @param newHost the new version of the host or {@code null} if the host was removed
+         */
+        void update(Host oldHost, Host newHost) {
+            Set<? extends K> newKeys = newHost != null ? keys.apply(newHost) : ImmutableSet.of();
+            newKeys.forEach(key -> index.compute(key, (k, hosts) -> {
+                Map<HostId, Host> updatedHosts = hosts != null ? hosts : Maps.newConcurrentMap();
+                updatedHosts.put(newHost.id(), newHost);
+                return updatedHosts;
+            }));
+            if (oldHost != null) {
+                keys.apply(oldHost).stream()
+                        .filter(key -> !newKeys.contains(key))
+                        .forEach(key -> index.computeIfPresent(key, (k, hosts) -> {
+                            hosts.remove(oldHost.id());
+                            return hosts.isEmpty() ? null : hosts;
+                        }));
+            }
+        }
+
+        /**
+         * Returns the hosts indexed by the given key.
+         *
+         * @param key the index key
+         * @return set of hosts
+         */
+        Set<Host> get(K key) {
+            Map<HostId, Host> hosts = index.get(key);
+            return hosts != null ? ImmutableSet.copyOf(hosts.values()) : ImmutableSet.of();
+        }
+    }
+
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
         @Override
         public void event(MapEvent<HostId, DefaultHost> event) {
             DefaultHost host = checkNotNull(event.value().value());
             switch (event.type()) {
                 case INSERT:
-                    updateHostsByIp(host);
+                    updateIndexes(() -> {
+                        updateHostsByIp(host);
+                        updateHostIndexes(null, host);
+                    });
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
                     break;
                 case UPDATE:
-                    updateHostsByIp(host);
                     DefaultHost prevHost = checkNotNull(event.oldValue().value());
+                    updateIndexes(() -> {
+                        updateHostsByIp(host);
+                        updateHostIndexes(prevHost, host);
+                    });
                     if (!Objects.equals(prevHost.locations(), host.locations())) {
                         notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
                     } else if (!Objects.equals(prevHost, host)) {
@@ -436,7 +542,10 @@ public class DistributedHostStore
                     }
                     break;
                 case REMOVE:
-                    removeHostsByIp(host);
+                    updateIndexes(() -> {
+                        removeHostsByIp(host);
+                        updateHostIndexes(host, null);
+                    });
                     notifyDelegate(new HostEvent(HOST_REMOVED, host));
                     break;
                 default:
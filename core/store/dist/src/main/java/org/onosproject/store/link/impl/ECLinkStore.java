@@ -15,12 +15,12 @@
  */
 package org.onosproject.store.link.impl;
 
-import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -69,6 +69,8 @@ import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -116,6 +118,13 @@ public class ECLinkStore
     private final Logger log = getLogger(getClass());
 
     private final Map<LinkKey, Link> links = Maps.newConcurrentMap();
+    // Indexes of the links by source and destination, updated along with links
+    private final LinkIndex<DeviceId> egressDeviceLinks = new LinkIndex<>(key -> key.src().deviceId());
+    private final LinkIndex<DeviceId> ingressDeviceLinks = new LinkIndex<>(key -> key.dst().deviceId());
+    private final LinkIndex<ConnectPoint> egressLinks = new LinkIndex<>(LinkKey::src);
+    private final LinkIndex<ConnectPoint> ingressLinks = new LinkIndex<>(LinkKey::dst);
+    private final List<LinkIndex<?>> linkIndexes =
+            ImmutableList.of(egressDeviceLinks, ingressDeviceLinks, egressLinks, ingressLinks);
     private final Map<LinkKey, Set<ProviderId>> linkProviders = Maps.newConcurrentMap();
     private EventuallyConsistentMap<Provided<LinkKey>, LinkDescription> linkDescriptions;
 
@@ -200,7 +209,7 @@ public class ECLinkStore
         linkDescriptions.removeListener(linkTracker);
         linkDescriptions.destroy();
         linkProviders.clear();
-        links.clear();
+        clearLinkCache();
         clusterCommunicator.removeSubscriber(LINK_INJECT_MESSAGE);
         netCfgService.removeListener(cfgListener);
         netCfgService.unregisterConfigFactory(factory);
@@ -220,12 +229,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getDeviceEgressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.src().deviceId()));
+        return getLinks(egressDeviceLinks.get(deviceId));
     }
 
     @Override
     public Set<Link> getDeviceIngressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.dst().deviceId()));
+        return getLinks(ingressDeviceLinks.get(deviceId));
     }
 
     @Override
@@ -235,12 +244,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getEgressLinks(ConnectPoint src) {
-        return filter(links.values(), link -> src.equals(link.src()));
+        return getLinks(egressLinks.get(src));
     }
 
     @Override
     public Set<Link> getIngressLinks(ConnectPoint dst) {
-        return filter(links.values(), link -> dst.equals(link.dst()));
+        return getLinks(ingressLinks.get(dst));
     }
 
     @Override
@@ -322,10 +331,14 @@ public class ECLinkStore
         Link link = links.compute(linkKey, (key, existingLink) -> {
             Link newLink = composeLink(linkKey);
             if (newLink == null) {
+                if (existingLink != null) {
+                    unindexLink(linkKey);
+                }
                 return null;
             }
             if (existingLink == null) {
                 eventType.set(LINK_ADDED);
+                indexLink(linkKey);
                 return newLink;
             } else if (existingLink.state() != newLink.state() ||
                     existingLink.isExpected() != newLink.isExpected() ||
@@ -417,7 +430,12 @@ public class ECLinkStore
                 (oldLink.type() == INDIRECT && newLink.type() == DIRECT) ||
                 !AnnotationsUtil.isEqual(oldLink.annotations(), newLink.annotations())) {
 
-            links.put(key, newLink);
+            links.compute(key, (k, existingLink) -> {
+                if (existingLink == null) {
+                    indexLink(key);
+                }
+                return newLink;
+            });
             return new LinkEvent(LINK_UPDATED, newLink);
         }
         return null;
@@ -464,7 +482,13 @@ public class ECLinkStore
     }
 
     private LinkEvent purgeLinkCache(LinkKey linkKey) {
-        Link removedLink = links.remove(linkKey);
+        AtomicReference<Link> removed = new AtomicReference<>();
+        links.computeIfPresent(linkKey, (key, existingLink) -> {
+            unindexLink(linkKey);
+            removed.set(existingLink);
+            return null;
+        });
+        Link removedLink = removed.get();
         if (removedLink != null) {
             getAllProviders(linkKey).forEach(p -> linkDescriptions.remove(new Provided<>(linkKey, p)));
             linkProviders.remove(linkKey);
@@ -473,8 +497,63 @@ public class ECLinkStore
         return null;
     }
 
-    private Set<Link> filter(Collection<Link> links, Predicate<Link> predicate) {
-        return links.stream().filter(predicate).collect(Collectors.toSet());
+    // Indexes are updated while holding the lock of the link entry, so that they
+    // are consistent with the link cache.
+    private void indexLink(LinkKey linkKey) {
+        linkIndexes.forEach(index -> index.add(linkKey));
+    }
+
+    private void unindexLink(LinkKey linkKey) {
+        linkIndexes.forEach(index -> index.remove(linkKey));
+    }
+
+    private void clearLinkCache() {
+        links.clear();
+        linkIndexes.forEach(LinkIndex::clear);
+    }
+
+    private Set<Link> getLinks(Set<LinkKey> linkKeys) {
+        return linkKeys.stream()
+                .map(links::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Index of the keys of links by one of their endpoints.
+     *
+     * @param <K> type of the index key
+     */
+    private static final class LinkIndex<K> {
+        private final Map<K, Set<LinkKey>> index = Maps.newConcurrentMap();
+        private final Function<LinkKey, K> indexKey;
+
+        private LinkIndex(Function<LinkKey, K> indexKey) {
+            this.indexKey = indexKey;
+        }
+
+        private Set<LinkKey> get(K key) {
+            return index.getOrDefault(key, ImmutableSet.of());
+        }
+
+        private void add(LinkKey linkKey) {
+            index.compute(indexKey.apply(linkKey), (key, linkKeys) -> {
+                Set<LinkKey> updated = linkKeys != null ? linkKeys : Sets.newConcurrentHashSet();
+                updated.add(linkKey);
+                return updated;
+            });
+        }
+
+        private void remove(LinkKey linkKey) {
+            index.computeIfPresent(indexKey.apply(linkKey), (key, linkKeys) -> {
+                linkKeys.remove(linkKey);
+                return linkKeys.isEmpty() ? null : linkKeys;
+            });
+        }
+
+        private void clear() {
+            index.clear();
+        }
     }
 
     private LinkEvent injectLink(Provided<LinkDescription> linkInjectRequest) {
@@ -521,7 +600,7 @@ public class ECLinkStore
                     linkDescriptions.clear();
                 }
                 if (links != null) {
-                    links.clear();
+                    clearLinkCache();
                 }
             }
             log.debug("config set link discovery mode to {}",
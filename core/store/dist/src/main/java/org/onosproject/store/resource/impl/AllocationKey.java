@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.DiscreteResourceCodec;
+import org.onosproject.net.resource.DiscreteResourceId;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Key of a shard of the allocated children of a parent resource.
+ * Allocations under a parent are spread over several keys, so that
+ * allocations of different children rarely update the same key.
+ * Children with encodable values are sharded by blocks of consecutive
+ * encoded values, keeping the range encoding of each shard compact.
+ */
+// internal use only
+final class AllocationKey {
+    static final int SHARDS = 8;
+    private static final int BLOCK_BITS = 6;
+
+    private final DiscreteResourceId parent;
+    private final int shard;
+
+    AllocationKey(DiscreteResourceId parent, int shard) {
+        this.parent = parent;
+        this.shard = shard;
+    }
+
+    // for serializer
+    private AllocationKey() {
+        this.parent = null;
+        this.shard = 0;
+    }
+
+    /**
+     * Returns the key of the shard holding the allocation of the specified child.
+     *
+     * @param parent   the parent of the resource
+     * @param resource the allocated child resource
+     * @return the allocation key
+     */
+    @SuppressWarnings("unchecked")
+    static AllocationKey of(DiscreteResourceId parent, DiscreteResource resource) {
+        Optional<Object> value = resource.valueAs(Object.class);
+        DiscreteResourceCodec codec = value
+                .map(x -> Codecs.getInstance().getCodec(x.getClass()))
+                .orElse(null);
+        int bucket = codec == null ? resource.id().hashCode() : codec.encode(value.get()) >>> BLOCK_BITS;
+        return new AllocationKey(parent, Math.floorMod(bucket, SHARDS));
+    }
+
+    DiscreteResourceId parent() {
+        return parent;
+    }
+
+    int shard() {
+        return shard;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parent, shard);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final AllocationKey other = (AllocationKey) obj;
+        return Objects.equals(this.parent, other.parent) && this.shard == other.shard;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("parent", parent)
+                .add("shard", shard)
+                .toString();
+    }
+}
@@ -30,9 +30,14 @@ import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.TransactionContext;
 import org.onosproject.store.service.Versioned;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.onosproject.store.resource.impl.ConsistentResourceStore.SERIALIZER;
@@ -44,6 +49,7 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
         <DiscreteResourceId, DiscreteResource, TransactionalDiscreteResourceSubStore> {
     private ConsistentMap<DiscreteResourceId, ResourceConsumerId> consumers;
     private ConsistentMap<DiscreteResourceId, DiscreteResources> childMap;
+    private ConsistentMap<AllocationKey, DiscreteResources> allocations;
 
     @SuppressWarnings("ReturnValueIgnored")
     ConsistentDiscreteResourceSubStore(StorageService service) {
@@ -55,6 +61,10 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
                 .withName(MapNames.DISCRETE_CHILD_MAP)
                 .withSerializer(SERIALIZER)
                 .build();
+        this.allocations = service.<AllocationKey, DiscreteResources>consistentMapBuilder()
+                .withName(MapNames.DISCRETE_ALLOCATION_MAP)
+                .withSerializer(SERIALIZER)
+                .build();
 
         Tools.retryable(
                 () -> childMap.putIfAbsent(Resource.ROOT.id(), DiscreteResources.empty()),
@@ -107,16 +117,39 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
         return getResourceAllocations(resource.id()).isEmpty();
     }
 
+    // computational complexity: O(1) accesses to the store, one per allocation shard
     @Override
     public Stream<DiscreteResource> getAllocatedResources(DiscreteResourceId parent, Class<?> cls) {
-        Set<DiscreteResource> children = getChildResources(parent);
-        if (children.isEmpty()) {
-            return Stream.of();
-        }
+        return IntStream.range(0, AllocationKey.SHARDS)
+                .mapToObj(shard -> allocations.get(new AllocationKey(parent, shard)))
+                .filter(Objects::nonNull)
+                .flatMap(allocated -> allocated.value().valuesOf(cls).stream());
+    }
 
-        return children.stream()
-                .filter(x -> x.isTypeOf(cls))
-                .filter(x -> consumers.containsKey(x.id()));
+    /**
+     * Returns the allocated resources, grouped by parent, which are missing from
+     * the allocations indexed per parent. This is the case after upgrading from
+     * a version that only kept the consumers of resources, including when some
+     * allocations have been indexed since.
+     *
+     * @return allocated resources missing from the index by parent
+     */
+    Map<DiscreteResourceId, Set<DiscreteResource>> getUnindexedAllocations() {
+        // each shard is read once, however many of its children are allocated
+        Map<AllocationKey, DiscreteResources> shards = new HashMap<>();
+        return consumers.keySet().stream()
+                .filter(x -> x.parent().isPresent())
+                .map(x -> Resources.discrete(x).resource())
+                .filter(x -> {
+                    DiscreteResourceId parent = x.parent().get().id();
+                    DiscreteResources indexed = shards.computeIfAbsent(AllocationKey.of(parent, x), key -> {
+                        Versioned<DiscreteResources> allocated = allocations.get(key);
+                        return allocated == null ? DiscreteResources.empty() : allocated.value();
+                    });
+                    return !indexed.lookup(x.id()).isPresent();
+                })
+                .collect(Collectors.groupingBy(x -> x.parent().get().id(),
+                                               Collectors.toCollection(LinkedHashSet::new)));
     }
 
     @Override
@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -76,6 +77,8 @@ import static org.onosproject.net.resource.ResourceEvent.Type.RESOURCE_REMOVED;
 public class ConsistentResourceStore extends AbstractStore<ResourceEvent, ResourceStoreDelegate>
         implements ResourceStore {
     private static final Logger log = LoggerFactory.getLogger(ConsistentResourceStore.class);
+    // bounds the retries of allocateAny() when concurrent allocations keep conflicting
+    private static final int MAX_ALLOCATE_ANY_ATTEMPTS = 10;
 
     static final Serializer SERIALIZER = Serializer.using(KryoNamespace.newBuilder()
             .register(KryoNamespaces.API)
@@ -88,6 +91,7 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
             .register(PortNumberCodec.class)
             .register(VlanIdCodec.class)
             .register(MplsLabelCodec.class)
+            .register(AllocationKey.class)
             .build());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -100,10 +104,32 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
     public void activate() {
         discreteStore = new ConsistentDiscreteResourceSubStore(service);
         continuousStore = new ConsistentContinuousResourceSubStore(service);
+        indexAllocations();
 
         log.info("Started");
     }
 
+    /**
+     * Indexes per parent the discrete allocations made before allocations were indexed,
+     * so that they are taken into account when looking up allocated children.
+     */
+    private void indexAllocations() {
+        Map<DiscreteResourceId, Set<DiscreteResource>> unindexed = discreteStore.getUnindexedAllocations();
+        for (Map.Entry<DiscreteResourceId, Set<DiscreteResource>> entry : unindexed.entrySet()) {
+            TransactionContext tx = service.transactionContextBuilder().build();
+            tx.begin();
+
+            discreteStore.transactional(tx).index(entry.getKey(), entry.getValue());
+            try {
+                if (commitTransaction(tx) != CommitStatus.SUCCESS) {
+                    log.warn("Failed to index allocations under {}", entry.getKey());
+                }
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                log.warn("Failed to index allocations under {}: {}", entry.getKey(), e);
+            }
+        }
+    }
+
     // Computational complexity: O(1) if the resource is discrete type.
     // O(n) if the resource is continuous type where n is the number of the existing allocations for the resource
     @Override
@@ -236,12 +262,24 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
 
             TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
             TransactionalContinuousResourceSubStore continuousTxStore = continuousStore.transactional(tx);
+            // discrete resources are allocated per parent, updating its allocations once
+            Map<Optional<DiscreteResourceId>, Set<DiscreteResource>> discreteResources = resources.stream()
+                    .filter(x -> x instanceof DiscreteResource)
+                    .map(x -> (DiscreteResource) x)
+                    .collect(groupingBy(x -> x.id().parent(), LinkedHashMap::new,
+                                        Collectors.toCollection(LinkedHashSet::new)));
+            for (Map.Entry<Optional<DiscreteResourceId>, Set<DiscreteResource>> entry : discreteResources.entrySet()) {
+                boolean allocated = entry.getKey()
+                        .map(parent -> discreteTxStore.allocate(consumer.consumerId(), parent, entry.getValue()))
+                        .orElseGet(() -> entry.getValue().stream()
+                                .allMatch(x -> discreteTxStore.allocate(consumer.consumerId(), x)));
+                if (!allocated) {
+                    return abortTransaction(tx);
+                }
+            }
+
             for (Resource resource : resources) {
-                if (resource instanceof DiscreteResource) {
-                    if (!discreteTxStore.allocate(consumer.consumerId(), (DiscreteResource) resource)) {
-                        return abortTransaction(tx);
-                    }
-                } else if (resource instanceof ContinuousResource) {
+                if (resource instanceof ContinuousResource) {
                     if (!continuousTxStore.allocate(consumer.consumerId(), (ContinuousResource) resource)) {
                         return abortTransaction(tx);
                     }
@@ -259,6 +297,41 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         }
     }
 
+    @Override
+    public List<Resource> allocateAny(List<DiscreteResourceId> parents, Class<?> cls, int count,
+                                      ResourceConsumer consumer) {
+        checkNotNull(parents);
+        checkArgument(!parents.isEmpty(), "parents must not be empty");
+        checkNotNull(cls);
+        checkArgument(count > 0, "count must be positive");
+        checkNotNull(consumer);
+
+        for (int attempt = 0; attempt < MAX_ALLOCATE_ANY_ATTEMPTS; attempt++) {
+            TransactionContext tx = service.transactionContextBuilder().build();
+            tx.begin();
+
+            List<DiscreteResource> allocated = discreteStore.transactional(tx)
+                    .allocateAny(consumer.consumerId(), parents, cls, count);
+            if (allocated.isEmpty()) {
+                abortTransaction(tx);
+                return ImmutableList.of();
+            }
+
+            try {
+                if (commitTransaction(tx) == CommitStatus.SUCCESS) {
+                    return ImmutableList.copyOf(allocated);
+                }
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                log.warn("Failed to allocate {} {} resources under {}: {}", count, cls.getSimpleName(), parents, e);
+                return ImmutableList.of();
+            }
+        }
+
+        log.warn("Failed to allocate {} {} resources under {} after {} attempts",
+                 count, cls.getSimpleName(), parents, MAX_ALLOCATE_ANY_ATTEMPTS);
+        return ImmutableList.of();
+    }
+
     @Override
     public boolean release(List<ResourceAllocation> allocations) {
         checkNotNull(allocations);
@@ -269,15 +342,28 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
 
             TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
             TransactionalContinuousResourceSubStore continuousTxStore = continuousStore.transactional(tx);
+            // discrete resources are released per parent, updating its allocations once
+            Map<Optional<DiscreteResourceId>, List<ResourceAllocation>> discreteAllocations = allocations.stream()
+                    .filter(x -> x.resource() instanceof DiscreteResource)
+                    .collect(groupingBy(x -> x.resource().id().parent(),
+                                        LinkedHashMap::new, Collectors.toList()));
+            for (Map.Entry<Optional<DiscreteResourceId>, List<ResourceAllocation>> entry
+                    : discreteAllocations.entrySet()) {
+                boolean released = entry.getKey()
+                        .map(parent -> discreteTxStore.release(parent, entry.getValue()))
+                        .orElseGet(() -> entry.getValue().stream()
+                                .allMatch(x -> discreteTxStore.release(x.consumerId(),
+                                                                       (DiscreteResource) x.resource())));
+                if (!released) {
+                    return abortTransaction(tx);
+                }
+            }
+
             for (ResourceAllocation allocation : allocations) {
                 Resource resource = allocation.resource();
                 ResourceConsumerId consumerId = allocation.consumerId();
 
-                if (resource instanceof DiscreteResource) {
-                    if (!discreteTxStore.release(consumerId, (DiscreteResource) resource)) {
-                        return abortTransaction(tx);
-                    }
-                } else if (resource instanceof ContinuousResource) {
+                if (resource instanceof ContinuousResource) {
                     if (!continuousTxStore.release(consumerId, (ContinuousResource) resource)) {
                         return abortTransaction(tx);
                     }
@@ -18,6 +18,7 @@ package org.onosproject.store.resource.impl;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.Set;
 
@@ -100,4 +101,14 @@ interface DiscreteResources {
      * @return all of resources this instance holds and filtered by the specified type
      */
     <T> Set<DiscreteResource> valuesOf(Class<T> cls);
+
+    /**
+     * Returns an iterator over the resources this instance holds and filtered by the specified type.
+     * Unlike {@link #valuesOf(Class)}, resources are materialized one at a time while iterating.
+     *
+     * @param cls class instance of the resource value
+     * @param <T> type of the resource value
+     * @return iterator over the resources filtered by the specified type
+     */
+    <T> Iterator<DiscreteResource> iteratorOf(Class<T> cls);
 }
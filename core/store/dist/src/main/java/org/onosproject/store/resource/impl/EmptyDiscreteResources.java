@@ -20,6 +20,8 @@ import com.google.common.collect.ImmutableSet;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -84,4 +86,9 @@ final class EmptyDiscreteResources implements DiscreteResources {
     public <T> Set<DiscreteResource> valuesOf(Class<T> cls) {
         return ImmutableSet.of();
     }
+
+    @Override
+    public <T> Iterator<DiscreteResource> iteratorOf(Class<T> cls) {
+        return Collections.emptyIterator();
+    }
 }
@@ -23,6 +23,8 @@ import org.onosproject.net.resource.DiscreteResourceCodec;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -173,6 +175,13 @@ final class EncodableDiscreteResources implements DiscreteResources {
                 .orElse(ImmutableSet.of());
     }
 
+    @Override
+    public <T> Iterator<DiscreteResource> iteratorOf(Class<T> cls) {
+        return Optional.ofNullable(map.get(cls))
+                .map(x -> x.iterator(parent.id()))
+                .orElse(Collections.emptyIterator());
+    }
+
     DiscreteResource parent() {
         return parent;
     }
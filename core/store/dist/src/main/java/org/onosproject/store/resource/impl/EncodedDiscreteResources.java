@@ -16,7 +16,9 @@
 package org.onosproject.store.resource.impl;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import com.google.common.collect.TreeRangeSet;
@@ -26,6 +28,7 @@ import org.onosproject.net.resource.DiscreteResourceCodec;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -76,6 +79,13 @@ final class EncodedDiscreteResources {
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    // decodes values range by range instead of expanding the whole range set up front
+    Iterator<DiscreteResource> iterator(DiscreteResourceId parent) {
+        Iterator<Integer> encoded = Iterators.concat(Iterators.transform(rangeSet.asRanges().iterator(),
+                x -> ContiguousSet.create(x, DiscreteDomain.integers()).iterator()));
+        return Iterators.transform(encoded, x -> Resources.discrete(parent, codec.decode(x)).resource());
+    }
+
     Class<?> encodedClass() {
         Range<Integer> firstRange = rangeSet.asRanges().iterator().next();
         return codec.decode(firstRange.lowerEndpoint()).getClass();
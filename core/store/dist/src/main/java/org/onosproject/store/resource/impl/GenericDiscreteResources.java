@@ -22,6 +22,7 @@ import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Optional;
@@ -107,6 +108,13 @@ final class GenericDiscreteResources implements DiscreteResources {
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    @Override
+    public <T> Iterator<DiscreteResource> iteratorOf(Class<T> cls) {
+        return values.stream()
+                .filter(x -> x.isTypeOf(cls))
+                .iterator();
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(values);
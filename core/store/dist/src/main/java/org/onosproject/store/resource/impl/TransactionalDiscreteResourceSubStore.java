@@ -15,13 +15,25 @@
  */
 package org.onosproject.store.resource.impl;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumerId;
+import org.onosproject.net.resource.Resources;
 import org.onosproject.store.service.TransactionContext;
 import org.onosproject.store.service.TransactionalMap;
 import org.slf4j.Logger;
@@ -37,10 +49,13 @@ class TransactionalDiscreteResourceSubStore
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final TransactionalMap<DiscreteResourceId, DiscreteResources> childMap;
     private final TransactionalMap<DiscreteResourceId, ResourceConsumerId> consumers;
+    // allocated children of each parent, sharded and range encoded where possible
+    private final TransactionalMap<AllocationKey, DiscreteResources> allocations;
 
     TransactionalDiscreteResourceSubStore(TransactionContext tx) {
         this.childMap = tx.getTransactionalMap(MapNames.DISCRETE_CHILD_MAP, SERIALIZER);
         this.consumers = tx.getTransactionalMap(MapNames.DISCRETE_CONSUMER_MAP, SERIALIZER);
+        this.allocations = tx.getTransactionalMap(MapNames.DISCRETE_ALLOCATION_MAP, SERIALIZER);
     }
 
     // check the existence in the set: O(1) operation
@@ -121,20 +136,215 @@ class TransactionalDiscreteResourceSubStore
 
     @Override
     public boolean allocate(ResourceConsumerId consumerId, DiscreteResource resource) {
-        // if the resource is not registered, then abort
-        Optional<DiscreteResource> lookedUp = lookup(resource.id());
-        if (!lookedUp.isPresent()) {
-            return false;
+        if (resource.parent().isPresent()) {
+            return allocate(consumerId, resource.parent().get().id(), ImmutableSet.of(resource));
         }
 
+        // the root resource is not a child of any resource, so it is not indexed
         ResourceConsumerId oldValue = consumers.put(resource.id(), consumerId);
         return oldValue == null;
     }
 
+    /**
+     * Allocates the given children of the specified parent to the given consumer.
+     *
+     * @param consumerId the consumer ID
+     * @param parent     the parent of the resources
+     * @param resources  the resources to allocate
+     * @return indicates whether the allocation was successful
+     */
+    boolean allocate(ResourceConsumerId consumerId, DiscreteResourceId parent, Set<DiscreteResource> resources) {
+        if (resources.isEmpty()) {
+            return true;
+        }
+
+        // if any of the resources is not registered, then abort
+        DiscreteResources children = childMap.get(parent);
+        DiscreteResources requested = DiscreteResources.of(resources);
+        if (children == null || !requested.difference(children).isEmpty()) {
+            return false;
+        }
+
+        for (DiscreteResource resource : resources) {
+            if (consumers.put(resource.id(), consumerId) != null) {
+                return false;
+            }
+        }
+
+        addAllocated(parent, resources);
+        return true;
+    }
+
+    /**
+     * Allocates the given number of values of the given type, which are available
+     * as children of every one of the specified parents, to the given consumer.
+     * Each selected value is allocated under all the parents. Values are picked
+     * in ascending order of their encoded values under the first parent, if any.
+     *
+     * @param consumerId the consumer ID
+     * @param parents    the parents of the resources
+     * @param cls        the class of the resource values
+     * @param count      the number of values to allocate
+     * @return allocated resources, or an empty list if the allocation failed
+     */
+    List<DiscreteResource> allocateAny(ResourceConsumerId consumerId, List<DiscreteResourceId> parents,
+                                       Class<?> cls, int count) {
+        Map<DiscreteResourceId, DiscreteResources> children = new HashMap<>();
+        for (DiscreteResourceId parent : parents) {
+            DiscreteResources values = childMap.get(parent);
+            if (values == null) {
+                return ImmutableList.of();
+            }
+            children.put(parent, values);
+        }
+
+        // candidates are taken from the free ranges of the first parent, so that
+        // its children are neither expanded nor checked one by one up front;
+        // shards of the other parents are read only when a candidate falls into them
+        DiscreteResourceId first = parents.get(0);
+        Map<AllocationKey, DiscreteResources> shards = new HashMap<>();
+        DiscreteResources allocated = DiscreteResources.empty();
+        for (int shard = 0; shard < AllocationKey.SHARDS; shard++) {
+            allocated = allocated.add(shards.computeIfAbsent(new AllocationKey(first, shard), this::allocated));
+        }
+        Iterator<DiscreteResource> candidates = children.get(first).difference(allocated).iteratorOf(cls);
+
+        Map<DiscreteResourceId, Set<DiscreteResource>> unindexed = new LinkedHashMap<>();
+        Map<DiscreteResourceId, Set<DiscreteResource>> selected = new LinkedHashMap<>();
+        int found = 0;
+        while (candidates.hasNext()) {
+            DiscreteResource candidate = candidates.next();
+            Optional<Object> value = candidate.valueAs(Object.class);
+            if (!value.isPresent()) {
+                continue;
+            }
+            List<DiscreteResource> group = parents.stream()
+                    .map(parent -> Resources.discrete(parent, value.get()).resource())
+                    .collect(Collectors.toList());
+            if (group.stream().allMatch(x -> isAvailable(x, children, shards, unindexed))) {
+                group.forEach(x -> selected.computeIfAbsent(x.parent().get().id(), k -> new LinkedHashSet<>())
+                        .add(x));
+                if (++found == count) {
+                    break;
+                }
+            }
+        }
+
+        // allocations made before they were indexed per parent are indexed on the way
+        unindexed.forEach(this::addAllocated);
+        if (found < count) {
+            return ImmutableList.of();
+        }
+
+        for (Map.Entry<DiscreteResourceId, Set<DiscreteResource>> entry : selected.entrySet()) {
+            if (!allocate(consumerId, entry.getKey(), entry.getValue())) {
+                return ImmutableList.of();
+            }
+        }
+        return selected.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Indexes the allocations of the given children of the specified parent,
+     * which may have been made before allocations were indexed per parent.
+     * Children not allocated to any consumer are ignored.
+     *
+     * @param parent    the parent of the resources
+     * @param resources the resources to index
+     */
+    void index(DiscreteResourceId parent, Set<DiscreteResource> resources) {
+        addAllocated(parent, resources.stream()
+                .filter(x -> isAllocated(x.id()))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
     @Override
     public boolean release(ResourceConsumerId consumerId, DiscreteResource resource) {
         // if this single release fails (because the resource is allocated to another consumer)
         // the whole release fails
-        return consumers.remove(resource.id(), consumerId);
+        if (!consumers.remove(resource.id(), consumerId)) {
+            return false;
+        }
+
+        resource.parent().ifPresent(parent -> removeAllocated(parent.id(), ImmutableSet.of(resource)));
+        return true;
+    }
+
+    /**
+     * Releases the given allocations of children of the specified parent.
+     *
+     * @param parent      the parent of the allocated resources
+     * @param allocations the allocations of discrete resources to release
+     * @return indicates whether the release was successful
+     */
+    boolean release(DiscreteResourceId parent, List<ResourceAllocation> allocations) {
+        Set<DiscreteResource> released = new LinkedHashSet<>();
+        for (ResourceAllocation allocation : allocations) {
+            DiscreteResource resource = (DiscreteResource) allocation.resource();
+            if (!consumers.remove(resource.id(), allocation.consumerId())) {
+                return false;
+            }
+            released.add(resource);
+        }
+
+        removeAllocated(parent, released);
+        return true;
+    }
+
+    private boolean isAvailable(DiscreteResource resource,
+                                Map<DiscreteResourceId, DiscreteResources> children,
+                                Map<AllocationKey, DiscreteResources> shards,
+                                Map<DiscreteResourceId, Set<DiscreteResource>> unindexed) {
+        DiscreteResourceId parent = resource.parent().get().id();
+        if (!children.get(parent).lookup(resource.id()).isPresent()) {
+            return false;
+        }
+
+        DiscreteResources allocated = shards.computeIfAbsent(AllocationKey.of(parent, resource), this::allocated);
+        if (allocated.lookup(resource.id()).isPresent()) {
+            return false;
+        }
+
+        // fall back to the consumers for allocations which are not indexed yet
+        if (isAllocated(resource.id())) {
+            unindexed.computeIfAbsent(parent, k -> new LinkedHashSet<>()).add(resource);
+            return false;
+        }
+        return true;
+    }
+
+    private DiscreteResources allocated(AllocationKey key) {
+        DiscreteResources allocated = allocations.get(key);
+        return allocated == null ? DiscreteResources.empty() : allocated;
+    }
+
+    private Map<AllocationKey, Set<DiscreteResource>> shard(DiscreteResourceId parent,
+                                                            Set<DiscreteResource> resources) {
+        return resources.stream()
+                .collect(Collectors.groupingBy(x -> AllocationKey.of(parent, x), LinkedHashMap::new,
+                                               Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    private void addAllocated(DiscreteResourceId parent, Set<DiscreteResource> resources) {
+        shard(parent, resources).forEach((key, values) ->
+                allocations.put(key, allocated(key).add(DiscreteResources.of(values))));
+    }
+
+    private void removeAllocated(DiscreteResourceId parent, Set<DiscreteResource> resources) {
+        shard(parent, resources).forEach((key, values) -> {
+            DiscreteResources allocated = allocations.get(key);
+            if (allocated == null) {
+                return;
+            }
+
+            DiscreteResources remaining = allocated.difference(DiscreteResources.of(values));
+            if (remaining.isEmpty()) {
+                allocations.remove(key);
+            } else {
+                allocations.put(key, remaining);
+            }
+        });
     }
 }
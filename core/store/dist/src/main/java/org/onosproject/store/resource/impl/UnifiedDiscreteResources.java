@@ -16,11 +16,13 @@
 package org.onosproject.store.resource.impl;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
@@ -116,6 +118,11 @@ final class UnifiedDiscreteResources implements DiscreteResources {
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
+    @Override
+    public <T> Iterator<DiscreteResource> iteratorOf(Class<T> cls) {
+        return Iterators.concat(encodables.iteratorOf(cls), generics.iteratorOf(cls));
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(generics, encodables);
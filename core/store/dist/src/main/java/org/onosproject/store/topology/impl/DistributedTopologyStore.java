@@ -25,6 +25,7 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
 import org.onosproject.event.Event;
@@ -91,7 +92,8 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT =
+            "Settings: linkWeightFunction={}, pathCacheSize={}, incrementalCompute={}";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -123,6 +125,15 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    @Property(name = "pathCacheSize", intValue = DefaultTopology.DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of path query results cached per topology; 0 disables caching")
+    private int pathCacheSize = DefaultTopology.DEFAULT_PATH_CACHE_SIZE;
+
+    private static final boolean DEFAULT_INCREMENTAL_COMPUTE = false;
+    @Property(name = "incrementalCompute", boolValue = DEFAULT_INCREMENTAL_COMPUTE,
+            label = "Derive clusters and broadcast trees of new topologies from the current topology")
+    private boolean incrementalCompute = DEFAULT_INCREMENTAL_COMPUTE;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -169,7 +180,18 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeigher(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        Integer newPathCacheSize = Tools.getIntegerProperty(properties, "pathCacheSize");
+        if (newPathCacheSize != null && newPathCacheSize >= 0 && newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            DefaultTopology.setPathCacheSize(pathCacheSize);
+        }
+
+        Boolean newIncrementalCompute = Tools.isPropertyEnabled(properties, "incrementalCompute");
+        if (newIncrementalCompute != null) {
+            incrementalCompute = newIncrementalCompute;
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize, incrementalCompute);
     }
 
     @Override
@@ -292,7 +314,8 @@ public class DistributedTopologyStore
                                         List<Event> reasons) {
         // Have the default topology construct self from the description data.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint,
+                                    incrementalCompute ? current : null);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
@@ -15,13 +15,19 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricFilter;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Uninterruptibles;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ClusterMetadata;
 import org.onosproject.cluster.ClusterMetadataEventListener;
@@ -32,15 +38,22 @@ import org.onosproject.core.HybridLogicalClockService;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.cluster.messaging.Endpoint;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,6 +62,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -88,6 +102,7 @@ public class NettyMessagingManagerTest {
         netty1 = new NettyMessagingManager();
         netty1.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep1);
         netty1.clockService = testClockService;
+        netty1.metricsService = new MetricsManager();
         netty1.activate();
 
         ep2 = new Endpoint(IpAddress.valueOf("127.0.0.1"), findAvailablePort(5003));
@@ -160,6 +175,98 @@ public class NettyMessagingManagerTest {
         assertEquals(ep1, sender.get());
     }
 
+    @Test
+    public void testSendAndReceiveWithBody() {
+        String subject = nextSubject();
+        AtomicReference<byte[]> request = new AtomicReference<>();
+        BiFunction<Endpoint, byte[], byte[]> handler = (ep, data) -> {
+            request.set(data);
+            return "hello there".getBytes();
+        };
+        netty2.registerHandler(subject, handler, MoreExecutors.directExecutor());
+
+        byte[] body = new byte[100000];
+        Arrays.fill(body, (byte) 42);
+        CompletableFuture<byte[]> response = netty1.sendAndReceive(ep2, subject, "hello".getBytes(),
+                stream -> {
+                    try {
+                        stream.write(body);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, MoreExecutors.directExecutor());
+        assertTrue(Arrays.equals("hello there".getBytes(), response.join()));
+
+        ByteBuffer buffer = ByteBuffer.wrap(request.get());
+        byte[] header = new byte["hello".length()];
+        buffer.get(header);
+        assertTrue(Arrays.equals("hello".getBytes(), header));
+        assertEquals(body.length, buffer.getInt());
+        assertEquals(body.length, buffer.remaining());
+    }
+
+    @Test
+    public void testCoalescedWrites() {
+        netty1.coalesceWrites = true;
+        netty1.coalesceMaxMessages = 10;
+        netty2.coalesceWrites = true;
+
+        String subject = nextSubject();
+        int count = 25;
+        CountDownLatch latch = new CountDownLatch(count);
+        AtomicInteger received = new AtomicInteger();
+        netty2.registerHandler(subject, (ep, data) -> {
+            received.incrementAndGet();
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        for (int i = 0; i < count; i++) {
+            netty1.sendAsync(ep2, subject, "hello world".getBytes());
+        }
+        assertTrue(Uninterruptibles.awaitUninterruptibly(latch, 5, TimeUnit.SECONDS));
+        assertEquals(count, received.get());
+
+        // Every message must have been flushed in a batch, and batches must have been fewer than messages
+        Histogram batchMessages = netty1.metricsService.getHistograms(MetricFilter.ALL).entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith("messages"))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .get();
+        assertTrue(batchMessages.getCount() > 0);
+        assertTrue(batchMessages.getCount() < count);
+        assertEquals(count, Arrays.stream(batchMessages.getSnapshot().getValues()).sum());
+
+        String replySubject = nextSubject();
+        netty2.registerHandler(replySubject, (ep, data) -> data, MoreExecutors.directExecutor());
+        CompletableFuture<byte[]> response = netty1.sendAndReceive(ep2, replySubject, "hello there".getBytes());
+        assertTrue(Arrays.equals("hello there".getBytes(), response.join()));
+    }
+
+    @Test
+    public void testSendAsyncWithBufferHandler() throws Exception {
+        String subject = nextSubject();
+        Serializer serializer = Serializer.using(KryoNamespaces.BASIC);
+        AtomicReference<byte[]> header = new AtomicReference<>();
+        AtomicReference<String> body = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        netty2.registerBufferHandler(subject, (ep, buffer) -> {
+            byte[] headerBytes = new byte["hello".length()];
+            buffer.get(headerBytes);
+            header.set(headerBytes);
+            assertEquals(buffer.remaining() - Integer.BYTES, buffer.getInt());
+            body.set(serializer.decode(buffer));
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        netty1.sendAsync(ep2, subject, "hello".getBytes(), stream -> serializer.encode(value, stream)).join();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals("hello".getBytes(), header.get()));
+        assertEquals(value, body.get());
+    }
+
     @Test
     public void testDefaultTimeout() {
         String subject = nextSubject();
@@ -240,6 +347,44 @@ public class NettyMessagingManagerTest {
         assertEquals("handler-thread", handlerThreadName.get());
     }
 
+    /*
+     * Verifies that the decoder accepts a request of the maximum size and closes the connection on a request
+     * announcing more content than allowed, before retaining any of it.
+     */
+    @Test
+    public void testOversizedMessageRejected() {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder(16));
+        ByteBuf sender = Unpooled.buffer();
+        sender.writeByte(0x0);
+        sender.writeBytes(IpAddress.valueOf(IP_STRING).toOctets());
+        sender.writeInt(5001);
+        channel.writeInbound(Unpooled.wrappedBuffer(sender, requestFrame("subject", new byte[16])));
+        InternalRequest request = channel.readInbound();
+        assertNotNull(request);
+        assertEquals("subject", request.subject());
+        request.release();
+
+        ByteBuf frame = requestFrame("subject", new byte[17]);
+        channel.writeInbound(frame);
+        assertNull(channel.readInbound());
+        assertFalse(channel.isOpen());
+        assertEquals(0, frame.refCnt());
+    }
+
+    private ByteBuf requestFrame(String subject, byte[] payload) {
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeByte(InternalMessage.Type.REQUEST.id());
+        frame.writeInt(0);
+        frame.writeLong(1L);
+        frame.writeLong(0L);
+        frame.writeLong(1L);
+        frame.writeInt(payload.length);
+        frame.writeBytes(payload);
+        frame.writeShort(subject.length());
+        frame.writeBytes(subject.getBytes());
+        return frame;
+    }
+
     private ClusterMetadataService dummyMetadataService(String name, String ipAddress, Endpoint ep) {
         return new ClusterMetadataService() {
             @Override
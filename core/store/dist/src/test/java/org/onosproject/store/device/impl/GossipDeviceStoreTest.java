@@ -26,7 +26,6 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.IpAddress;
-import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
@@ -42,6 +41,7 @@ import org.onosproject.net.PortNumber;
 import org.onosproject.net.SparseAnnotations;
 import org.onosproject.net.device.DefaultDeviceDescription;
 import org.onosproject.net.device.DefaultPortDescription;
+import org.onosproject.net.device.DefaultPortStatistics;
 import org.onosproject.net.device.DeviceClockService;
 import org.onosproject.net.device.DeviceClockServiceAdapter;
 import org.onosproject.net.device.DeviceDescription;
@@ -49,6 +49,7 @@ import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceStore;
 import org.onosproject.net.device.DeviceStoreDelegate;
 import org.onosproject.net.device.PortDescription;
+import org.onosproject.net.device.PortStatistics;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.Timestamp;
 import org.onosproject.store.cluster.StaticClusterService;
@@ -56,9 +57,6 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.impl.MastershipBasedTimestamp;
-import org.onosproject.store.service.EventuallyConsistentMap;
-import org.onosproject.store.service.EventuallyConsistentMapBuilder;
-import org.onosproject.store.service.StorageService;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -71,14 +69,12 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static java.util.Arrays.asList;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.createNiceMock;
-import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
@@ -99,6 +95,7 @@ import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
 import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_UPDATED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_ADDED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_REMOVED;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
 import static org.onosproject.net.device.DeviceEvent.Type.PORT_UPDATED;
 
 
@@ -151,9 +148,6 @@ public class GossipDeviceStoreTest {
             new DefaultControllerNode(NID2, IpAddress.valueOf("127.0.0.2"));
     private static final List<SparseAnnotations> NO_ANNOTATION = Collections.emptyList();
 
-    EventuallyConsistentMapBuilder ecMapBuilder;
-    EventuallyConsistentMap ecMap;
-    StorageService testStorageService;
     private TestGossipDeviceStore testGossipDeviceStore;
     private GossipDeviceStore gossipDeviceStore;
     private DeviceStore deviceStore;
@@ -179,21 +173,6 @@ public class GossipDeviceStoreTest {
         testGossipDeviceStore = new TestGossipDeviceStore(deviceClockService, clusterService, clusterCommunicator);
         testGossipDeviceStore.mastershipService = new TestMastershipService();
 
-        ecMapBuilder = createNiceMock(EventuallyConsistentMapBuilder.class);
-        expect(ecMapBuilder.withName(anyObject(String.class))).andReturn(ecMapBuilder).anyTimes();
-        expect(ecMapBuilder.withSerializer(anyObject(KryoNamespace.Builder.class))).andReturn(ecMapBuilder).anyTimes();
-        expect(ecMapBuilder.withAntiEntropyPeriod(5, TimeUnit.SECONDS)).andReturn(ecMapBuilder).anyTimes();
-        expect(ecMapBuilder.withTimestampProvider(anyObject(BiFunction.class))).andReturn(ecMapBuilder).anyTimes();
-        expect(ecMapBuilder.withTombstonesDisabled()).andReturn(ecMapBuilder).anyTimes();
-
-        ecMap = createNiceMock(EventuallyConsistentMap.class);
-        expect(ecMapBuilder.build()).andReturn(ecMap).anyTimes();
-        testStorageService = createNiceMock(StorageService.class);
-        expect(testStorageService.eventuallyConsistentMapBuilder()).andReturn(ecMapBuilder).anyTimes();
-
-        replay(testStorageService, ecMapBuilder, ecMap);
-
-        testGossipDeviceStore.storageService = testStorageService;
         testGossipDeviceStore.deviceClockService = deviceClockService;
 
         gossipDeviceStore = testGossipDeviceStore;
@@ -803,6 +782,34 @@ public class GossipDeviceStoreTest {
         assertNull("P3 not expected", port3);
     }
 
+    @Test
+    public final void testUpdatePortStatistics() {
+        putDevice(DID1, SW1);
+
+        DeviceEvent event = deviceStore.updatePortStatistics(PID, DID1,
+                asList(portStats(P1, 10, 1), portStats(P2, 20, 1)));
+        assertEquals(PORT_STATS_UPDATED, event.type());
+        assertDevice(DID1, SW1, event.subject());
+        assertEquals(2, deviceStore.getPortStatistics(DID1).size());
+        assertTrue("No delta before the second poll", deviceStore.getPortDeltaStatistics(DID1).isEmpty());
+
+        deviceStore.updatePortStatistics(PID, DID1,
+                asList(portStats(P1, 15, 2), portStats(P2, 20, 2)));
+        assertEquals(15, deviceStore.getStatisticsForPort(DID1, P1).packetsReceived());
+        assertEquals(5, deviceStore.getDeltaStatisticsForPort(DID1, P1).packetsReceived());
+        assertEquals(1, deviceStore.getDeltaStatisticsForPort(DID1, P1).durationSec());
+        assertEquals(0, deviceStore.getDeltaStatisticsForPort(DID1, P2).packetsReceived());
+    }
+
+    private static PortStatistics portStats(PortNumber port, long packets, long durationSec) {
+        return DefaultPortStatistics.builder()
+                .setDeviceId(DID1)
+                .setPort(port)
+                .setPacketsReceived(packets)
+                .setDurationSec(durationSec)
+                .build();
+    }
+
     @Test
     public final void testRemoveDevice() {
         putDevice(DID1, SW1, A1);
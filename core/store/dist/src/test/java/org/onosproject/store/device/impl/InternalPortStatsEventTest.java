@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.Annotations;
+import org.onosproject.net.AnnotationsUtil;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DefaultPortStatistics;
+import org.onosproject.net.device.PortStatistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests of the encoding of replicated port statistics.
+ */
+public class InternalPortStatsEventTest {
+
+    private static final NodeId NID1 = new NodeId("local");
+    private static final DeviceId DID1 = deviceId("of:foo");
+
+    private static final PortNumber PN1 = PortNumber.portNumber(1);
+    private static final PortNumber PN2 = PortNumber.portNumber(2);
+    private static final PortNumber PN3 = PortNumber.portNumber(3, "eth3");
+
+    private static final DefaultAnnotations POWER_1 = DefaultAnnotations.builder()
+            .set("inputPower", "-3.5")
+            .build();
+    private static final DefaultAnnotations POWER_2 = DefaultAnnotations.builder()
+            .set("inputPower", "-4.0")
+            .build();
+
+    private static PortStatistics portStats(PortNumber port, long bytes, long durationSec) {
+        return DefaultPortStatistics.builder()
+                .setDeviceId(DID1)
+                .setPort(port)
+                .setBytesReceived(bytes)
+                .setBytesSent(bytes * 2)
+                .setDurationSec(durationSec)
+                .setDurationNano(500)
+                .build();
+    }
+
+    private static PortStatistics portStats(PortNumber port, long bytes, long durationSec,
+                                            Annotations annotations) {
+        return DefaultPortStatistics.builder()
+                .setDeviceId(DID1)
+                .setPort(port)
+                .setBytesReceived(bytes)
+                .setBytesSent(bytes * 2)
+                .setDurationSec(durationSec)
+                .setDurationNano(500)
+                .setAnnotations(annotations)
+                .build();
+    }
+
+    private static void assertPortStats(PortStatistics expected, PortStatistics actual) {
+        assertTrue(expected.portNumber().exactlyEquals(actual.portNumber()));
+        assertTrue(AnnotationsUtil.isEqual(expected.annotations(), actual.annotations()));
+        assertEquals(expected.bytesReceived(), actual.bytesReceived());
+        assertEquals(expected.bytesSent(), actual.bytesSent());
+        assertEquals(expected.durationSec(), actual.durationSec());
+        assertEquals(expected.durationNano(), actual.durationNano());
+    }
+
+    @Test
+    public final void testSnapshot() {
+        Map<PortNumber, PortStatistics> stats =
+                ImmutableMap.of(PN1, portStats(PN1, 100, 5), PN2, portStats(PN2, 200, 5));
+
+        InternalPortStatsEvent event = InternalPortStatsEvent.snapshot(DID1, 0, stats);
+        assertTrue(event.isSnapshot());
+        assertEquals(2, event.size());
+
+        Map<PortNumber, PortStatistics> applied = event.apply(null);
+        assertEquals(stats.keySet(), applied.keySet());
+        assertPortStats(stats.get(PN1), applied.get(PN1));
+        assertPortStats(stats.get(PN2), applied.get(PN2));
+    }
+
+    @Test
+    public final void testDeltaCarriesChangedPortsOnly() {
+        Map<PortNumber, PortStatistics> base =
+                ImmutableMap.of(PN1, portStats(PN1, 100, 5), PN2, portStats(PN2, 200, 5));
+        Map<PortNumber, PortStatistics> stats =
+                ImmutableMap.of(PN1, portStats(PN1, 150, 10), PN2, portStats(PN2, 200, 5));
+
+        InternalPortStatsEvent event = InternalPortStatsEvent.delta(DID1, 1, base, stats);
+        assertFalse(event.isSnapshot());
+        assertEquals(1, event.size());
+
+        Map<PortNumber, PortStatistics> applied = event.apply(base);
+        assertPortStats(stats.get(PN1), applied.get(PN1));
+        assertPortStats(stats.get(PN2), applied.get(PN2));
+    }
+
+    @Test
+    public final void testAnnotatedAndNamedPorts() {
+        Map<PortNumber, PortStatistics> base = ImmutableMap.of(
+                PN1, portStats(PN1, 100, 5, POWER_1),
+                PN2, portStats(PN2, 200, 5),
+                PN3, portStats(PN3, 300, 5));
+
+        InternalPortStatsEvent snapshot = InternalPortStatsEvent.snapshot(DID1, 0, base);
+        assertEquals(3, snapshot.size());
+        assertEquals(2, snapshot.stats().size());
+        Map<PortNumber, PortStatistics> applied = snapshot.apply(null);
+        base.forEach((port, stats) -> assertPortStats(stats, applied.get(port)));
+
+        // counters of the annotated and named ports change, annotations do not
+        Map<PortNumber, PortStatistics> stats = ImmutableMap.of(
+                PN1, portStats(PN1, 150, 10, POWER_1),
+                PN2, portStats(PN2, 200, 5),
+                PN3, portStats(PN3, 350, 10));
+        InternalPortStatsEvent delta = InternalPortStatsEvent.delta(DID1, 1, base, stats);
+        assertEquals(2, delta.size());
+        assertTrue(delta.stats().isEmpty());
+        Map<PortNumber, PortStatistics> appliedDelta = delta.apply(applied);
+        stats.forEach((port, portStats) -> assertPortStats(portStats, appliedDelta.get(port)));
+
+        // annotations change, counters do not
+        Map<PortNumber, PortStatistics> annotated = ImmutableMap.of(
+                PN1, portStats(PN1, 150, 10, POWER_2),
+                PN2, portStats(PN2, 200, 5),
+                PN3, portStats(PN3, 350, 10));
+        delta = InternalPortStatsEvent.delta(DID1, 2, stats, annotated);
+        assertEquals(1, delta.size());
+        assertEquals(1, delta.stats().size());
+        Map<PortNumber, PortStatistics> appliedAnnotations = delta.apply(appliedDelta);
+        annotated.forEach((port, portStats) -> assertPortStats(portStats, appliedAnnotations.get(port)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testDeltaWithoutBase() {
+        Map<PortNumber, PortStatistics> base = ImmutableMap.of(PN1, portStats(PN1, 100, 5));
+        Map<PortNumber, PortStatistics> stats = ImmutableMap.of(PN1, portStats(PN1, 150, 10));
+
+        InternalPortStatsEvent.delta(DID1, 1, base, stats).apply(null);
+    }
+
+    @Test
+    public final void testSerialization() {
+        Map<PortNumber, PortStatistics> base = ImmutableMap.of(
+                PN1, portStats(PN1, 100, 5), PN2, portStats(PN2, 200, 5), PN3, portStats(PN3, 300, 5, POWER_1));
+        Map<PortNumber, PortStatistics> stats = ImmutableMap.of(
+                PN1, portStats(PN1, 90, 10), PN2, portStats(PN2, 250, 10), PN3, portStats(PN3, 300, 5, POWER_2));
+        InternalPortStatsBatch batch = new InternalPortStatsBatch(NID1, ImmutableList.of(
+                InternalPortStatsEvent.snapshot(DID1, 0, base),
+                InternalPortStatsEvent.delta(DID1, 1, base, stats)));
+
+        InternalPortStatsBatch decoded =
+                GossipDeviceStore.SERIALIZER.decode(GossipDeviceStore.SERIALIZER.encode(batch));
+        assertEquals(NID1, decoded.sender());
+        assertEquals(2, decoded.events().size());
+
+        InternalPortStatsEvent snapshot = decoded.events().get(0);
+        assertEquals(DID1, snapshot.deviceId());
+        assertEquals(0, snapshot.sequence());
+        Map<PortNumber, PortStatistics> applied = snapshot.apply(null);
+
+        InternalPortStatsEvent delta = decoded.events().get(1);
+        assertEquals(1, delta.sequence());
+        assertFalse(delta.isSnapshot());
+        applied = delta.apply(applied);
+        assertPortStats(stats.get(PN1), applied.get(PN1));
+        assertPortStats(stats.get(PN2), applied.get(PN2));
+        assertPortStats(stats.get(PN3), applied.get(PN3));
+    }
+}
@@ -17,6 +17,7 @@ package org.onosproject.store.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import org.junit.After;
 import org.junit.Before;
@@ -26,6 +27,7 @@ import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
+import org.onosproject.TestApplicationId;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.mastership.MastershipInfo;
 import org.onosproject.mastership.MastershipServiceAdapter;
@@ -112,6 +114,11 @@ public class ECFlowRuleStoreTest {
             return new NodeId("1");
         }
 
+        @Override
+        public boolean isLocalMaster(DeviceId deviceId) {
+            return true;
+        }
+
         @Override
         public MastershipInfo getMastershipFor(DeviceId deviceId) {
             return new MastershipInfo(
@@ -178,6 +185,8 @@ public class ECFlowRuleStoreTest {
 
         expect(mockClusterService.getLocalNode())
                 .andReturn(mockControllerNode).anyTimes();
+        expect(mockClusterService.getNodes())
+                .andReturn(ImmutableSet.of(mockControllerNode)).anyTimes();
         replay(mockClusterService);
 
         flowStoreImpl.clusterCommunicator = new ClusterCommunicationServiceAdapter();
@@ -299,4 +308,27 @@ public class ECFlowRuleStoreTest {
         }
         assertThat(sum3, is(0));
     }
+
+    /**
+     * Tests looking up the flows of an application across devices.
+     */
+    @Test
+    public void testGetFlowEntriesByAppId() {
+        FlowRule otherDeviceRule = DefaultFlowRule.builder()
+                .forDevice(did("device2"))
+                .withSelector(SELECTOR)
+                .withTreatment(TREATMENT)
+                .withPriority(22)
+                .makeTemporary(44)
+                .fromApp(APP_ID)
+                .build();
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule1));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(otherDeviceRule));
+
+        assertThat(ImmutableSet.<FlowRule>copyOf(flowStoreImpl.getFlowEntriesByAppId(APP_ID)),
+                is(ImmutableSet.of(flowRule, flowRule1, otherDeviceRule)));
+        assertThat(flowStoreImpl.getFlowEntriesByAppId(new TestApplicationId("other")),
+                emptyIterable());
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.intent.IntentTestsMocks;
+import org.onosproject.store.LogicalTimestamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for {@link FlowBucket}.
+ */
+public class FlowBucketTest {
+
+    private static final DeviceId DEVICE_ID = did("device1");
+    private static final BucketId BUCKET_ID = new BucketId(DEVICE_ID, 0);
+
+    private static FlowEntry entry(int priority) {
+        FlowRule rule = DefaultFlowRule.builder()
+            .forDevice(DEVICE_ID)
+            .withSelector(new IntentTestsMocks.MockSelector())
+            .withTreatment(new IntentTestsMocks.MockTreatment())
+            .withPriority(priority)
+            .makePermanent()
+            .fromApp(APP_ID)
+            .build();
+        return new DefaultFlowEntry(rule);
+    }
+
+    /**
+     * Tests that a delta contains only the changes made since the given timestamp.
+     */
+    @Test
+    public void testDelta() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        FlowEntry entry1 = entry(1);
+        FlowEntry entry2 = entry(2);
+        FlowEntry entry3 = entry(3);
+
+        master.add(entry1, 1, clock);
+        master.add(entry2, 1, clock);
+        FlowBucket backup = master.copy();
+        LogicalTimestamp lastBackupTime = master.timestamp();
+
+        master.add(entry3, 1, clock);
+        master.remove(entry1, 1, clock);
+
+        FlowBucketDelta delta = master.delta(lastBackupTime);
+        assertNotNull(delta);
+        assertEquals(1, delta.updates().size());
+        assertEquals(1, delta.removals().size());
+        assertEquals(master.timestamp(), delta.timestamp());
+
+        assertTrue(backup.apply(delta));
+        assertEquals(master.count(), backup.count());
+        assertNull(backup.getFlowEntries(entry1.id()).get(entry1));
+        assertNotNull(backup.getFlowEntries(entry3.id()).get(entry3));
+        assertEquals(master.getDigest().timestamp(), backup.getDigest().timestamp());
+    }
+
+    /**
+     * Tests that a delta is rejected by a bucket that is missing prior changes.
+     */
+    @Test
+    public void testDeltaRejected() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        master.add(entry(1), 1, clock);
+        LogicalTimestamp lastBackupTime = master.timestamp();
+        master.add(entry(2), 1, clock);
+
+        FlowBucket backup = new FlowBucket(BUCKET_ID);
+        assertFalse(backup.apply(master.delta(lastBackupTime)));
+    }
+
+    /**
+     * Tests that no delta is returned once the change log has been truncated.
+     */
+    @Test
+    public void testDeltaTruncated() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        LogicalTimestamp lastBackupTime = master.timestamp();
+        for (int i = 0; i < 1000; i++) {
+            master.add(entry(i), 1, clock);
+        }
+        assertNull(master.delta(lastBackupTime));
+        assertNotNull(master.delta(master.timestamp()));
+    }
+
+    /**
+     * Tests that a repair transfers only the diverging flows and converges the bucket hashes.
+     */
+    @Test
+    public void testRepair() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        FlowEntry entry1 = entry(1);
+        FlowEntry entry2 = entry(2);
+        FlowEntry entry3 = entry(3);
+
+        master.add(entry1, 1, clock);
+        master.add(entry2, 1, clock);
+        FlowBucket backup = master.copy();
+        assertFalse(master.getDigest().isDivergentFrom(backup.getDigest()));
+
+        master.add(entry3, 1, clock);
+        master.remove(entry1, 1, clock);
+        assertTrue(master.getDigest().isDivergentFrom(backup.getDigest()));
+
+        FlowBucketRepair repair = master.repair(backup.getFlowDigests());
+        assertEquals(2, repair.flows().size());
+        assertTrue(repair.isNewerThan(backup.getDigest()));
+
+        backup.apply(repair);
+        assertEquals(master.count(), backup.count());
+        assertNull(backup.getFlowEntries(entry1.id()).get(entry1));
+        assertNotNull(backup.getFlowEntries(entry3.id()).get(entry3));
+        assertFalse(master.getDigest().isDivergentFrom(backup.getDigest()));
+    }
+
+    /**
+     * Tests that the incrementally maintained bucket hash matches the hash of the bucket contents.
+     */
+    @Test
+    public void testIncrementalDigest() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        FlowEntry entry1 = entry(1);
+        FlowEntry entry2 = entry(2);
+        FlowEntry entry3 = entry(3);
+        long emptyHash = master.getDigest().hash();
+
+        master.add(entry1, 1, clock);
+        master.add(entry2, 1, clock);
+        assertEquals(master.copy().getDigest().hash(), master.getDigest().hash());
+
+        master.update(entry2, stored -> {
+            stored.setState(FlowEntryState.ADDED);
+            return stored;
+        }, 1, clock);
+        assertEquals(master.copy().getDigest().hash(), master.getDigest().hash());
+
+        FlowBucket backup = master.copy();
+        LogicalTimestamp lastBackupTime = master.timestamp();
+        assertEquals(master.getDigest().hash(), backup.getDigest().hash());
+
+        master.add(entry3, 1, clock);
+        master.remove(entry1, 1, clock);
+        assertEquals(master.copy().getDigest().hash(), master.getDigest().hash());
+
+        assertTrue(backup.apply(master.delta(lastBackupTime)));
+        assertEquals(master.getDigest().hash(), backup.getDigest().hash());
+
+        master.remove(entry2, 1, clock);
+        master.remove(entry3, 1, clock);
+        assertEquals(emptyHash, master.getDigest().hash());
+
+        backup.apply(master.repair(backup.getFlowDigests()));
+        assertEquals(emptyHash, backup.getDigest().hash());
+    }
+
+    /**
+     * Tests that application lookups follow changes to the bucket, including changes received from a peer.
+     */
+    @Test
+    public void testAppIndex() {
+        LogicalClock clock = new LogicalClock();
+        FlowBucket master = new FlowBucket(BUCKET_ID);
+        FlowEntry entry1 = entry(1);
+        FlowEntry entry2 = entry(2);
+        short appId = APP_ID.id();
+        short groupId = (short) ((entry1.id().value() >>> 32) & 0xFFFF);
+
+        master.add(entry1, 1, clock);
+        FlowBucket backup = master.copy();
+        LogicalTimestamp lastBackupTime = master.timestamp();
+        assertEquals(1, master.getFlowEntriesByAppId(appId).size());
+        assertEquals(1, backup.getFlowEntriesByAppId(appId).size());
+        assertEquals(1, master.getFlowEntriesByGroupId(appId, groupId).size());
+        assertTrue(master.getFlowEntriesByAppId((short) (appId + 1)).isEmpty());
+
+        master.add(entry2, 1, clock);
+        master.remove(entry1, 1, clock);
+        assertEquals(1, master.getFlowEntriesByAppId(appId).size());
+        assertEquals(entry2, master.getFlowEntriesByAppId(appId).get(0));
+
+        assertTrue(backup.apply(master.delta(lastBackupTime)));
+        assertEquals(1, backup.getFlowEntriesByAppId(appId).size());
+        assertEquals(entry2, backup.getFlowEntriesByAppId(appId).get(0));
+
+        master.clear();
+        assertTrue(master.getFlowEntriesByAppId(appId).isEmpty());
+    }
+}
@@ -20,9 +20,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
@@ -53,6 +57,11 @@ public class DistributedHostStoreTest {
     private static final ProviderId PID = new ProviderId("of", "foo");
     private static final ProviderId PID2 = new ProviderId("of", "foo2");
 
+    private static final DeviceId DID1 = DeviceId.deviceId("of:1");
+    private static final DeviceId DID2 = DeviceId.deviceId("of:2");
+    private static final HostLocation LOC1 = new HostLocation(DID1, PortNumber.portNumber(1), 0);
+    private static final HostLocation LOC2 = new HostLocation(DID2, PortNumber.portNumber(1), 0);
+
     private static final HostDescription HOST_LEARNT =
             createHostDesc(HOSTID, Sets.newHashSet(IP1), false);
     private static final HostDescription HOST_CONFIGURED =
@@ -146,6 +155,32 @@ public class DistributedHostStoreTest {
         assertEquals(PID2, hostInStore.providerId());
     }
 
+    @Test
+    public void testHostIndexes() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID,
+                new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(), LOC1, Sets.newHashSet(IP1)), false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID1,
+                new DefaultHostDescription(HOSTID1.mac(), HOSTID1.vlanId(), LOC1, Sets.newHashSet(IP2)), false);
+
+        assertEquals(1, ecXHostStore.getHosts(HOSTID.mac()).size());
+        assertEquals(2, ecXHostStore.getHosts(VlanId.NONE).size());
+        assertEquals(2, ecXHostStore.getConnectedHosts(new ConnectPoint(DID1, PortNumber.portNumber(1))).size());
+        assertEquals(2, ecXHostStore.getConnectedHosts(DID1).size());
+        assertEquals(0, ecXHostStore.getConnectedHosts(DID2).size());
+
+        // Moving a host re-indexes it under its new location only
+        ecXHostStore.appendLocation(HOSTID1, LOC2);
+        ecXHostStore.removeLocation(HOSTID1, LOC1);
+        assertEquals(1, ecXHostStore.getConnectedHosts(LOC1).size());
+        assertEquals(1, ecXHostStore.getConnectedHosts(DID2).size());
+        assertEquals(LOC2, ecXHostStore.getConnectedHosts(DID2).iterator().next().location());
+
+        ecXHostStore.removeHost(HOSTID);
+        assertEquals(0, ecXHostStore.getHosts(HOSTID.mac()).size());
+        assertEquals(0, ecXHostStore.getConnectedHosts(DID1).size());
+        assertEquals(1, ecXHostStore.getHosts(VlanId.NONE).size());
+    }
+
     private static HostDescription createHostDesc(HostId hostId, Set<IpAddress> ips) {
         return createHostDesc(hostId, ips, false);
     }
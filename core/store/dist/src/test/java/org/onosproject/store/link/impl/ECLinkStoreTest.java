@@ -453,6 +453,30 @@ public class ECLinkStoreTest {
         assertAnnotationsEquals(linkStore.getLink(d1P1, d2P2).annotations());
     }
 
+    @Test
+    public final void testLookupsAfterRemoveLink() {
+        final ConnectPoint d1P1 = new ConnectPoint(DID1, P1);
+        final ConnectPoint d2P2 = new ConnectPoint(DID2, P2);
+        final ConnectPoint d1P2 = new ConnectPoint(DID1, P2);
+        LinkKey linkId1 = LinkKey.linkKey(d1P1, d2P2);
+        LinkKey linkId2 = LinkKey.linkKey(d1P2, d2P2);
+
+        putLink(linkId1, DIRECT);
+        putLink(linkId2, DIRECT);
+        assertEquals(2, linkStore.getDeviceEgressLinks(DID1).size());
+        assertEquals(2, linkStore.getIngressLinks(d2P2).size());
+
+        linkStore.removeLink(d1P1, d2P2);
+        assertEquals(1, linkStore.getDeviceEgressLinks(DID1).size());
+        assertEquals(1, linkStore.getDeviceIngressLinks(DID2).size());
+        assertTrue(linkStore.getEgressLinks(d1P1).isEmpty());
+        assertEquals(1, linkStore.getIngressLinks(d2P2).size());
+
+        linkStore.removeLink(d1P2, d2P2);
+        assertTrue(linkStore.getDeviceEgressLinks(DID1).isEmpty());
+        assertTrue(linkStore.getIngressLinks(d2P2).isEmpty());
+    }
+
     @Test
     public final void testAncillaryVisible() {
         ConnectPoint src = new ConnectPoint(DID1, P1);
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.resource.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.DiscreteResourceId;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceAllocation;
+import org.onosproject.net.resource.ResourceConsumer;
+import org.onosproject.net.resource.Resources;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.CommitStatus;
+import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.ConsistentMapBuilder;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.TestConsistentMap;
+import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.TransactionContext;
+import org.onosproject.store.service.TransactionContextBuilder;
+import org.onosproject.store.service.TransactionalMap;
+import org.onosproject.store.service.Versioned;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link ConsistentResourceStore}.
+ */
+public class ConsistentResourceStoreTest {
+    private static final DeviceId DEVICE = DeviceId.deviceId("of:1");
+    private static final PortNumber PORT1 = PortNumber.portNumber(1);
+    private static final PortNumber PORT2 = PortNumber.portNumber(2);
+    private static final ResourceConsumer CONSUMER1 = IntentId.valueOf(1);
+    private static final ResourceConsumer CONSUMER2 = IntentId.valueOf(2);
+
+    private final DiscreteResourceId port1 = Resources.discrete(DEVICE, PORT1).id();
+    private final DiscreteResourceId port2 = Resources.discrete(DEVICE, PORT2).id();
+
+    private TestResourceStorageService storage;
+    private ConsistentResourceStore store;
+
+    @Before
+    public void setUp() {
+        storage = new TestResourceStorageService();
+        store = newStore();
+
+        assertThat(store.register(ImmutableList.of(Resources.discrete(DEVICE).resource())), is(true));
+        assertThat(store.register(ImmutableList.of(Resources.discrete(port1).resource(),
+                                                   Resources.discrete(port2).resource())), is(true));
+        assertThat(store.register(vlans(port1, 1, 10)), is(true));
+        assertThat(store.register(vlans(port2, 1, 10)), is(true));
+    }
+
+    private ConsistentResourceStore newStore() {
+        ConsistentResourceStore newStore = new ConsistentResourceStore();
+        newStore.service = storage;
+        newStore.activate();
+        return newStore;
+    }
+
+    private static DiscreteResource vlan(DiscreteResourceId port, int vlan) {
+        return Resources.discrete(port, VlanId.vlanId((short) vlan)).resource();
+    }
+
+    private static List<Resource> vlans(DiscreteResourceId port, int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(x -> vlan(port, x))
+                .collect(Collectors.toList());
+    }
+
+    private Collection<Resource> allocated(DiscreteResourceId port) {
+        return store.getAllocatedResources(port, VlanId.class);
+    }
+
+    /**
+     * Tests that allocations and releases are reflected in the allocated children of a parent.
+     */
+    @Test
+    public void testAllocateAndRelease() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1), vlan(port1, 5)), CONSUMER1), is(true));
+        assertThat(allocated(port1), containsInAnyOrder(vlan(port1, 1), vlan(port1, 5)));
+        assertThat(allocated(port2), is(empty()));
+
+        // already allocated to another consumer
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 2), vlan(port1, 5)), CONSUMER2), is(false));
+        assertThat(allocated(port1), containsInAnyOrder(vlan(port1, 1), vlan(port1, 5)));
+        assertThat(store.isAvailable(vlan(port1, 2)), is(true));
+
+        // not registered
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 100)), CONSUMER2), is(false));
+
+        assertThat(store.release(ImmutableList.of(new ResourceAllocation(vlan(port1, 1), CONSUMER1))), is(true));
+        assertThat(allocated(port1), contains(vlan(port1, 5)));
+
+        // allocated to another consumer
+        assertThat(store.release(ImmutableList.of(new ResourceAllocation(vlan(port1, 5), CONSUMER2))), is(false));
+        assertThat(allocated(port1), contains(vlan(port1, 5)));
+    }
+
+    /**
+     * Tests that available children are allocated in ascending order of their values.
+     */
+    @Test
+    public void testAllocateAny() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1), vlan(port1, 3)), CONSUMER1), is(true));
+
+        List<Resource> allocated = store.allocateAny(port1, VlanId.class, 3, CONSUMER2);
+        assertThat(allocated, contains(vlan(port1, 2), vlan(port1, 4), vlan(port1, 5)));
+        assertThat(allocated(port1).size(), is(5));
+        assertThat(store.getResourceAllocations(vlan(port1, 4).id()),
+                   contains(new ResourceAllocation(vlan(port1, 4), CONSUMER2)));
+
+        // not enough children left
+        assertThat(store.allocateAny(port1, VlanId.class, 6, CONSUMER2), is(empty()));
+        assertThat(allocated(port1).size(), is(5));
+    }
+
+    /**
+     * Tests that values available under all the parents are allocated under each of them.
+     */
+    @Test
+    public void testAllocateAnyCommon() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1), vlan(port2, 2)), CONSUMER1), is(true));
+
+        List<Resource> allocated = store.allocateAny(ImmutableList.of(port1, port2), VlanId.class, 1, CONSUMER2);
+        assertThat(allocated, containsInAnyOrder(vlan(port1, 3), vlan(port2, 3)));
+        assertThat(allocated(port1), containsInAnyOrder(vlan(port1, 1), vlan(port1, 3)));
+        assertThat(allocated(port2), containsInAnyOrder(vlan(port2, 2), vlan(port2, 3)));
+    }
+
+    /**
+     * Tests that allocations made before they were indexed per parent are indexed on activation.
+     */
+    @Test
+    public void testIndexOnActivation() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1), vlan(port2, 2)), CONSUMER1), is(true));
+        // state left by a version keeping the consumers only
+        storage.map(MapNames.DISCRETE_ALLOCATION_MAP).clear();
+        assertThat(allocated(port1), is(empty()));
+
+        store = newStore();
+        assertThat(allocated(port1), contains(vlan(port1, 1)));
+        assertThat(allocated(port2), contains(vlan(port2, 2)));
+        assertThat(store.allocateAny(port1, VlanId.class, 1, CONSUMER2), contains(vlan(port1, 2)));
+    }
+
+    /**
+     * Tests that allocations missing from the index are indexed on activation
+     * even when other allocations have been indexed since the upgrade.
+     */
+    @Test
+    public void testIndexPartiallyIndexedOnActivation() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1)), CONSUMER1), is(true));
+        storage.map(MapNames.DISCRETE_ALLOCATION_MAP).clear();
+        assertThat(store.allocate(ImmutableList.of(vlan(port2, 2)), CONSUMER1), is(true));
+        assertThat(allocated(port1), is(empty()));
+
+        store = newStore();
+        assertThat(allocated(port1), contains(vlan(port1, 1)));
+        assertThat(allocated(port2), contains(vlan(port2, 2)));
+    }
+
+    /**
+     * Tests that an allocation of any value gives up when its commits keep failing.
+     */
+    @Test
+    public void testAllocateAnyConflicting() {
+        storage.conflicting = true;
+
+        assertThat(store.allocateAny(port1, VlanId.class, 1, CONSUMER2), is(empty()));
+        storage.conflicting = false;
+        assertThat(allocated(port1), is(empty()));
+    }
+
+    /**
+     * Tests that allocations which are not indexed are not allocated again, and are indexed.
+     */
+    @Test
+    public void testAllocateAnyUnindexed() {
+        assertThat(store.allocate(ImmutableList.of(vlan(port1, 1), vlan(port1, 2)), CONSUMER1), is(true));
+        storage.map(MapNames.DISCRETE_ALLOCATION_MAP).clear();
+
+        assertThat(store.allocateAny(port1, VlanId.class, 1, CONSUMER2), contains(vlan(port1, 3)));
+        assertThat(allocated(port1), containsInAnyOrder(vlan(port1, 1), vlan(port1, 2), vlan(port1, 3)));
+    }
+
+    /**
+     * Storage service backed by in-memory maps shared by name, supporting transactions.
+     */
+    private static final class TestResourceStorageService extends TestStorageService {
+        private final Map<String, ConsistentMap<?, ?>> maps = Maps.newConcurrentMap();
+        // fails every commit, as if concurrent transactions always won
+        private volatile boolean conflicting;
+
+        @SuppressWarnings("unchecked")
+        <K, V> ConsistentMap<K, V> map(String name) {
+            return (ConsistentMap<K, V>) maps.computeIfAbsent(name,
+                    x -> new TestConsistentMap.Builder<K, V>().withName(x).build());
+        }
+
+        @Override
+        public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
+            return new ConsistentMapBuilder<K, V>() {
+                @Override
+                public ConsistentMap<K, V> build() {
+                    return map(name());
+                }
+
+                @Override
+                public AsyncConsistentMap<K, V> buildAsyncMap() {
+                    return null;
+                }
+            };
+        }
+
+        @Override
+        public TransactionContextBuilder transactionContextBuilder() {
+            return new TransactionContextBuilder() {
+                @Override
+                public TransactionContext build() {
+                    return new TestTransactionContext(TestResourceStorageService.this);
+                }
+            };
+        }
+    }
+
+    /**
+     * Transaction context buffering updates until they are committed.
+     */
+    private static final class TestTransactionContext implements TransactionContext {
+        private final TestResourceStorageService storage;
+        private final Map<String, TestTransactionalMap<?, ?>> maps = Maps.newLinkedHashMap();
+        private boolean open;
+
+        private TestTransactionContext(TestResourceStorageService storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public String name() {
+            return "test-transaction";
+        }
+
+        @Override
+        public TransactionId transactionId() {
+            return TransactionId.from(name());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void begin() {
+            open = true;
+        }
+
+        @Override
+        public CompletableFuture<CommitStatus> commit() {
+            open = false;
+            if (storage.conflicting) {
+                return CompletableFuture.completedFuture(CommitStatus.FAILURE);
+            }
+            maps.values().forEach(TestTransactionalMap::commit);
+            return CompletableFuture.completedFuture(CommitStatus.SUCCESS);
+        }
+
+        @Override
+        public void abort() {
+            maps.clear();
+            open = false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> TransactionalMap<K, V> getTransactionalMap(String mapName, Serializer serializer) {
+            return (TransactionalMap<K, V>) maps.computeIfAbsent(mapName,
+                    x -> new TestTransactionalMap<>(storage.<K, V>map(x)));
+        }
+    }
+
+    /**
+     * Transactional map reading its own updates.
+     */
+    private static final class TestTransactionalMap<K, V> implements TransactionalMap<K, V> {
+        private final ConsistentMap<K, V> map;
+        private final Map<K, Optional<V>> updates = Maps.newLinkedHashMap();
+
+        private TestTransactionalMap(ConsistentMap<K, V> map) {
+            this.map = map;
+        }
+
+        private void commit() {
+            updates.forEach((key, value) -> {
+                if (value.isPresent()) {
+                    map.put(key, value.get());
+                } else {
+                    map.remove(key);
+                }
+            });
+        }
+
+        @Override
+        public V get(K key) {
+            Optional<V> update = updates.get(key);
+            return update != null ? update.orElse(null) : Versioned.valueOrNull(map.get(key));
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            V oldValue = get(key);
+            updates.put(key, Optional.of(value));
+            return oldValue;
+        }
+
+        @Override
+        public V remove(K key) {
+            V oldValue = get(key);
+            updates.put(key, Optional.empty());
+            return oldValue;
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            V oldValue = get(key);
+            if (oldValue == null) {
+                updates.put(key, Optional.of(value));
+            }
+            return oldValue;
+        }
+
+        @Override
+        public boolean remove(K key, V value) {
+            if (value == null || !Objects.equals(get(key), value)) {
+                return false;
+            }
+            updates.put(key, Optional.empty());
+            return true;
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            if (oldValue == null || !Objects.equals(get(key), oldValue)) {
+                return false;
+            }
+            updates.put(key, Optional.of(newValue));
+            return true;
+        }
+    }
+}
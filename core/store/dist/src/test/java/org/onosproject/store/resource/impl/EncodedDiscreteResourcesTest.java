@@ -16,6 +16,7 @@
 
 package org.onosproject.store.resource.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
 import org.onlab.packet.VlanId;
@@ -75,4 +76,17 @@ public class EncodedDiscreteResourcesTest {
                 is(EncodedDiscreteResources.of(ImmutableSet.of(res1, res2, res3), new VlanIdCodec())));
     }
 
+    @Test
+    public void testIterator() {
+        DiscreteResource res1 = Resources.discrete(DID, PN, VID1).resource();
+        DiscreteResource res3 = Resources.discrete(DID, PN, VID3).resource();
+        DiscreteResource res4 = Resources.discrete(DID, PN, VlanId.vlanId((short) 4)).resource();
+
+        EncodedDiscreteResources sut = EncodedDiscreteResources.of(ImmutableSet.of(res1, res3, res4),
+                new VlanIdCodec());
+
+        assertThat(ImmutableList.copyOf(sut.iterator(Resources.discrete(DID, PN).id())),
+                is(ImmutableList.of(res1, res3, res4)));
+    }
+
 }
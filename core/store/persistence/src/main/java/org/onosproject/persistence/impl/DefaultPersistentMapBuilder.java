@@ -26,12 +26,14 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent maps stored in the mapDB local database via the persistence service.
+ * Default builder for persistent maps stored in the mapDB local database or log store via the persistence service.
  */
 public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K, V> {
 
     private final DB localDB;
 
+    private final LogStore logStore;
+
     private String name = null;
 
     private Serializer serializer = null;
@@ -40,6 +42,12 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
     public DefaultPersistentMapBuilder(DB localDB) {
         checkNotNull(localDB, "The local database cannot be null.");
         this.localDB = localDB;
+        this.logStore = null;
+    }
+
+    public DefaultPersistentMapBuilder(LogStore logStore) {
+        this.localDB = null;
+        this.logStore = checkNotNull(logStore, "The log store cannot be null.");
     }
 
     public PersistentMapBuilder<K, V> withName(String name) {
@@ -58,6 +66,9 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The key serializer must be assigned.");
 
+        if (logStore != null) {
+            return new PersistentMap<K, V>(serializer, logStore.map(name));
+        }
         return new PersistentMap<K, V>(serializer, localDB, name);
     }
 }
\ No newline at end of file
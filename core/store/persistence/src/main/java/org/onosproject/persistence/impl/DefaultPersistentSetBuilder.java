@@ -24,18 +24,26 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent sets stored in the mapDB local database via the persistence service..
+ * Default builder for persistent sets stored in the mapDB local database or log store via the persistence service..
  */
 public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
 
     private final DB localDB;
 
+    private final LogStore logStore;
+
     private String name = null;
 
     private Serializer serializer = null;
 
     public DefaultPersistentSetBuilder(DB localDB) {
         this.localDB = checkNotNull(localDB, "The local database cannot be null.");
+        this.logStore = null;
+    }
+
+    public DefaultPersistentSetBuilder(LogStore logStore) {
+        this.localDB = null;
+        this.logStore = checkNotNull(logStore, "The log store cannot be null.");
     }
 
     public PersistentSetBuilder<E> withName(String name) {
@@ -54,6 +62,9 @@ public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The serializer must be assigned.");
 
+        if (logStore != null) {
+            return new PersistentSet<E>(serializer, logStore.set(name));
+        }
         return new PersistentSet<E>(serializer, localDB, name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,682 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Local store of byte array maps and sets kept in memory-mapped, append-only
+ * segment files.
+ * <p>
+ * Every update is appended to the head segment as a record; an in-memory
+ * index maps each key to the location of its latest record, so that reads
+ * are served from the mapped segments without locking. Segments are only
+ * written to through the page cache, and {@link #flush()} forces all the
+ * records appended since the previous call to the storage device at once.
+ * {@link #compact()} reclaims the space of overwritten and removed entries
+ * by moving the live records of the oldest segment to the head segment.
+ * <p>
+ * Each record is framed as its body length and CRC-32, followed by the
+ * body: a sequence number, the operation, the collection identifier, the
+ * key and the value. Sequence numbers rather than record positions order
+ * the updates of a key, so that records keep their meaning when moved.
+ */
+public class LogStore implements Closeable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    // compaction starts once this ratio of the log holds overwritten or removed entries
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\" + SEGMENT_SUFFIX);
+
+    private static final byte DEFINE = 1;
+    private static final byte PUT = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLEAR = 4;
+
+    // body length and CRC-32
+    private static final int FRAME_SIZE = 8;
+    // sequence number, operation, collection identifier and key length
+    private static final int BODY_HEADER_SIZE = 17;
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final Map<ByteBuffer, Long> NO_REMOVALS = Collections.emptyMap();
+
+    private final Logger log = getLogger(getClass());
+
+    private final Path directory;
+    private final int segmentSize;
+
+    // all following fields are guarded by this
+    private final TreeMap<Integer, LogSegment> segments = new TreeMap<>();
+    private final Set<LogSegment> unflushed = new HashSet<>();
+    private final Map<Integer, Collection> collectionsById = Maps.newHashMap();
+    private final Map<String, Collection> collectionsByName = Maps.newHashMap();
+    private LogSegment head;
+    private long nextSequence;
+    private int nextCollectionId;
+    private boolean closed;
+
+    /**
+     * Opens the store kept in the given directory, replaying its segments.
+     *
+     * @param directory   directory of the segment files, created if missing
+     * @param segmentSize size in bytes of new segment files
+     * @throws IOException if the segments cannot be read or created
+     */
+    public LogStore(Path directory, int segmentSize) throws IOException {
+        this.directory = checkNotNull(directory);
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        replay();
+        // never append after replayed records, a torn tail may follow them
+        head = roll(0);
+    }
+
+    /**
+     * Opens the store kept in the given directory with the default segment size.
+     *
+     * @param directory directory of the segment files, created if missing
+     * @throws IOException if the segments cannot be read or created
+     */
+    public LogStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Returns the map of the given name, creating it if needed.
+     *
+     * @param name map name
+     * @return map backed by this store
+     */
+    public Map<byte[], byte[]> map(String name) {
+        return new LogMap(collection(name));
+    }
+
+    /**
+     * Returns the set of the given name, creating it if needed.
+     *
+     * @param name set name
+     * @return set backed by this store
+     */
+    public Set<byte[]> set(String name) {
+        return new LogSet(collection(name));
+    }
+
+    /**
+     * Forces the records appended since the last flush to the storage device.
+     */
+    public void flush() {
+        List<LogSegment> dirty;
+        synchronized (this) {
+            dirty = new ArrayList<>(unflushed);
+            unflushed.clear();
+        }
+        dirty.forEach(LogSegment::force);
+    }
+
+    /**
+     * Returns the ratio of the log holding overwritten or removed entries.
+     *
+     * @return garbage ratio between 0 and 1
+     */
+    public synchronized double garbageRatio() {
+        long total = 0;
+        long live = 0;
+        for (LogSegment segment : segments.values()) {
+            total += segment.position();
+            live += segment.liveBytes();
+        }
+        return total == 0 ? 0 : 1 - (double) live / total;
+    }
+
+    /**
+     * Moves the live records of the oldest segments to the head segment, and
+     * deletes them, until the garbage ratio falls below the threshold.
+     *
+     * @throws IOException if a segment cannot be created or deleted
+     */
+    public void compact() throws IOException {
+        while (garbageRatio() > COMPACTION_THRESHOLD) {
+            LogSegment oldest;
+            synchronized (this) {
+                if (closed || segments.firstEntry().getValue() == head) {
+                    return;
+                }
+                oldest = segments.firstEntry().getValue();
+            }
+            compact(oldest);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+        }
+    }
+
+    private void compact(LogSegment segment) throws IOException {
+        ByteBuffer records = segment.view();
+        int position = 0;
+        while (position < segment.position()) {
+            int length = FRAME_SIZE + records.getInt(position);
+            byte operation = records.get(position + FRAME_SIZE + 8);
+            Collection collection = collectionAt(records, position);
+            synchronized (this) {
+                if (operation == DEFINE && isAt(collection.definition, segment, position)) {
+                    collection.definition = move(records, position, length);
+                } else if (operation == PUT) {
+                    ByteBuffer key = ByteBuffer.wrap(key(records, position));
+                    Location location = collection.index.get(key);
+                    if (isAt(location, segment, position)) {
+                        collection.index.put(key, move(records, position, length));
+                    }
+                }
+                // removals and clears are dropped, no older record of their keys remains
+            }
+            position += length;
+        }
+        // moved records must be durable before their previous copy goes away
+        flush();
+        synchronized (this) {
+            segments.remove(segment.id());
+            unflushed.remove(segment);
+        }
+        segment.delete();
+        log.debug("Compacted {}", segment);
+    }
+
+    private boolean isAt(Location location, LogSegment segment, int offset) {
+        return location != null && location.segment == segment && location.offset == offset;
+    }
+
+    // guarded by this
+    private Location move(ByteBuffer records, int offset, int length) throws IOException {
+        ByteBuffer record = records.duplicate();
+        record.position(offset).limit(offset + length);
+        LogSegment segment = segmentFor(length);
+        int position = segment.position();
+        ByteBuffer target = segment.view();
+        target.position(position);
+        target.put(record);
+        long sequence = records.getLong(offset + FRAME_SIZE);
+        // the moved record stays live, it is released from its new segment when overwritten
+        segment.addLiveBytes(length);
+        return appended(segment, position, length, sequence);
+    }
+
+    private synchronized Collection collection(String name) {
+        checkState(!closed, "Store is closed");
+        Collection collection = collectionsByName.get(name);
+        if (collection == null) {
+            collection = collectionById(nextCollectionId++);
+            collection.name = name;
+            collectionsByName.put(name, collection);
+            try {
+                collection.definition = append(DEFINE, collection, name.getBytes(StandardCharsets.UTF_8), null);
+            } catch (IOException e) {
+                throw new PersistenceException("Failed to define " + name + ": " + e.getMessage());
+            }
+        }
+        return collection;
+    }
+
+    private Collection collectionById(int id) {
+        return collectionsById.computeIfAbsent(id, Collection::new);
+    }
+
+    private Collection collectionAt(ByteBuffer records, int offset) {
+        int id = records.getInt(offset + FRAME_SIZE + 9);
+        synchronized (this) {
+            return collectionById(id);
+        }
+    }
+
+    private byte[] get(Collection collection, byte[] key) {
+        Location location = collection.index.get(ByteBuffer.wrap(key));
+        return location == null ? null : value(location);
+    }
+
+    private synchronized byte[] put(Collection collection, byte[] key, byte[] value, boolean onlyIfAbsent) {
+        checkState(!closed, "Store is closed");
+        ByteBuffer indexKey = ByteBuffer.wrap(key.clone());
+        Location previous = collection.index.get(indexKey);
+        if (previous != null && onlyIfAbsent) {
+            return value(previous);
+        }
+        Location location = write(PUT, collection, key, value);
+        location.segment.addLiveBytes(location.length);
+        collection.index.put(indexKey, location);
+        return previous == null ? null : release(previous);
+    }
+
+    private synchronized byte[] remove(Collection collection, byte[] key) {
+        checkState(!closed, "Store is closed");
+        Location previous = collection.index.get(ByteBuffer.wrap(key));
+        if (previous == null) {
+            return null;
+        }
+        // the removal record itself is garbage from the start
+        write(REMOVE, collection, key, null);
+        collection.index.remove(ByteBuffer.wrap(key));
+        return release(previous);
+    }
+
+    private synchronized void clear(Collection collection) {
+        checkState(!closed, "Store is closed");
+        Location location = write(CLEAR, collection, EMPTY, null);
+        collection.clearedSequence = location.sequence;
+        collection.index.values().forEach(this::release);
+        collection.index.clear();
+    }
+
+    // guarded by this
+    private byte[] release(Location location) {
+        location.segment.addLiveBytes(-location.length);
+        return value(location);
+    }
+
+    // guarded by this
+    private Location write(byte operation, Collection collection, byte[] key, byte[] value) {
+        try {
+            return append(operation, collection, key, value);
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to append to " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // guarded by this
+    private Location append(byte operation, Collection collection, byte[] key, byte[] value) throws IOException {
+        int bodyLength = BODY_HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        int length = FRAME_SIZE + bodyLength;
+        LogSegment segment = segmentFor(length);
+        int position = segment.position();
+        long sequence = nextSequence++;
+
+        ByteBuffer body = segment.view();
+        body.position(position + FRAME_SIZE);
+        body.putLong(sequence)
+                .put(operation)
+                .putInt(collection.id)
+                .putInt(key.length)
+                .put(key);
+        if (value != null) {
+            body.put(value);
+        }
+        body.flip().position(position + FRAME_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        ByteBuffer frame = segment.view();
+        frame.putInt(position + 4, (int) crc.getValue());
+        // the length goes last, a record torn before it reads as the end of the segment
+        frame.putInt(position, bodyLength);
+        return appended(segment, position, length, sequence);
+    }
+
+    // guarded by this
+    private Location appended(LogSegment segment, int position, int length, long sequence) {
+        segment.position(position + length);
+        unflushed.add(segment);
+        return new Location(segment, position, length, sequence);
+    }
+
+    // guarded by this
+    private LogSegment segmentFor(int length) throws IOException {
+        if (head.remaining() < length) {
+            head = roll(length);
+        }
+        return head;
+    }
+
+    private LogSegment roll(int length) throws IOException {
+        int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        LogSegment segment = LogSegment.create(id, segmentFile(id), Math.max(segmentSize, length));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("segment-%010d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] key(ByteBuffer records, int offset) {
+        ByteBuffer record = records.duplicate();
+        record.position(offset + FRAME_SIZE + 13);
+        byte[] key = new byte[record.getInt()];
+        record.get(key);
+        return key;
+    }
+
+    private static byte[] value(Location location) {
+        ByteBuffer record = location.segment.view();
+        record.position(location.offset + FRAME_SIZE + 13);
+        int keyLength = record.getInt();
+        byte[] value = new byte[location.length - FRAME_SIZE - BODY_HEADER_SIZE - keyLength];
+        record.position(record.position() + keyLength);
+        record.get(value);
+        return value;
+    }
+
+    /**
+     * Rebuilds the index from the records of all segments.
+     */
+    private synchronized void replay() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = new ArrayList<>();
+            list.forEach(files::add);
+        }
+        for (Path file : files) {
+            Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+            if (matcher.matches()) {
+                int id = Integer.parseInt(matcher.group(1));
+                segments.put(id, LogSegment.open(id, file));
+            }
+        }
+
+        // sequence numbers of removals, per collection and key
+        Map<Collection, Map<ByteBuffer, Long>> removals = Maps.newHashMap();
+        for (LogSegment segment : segments.values()) {
+            replay(segment, removals);
+        }
+        // the head segments of previous runs may hold no record
+        for (Iterator<LogSegment> it = segments.values().iterator(); it.hasNext();) {
+            LogSegment segment = it.next();
+            if (segment.position() == 0) {
+                it.remove();
+                segment.delete();
+            }
+        }
+        log.info("Replayed {} segments of {}", segments.size(), directory);
+    }
+
+    private void replay(LogSegment segment, Map<Collection, Map<ByteBuffer, Long>> removals) {
+        ByteBuffer records = segment.view();
+        int position = 0;
+        while (position + FRAME_SIZE + BODY_HEADER_SIZE <= segment.capacity()) {
+            int bodyLength = records.getInt(position);
+            if (bodyLength < BODY_HEADER_SIZE || position + FRAME_SIZE + bodyLength > segment.capacity()) {
+                break;
+            }
+            ByteBuffer body = records.duplicate();
+            body.position(position + FRAME_SIZE).limit(position + FRAME_SIZE + bodyLength);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != records.getInt(position + 4)) {
+                log.warn("Ignoring the end of {} from offset {}, the record is corrupted", segment, position);
+                break;
+            }
+            replay(segment, records, position, FRAME_SIZE + bodyLength, removals);
+            position += FRAME_SIZE + bodyLength;
+        }
+        segment.position(position);
+    }
+
+    private void replay(LogSegment segment, ByteBuffer records, int offset, int length,
+                        Map<Collection, Map<ByteBuffer, Long>> removals) {
+        long sequence = records.getLong(offset + FRAME_SIZE);
+        byte operation = records.get(offset + FRAME_SIZE + 8);
+        Collection collection = collectionById(records.getInt(offset + FRAME_SIZE + 9));
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        nextCollectionId = Math.max(nextCollectionId, collection.id + 1);
+        Location location = new Location(segment, offset, length, sequence);
+
+        if (operation == DEFINE) {
+            if (collection.definition == null) {
+                collection.name = new String(key(records, offset), StandardCharsets.UTF_8);
+                collectionsByName.put(collection.name, collection);
+                collection.definition = location;
+                segment.addLiveBytes(length);
+            }
+        } else if (operation == PUT) {
+            ByteBuffer key = ByteBuffer.wrap(key(records, offset));
+            Long removed = removals.getOrDefault(collection, NO_REMOVALS).get(key);
+            Location current = collection.index.get(key);
+            if (sequence > collection.clearedSequence && (removed == null || removed < sequence)
+                    && (current == null || current.sequence < sequence)) {
+                if (current != null) {
+                    current.segment.addLiveBytes(-current.length);
+                }
+                collection.index.put(key, location);
+                segment.addLiveBytes(length);
+            }
+        } else if (operation == REMOVE) {
+            ByteBuffer key = ByteBuffer.wrap(key(records, offset));
+            removals.computeIfAbsent(collection, c -> Maps.newHashMap()).merge(key, sequence, Math::max);
+            Location current = collection.index.get(key);
+            if (current != null && current.sequence < sequence) {
+                current.segment.addLiveBytes(-current.length);
+                collection.index.remove(key);
+            }
+        } else if (operation == CLEAR && sequence > collection.clearedSequence) {
+            collection.clearedSequence = sequence;
+            collection.index.values().removeIf(current -> {
+                if (current.sequence < sequence) {
+                    current.segment.addLiveBytes(-current.length);
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Location of the latest record of a key.
+     */
+    private static final class Location {
+        private final LogSegment segment;
+        private final int offset;
+        private final int length;
+        private final long sequence;
+
+        private Location(LogSegment segment, int offset, int length, long sequence) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Index of a map or set of the store.
+     */
+    private static final class Collection {
+        private final int id;
+        private final ConcurrentMap<ByteBuffer, Location> index = Maps.newConcurrentMap();
+        private String name;
+        private Location definition;
+        private long clearedSequence = -1;
+
+        private Collection(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Map view of a collection.
+     */
+    private final class LogMap extends AbstractMap<byte[], byte[]> {
+        private final Collection collection;
+
+        private LogMap(Collection collection) {
+            this.collection = collection;
+        }
+
+        @Override
+        public int size() {
+            return collection.index.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return collection.index.containsKey(ByteBuffer.wrap((byte[]) key));
+        }
+
+        @Override
+        public byte[] get(Object key) {
+            return LogStore.this.get(collection, (byte[]) key);
+        }
+
+        @Override
+        public byte[] put(byte[] key, byte[] value) {
+            return LogStore.this.put(collection, key, value, false);
+        }
+
+        @Override
+        public byte[] remove(Object key) {
+            return LogStore.this.remove(collection, (byte[]) key);
+        }
+
+        @Override
+        public void clear() {
+            LogStore.this.clear(collection);
+        }
+
+        @Override
+        public Set<Entry<byte[], byte[]>> entrySet() {
+            return new AbstractSet<Entry<byte[], byte[]>>() {
+                @Override
+                public Iterator<Entry<byte[], byte[]>> iterator() {
+                    Iterator<Entry<ByteBuffer, Location>> entries = collection.index.entrySet().iterator();
+                    return new Iterator<Entry<byte[], byte[]>>() {
+                        private ByteBuffer last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<byte[], byte[]> next() {
+                            Entry<ByteBuffer, Location> entry = entries.next();
+                            last = entry.getKey();
+                            // the index keeps the array, callers get their own copy
+                            return Maps.immutableEntry(last.array().clone(), value(entry.getValue()));
+                        }
+
+                        @Override
+                        public void remove() {
+                            // removals are logged, as are those of the map itself
+                            checkState(last != null, "No element to remove");
+                            LogStore.this.remove(collection, last.array());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return collection.index.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Set view of a collection, elements are keys with an empty value.
+     */
+    private final class LogSet extends AbstractSet<byte[]> {
+        private final Collection collection;
+
+        private LogSet(Collection collection) {
+            this.collection = collection;
+        }
+
+        @Override
+        public int size() {
+            return collection.index.size();
+        }
+
+        @Override
+        public boolean contains(Object item) {
+            return collection.index.containsKey(ByteBuffer.wrap((byte[]) item));
+        }
+
+        @Override
+        public boolean add(byte[] item) {
+            return LogStore.this.put(collection, item, EMPTY, true) == null;
+        }
+
+        @Override
+        public boolean remove(Object item) {
+            return LogStore.this.remove(collection, (byte[]) item) != null;
+        }
+
+        @Override
+        public void clear() {
+            LogStore.this.clear(collection);
+        }
+
+        @Override
+        public Iterator<byte[]> iterator() {
+            Iterator<ByteBuffer> keys = collection.index.keySet().iterator();
+            return new Iterator<byte[]>() {
+                private byte[] last;
+
+                @Override
+                public boolean hasNext() {
+                    return keys.hasNext();
+                }
+
+                @Override
+                public byte[] next() {
+                    // the index keeps the array, callers get their own copy
+                    last = keys.next().array().clone();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    checkState(last != null, "No element to remove");
+                    LogStore.this.remove(collection, last);
+                    last = null;
+                }
+            };
+        }
+    }
+}
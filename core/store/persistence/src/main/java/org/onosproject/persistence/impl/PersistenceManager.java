@@ -19,30 +19,37 @@ package org.onosproject.persistence.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.onosproject.persistence.PersistenceService;
 import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.persistence.PersistentSetBuilder;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Dictionary;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.PERSISTENCE_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Service that maintains local disk backed maps and sets.
- * This implementation automatically deletes empty structures on shutdown.
+ * The structures are kept either in a MapDB database, which deletes empty
+ * structures on shutdown, or in a memory-mapped append-only log.
  */
 @Component(immediate = true)
 @Service
@@ -53,6 +60,11 @@ public class PersistenceManager implements PersistenceService {
 
     private static final String DATABASE_PATH = "cache";
 
+    private static final String LOG_PATH = "log";
+
+    static final String MAPDB_ENGINE = "mapdb";
+    static final String LOG_ENGINE = "log";
+
     static final String MAP_PREFIX = "map:";
     static final String SET_PREFIX = "set:";
 
@@ -60,14 +72,28 @@ public class PersistenceManager implements PersistenceService {
 
     private DB localDB = null;
 
+    private LogStore logStore = null;
+
     private static final int FLUSH_FREQUENCY_MILLIS = 3000;
 
+    private static final int COMPACTION_FREQUENCY_MILLIS = 60000;
+
+    @Property(name = "engine", value = MAPDB_ENGINE,
+            label = "Storage engine of persistent maps and sets, either mapdb or log; " +
+                    "read on activation only")
+    private String engine = MAPDB_ENGINE;
+
     private Timer timer;
 
     private final CommitTask commitTask = new CommitTask();
 
+    private final CompactionTask compactionTask = new CompactionTask();
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new Properties();
+        String s = get(properties, "engine");
+        engine = isNullOrEmpty(s) ? MAPDB_ENGINE : s.trim();
         timer = new Timer();
 
         File dbFolderPath = new File(DATABASE_ROOT);
@@ -84,6 +110,10 @@ public class PersistenceManager implements PersistenceService {
                 throw new PersistenceException("Database folder could not be created.");
             }
         }
+        if (LOG_ENGINE.equals(engine)) {
+            activateLogStore(dbFolderPath.toPath().resolve(LOG_PATH));
+            return;
+        }
         //Notify if the database file does not exist.
         boolean dbFound = Files.exists(dbPath);
         if (!dbFound) {
@@ -100,9 +130,27 @@ public class PersistenceManager implements PersistenceService {
         log.info("Started");
     }
 
+    private void activateLogStore(Path logPath) {
+        log.debug("logPath: {}", logPath);
+        try {
+            logStore = new LogStore(logPath);
+        } catch (IOException e) {
+            log.error("Could not open the log store.", e);
+            throw new PersistenceException("Log store could not be opened.");
+        }
+        timer.schedule(commitTask, FLUSH_FREQUENCY_MILLIS, FLUSH_FREQUENCY_MILLIS);
+        timer.schedule(compactionTask, COMPACTION_FREQUENCY_MILLIS, COMPACTION_FREQUENCY_MILLIS);
+        log.info("Started with the log engine");
+    }
+
     @Deactivate
     public void deactivate() {
         timer.cancel();
+        if (logStore != null) {
+            logStore.close();
+            log.info("Stopped");
+            return;
+        }
         for (Map.Entry<String, Object> entry : localDB.getAll().entrySet()) {
             String key = entry.getKey();
             Object value = entry.getValue();
@@ -130,12 +178,18 @@ public class PersistenceManager implements PersistenceService {
     @Override
     public <K, V> PersistentMapBuilder<K, V> persistentMapBuilder() {
         checkPermission(PERSISTENCE_WRITE);
+        if (logStore != null) {
+            return new DefaultPersistentMapBuilder<>(logStore);
+        }
         return new DefaultPersistentMapBuilder<>(localDB);
     }
 
     @Override
     public <E> PersistentSetBuilder<E> persistentSetBuilder() {
         checkPermission(PERSISTENCE_WRITE);
+        if (logStore != null) {
+            return new DefaultPersistentSetBuilder<>(logStore);
+        }
         return new DefaultPersistentSetBuilder<>(localDB);
     }
 
@@ -143,7 +197,23 @@ public class PersistenceManager implements PersistenceService {
 
         @Override
         public void run() {
-            localDB.commit();
+            if (logStore != null) {
+                logStore.flush();
+            } else {
+                localDB.commit();
+            }
+        }
+    }
+
+    private class CompactionTask extends TimerTask {
+
+        @Override
+        public void run() {
+            try {
+                logStore.compact();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to compact the log store", e);
+            }
         }
     }
 }
\ No newline at end of file
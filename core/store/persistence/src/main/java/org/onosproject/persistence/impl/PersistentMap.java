@@ -36,23 +36,26 @@ public class PersistentMap<K, V> implements Map<K, V> {
 
     private final Serializer serializer;
 
-    private final org.mapdb.DB database;
-
     private final Map<byte[], byte[]> items;
 
-    private final String name;
-
     public PersistentMap(Serializer serializer, DB database, String name) {
-        this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
-        this.name = checkNotNull(name);
-
-        items = database
-                .createHashMap(name)
+        this(serializer, checkNotNull(database)
+                .createHashMap(checkNotNull(name))
                 .keySerializer(org.mapdb.Serializer.BYTE_ARRAY)
                 .valueSerializer(org.mapdb.Serializer.BYTE_ARRAY)
                 .hasher(Hasher.BYTE_ARRAY)
-                .makeOrGet();
+                .makeOrGet());
+    }
+
+    /**
+     * Creates a map storing its entries in serialized form in the given map.
+     *
+     * @param serializer serializer of keys and values
+     * @param items      map of serialized entries, compared by content
+     */
+    public PersistentMap(Serializer serializer, Map<byte[], byte[]> items) {
+        this.serializer = checkNotNull(serializer);
+        this.items = checkNotNull(items);
     }
 
     /**
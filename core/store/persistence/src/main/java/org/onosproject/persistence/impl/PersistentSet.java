@@ -35,22 +35,25 @@ public class PersistentSet<E> implements Set<E> {
 
     private final org.onosproject.store.service.Serializer serializer;
 
-    private final org.mapdb.DB database;
-
     private final Set<byte[]> items;
 
-    private final String name;
-
     public PersistentSet(org.onosproject.store.service.Serializer serializer, DB database, String name) {
-        this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
-        this.name = checkNotNull(name);
-
-        items = database
-                .createHashSet(name)
+        this(serializer, checkNotNull(database)
+                .createHashSet(checkNotNull(name))
                 .serializer(Serializer.BYTE_ARRAY)
                 .hasher(Hasher.BYTE_ARRAY)
-                .makeOrGet();
+                .makeOrGet());
+    }
+
+    /**
+     * Creates a set storing its elements in serialized form in the given set.
+     *
+     * @param serializer serializer of elements
+     * @param items      set of serialized elements, compared by content
+     */
+    public PersistentSet(org.onosproject.store.service.Serializer serializer, Set<byte[]> items) {
+        this.serializer = checkNotNull(serializer);
+        this.items = checkNotNull(items);
     }
 
     public void readInto(Set<E> items) {
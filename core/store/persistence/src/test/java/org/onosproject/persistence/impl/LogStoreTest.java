@@ -0,0 +1,306 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test suite for the log structured store.
+ */
+public class LogStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private Path directory;
+    private LogStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = tmpFolder.newFolder().toPath();
+        store = new LogStore(directory, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    private static byte[] bytes(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private void reopen() throws Exception {
+        store.close();
+        store = new LogStore(directory, SEGMENT_SIZE);
+    }
+
+    /**
+     * Tests reads and updates of a map.
+     */
+    @Test
+    public void testMap() {
+        Map<byte[], byte[]> map = store.map("test");
+        assertTrue(map.isEmpty());
+        assertNull(map.put(bytes(1), bytes(10)));
+        assertArrayEquals(bytes(10), map.put(bytes(1), bytes(11)));
+        assertArrayEquals(bytes(11), map.get(bytes(1)));
+        assertTrue(map.containsKey(bytes(1)));
+        assertEquals(1, map.size());
+        assertArrayEquals(bytes(11), map.remove(bytes(1)));
+        assertNull(map.get(bytes(1)));
+        assertNull(map.remove(bytes(1)));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Tests reads and updates of a set.
+     */
+    @Test
+    public void testSet() {
+        Set<byte[]> set = store.set("test");
+        assertTrue(set.add(bytes(1)));
+        assertFalse(set.add(bytes(1)));
+        assertTrue(set.add(bytes(2)));
+        assertTrue(set.contains(bytes(2)));
+        assertEquals(2, set.size());
+
+        Iterator<byte[]> iterator = set.iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(1, set.size());
+        assertTrue(set.remove(set.iterator().next()));
+        assertTrue(set.isEmpty());
+    }
+
+    /**
+     * Tests that removals through the entry iterator of a map are logged.
+     */
+    @Test
+    public void testMapIteratorRemove() throws Exception {
+        Map<byte[], byte[]> map = store.map("test");
+        for (int i = 0; i < 3; i++) {
+            map.put(bytes(i), bytes(10 + i));
+        }
+
+        Iterator<Map.Entry<byte[], byte[]>> iterator = map.entrySet().iterator();
+        byte[] removed = iterator.next().getKey();
+        iterator.remove();
+        assertEquals(2, map.size());
+        assertNull(map.get(removed));
+        byte[] kept = map.keySet().iterator().next();
+        assertTrue(map.entrySet().removeIf(e -> !Arrays.equals(e.getKey(), kept)));
+        assertEquals(1, map.size());
+
+        reopen();
+
+        map = store.map("test");
+        assertEquals(1, map.size());
+        assertNull(map.get(removed));
+        assertArrayEquals(bytes(10 + kept[3]), map.get(kept));
+    }
+
+    /**
+     * Tests that the contents of maps and sets are restored on reopening.
+     */
+    @Test
+    public void testReplay() throws Exception {
+        Map<byte[], byte[]> map = store.map("map");
+        Set<byte[]> set = store.set("set");
+        Map<byte[], byte[]> cleared = store.map("cleared");
+        // spread the records over several segments
+        for (int i = 0; i < 500; i++) {
+            map.put(bytes(i), bytes(i));
+            map.put(bytes(i), bytes(i + 1));
+            set.add(bytes(i));
+            cleared.put(bytes(i), bytes(i));
+        }
+        for (int i = 0; i < 500; i += 2) {
+            map.remove(bytes(i));
+        }
+        cleared.clear();
+        cleared.put(bytes(1), bytes(2));
+
+        reopen();
+
+        map = store.map("map");
+        assertEquals(250, map.size());
+        for (int i = 0; i < 500; i++) {
+            if (i % 2 == 0) {
+                assertNull(map.get(bytes(i)));
+            } else {
+                assertArrayEquals(bytes(i + 1), map.get(bytes(i)));
+            }
+        }
+        assertEquals(500, store.set("set").size());
+        cleared = store.map("cleared");
+        assertEquals(1, cleared.size());
+        assertArrayEquals(bytes(2), cleared.get(bytes(1)));
+    }
+
+    /**
+     * Tests that compaction reclaims the space of overwritten entries and
+     * keeps the live ones.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        Map<byte[], byte[]> map = store.map("test");
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i++) {
+                map.put(bytes(i), bytes(round));
+            }
+        }
+        map.remove(bytes(0));
+        assertTrue(store.garbageRatio() > 0.5);
+
+        store.compact();
+        assertTrue(store.garbageRatio() <= 0.5);
+        assertEquals(99, map.size());
+        assertArrayEquals(bytes(9), map.get(bytes(1)));
+
+        reopen();
+
+        map = store.map("test");
+        assertEquals(99, map.size());
+        assertNull(map.get(bytes(0)));
+        for (int i = 1; i < 100; i++) {
+            assertArrayEquals(bytes(9), map.get(bytes(i)));
+        }
+    }
+
+    /**
+     * Tests that entries moved by a compaction are accounted for when they
+     * are overwritten, so that later compactions keep reclaiming space.
+     */
+    @Test
+    public void testRecompaction() throws Exception {
+        Map<byte[], byte[]> map = store.map("test");
+        // the first half of the keys stays live in the oldest segment
+        for (int i = 0; i < 100; i++) {
+            map.put(bytes(i), bytes(0));
+        }
+        for (int round = 1; round < 10; round++) {
+            for (int i = 50; i < 100; i++) {
+                map.put(bytes(i), bytes(round));
+            }
+        }
+        store.compact();
+        assertTrue(store.garbageRatio() >= 0 && store.garbageRatio() <= 0.5);
+
+        // overwrite the moved keys
+        for (int round = 1; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                map.put(bytes(i), bytes(round));
+            }
+            assertTrue(store.garbageRatio() >= 0 && store.garbageRatio() < 1);
+        }
+        store.compact();
+        assertTrue(store.garbageRatio() >= 0 && store.garbageRatio() <= 0.5);
+
+        // 100 entries of 33 bytes, at most half of the log being garbage
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() <= 3);
+        }
+        assertEquals(100, map.size());
+        assertArrayEquals(bytes(9), map.get(bytes(1)));
+        assertArrayEquals(bytes(9), map.get(bytes(99)));
+    }
+
+    /**
+     * Tests that the keys returned by views are copies of the indexed keys.
+     */
+    @Test
+    public void testKeyCopies() {
+        Map<byte[], byte[]> map = store.map("map");
+        map.put(bytes(1), bytes(1));
+        map.entrySet().iterator().next().getKey()[0] = 1;
+        assertArrayEquals(bytes(1), map.get(bytes(1)));
+
+        Set<byte[]> set = store.set("set");
+        set.add(bytes(1));
+        set.iterator().next()[0] = 1;
+        assertTrue(set.contains(bytes(1)));
+    }
+
+    /**
+     * Tests that reopening does not leave empty segments behind.
+     */
+    @Test
+    public void testEmptySegments() throws Exception {
+        store.map("test").put(bytes(1), bytes(1));
+        reopen();
+        reopen();
+        reopen();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertArrayEquals(bytes(1), store.map("test").get(bytes(1)));
+    }
+
+    /**
+     * Tests that a corrupted record at the end of a segment is ignored.
+     */
+    @Test
+    public void testCorruptedTail() throws Exception {
+        Map<byte[], byte[]> map = store.map("test");
+        map.put(bytes(1), bytes(1));
+        map.put(bytes(2), bytes(2));
+        store.close();
+
+        // the definition of the map takes 29 bytes and each entry 33 bytes;
+        // flip the last byte of the second entry
+        try (RandomAccessFile file = new RandomAccessFile(
+                directory.resolve("segment-0000000000.log").toFile(), "rw")) {
+            file.seek(29 + 33 + 32);
+            file.write(0xff);
+        }
+        store = new LogStore(directory, SEGMENT_SIZE);
+
+        map = store.map("test");
+        assertEquals(1, map.size());
+        assertArrayEquals(bytes(1), map.get(bytes(1)));
+        map.put(bytes(3), bytes(3));
+
+        reopen();
+
+        map = store.map("test");
+        assertEquals(2, map.size());
+        assertArrayEquals(bytes(3), map.get(bytes(3)));
+    }
+}
@@ -16,9 +16,11 @@
 package org.onosproject.store.atomix.primitives.impl;
 
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.onosproject.cluster.NodeId;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -30,6 +32,7 @@ public class AntiEntropyAdvertisement<K> {
 
     private final NodeId sender;
     private final Map<K, MapValue.Digest> digest;
+    private final Set<Integer> leaves;
 
     /**
      * Creates a new anti entropy advertisement message.
@@ -41,6 +44,23 @@ public class AntiEntropyAdvertisement<K> {
                                     Map<K, MapValue.Digest> digest) {
         this.sender = checkNotNull(sender);
         this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+        this.leaves = null;
+    }
+
+    /**
+     * Creates a new anti entropy advertisement message covering only the given
+     * {@link MerkleTree} leaves.
+     *
+     * @param sender the sender's node ID
+     * @param digest for map entries in the given leaves
+     * @param leaves the leaves covered by the advertisement
+     */
+    public AntiEntropyAdvertisement(NodeId sender,
+                                    Map<K, MapValue.Digest> digest,
+                                    Set<Integer> leaves) {
+        this.sender = checkNotNull(sender);
+        this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+        this.leaves = ImmutableSet.copyOf(checkNotNull(leaves));
     }
 
     /**
@@ -61,11 +81,21 @@ public class AntiEntropyAdvertisement<K> {
         return digest;
     }
 
+    /**
+     * Returns the Merkle tree leaves covered by the advertisement.
+     *
+     * @return the covered leaves, or {@code null} if the advertisement covers the entire map
+     */
+    public Set<Integer> leaves() {
+        return leaves;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
                 .add("sender", sender)
                 .add("totalEntries", digest.size())
+                .add("leaves", leaves != null ? leaves.size() : null)
                 .toString();
     }
 }
@@ -21,12 +21,15 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import io.atomix.core.collection.impl.TranscodingAsyncDistributedCollection;
 import io.atomix.core.set.impl.TranscodingAsyncDistributedSet;
+import io.atomix.primitive.PrimitiveState;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -45,6 +48,7 @@ public class AtomixConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
     private final io.atomix.core.map.AsyncAtomicMap<K, V> atomixMap;
     private final Map<MapEventListener<K, V>, io.atomix.core.map.AtomicMapEventListener<K, V>> listenerMap =
         Maps.newIdentityHashMap();
+    private final Map<Consumer<Status>, Consumer<PrimitiveState>> statusListenerMap = Maps.newIdentityHashMap();
 
     public AtomixConsistentMap(io.atomix.core.map.AsyncAtomicMap<K, V> atomixMap) {
         this.atomixMap = atomixMap;
@@ -202,6 +206,38 @@ public class AtomixConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
         return CompletableFuture.completedFuture(null);
     }
 
+    @Override
+    public synchronized void addStatusChangeListener(Consumer<Status> listener) {
+        Consumer<PrimitiveState> stateListener = state -> listener.accept(toStatus(state));
+        if (statusListenerMap.putIfAbsent(listener, stateListener) == null) {
+            atomixMap.addStateChangeListener(stateListener);
+        }
+    }
+
+    @Override
+    public synchronized void removeStatusChangeListener(Consumer<Status> listener) {
+        Consumer<PrimitiveState> stateListener = statusListenerMap.remove(listener);
+        if (stateListener != null) {
+            atomixMap.removeStateChangeListener(stateListener);
+        }
+    }
+
+    @Override
+    public synchronized Collection<Consumer<Status>> statusChangeListeners() {
+        return ImmutableSet.copyOf(statusListenerMap.keySet());
+    }
+
+    private static Status toStatus(PrimitiveState state) {
+        switch (state) {
+            case CONNECTED:
+                return Status.ACTIVE;
+            case SUSPENDED:
+                return Status.SUSPENDED;
+            default:
+                return Status.INACTIVE;
+        }
+    }
+
     @Override
     public CompletableFuture<Version> begin(TransactionId transactionId) {
         throw new UnsupportedOperationException();
@@ -15,6 +15,9 @@
  */
 package org.onosproject.store.atomix.primitives.impl;
 
+import java.util.Set;
+
+import com.google.common.collect.Sets;
 import io.atomix.core.Atomix;
 import io.atomix.primitive.Recovery;
 import io.atomix.protocols.raft.MultiRaftProtocol;
@@ -32,10 +35,17 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
     private static final int MAX_RETRIES = 5;
     private final Atomix atomix;
     private final String group;
+    private final Set<CachingAsyncConsistentMap<?, ?>> nearCaches;
 
     public AtomixConsistentMapBuilder(Atomix atomix, String group) {
+        this(atomix, group, Sets.newConcurrentHashSet());
+    }
+
+    public AtomixConsistentMapBuilder(Atomix atomix, String group,
+                                      Set<CachingAsyncConsistentMap<?, ?>> nearCaches) {
         this.atomix = atomix;
         this.group = group;
+        this.nearCaches = nearCaches;
     }
 
     @Override
@@ -45,7 +55,7 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
 
     @Override
     public AsyncConsistentMap<K, V> buildAsyncMap() {
-        return new AtomixConsistentMap<>(atomix.<K, V>atomicMapBuilder(name())
+        AsyncConsistentMap<K, V> map = new AtomixConsistentMap<>(atomix.<K, V>atomicMapBuilder(name())
             .withRegistrationRequired()
             .withProtocol(MultiRaftProtocol.builder(group)
                 .withRecoveryStrategy(Recovery.RECOVER)
@@ -56,5 +66,8 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
             .withSerializer(new AtomixSerializerAdapter(serializer()))
             .build()
             .async());
+        return nearCacheEnabled()
+            ? new CachingAsyncConsistentMap<>(map, nearCacheSize(), nearCacheExpirationMillis(), nearCaches)
+            : map;
     }
 }
\ No newline at end of file
@@ -0,0 +1,442 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.onosproject.store.primitives.MapUpdate;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncIterator;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.NearCacheStats;
+import org.onosproject.store.service.TransactionLog;
+import org.onosproject.store.service.Version;
+import org.onosproject.store.service.Versioned;
+import org.slf4j.Logger;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * {@link AsyncConsistentMap} that serves reads from a size-bounded local cache.
+ * <p>
+ * Cached entries are versioned and kept up to date from the map event stream;
+ * an update only replaces a cached entry holding an older version, and removed
+ * keys are remembered as tombstones so that a slow read of the removed value
+ * is not cached. Events for keys that are not cached are not cached either,
+ * but prevent reads of the key in flight from caching an older version.
+ * Writes issued through this map, transactional ones included, invalidate
+ * the written keys and their reads in flight once they complete, which gives
+ * read-your-writes to the writer.
+ * <p>
+ * Events may be missed while the backing map is not active, so the cache is
+ * cleared and bypassed until the map is active again. Entries also expire a
+ * while after they were cached.
+ *
+ * @param <K> type for map key
+ * @param <V> type for map value
+ */
+public class CachingAsyncConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
+
+    private final Logger log = getLogger(getClass());
+
+    private final AsyncConsistentMap<K, V> backingMap;
+    private final Cache<K, CachedEntry<V>> cache;
+    private final MapEventListener<K, V> cacheUpdater = this::updateCache;
+    private final Consumer<Status> statusListener = this::statusChanged;
+    private final Set<CachingAsyncConsistentMap<?, ?>> registry;
+    private final Map<TransactionId, Set<K>> preparedKeys = Maps.newConcurrentMap();
+    // counts the cached entries removed or superseded
+    private final LongAdder invalidationCount = new LongAdder();
+    // reads in flight by key; updated, as is the cache, while computing the key
+    private final Map<K, List<PendingRead>> pendingReads = Maps.newConcurrentMap();
+    private volatile boolean listening;
+    private volatile boolean active = true;
+
+    /**
+     * Creates a caching map on top of the given map.
+     *
+     * @param backingMap       map to cache
+     * @param maxSize          maximum number of cached entries
+     * @param expirationMillis time after which cached entries expire
+     * @param registry         near-caches of this node, this map joins it until destroyed
+     */
+    public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int maxSize, long expirationMillis,
+                                     Set<CachingAsyncConsistentMap<?, ?>> registry) {
+        this.backingMap = backingMap;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.registry = registry;
+        registry.add(this);
+        backingMap.addStatusChangeListener(statusListener);
+        // updates are applied on the event thread, in the order they were published
+        backingMap.addListener(cacheUpdater, MoreExecutors.directExecutor())
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        listening = true;
+                    } else {
+                        log.warn("Failed to listen to {}, near-cache disabled", name(), error);
+                    }
+                });
+    }
+
+    /**
+     * Returns statistics for the near-cache of this map.
+     *
+     * @return near-cache statistics
+     */
+    public NearCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return NearCacheStats.builder()
+                .withSize(cache.size())
+                .withHitCount(stats.hitCount())
+                .withMissCount(stats.missCount())
+                .withEvictionCount(stats.evictionCount())
+                .withInvalidationCount(invalidationCount.sum())
+                .build();
+    }
+
+    private void updateCache(MapEvent<K, V> event) {
+        boolean removed = event.type() == MapEvent.Type.REMOVE;
+        CachedEntry<V> update = removed
+                ? new CachedEntry<>(null, event.oldValue().version())
+                : new CachedEntry<>(event.newValue(), event.newValue().version());
+        // reads of the key in flight may only cache a version not older than the event
+        long minVersion = removed ? update.version + 1 : update.version;
+        pendingReads.compute(event.key(), (key, reads) -> {
+            if (reads != null) {
+                reads.forEach(read -> read.minVersion = Math.max(read.minVersion, minVersion));
+            }
+            // only keys that are read are cached
+            cache.asMap().computeIfPresent(key, (k, current) -> {
+                if (!update.supersedes(current)) {
+                    return current;
+                }
+                invalidationCount.increment();
+                return update;
+            });
+            return reads;
+        });
+    }
+
+    private void statusChanged(Status status) {
+        active = status == Status.ACTIVE;
+        if (!active) {
+            // events are missed until the map is active again
+            invalidateAll();
+        }
+    }
+
+    private void cache(K key, CachedEntry<V> entry) {
+        cache.asMap().merge(key, entry, (current, update) -> update.supersedes(current) ? update : current);
+    }
+
+    private boolean caching() {
+        return listening && active;
+    }
+
+    private CachedEntry<V> cached(K key) {
+        return caching() ? cache.getIfPresent(key) : null;
+    }
+
+    private void invalidate(K key) {
+        pendingReads.compute(key, (k, reads) -> {
+            if (reads != null) {
+                reads.forEach(read -> read.invalidated = true);
+            }
+            if (cache.asMap().remove(k) != null) {
+                invalidationCount.increment();
+            }
+            return reads;
+        });
+    }
+
+    private void invalidateAll() {
+        pendingReads.replaceAll((key, reads) -> {
+            reads.forEach(read -> read.invalidated = true);
+            return reads;
+        });
+        cache.asMap().keySet().forEach(key -> {
+            if (cache.asMap().remove(key) != null) {
+                invalidationCount.increment();
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> invalidateOnWrite(K key, CompletableFuture<T> future) {
+        return future.whenComplete((result, error) -> invalidate(key));
+    }
+
+    private <T> CompletableFuture<T> invalidateOnWrite(Set<K> keys, CompletableFuture<T> future) {
+        return future.whenComplete((result, error) -> keys.forEach(this::invalidate));
+    }
+
+    private static <K, V> Set<K> keys(TransactionLog<MapUpdate<K, V>> transactionLog) {
+        return transactionLog.records().stream().map(MapUpdate::key).collect(Collectors.toSet());
+    }
+
+    @Override
+    public String name() {
+        return backingMap.name();
+    }
+
+    @Override
+    public CompletableFuture<Integer> size() {
+        return backingMap.size();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKey(K key) {
+        CachedEntry<V> entry = cached(key);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry.value != null);
+        }
+        return backingMap.containsKey(key);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsValue(V value) {
+        return backingMap.containsValue(value);
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> get(K key) {
+        CachedEntry<V> entry = cached(key);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry.value);
+        }
+        PendingRead read = new PendingRead();
+        pendingReads.compute(key, (k, reads) -> {
+            List<PendingRead> updatedReads = reads != null ? reads : new ArrayList<>();
+            updatedReads.add(read);
+            return updatedReads;
+        });
+        return backingMap.get(key).whenComplete((value, error) -> pendingReads.compute(key, (k, reads) -> {
+            // the key may have changed while the read was in flight
+            if (value != null && caching() && read.admits(value)) {
+                cache(k, new CachedEntry<>(value, value.version()));
+            }
+            reads.remove(read);
+            return reads.isEmpty() ? null : reads;
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> getOrDefault(K key, V defaultValue) {
+        CachedEntry<V> entry = cached(key);
+        if (entry != null && entry.value != null) {
+            return CompletableFuture.completedFuture(entry.value);
+        }
+        return backingMap.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> computeIf(K key,
+                                                     Predicate<? super V> condition,
+                                                     BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return invalidateOnWrite(key, backingMap.computeIf(key, condition, remappingFunction));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> put(K key, V value) {
+        return invalidateOnWrite(key, backingMap.put(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
+        return invalidateOnWrite(key, backingMap.putAndGet(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> remove(K key) {
+        return invalidateOnWrite(key, backingMap.remove(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> clear() {
+        return backingMap.clear().whenComplete((result, error) -> invalidateAll());
+    }
+
+    @Override
+    public CompletableFuture<Set<K>> keySet() {
+        return backingMap.keySet();
+    }
+
+    @Override
+    public CompletableFuture<Collection<Versioned<V>>> values() {
+        return backingMap.values();
+    }
+
+    @Override
+    public CompletableFuture<Set<Map.Entry<K, Versioned<V>>>> entrySet() {
+        return backingMap.entrySet();
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
+        return invalidateOnWrite(key, backingMap.putIfAbsent(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, V value) {
+        return invalidateOnWrite(key, backingMap.remove(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, long version) {
+        return invalidateOnWrite(key, backingMap.remove(key, version));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> replace(K key, V value) {
+        return invalidateOnWrite(key, backingMap.replace(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, V oldValue, V newValue) {
+        return invalidateOnWrite(key, backingMap.replace(key, oldValue, newValue));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue) {
+        return invalidateOnWrite(key, backingMap.replace(key, oldVersion, newValue));
+    }
+
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<K, Versioned<V>>>> iterator() {
+        return backingMap.iterator();
+    }
+
+    @Override
+    public CompletableFuture<Void> addListener(MapEventListener<K, V> listener, Executor executor) {
+        return backingMap.addListener(listener, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeListener(MapEventListener<K, V> listener) {
+        return backingMap.removeListener(listener);
+    }
+
+    @Override
+    public CompletableFuture<Version> begin(TransactionId transactionId) {
+        return backingMap.begin(transactionId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prepare(TransactionLog<MapUpdate<K, V>> transactionLog) {
+        // the keys are invalidated when the transaction is committed
+        preparedKeys.put(transactionLog.transactionId(), keys(transactionLog));
+        return backingMap.prepare(transactionLog);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prepareAndCommit(TransactionLog<MapUpdate<K, V>> transactionLog) {
+        return invalidateOnWrite(keys(transactionLog), backingMap.prepareAndCommit(transactionLog));
+    }
+
+    @Override
+    public CompletableFuture<Void> commit(TransactionId transactionId) {
+        Set<K> keys = preparedKeys.remove(transactionId);
+        CompletableFuture<Void> future = backingMap.commit(transactionId);
+        return keys != null ? invalidateOnWrite(keys, future) : future;
+    }
+
+    @Override
+    public CompletableFuture<Void> rollback(TransactionId transactionId) {
+        preparedKeys.remove(transactionId);
+        return backingMap.rollback(transactionId);
+    }
+
+    @Override
+    public void addStatusChangeListener(Consumer<Status> listener) {
+        backingMap.addStatusChangeListener(listener);
+    }
+
+    @Override
+    public void removeStatusChangeListener(Consumer<Status> listener) {
+        backingMap.removeStatusChangeListener(listener);
+    }
+
+    @Override
+    public Collection<Consumer<Status>> statusChangeListeners() {
+        return backingMap.statusChangeListeners().stream()
+                .filter(listener -> listener != statusListener)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CompletableFuture<Void> destroy() {
+        listening = false;
+        registry.remove(this);
+        backingMap.removeStatusChangeListener(statusListener);
+        cache.invalidateAll();
+        return backingMap.removeListener(cacheUpdater)
+                .thenCompose(v -> backingMap.destroy());
+    }
+
+    /**
+     * Read of a key in flight, whose value is cached only if still current.
+     */
+    private static final class PendingRead {
+        // lowest version of the key that is not stale, raised by the events of the key
+        private long minVersion = Long.MIN_VALUE;
+        // set when the key is written through this map or events may have been missed
+        private boolean invalidated;
+
+        private boolean admits(Versioned<?> value) {
+            return !invalidated && value.version() >= minVersion;
+        }
+    }
+
+    /**
+     * Cached state of a key; a {@code null} value marks a removed key.
+     */
+    private static final class CachedEntry<V> {
+        private final Versioned<V> value;
+        private final long version;
+
+        private CachedEntry(Versioned<V> value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        // a tombstone carries the version of the value it removed
+        private boolean supersedes(CachedEntry<V> other) {
+            return version > other.version || (version == other.version && value == null);
+        }
+    }
+}
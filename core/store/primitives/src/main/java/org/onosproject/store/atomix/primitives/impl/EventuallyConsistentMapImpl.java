@@ -35,6 +35,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -43,6 +44,7 @@ import java.util.stream.Collectors;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -100,6 +102,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
     private final MessageSubject updateRequestSubject;
+    private final MessageSubject merkleTreeRequestSubject;
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
     private final ExecutorService executor;
@@ -117,6 +120,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final Supplier<List<NodeId>> peersSupplier;
     private final Supplier<List<NodeId>> bootstrapPeersSupplier;
     private final NodeId localNodeId;
+    private final MerkleTree<K> merkleTree;
     private long previousTombstonePurgeTime;
     private volatile boolean destroyed = false;
     private SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_SIZE);
@@ -146,6 +150,7 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param persistenceService     persistence service
      * @param peersSupplier          supplier for peers
      * @param bootstrapPeersSupplier supplier for bootstrap peers
+     * @param merkleAntiEntropy      exchange hierarchical hash digests during anti-entropy
      */
     //CHECKSTYLE:OFF
     EventuallyConsistentMapImpl(
@@ -165,7 +170,8 @@ public class EventuallyConsistentMapImpl<K, V>
             boolean persistent,
             PersistenceService persistenceService,
             Supplier<List<NodeId>> peersSupplier,
-            Supplier<List<NodeId>> bootstrapPeersSupplier
+            Supplier<List<NodeId>> bootstrapPeersSupplier,
+            boolean merkleAntiEntropy
     ) {
         //CHECKSTYLE:ON
         this.localNodeId = localNodeId;
@@ -182,6 +188,12 @@ public class EventuallyConsistentMapImpl<K, V>
         } else {
             items = Maps.newConcurrentMap();
         }
+        if (merkleAntiEntropy) {
+            merkleTree = new MerkleTree<>();
+            items.forEach((key, value) -> updateMerkleTree(key, null, value));
+        } else {
+            merkleTree = null;
+        }
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -259,7 +271,7 @@ public class EventuallyConsistentMapImpl<K, V>
         updateMessageSubject = new MessageSubject("ecm-" + mapName + "-update");
         clusterCommunicator.addSubscriber(
                 updateMessageSubject,
-                serializer::decode,
+                serializer,
                 this::processUpdates,
                 this.executor
         );
@@ -281,6 +293,17 @@ public class EventuallyConsistentMapImpl<K, V>
                 this.backgroundExecutor
         );
 
+        merkleTreeRequestSubject = new MessageSubject("ecm-" + mapName + "-merkle-tree");
+        if (merkleTree != null) {
+            clusterCommunicator.addSubscriber(
+                    merkleTreeRequestSubject,
+                    serializer::decode,
+                    this::handleMerkleTreeRequest,
+                    serializer::encode,
+                    this.backgroundExecutor
+            );
+        }
+
         if (!tombstonesDisabled) {
             previousTombstonePurgeTime = 0;
             this.backgroundExecutor.scheduleWithFixedDelay(
@@ -313,6 +336,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
+                .register(MerkleTreeRequest.class)
                 .build(name() + "-ecmap"));
     }
 
@@ -429,6 +453,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                updateMerkleTree(k, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -457,7 +482,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                MapValue<V> copy = serializer.copy(newValue);
+                updateMerkleTree(k, mv, copy);
+                return copy;
             } else {
                 return mv;
             }
@@ -528,6 +555,7 @@ public class EventuallyConsistentMapImpl<K, V>
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                updateMerkleTree(k, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -535,6 +563,27 @@ public class EventuallyConsistentMapImpl<K, V>
         return updated.get();
     }
 
+    /**
+     * Records a change to the given key in the Merkle tree, if Merkle tree anti-entropy is enabled.
+     * <p>
+     * This method must be called while holding the lock on the key in the items map.
+     *
+     * @param key      the key that changed
+     * @param oldValue the previous value, or {@code null} if the key was absent
+     * @param newValue the new value, or {@code null} if the key was removed
+     */
+    private void updateMerkleTree(K key, MapValue<V> oldValue, MapValue<V> newValue) {
+        if (merkleTree == null || oldValue == newValue) {
+            return;
+        }
+        long keyHash = MerkleTree.keyHash(serializer.encode(key));
+        merkleTree.update(key, keyHash, entryHash(keyHash, oldValue), entryHash(keyHash, newValue));
+    }
+
+    private Long entryHash(long keyHash, MapValue<V> value) {
+        return value != null ? MerkleTree.entryHash(keyHash, serializer.encode(value.digest())) : null;
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -569,6 +618,9 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (merkleTree != null) {
+            clusterCommunicator.removeSubscriber(merkleTreeRequestSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -613,6 +665,10 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     private void sendAdvertisementToPeer(NodeId peer) {
+        if (merkleTree != null) {
+            sendMerkleAdvertisementToPeer(peer);
+            return;
+        }
         long adCreationTime = System.currentTimeMillis();
         AntiEntropyAdvertisement<K> ad = createAdvertisement();
         clusterCommunicator.sendAndReceive(ad,
@@ -630,6 +686,78 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
+    /**
+     * Runs an anti-entropy round with the given peer by comparing Merkle trees.
+     * <p>
+     * The peer's tree is compared level by level starting at the root, descending only into the subtrees whose
+     * hashes differ. An advertisement is then sent only for the entries in the divergent leaves.
+     *
+     * @param peer the peer with which to run anti-entropy
+     */
+    private void sendMerkleAdvertisementToPeer(NodeId peer) {
+        long adCreationTime = System.currentTimeMillis();
+        findDivergentLeaves(peer, 0, ImmutableSet.of(0))
+                .thenCompose(leaves -> {
+                    if (leaves == null) {
+                        return CompletableFuture.completedFuture(AntiEntropyResponse.IGNORED);
+                    } else if (leaves.isEmpty()) {
+                        return CompletableFuture.completedFuture(AntiEntropyResponse.PROCESSED);
+                    }
+                    return clusterCommunicator.<AntiEntropyAdvertisement<K>, AntiEntropyResponse>sendAndReceive(
+                            createAdvertisement(leaves),
+                            antiEntropyAdvertisementSubject,
+                            serializer::encode,
+                            serializer::decode,
+                            peer);
+                })
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send anti-entropy advertisement to {}: {}",
+                                peer, error.getMessage());
+                    } else if (result == AntiEntropyResponse.PROCESSED) {
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    }
+                });
+    }
+
+    /**
+     * Returns the leaves of the Merkle tree below the given nodes whose hashes differ from the peer's.
+     *
+     * @param peer    the peer with which to compare hashes
+     * @param level   the level of the nodes to compare
+     * @param indexes the indexes of the nodes to compare
+     * @return a future to be completed with the divergent leaves, or {@code null} if the peer ignored the request
+     */
+    private CompletableFuture<Set<Integer>> findDivergentLeaves(NodeId peer, int level, Set<Integer> indexes) {
+        return clusterCommunicator.<MerkleTreeRequest, Map<Integer, Long>>sendAndReceive(
+                new MerkleTreeRequest(level, indexes),
+                merkleTreeRequestSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .thenComposeAsync(hashes -> {
+                    if (hashes == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    Set<Integer> divergent = indexes.stream()
+                            .filter(index -> !Objects.equals(hashes.get(index), merkleTree.hash(level, index)))
+                            .collect(Collectors.toSet());
+                    if (divergent.isEmpty() || level == MerkleTree.DEPTH) {
+                        return CompletableFuture.completedFuture(divergent);
+                    }
+                    return findDivergentLeaves(peer, level + 1, divergent.stream()
+                            .flatMap(index -> MerkleTree.children(index).stream())
+                            .collect(Collectors.toSet()));
+                }, backgroundExecutor);
+    }
+
+    private Map<Integer, Long> handleMerkleTreeRequest(MerkleTreeRequest request) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        return merkleTree.hashes(request.level(), request.indexes());
+    }
+
     private void sendUpdateRequestToPeer(NodeId peer, Set<K> keys) {
         UpdateRequest<K> request = new UpdateRequest<>(localNodeId, keys);
         clusterCommunicator.unicast(request,
@@ -649,6 +777,17 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private AntiEntropyAdvertisement<K> createAdvertisement(Set<Integer> leaves) {
+        Map<K, MapValue.Digest> digest = Maps.newHashMap();
+        merkleTree.keys(leaves).forEach(key -> {
+            MapValue<V> value = items.get(key);
+            if (value != null) {
+                digest.put(key, value.digest());
+            }
+        });
+        return new AntiEntropyAdvertisement<>(localNodeId, digest, leaves);
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
@@ -671,6 +810,8 @@ public class EventuallyConsistentMapImpl<K, V>
      * 1. If peer has an old entry, updates peer.
      * 2. If peer indicates an entry is removed and has a more recent
      * timestamp than the local entry, update local state.
+     * If the ad covers only a subset of the Merkle tree leaves, only local
+     * entries in those leaves are considered.
      */
     private List<EventuallyConsistentMapEvent<K, V>> antiEntropyCheckLocalItems(
             AntiEntropyAdvertisement<K> ad) {
@@ -680,7 +821,7 @@ public class EventuallyConsistentMapImpl<K, V>
         Set<K> staleOrMissing = new HashSet<>();
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
-        items.forEach((key, localValue) -> {
+        BiConsumer<K, MapValue<V>> checkLocalItem = (key, localValue) -> {
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -699,7 +840,17 @@ public class EventuallyConsistentMapImpl<K, V>
                 // Not a tombstone and remote is newer
                 staleOrMissing.add(key);
             }
-        });
+        };
+        if (ad.leaves() == null) {
+            items.forEach(checkLocalItem);
+        } else if (merkleTree != null) {
+            merkleTree.keys(ad.leaves()).forEach(key -> {
+                MapValue<V> localValue = items.get(key);
+                if (localValue != null) {
+                    checkLocalItem.accept(key, localValue);
+                }
+            });
+        }
         // Keys missing in local map
         staleOrMissing.addAll(locallyUnknown);
         // Request updates that we missed out on
@@ -738,7 +889,13 @@ public class EventuallyConsistentMapImpl<K, V>
                 .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                 .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> items.computeIfPresent(entry.getKey(), (key, value) -> {
+            if (value.equals(entry.getValue())) {
+                updateMerkleTree(key, value, null);
+                return null;
+            }
+            return value;
+        }));
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -860,8 +1017,7 @@ public class EventuallyConsistentMapImpl<K, V>
             return clusterCommunicator.<List<UpdateEntry<K, V>>, Void>sendAndReceive(
                     ImmutableList.copyOf(updates),
                     initializeMessageSubject,
-                    serializer::encode,
-                    serializer::decode,
+                    serializer,
                     peer)
                     .whenComplete((result, error) -> {
                         if (error != null) {
@@ -914,7 +1070,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 try {
                     clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
                             updateMessageSubject,
-                            serializer::encode,
+                            serializer,
                             peer)
                             .whenComplete((result, error) -> {
                                 if (error != null) {
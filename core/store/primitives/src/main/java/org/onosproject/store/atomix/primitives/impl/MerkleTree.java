@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed-shape hash tree summarizing the contents of an eventually consistent map.
+ * <p>
+ * Keys are assigned to {@link #LEAVES} leaves by the hash of their serialized form. The hash of a leaf is the XOR of
+ * the hashes of the entries in that leaf, which allows leaves to be updated incrementally as entries change. Inner
+ * node hashes are computed on demand from their children. Two replicas with identical contents have identical trees,
+ * so peers can compare the root first and only descend into the subtrees whose hashes differ.
+ * <p>
+ * Nodes are addressed by level and index. Level {@code 0} is the root, and level {@link #DEPTH} holds the leaves.
+ * The children of node {@code i} at level {@code l} are nodes {@code i * FANOUT} through
+ * {@code (i + 1) * FANOUT - 1} at level {@code l + 1}.
+ */
+final class MerkleTree<K> {
+
+    /**
+     * Number of children of each inner node.
+     */
+    static final int FANOUT = 64;
+
+    /**
+     * Level of the leaves in the tree.
+     */
+    static final int DEPTH = 2;
+
+    /**
+     * Total number of leaves in the tree.
+     */
+    static final int LEAVES = FANOUT * FANOUT;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final AtomicLongArray leaves = new AtomicLongArray(LEAVES);
+    private final List<Set<K>> leafKeys = IntStream.range(0, LEAVES)
+            .mapToObj(i -> Sets.<K>newConcurrentHashSet())
+            .collect(Collectors.toList());
+
+    /**
+     * Returns the stable hash of a serialized key.
+     *
+     * @param key the serialized key
+     * @return the key hash
+     */
+    static long keyHash(byte[] key) {
+        return HASH.hashBytes(key).asLong();
+    }
+
+    /**
+     * Returns the stable hash of an entry.
+     *
+     * @param keyHash the hash of the entry's key
+     * @param digest  the serialized digest of the entry's value
+     * @return the entry hash
+     */
+    static long entryHash(long keyHash, byte[] digest) {
+        return HASH.newHasher()
+                .putLong(keyHash)
+                .putBytes(digest)
+                .hash()
+                .asLong();
+    }
+
+    /**
+     * Returns the leaf to which the given key hash is assigned.
+     *
+     * @param keyHash the key hash
+     * @return the leaf index
+     */
+    static int leaf(long keyHash) {
+        return (int) (keyHash & (LEAVES - 1));
+    }
+
+    /**
+     * Returns the children of the given node.
+     *
+     * @param index the index of the node
+     * @return the indexes of the node's children at the next level
+     */
+    static Set<Integer> children(int index) {
+        return IntStream.range(index * FANOUT, (index + 1) * FANOUT)
+                .boxed()
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Records a change to an entry in the tree.
+     *
+     * @param key          the entry key
+     * @param keyHash      the hash of the entry's key
+     * @param oldEntryHash the hash of the entry being replaced, or {@code null} if the key was absent
+     * @param newEntryHash the hash of the new entry, or {@code null} if the key was removed
+     */
+    void update(K key, long keyHash, Long oldEntryHash, Long newEntryHash) {
+        int leaf = leaf(keyHash);
+        long delta = (oldEntryHash != null ? oldEntryHash : 0) ^ (newEntryHash != null ? newEntryHash : 0);
+        leaves.accumulateAndGet(leaf, delta, (x, y) -> x ^ y);
+        if (newEntryHash != null) {
+            leafKeys.get(leaf).add(key);
+        } else {
+            leafKeys.get(leaf).remove(key);
+        }
+    }
+
+    /**
+     * Returns the keys assigned to the given leaves.
+     *
+     * @param leaves the leaf indexes
+     * @return the keys in the given leaves
+     */
+    Set<K> keys(Collection<Integer> leaves) {
+        ImmutableSet.Builder<K> keys = ImmutableSet.builder();
+        leaves.forEach(leaf -> keys.addAll(leafKeys.get(leaf)));
+        return keys.build();
+    }
+
+    /**
+     * Returns the hash of the given node.
+     *
+     * @param level the node level
+     * @param index the node index
+     * @return the node hash
+     */
+    long hash(int level, int index) {
+        checkArgument(level >= 0 && level <= DEPTH, "invalid level %s", level);
+        if (level == DEPTH) {
+            return leaves.get(index);
+        }
+        Hasher hasher = HASH.newHasher();
+        for (int child = index * FANOUT; child < (index + 1) * FANOUT; child++) {
+            hasher.putLong(hash(level + 1, child));
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Returns the hashes of the given nodes.
+     *
+     * @param level   the level of the nodes
+     * @param indexes the node indexes
+     * @return a map of node indexes to hashes
+     */
+    Map<Integer, Long> hashes(int level, Collection<Integer> indexes) {
+        Map<Integer, Long> hashes = Maps.newHashMap();
+        indexes.forEach(index -> hashes.put(index, hash(level, index)));
+        return hashes;
+    }
+}
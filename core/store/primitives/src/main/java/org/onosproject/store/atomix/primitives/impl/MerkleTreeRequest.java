@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Request for the hashes of a set of nodes in a peer's {@link MerkleTree}.
+ */
+final class MerkleTreeRequest {
+
+    private final int level;
+    private final Set<Integer> indexes;
+
+    /**
+     * Creates a new Merkle tree request.
+     *
+     * @param level   the level of the requested nodes
+     * @param indexes the indexes of the requested nodes
+     */
+    public MerkleTreeRequest(int level, Set<Integer> indexes) {
+        this.level = level;
+        this.indexes = ImmutableSet.copyOf(checkNotNull(indexes));
+    }
+
+    /**
+     * Returns the level of the requested nodes.
+     *
+     * @return the level of the requested nodes
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * Returns the indexes of the requested nodes.
+     *
+     * @return the indexes of the requested nodes
+     */
+    public Set<Integer> indexes() {
+        return indexes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("level", level)
+                .add("nodes", indexes.size())
+                .toString();
+    }
+
+    @SuppressWarnings("unused")
+    private MerkleTreeRequest() {
+        this.level = 0;
+        this.indexes = null;
+    }
+}
@@ -18,10 +18,12 @@ package org.onosproject.store.atomix.primitives.impl;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import io.atomix.core.Atomix;
 import io.atomix.core.counter.AtomicCounter;
 import io.atomix.core.counter.AtomicCounterType;
@@ -62,6 +64,7 @@ import org.onosproject.store.service.DocumentTreeBuilder;
 import org.onosproject.store.service.EventuallyConsistentMapBuilder;
 import org.onosproject.store.service.LeaderElectorBuilder;
 import org.onosproject.store.service.MapInfo;
+import org.onosproject.store.service.NearCacheStats;
 import org.onosproject.store.service.PartitionInfo;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageAdminService;
@@ -107,6 +110,7 @@ public class StorageManager implements StorageService, StorageAdminService {
 
     private Atomix atomix;
     private PartitionGroup group;
+    private final Set<CachingAsyncConsistentMap<?, ?>> nearCaches = Sets.newConcurrentHashSet();
 
     @Activate
     public void activate() {
@@ -170,7 +174,7 @@ public class StorageManager implements StorageService, StorageAdminService {
     @Override
     public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
         checkPermission(STORAGE_WRITE);
-        return new AtomixConsistentMapBuilder<>(atomix, group.name());
+        return new AtomixConsistentMapBuilder<>(atomix, group.name(), nearCaches);
     }
 
     @Override
@@ -341,6 +345,19 @@ public class StorageManager implements StorageService, StorageAdminService {
             }).collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue()));
     }
 
+    @Override
+    public Map<String, NearCacheStats> getNearCacheStats() {
+        // maps built more than once under the same name share one entry
+        return nearCaches.stream()
+            .collect(Collectors.toMap(map -> map.name(), map -> map.stats(), (a, b) -> NearCacheStats.builder()
+                .withSize(a.size() + b.size())
+                .withHitCount(a.hitCount() + b.hitCount())
+                .withMissCount(a.missCount() + b.missCount())
+                .withEvictionCount(a.evictionCount() + b.evictionCount())
+                .withInvalidationCount(a.invalidationCount() + b.invalidationCount())
+                .build()));
+    }
+
     @Override
     public List<PartitionInfo> getPartitionInfo() {
         return partitionAdminService.partitionInfo();
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.primitives.MapUpdate;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMapAdapter;
+import org.onosproject.store.service.DistributedPrimitive.Status;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.NearCacheStats;
+import org.onosproject.store.service.TransactionLog;
+import org.onosproject.store.service.Versioned;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the near-cache of consistent maps.
+ */
+public class CachingAsyncConsistentMapTest {
+
+    private static final String NAME = "test-map";
+
+    private TestBackingMap backingMap;
+    private Set<CachingAsyncConsistentMap<?, ?>> registry;
+    private CachingAsyncConsistentMap<String, String> map;
+
+    @Before
+    public void setUp() {
+        backingMap = new TestBackingMap();
+        registry = Sets.newConcurrentHashSet();
+        map = new CachingAsyncConsistentMap<>(backingMap, 10, 60_000, registry);
+    }
+
+    @Test
+    public void testReadsAreCached() {
+        backingMap.muted = true;
+        backingMap.put("foo", "bar").join();
+        backingMap.muted = false;
+
+        assertEquals("bar", map.get("foo").join().value());
+        assertEquals("bar", map.get("foo").join().value());
+        assertTrue(map.containsKey("foo").join());
+        assertEquals(1, backingMap.reads);
+
+        NearCacheStats stats = map.stats();
+        assertEquals(1, stats.size());
+        assertEquals(2, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(2.0 / 3, stats.hitRatio(), 0.001);
+    }
+
+    @Test
+    public void testEventsUpdateCachedKeys() {
+        backingMap.put("foo", "bar").join();
+        Versioned<String> first = map.get("foo").join();
+        assertEquals(1, backingMap.reads);
+
+        backingMap.put("foo", "baz").join();
+        assertEquals("baz", map.get("foo").join().value());
+
+        // an event older than the cached entry is ignored
+        backingMap.publish(new MapEvent<>(NAME, "foo", first, null));
+        assertEquals("baz", map.get("foo").join().value());
+
+        backingMap.remove("foo").join();
+        assertNull(map.get("foo").join());
+        assertFalse(map.containsKey("foo").join());
+        assertEquals(1, backingMap.reads);
+
+        // keys that were not read are not cached from events
+        backingMap.put("bar", "baz").join();
+        assertEquals(1, map.stats().size());
+        assertEquals("baz", map.get("bar").join().value());
+        assertEquals(2, backingMap.reads);
+    }
+
+    @Test
+    public void testReadYourWrites() {
+        backingMap.put("foo", "bar").join();
+        map.get("foo").join();
+
+        // the backing map of this test does not publish events for writes issued through the cache
+        backingMap.muted = true;
+        map.put("foo", "baz").join();
+        assertEquals("baz", map.get("foo").join().value());
+        assertEquals(2, backingMap.reads);
+    }
+
+    @Test
+    public void testTransactionalWritesInvalidate() {
+        backingMap.put("foo", "bar").join();
+        map.get("foo").join();
+
+        backingMap.muted = true;
+        TransactionLog<MapUpdate<String, String>> transactionLog = new TransactionLog<>(
+                TransactionId.from("tx"), 1, ImmutableList.of(MapUpdate.<String, String>newBuilder()
+                        .withType(MapUpdate.Type.PUT_IF_VERSION_MATCH)
+                        .withKey("foo")
+                        .withValue("baz")
+                        .withVersion(1)
+                        .build()));
+        assertTrue(map.prepare(transactionLog).join());
+        map.get("foo").join();
+        assertEquals(1, backingMap.reads);
+
+        map.commit(TransactionId.from("tx")).join();
+        assertEquals("baz", map.get("foo").join().value());
+        assertEquals(2, backingMap.reads);
+    }
+
+    @Test
+    public void testInactiveMapIsNotCached() {
+        backingMap.put("foo", "bar").join();
+        map.get("foo").join();
+
+        backingMap.setStatus(Status.SUSPENDED);
+        assertEquals(0, map.stats().size());
+        map.get("foo").join();
+        map.get("foo").join();
+        assertEquals(3, backingMap.reads);
+
+        backingMap.setStatus(Status.ACTIVE);
+        map.get("foo").join();
+        map.get("foo").join();
+        assertEquals(4, backingMap.reads);
+    }
+
+    @Test
+    public void testStaleReadsAreNotCached() {
+        backingMap.put("foo", "bar").join();
+        backingMap.deferReads = true;
+        CompletableFuture<Versioned<String>> read = map.get("foo");
+
+        // an update while the read is in flight makes the value read stale
+        backingMap.put("foo", "baz").join();
+        backingMap.completeReads();
+        assertEquals("bar", read.join().value());
+        backingMap.deferReads = false;
+        assertEquals("baz", map.get("foo").join().value());
+        assertEquals(2, backingMap.reads);
+
+        // a removal while the read is in flight
+        backingMap.put("bar", "foo").join();
+        backingMap.deferReads = true;
+        read = map.get("bar");
+        backingMap.remove("bar").join();
+        backingMap.completeReads();
+        backingMap.deferReads = false;
+        assertEquals("foo", read.join().value());
+        assertNull(map.get("bar").join());
+        assertEquals(4, backingMap.reads);
+    }
+
+    @Test
+    public void testUpdatesOfOtherKeysDoNotDiscardReads() {
+        backingMap.put("foo", "bar").join();
+        backingMap.deferReads = true;
+        CompletableFuture<Versioned<String>> read = map.get("foo");
+
+        backingMap.put("bar", "baz").join();
+        map.put("baz", "foo").join();
+        backingMap.completeReads();
+        backingMap.deferReads = false;
+        assertEquals("bar", read.join().value());
+        assertEquals("bar", map.get("foo").join().value());
+        assertEquals(1, backingMap.reads);
+    }
+
+    @Test
+    public void testInvalidationCount() {
+        // writes and events of keys that are not cached invalidate nothing
+        map.put("foo", "bar").join();
+        backingMap.put("bar", "baz").join();
+        assertEquals(0, map.stats().invalidationCount());
+
+        map.get("foo").join();
+        map.get("bar").join();
+        backingMap.put("foo", "baz").join();
+        assertEquals(1, map.stats().invalidationCount());
+
+        backingMap.muted = true;
+        map.put("bar", "foo").join();
+        assertEquals(2, map.stats().invalidationCount());
+
+        backingMap.setStatus(Status.SUSPENDED);
+        assertEquals(3, map.stats().invalidationCount());
+        assertEquals(0, map.stats().size());
+    }
+
+    @Test
+    public void testDestroy() {
+        assertTrue(registry.contains(map));
+        map.destroy().join();
+        assertFalse(registry.contains(map));
+        assertNull(backingMap.listener);
+        assertNull(backingMap.statusListener);
+    }
+
+    /**
+     * In-memory backing map publishing events for its updates.
+     */
+    private static class TestBackingMap extends AsyncConsistentMapAdapter<String, String> {
+        private final Map<String, Versioned<String>> entries = Maps.newHashMap();
+        private MapEventListener<String, String> listener;
+        private Consumer<Status> statusListener;
+        private TransactionLog<MapUpdate<String, String>> preparedLog;
+        private long version;
+        private int reads;
+        private boolean muted;
+        private boolean deferReads;
+        private final List<Runnable> deferredReads = Lists.newArrayList();
+
+        // completes the deferred reads with the values read when they were issued
+        void completeReads() {
+            deferredReads.forEach(Runnable::run);
+            deferredReads.clear();
+        }
+
+        void publish(MapEvent<String, String> event) {
+            if (listener != null && !muted) {
+                listener.event(event);
+            }
+        }
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> get(String key) {
+            reads++;
+            if (!deferReads) {
+                return CompletableFuture.completedFuture(entries.get(key));
+            }
+            Versioned<String> value = entries.get(key);
+            CompletableFuture<Versioned<String>> future = new CompletableFuture<>();
+            deferredReads.add(() -> future.complete(value));
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> containsKey(String key) {
+            reads++;
+            return CompletableFuture.completedFuture(entries.containsKey(key));
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> put(String key, String value) {
+            Versioned<String> newValue = new Versioned<>(value, ++version);
+            Versioned<String> oldValue = entries.put(key, newValue);
+            publish(new MapEvent<>(NAME, key, newValue, oldValue));
+            return CompletableFuture.completedFuture(oldValue);
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> remove(String key) {
+            Versioned<String> oldValue = entries.remove(key);
+            publish(new MapEvent<>(NAME, key, null, oldValue));
+            return CompletableFuture.completedFuture(oldValue);
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<String, String> listener, Executor executor) {
+            this.listener = listener;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> removeListener(MapEventListener<String, String> listener) {
+            this.listener = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        void setStatus(Status status) {
+            if (statusListener != null) {
+                statusListener.accept(status);
+            }
+        }
+
+        @Override
+        public void addStatusChangeListener(Consumer<Status> listener) {
+            this.statusListener = listener;
+        }
+
+        @Override
+        public void removeStatusChangeListener(Consumer<Status> listener) {
+            this.statusListener = null;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepare(TransactionLog<MapUpdate<String, String>> transactionLog) {
+            preparedLog = transactionLog;
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public CompletableFuture<Void> commit(TransactionId transactionId) {
+            preparedLog.records().forEach(update -> put(update.key(), update.value()));
+            preparedLog = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> destroy() {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -68,6 +68,7 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.EventuallyConsistentMapListener;
+import org.onosproject.store.service.Serializer;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -127,7 +128,7 @@ public class EventuallyConsistentMapImplTest {
                 anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
-                anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
+                anyObject(Serializer.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
         clusterCommunicator.<Object, Object>addSubscriber(anyObject(MessageSubject.class),
                                                           anyObject(Function.class),
@@ -765,6 +766,13 @@ public class EventuallyConsistentMapImplTest {
                     anyObject(NodeId.class)))
                 .andReturn(CompletableFuture.completedFuture(null))
                 .anyTimes();
+        expect(clusterCommunicator.<T>unicast(
+                    anyObject(),
+                    anyObject(MessageSubject.class),
+                    anyObject(Serializer.class),
+                    anyObject(NodeId.class)))
+                .andReturn(CompletableFuture.completedFuture(null))
+                .anyTimes();
         replay(clusterCommunicator);
     }
 
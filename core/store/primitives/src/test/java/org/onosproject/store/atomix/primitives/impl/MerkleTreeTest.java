@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MerkleTree}.
+ */
+public class MerkleTreeTest {
+
+    private static long keyHash(String key) {
+        return MerkleTree.keyHash(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long entryHash(String key, long version) {
+        return MerkleTree.entryHash(keyHash(key), Long.toString(version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void put(MerkleTree<String> tree, String key, Long oldVersion, long newVersion) {
+        tree.update(key, keyHash(key),
+                oldVersion != null ? entryHash(key, oldVersion) : null,
+                entryHash(key, newVersion));
+    }
+
+    /**
+     * Tests that trees with the same entries have the same root regardless of update order.
+     */
+    @Test
+    public void testSameContents() {
+        MerkleTree<String> tree1 = new MerkleTree<>();
+        MerkleTree<String> tree2 = new MerkleTree<>();
+
+        put(tree1, "foo", null, 1);
+        put(tree1, "bar", null, 1);
+        put(tree1, "foo", 1L, 2);
+
+        put(tree2, "bar", null, 1);
+        put(tree2, "foo", null, 2);
+
+        assertEquals(tree1.hash(0, 0), tree2.hash(0, 0));
+    }
+
+    /**
+     * Tests that a divergent entry is isolated to a single leaf.
+     */
+    @Test
+    public void testDivergentLeaf() {
+        MerkleTree<String> tree1 = new MerkleTree<>();
+        MerkleTree<String> tree2 = new MerkleTree<>();
+        for (int i = 0; i < 1000; i++) {
+            put(tree1, "key" + i, null, 1);
+            put(tree2, "key" + i, null, 1);
+        }
+        put(tree2, "key42", 1L, 2);
+        assertNotEquals(tree1.hash(0, 0), tree2.hash(0, 0));
+
+        int leaf = MerkleTree.leaf(keyHash("key42"));
+        int parent = leaf / MerkleTree.FANOUT;
+        for (int index = 0; index < MerkleTree.FANOUT; index++) {
+            assertEquals(index == parent, tree1.hash(1, index) != tree2.hash(1, index));
+        }
+        for (int index : MerkleTree.children(parent)) {
+            assertEquals(index == leaf, tree1.hash(2, index) != tree2.hash(2, index));
+        }
+        assertTrue(tree2.keys(ImmutableSet.of(leaf)).contains("key42"));
+    }
+
+    /**
+     * Tests that removing all entries restores the empty tree.
+     */
+    @Test
+    public void testRemove() {
+        MerkleTree<String> empty = new MerkleTree<>();
+        MerkleTree<String> tree = new MerkleTree<>();
+        put(tree, "foo", null, 1);
+        tree.update("foo", keyHash("foo"), entryHash("foo", 1), null);
+        assertEquals(empty.hash(0, 0), tree.hash(0, 0));
+        assertTrue(tree.keys(ImmutableSet.of(MerkleTree.leaf(keyHash("foo")))).isEmpty());
+    }
+}
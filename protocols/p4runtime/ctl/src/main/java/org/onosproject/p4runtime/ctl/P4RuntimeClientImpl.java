@@ -17,9 +17,11 @@
 package org.onosproject.p4runtime.ctl;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Context;
@@ -47,6 +49,7 @@ import org.onosproject.net.pi.runtime.PiMeterCellId;
 import org.onosproject.net.pi.runtime.PiMulticastGroupEntry;
 import org.onosproject.net.pi.runtime.PiPacketOperation;
 import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 import org.onosproject.net.pi.service.PiPipeconfService;
 import org.onosproject.p4runtime.api.P4RuntimeClient;
 import org.onosproject.p4runtime.api.P4RuntimeEvent;
@@ -71,20 +74,24 @@ import p4.v1.P4RuntimeOuterClass.TableEntry;
 import p4.v1.P4RuntimeOuterClass.Uint128;
 import p4.v1.P4RuntimeOuterClass.Update;
 import p4.v1.P4RuntimeOuterClass.WriteRequest;
+import p4.v1.P4RuntimeOuterClass.WriteResponse;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -113,6 +120,9 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     // Timeout in seconds to obtain the request lock.
     private static final int LOCK_TIMEOUT = 60;
 
+    // Deadline in seconds of table entry write requests.
+    private static final int WRITE_DEADLINE = 30;
+
     private static final Map<WriteOperationType, Update.Type> UPDATE_TYPES = ImmutableMap.of(
             WriteOperationType.UNSPECIFIED, Update.Type.UNSPECIFIED,
             WriteOperationType.INSERT, Update.Type.INSERT,
@@ -130,12 +140,14 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     private final long p4DeviceId;
     private final P4RuntimeControllerImpl controller;
     private final P4RuntimeGrpc.P4RuntimeBlockingStub blockingStub;
+    private final P4RuntimeGrpc.P4RuntimeStub asyncStub;
+    private final TableEntryWriter tableEntryWriter;
     private final ExecutorService executorService;
     private final Executor contextExecutor;
     private final StreamObserver<StreamMessageRequest> streamRequestObserver;
 
     // Used by this client for write requests.
-    private Uint128 clientElectionId = Uint128.newBuilder().setLow(1).build();
+    private volatile Uint128 clientElectionId = Uint128.newBuilder().setLow(1).build();
 
     /**
      * Default constructor.
@@ -147,6 +159,24 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
      */
     P4RuntimeClientImpl(DeviceId deviceId, long p4DeviceId, ManagedChannel channel,
                         P4RuntimeControllerImpl controller) {
+        this(deviceId, p4DeviceId, channel, controller,
+             P4RuntimeControllerImpl.DEFAULT_MAX_IN_FLIGHT_WRITES,
+             P4RuntimeControllerImpl.DEFAULT_MAX_WRITE_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a client which pipelines table entry writes to the device.
+     *
+     * @param deviceId          the ONOS device id
+     * @param p4DeviceId        the P4 device id
+     * @param channel           gRPC channel
+     * @param controller        runtime client controller
+     * @param maxInFlightWrites maximum number of table entry write requests in flight
+     * @param maxWriteBatchSize maximum number of table entry updates per write request
+     */
+    P4RuntimeClientImpl(DeviceId deviceId, long p4DeviceId, ManagedChannel channel,
+                        P4RuntimeControllerImpl controller,
+                        int maxInFlightWrites, int maxWriteBatchSize) {
         this.deviceId = deviceId;
         this.p4DeviceId = p4DeviceId;
         this.controller = controller;
@@ -155,6 +185,8 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
         this.contextExecutor = this.cancellableContext.fixedContextExecutor(executorService);
         //TODO Investigate use of stub deadlines instead of timeout in supplyInContext
         this.blockingStub = P4RuntimeGrpc.newBlockingStub(channel);
+        this.asyncStub = P4RuntimeGrpc.newStub(channel);
+        this.tableEntryWriter = new TableEntryWriter(maxInFlightWrites, maxWriteBatchSize);
         this.streamRequestObserver = P4RuntimeGrpc.newStub(channel)
                 .streamChannel(new StreamChannelResponseObserver());
     }
@@ -231,8 +263,8 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     @Override
     public CompletableFuture<Boolean> writeTableEntries(Collection<PiTableEntry> piTableEntries,
                                                         WriteOperationType opType, PiPipeconf pipeconf) {
-        return supplyInContext(() -> doWriteTableEntries(piTableEntries, opType, pipeconf),
-                               "writeTableEntries-" + opType.name());
+        // Table entry writes are pipelined; each write request is issued under the request lock.
+        return tableEntryWriter.write(piTableEntries, opType, pipeconf);
     }
 
     @Override
@@ -412,33 +444,6 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
         }
     }
 
-    private boolean doWriteTableEntries(Collection<PiTableEntry> piTableEntries, WriteOperationType opType,
-                                        PiPipeconf pipeconf) {
-        if (piTableEntries.size() == 0) {
-            return true;
-        }
-
-        Collection<Update> updateMsgs;
-        try {
-            updateMsgs = TableEntryEncoder.encode(piTableEntries, pipeconf)
-                    .stream()
-                    .map(tableEntryMsg ->
-                                 Update.newBuilder()
-                                         .setEntity(Entity.newBuilder()
-                                                            .setTableEntry(tableEntryMsg)
-                                                            .build())
-                                         .setType(UPDATE_TYPES.get(opType))
-                                         .build())
-                    .collect(Collectors.toList());
-        } catch (EncodeException e) {
-            log.error("Unable to encode table entries, aborting {} operation: {}",
-                      opType.name(), e.getMessage());
-            return false;
-        }
-
-        return write(updateMsgs, piTableEntries, opType, "table entry");
-    }
-
     private Collection<PiTableEntry> doDumpTable(PiTableId piTableId, PiPipeconf pipeconf) {
 
         log.debug("Dumping table {} from {} (pipeconf {})...", piTableId, deviceId, pipeconf.id());
@@ -966,6 +971,12 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
         if (errors == null || errors.isEmpty()) {
             return;
         }
+        logWriteErrors(writeEntities, errors, opType, entryType);
+    }
+
+    private <E extends PiEntity> void logWriteErrors(
+            Collection<E> writeEntities, List<P4RuntimeOuterClass.Error> errors,
+            WriteOperationType opType, String entryType) {
 
         // FIXME: we are assuming entities is an ordered collection, e.g. a list,
         // and that errors are reported in the same order as the corresponding
@@ -1091,6 +1102,249 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
                         .array());
     }
 
+    /**
+     * Pipelines table entry writes to the device.
+     * <p>
+     * Up to a configured number of write requests are kept in flight, issued
+     * on the asynchronous stub with a deadline. Like the other requests of the
+     * client, a write request is issued under the request lock, but the lock
+     * is not held while waiting for the response. Writes waiting to be issued
+     * are coalesced into one write request up to a configured number of
+     * updates. Writes are taken in submission order and a write is held back
+     * while another write of any of its entries is in flight, as the device
+     * may apply the updates of a request in any order; this preserves the
+     * order of the updates to each table entry.
+     * <p>
+     * Writes waiting to be issued are bounded to as many updates as the
+     * requests in flight can hold; when there is no room, the caller waits up
+     * to the write deadline for room before the write fails.
+     */
+    private final class TableEntryWriter {
+
+        private final int maxInFlight;
+        private final int maxBatchSize;
+        private final int maxPendingUpdates;
+        private final Queue<PendingWrite> pendingWrites = new ArrayDeque<>();
+        private final Set<PiTableEntryHandle> inFlightEntries = Sets.newHashSet();
+        private int pendingUpdates;
+        private int inFlight;
+
+        private TableEntryWriter(int maxInFlight, int maxBatchSize) {
+            this.maxInFlight = maxInFlight;
+            this.maxBatchSize = maxBatchSize;
+            this.maxPendingUpdates = maxInFlight * maxBatchSize;
+        }
+
+        CompletableFuture<Boolean> write(Collection<PiTableEntry> piTableEntries,
+                                         WriteOperationType opType, PiPipeconf pipeconf) {
+            if (piTableEntries.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+
+            // Updates must be in the same order as the entries to reconcile errors.
+            List<PiTableEntry> entries = ImmutableList.copyOf(piTableEntries);
+            List<Update> updates;
+            try {
+                updates = TableEntryEncoder.encode(entries, pipeconf)
+                        .stream()
+                        .map(tableEntryMsg ->
+                                     Update.newBuilder()
+                                             .setEntity(Entity.newBuilder()
+                                                                .setTableEntry(tableEntryMsg)
+                                                                .build())
+                                             .setType(UPDATE_TYPES.get(opType))
+                                             .build())
+                        .collect(Collectors.toList());
+            } catch (EncodeException e) {
+                log.error("Unable to encode table entries, aborting {} operation: {}",
+                          opType.name(), e.getMessage());
+                return CompletableFuture.completedFuture(false);
+            }
+
+            PendingWrite write = new PendingWrite(entries, updates, opType);
+            try {
+                if (!enqueue(write)) {
+                    log.warn("Unable to {} {} table entry(s) on {}: too many pending writes",
+                             opType.name(), entries.size(), deviceId);
+                    return CompletableFuture.completedFuture(false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting to {} {} table entry(s) on {}",
+                         opType.name(), entries.size(), deviceId);
+                return CompletableFuture.completedFuture(false);
+            }
+            dispatch();
+            return write.future;
+        }
+
+        // Queues the write, waiting up to the write deadline for room. A write
+        // larger than the bound is accepted when no other write is waiting.
+        private synchronized boolean enqueue(PendingWrite write) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WRITE_DEADLINE);
+            while (pendingUpdates > 0 && pendingUpdates + write.updates.size() > maxPendingUpdates) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            pendingWrites.add(write);
+            pendingUpdates += write.updates.size();
+            return true;
+        }
+
+        private void dispatch() {
+            List<List<PendingWrite>> batches = Lists.newArrayList();
+            synchronized (this) {
+                while (inFlight < maxInFlight) {
+                    List<PendingWrite> batch = nextBatch();
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    inFlight++;
+                    batches.add(batch);
+                }
+            }
+            batches.forEach(this::send);
+        }
+
+        // Takes the writes at the head of the queue that can be issued
+        // together, marking their entries as in flight.
+        private List<PendingWrite> nextBatch() {
+            List<PendingWrite> batch = Lists.newArrayList();
+            Set<PiTableEntryHandle> batchEntries = Sets.newHashSet();
+            int size = 0;
+            PendingWrite write;
+            while ((write = pendingWrites.peek()) != null) {
+                if (!batch.isEmpty() && size + write.updates.size() > maxBatchSize) {
+                    break;
+                }
+                if (write.handles.stream().anyMatch(
+                        h -> inFlightEntries.contains(h) || batchEntries.contains(h))) {
+                    break;
+                }
+                pendingWrites.remove();
+                batch.add(write);
+                batchEntries.addAll(write.handles);
+                size += write.updates.size();
+            }
+            if (size > 0) {
+                pendingUpdates -= size;
+                notifyAll();
+            }
+            inFlightEntries.addAll(batchEntries);
+            return batch;
+        }
+
+        private void send(List<PendingWrite> batch) {
+            List<Update> updates = batch.stream()
+                    .flatMap(write -> write.updates.stream())
+                    .collect(Collectors.toList());
+            try {
+                // Issued in the client context so that shutdown cancels the RPC.
+                supplyInContext(() -> {
+                    asyncStub.withDeadlineAfter(WRITE_DEADLINE, TimeUnit.SECONDS)
+                            .write(writeRequest(updates), new StreamObserver<WriteResponse>() {
+                                @Override
+                                public void onNext(WriteResponse response) {
+                                }
+
+                                @Override
+                                public void onError(Throwable throwable) {
+                                    complete(batch, throwable);
+                                }
+
+                                @Override
+                                public void onCompleted() {
+                                    complete(batch, null);
+                                }
+                            });
+                    return null;
+                }, "writeTableEntries").exceptionally(ex -> {
+                    complete(batch, ex);
+                    return null;
+                });
+            } catch (RejectedExecutionException ex) {
+                // The client has been shut down.
+                complete(batch, ex);
+            }
+        }
+
+        private void complete(List<PendingWrite> batch, Throwable error) {
+            synchronized (this) {
+                batch.forEach(write -> inFlightEntries.removeAll(write.handles));
+                inFlight--;
+            }
+            if (error == null) {
+                batch.forEach(write -> write.future.complete(true));
+            } else {
+                fail(batch, Status.fromThrowable(error).asRuntimeException());
+            }
+            dispatch();
+        }
+
+        private void fail(List<PendingWrite> batch, StatusRuntimeException ex) {
+            checkGrpcException(ex);
+
+            List<P4RuntimeOuterClass.Error> errors;
+            try {
+                errors = extractWriteErrorDetails(ex);
+            } catch (InvalidProtocolBufferException e) {
+                errors = Collections.emptyList();
+            }
+            int size = batch.stream().mapToInt(write -> write.updates.size()).sum();
+            if (errors.size() != size) {
+                // Unable to tell which of the coalesced writes failed.
+                batch.forEach(write -> {
+                    log.warn("Unable to {} {} table entry(s) on {}: {}",
+                             write.opType.name(), write.entries.size(), deviceId,
+                             ex.getStatus());
+                    write.future.complete(false);
+                });
+                return;
+            }
+
+            int offset = 0;
+            for (PendingWrite write : batch) {
+                List<P4RuntimeOuterClass.Error> writeErrors =
+                        errors.subList(offset, offset + write.updates.size());
+                offset += write.updates.size();
+                boolean failed = writeErrors.stream()
+                        .anyMatch(err -> err.getCanonicalCode() != Status.OK.getCode().value());
+                if (failed) {
+                    log.warn("Unable to {} {} table entry(s) on {}: {}",
+                             write.opType.name(), write.entries.size(), deviceId,
+                             ex.getStatus().getCode().name());
+                    logWriteErrors(write.entries, writeErrors, write.opType, "table entry");
+                }
+                write.future.complete(!failed);
+            }
+        }
+    }
+
+    /**
+     * Table entry write waiting to be completed.
+     */
+    private final class PendingWrite {
+
+        private final List<PiTableEntry> entries;
+        private final List<Update> updates;
+        private final WriteOperationType opType;
+        private final Set<PiTableEntryHandle> handles;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private PendingWrite(List<PiTableEntry> entries, List<Update> updates,
+                             WriteOperationType opType) {
+            this.entries = entries;
+            this.updates = updates;
+            this.opType = opType;
+            this.handles = entries.stream()
+                    .map(entry -> PiTableEntryHandle.of(deviceId, entry))
+                    .collect(Collectors.toSet());
+        }
+    }
+
     /**
      * Handles messages received from the device on the stream channel.
      */
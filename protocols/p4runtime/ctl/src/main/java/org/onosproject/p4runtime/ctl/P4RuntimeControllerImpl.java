@@ -26,9 +26,13 @@ import io.grpc.netty.NettyChannelBuilder;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.grpc.api.GrpcChannelId;
 import org.onosproject.grpc.api.GrpcController;
@@ -40,10 +44,12 @@ import org.onosproject.p4runtime.api.P4RuntimeController;
 import org.onosproject.p4runtime.api.P4RuntimeEvent;
 import org.onosproject.p4runtime.api.P4RuntimeEventListener;
 import org.onosproject.store.service.StorageService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
@@ -64,6 +70,9 @@ public class P4RuntimeControllerImpl
         extends AbstractListenerManager<P4RuntimeEvent, P4RuntimeEventListener>
         implements P4RuntimeController {
 
+    static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 4;
+    static final int DEFAULT_MAX_WRITE_BATCH_SIZE = 1000;
+
     private final Logger log = getLogger(getClass());
     private final NameResolverProvider nameResolverProvider = new DnsNameResolverProvider();
 
@@ -82,16 +91,49 @@ public class P4RuntimeControllerImpl
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    @Property(name = "maxInFlightWrites", intValue = DEFAULT_MAX_IN_FLIGHT_WRITES,
+            label = "Maximum number of table entry write requests in flight to each device")
+    private int maxInFlightWrites = DEFAULT_MAX_IN_FLIGHT_WRITES;
+
+    @Property(name = "maxWriteBatchSize", intValue = DEFAULT_MAX_WRITE_BATCH_SIZE,
+            label = "Maximum number of table entry updates coalesced into one write request")
+    private int maxWriteBatchSize = DEFAULT_MAX_WRITE_BATCH_SIZE;
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
         eventDispatcher.addSink(P4RuntimeEvent.class, listenerRegistry);
         electionIdGenerator = new DistributedElectionIdGenerator(storageService);
         log.info("Started");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        Integer newMaxInFlightWrites = Tools.getIntegerProperty(properties, "maxInFlightWrites");
+        if (newMaxInFlightWrites != null && newMaxInFlightWrites > 0) {
+            maxInFlightWrites = newMaxInFlightWrites;
+        }
+        Integer newMaxWriteBatchSize = Tools.getIntegerProperty(properties, "maxWriteBatchSize");
+        if (newMaxWriteBatchSize != null && newMaxWriteBatchSize > 0) {
+            maxWriteBatchSize = newMaxWriteBatchSize;
+        }
+        log.info("Settings: maxInFlightWrites={}, maxWriteBatchSize={} (applied to new clients)",
+                 maxInFlightWrites, maxWriteBatchSize);
+    }
+
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         clientKeys.keySet().forEach(this::removeClient);
         clientKeys.clear();
         clients.clear();
@@ -154,7 +196,8 @@ public class P4RuntimeControllerImpl
         }
 
         P4RuntimeClient client = new P4RuntimeClientImpl(
-                clientKey.deviceId(), clientKey.p4DeviceId(), channel, this);
+                clientKey.deviceId(), clientKey.p4DeviceId(), channel, this,
+                maxInFlightWrites, maxWriteBatchSize);
 
         clientKeys.put(clientKey.deviceId(), clientKey);
         clients.put(clientKey, client);
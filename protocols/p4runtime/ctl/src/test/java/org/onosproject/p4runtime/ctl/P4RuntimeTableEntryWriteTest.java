@@ -0,0 +1,269 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.DefaultPiPipeconf;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiActionParamId;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiActionParam;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTernaryFieldMatch;
+import p4.v1.P4RuntimeGrpc;
+import p4.v1.P4RuntimeOuterClass.Update;
+import p4.v1.P4RuntimeOuterClass.WriteRequest;
+import p4.v1.P4RuntimeOuterClass.WriteResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.niceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.util.ImmutableByteSequence.copyFrom;
+import static org.onlab.util.ImmutableByteSequence.ofOnes;
+import static org.onlab.util.ImmutableByteSequence.ofZeros;
+import static org.onosproject.net.pi.model.PiPipeconf.ExtensionType.P4_INFO_TEXT;
+import static org.onosproject.p4runtime.api.P4RuntimeClient.WriteOperationType.DELETE;
+import static org.onosproject.p4runtime.api.P4RuntimeClient.WriteOperationType.INSERT;
+import static org.onosproject.p4runtime.api.P4RuntimeClient.WriteOperationType.MODIFY;
+
+/**
+ * Tests for the pipelined table entry writes of the P4Runtime client.
+ */
+public class P4RuntimeTableEntryWriteTest {
+    private static final String GRPC_SERVER_NAME = "P4RuntimeTableEntryWriteTest";
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:p4runtime:1");
+    private static final int P4_DEVICE_ID = 1;
+    private static final int MAX_IN_FLIGHT_WRITES = 2;
+    private static final int MAX_WRITE_BATCH_SIZE = 100;
+    private static final long DEFAULT_TIMEOUT_TIME = 10;
+
+    private static final PiPipeconf PIPECONF = DefaultPiPipeconf.builder()
+            .withId(new PiPipeconfId("p4runtime-mock-pipeconf"))
+            .withPipelineModel(EasyMock.niceMock(PiPipelineModel.class))
+            .addExtension(P4_INFO_TEXT, P4RuntimeTableEntryWriteTest.class.getResource("/test.p4info"))
+            .build();
+
+    private static final PiTableEntry ENTRY_A = entry((short) 1);
+    private static final PiTableEntry ENTRY_B = entry((short) 2);
+    private static final PiTableEntry ENTRY_C = entry((short) 3);
+
+    private final HoldingP4RuntimeServer serverImpl = new HoldingP4RuntimeServer();
+    private Server grpcServer;
+    private ManagedChannel grpcChannel;
+    private P4RuntimeClientImpl client;
+
+    private static PiTableEntry entry(short ethType) {
+        return PiTableEntry.builder()
+                .forTable(PiTableId.of("table0"))
+                .withMatchKey(PiMatchKey.builder()
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              PiMatchFieldId.of("hdr.ethernet.dstAddr"),
+                                              ofZeros(6), ofOnes(6)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              PiMatchFieldId.of("hdr.ethernet.srcAddr"),
+                                              ofZeros(6), ofOnes(6)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              PiMatchFieldId.of("standard_metadata.ingress_port"),
+                                              copyFrom((short) 1), ofOnes(2)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              PiMatchFieldId.of("hdr.ethernet.etherType"),
+                                              copyFrom(ethType), ofOnes(2)))
+                                      .build())
+                .withAction(PiAction.builder()
+                                    .withId(PiActionId.of("set_egress_port"))
+                                    .withParameter(new PiActionParam(PiActionParamId.of("port"),
+                                                                     copyFrom((short) 2)))
+                                    .build())
+                .withPriority(1)
+                .build();
+    }
+
+    @Before
+    public void setup() throws IOException {
+        grpcServer = InProcessServerBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .addService(serverImpl)
+                .build()
+                .start();
+        grpcChannel = InProcessChannelBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .usePlaintext(true)
+                .build();
+        client = new P4RuntimeClientImpl(DEVICE_ID, P4_DEVICE_ID, grpcChannel,
+                                         niceMock(P4RuntimeControllerImpl.class),
+                                         MAX_IN_FLIGHT_WRITES, MAX_WRITE_BATCH_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        grpcChannel.shutdownNow();
+        grpcServer.shutdownNow();
+    }
+
+    @Test
+    public void testPipelinedWrites() throws Exception {
+        CompletableFuture<Boolean> insertA = client.writeTableEntries(ImmutableList.of(ENTRY_A), INSERT, PIPECONF);
+        CompletableFuture<Boolean> insertB = client.writeTableEntries(ImmutableList.of(ENTRY_B), INSERT, PIPECONF);
+        CompletableFuture<Boolean> insertC = client.writeTableEntries(ImmutableList.of(ENTRY_C), INSERT, PIPECONF);
+        CompletableFuture<Boolean> modifyA = client.writeTableEntries(ImmutableList.of(ENTRY_A), MODIFY, PIPECONF);
+        CompletableFuture<Boolean> deleteA = client.writeTableEntries(ImmutableList.of(ENTRY_A), DELETE, PIPECONF);
+
+        // Two writes are in flight, the others wait.
+        PendingRequest first = serverImpl.nextRequest();
+        PendingRequest second = serverImpl.nextRequest();
+        assertTypes(first.request, Update.Type.INSERT);
+        assertTypes(second.request, Update.Type.INSERT);
+        assertNull(serverImpl.pollRequest());
+
+        // Waiting writes are coalesced, but updates of the same entry are never
+        // part of the same request.
+        first.complete();
+        assertTrue(insertA.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        PendingRequest third = serverImpl.nextRequest();
+        assertTypes(third.request, Update.Type.INSERT, Update.Type.MODIFY);
+
+        // The deletion waits for the modification of the same entry.
+        second.complete();
+        assertTrue(insertB.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertNull(serverImpl.pollRequest());
+
+        third.complete();
+        assertTrue(insertC.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(modifyA.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        PendingRequest fourth = serverImpl.nextRequest();
+        assertTypes(fourth.request, Update.Type.DELETE);
+
+        fourth.fail(Status.INVALID_ARGUMENT);
+        assertFalse(deleteA.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPendingWritesBounded() throws Exception {
+        CompletableFuture<Boolean> insertA = client.writeTableEntries(ImmutableList.of(ENTRY_A), INSERT, PIPECONF);
+        CompletableFuture<Boolean> insertB = client.writeTableEntries(ImmutableList.of(ENTRY_B), INSERT, PIPECONF);
+        PendingRequest first = serverImpl.nextRequest();
+        PendingRequest second = serverImpl.nextRequest();
+
+        // Fill the pending writes up to what the requests in flight can hold.
+        ImmutableList.Builder<PiTableEntry> entries = ImmutableList.builder();
+        for (int i = 0; i < MAX_IN_FLIGHT_WRITES * MAX_WRITE_BATCH_SIZE; i++) {
+            entries.add(entry((short) (100 + i)));
+        }
+        CompletableFuture<Boolean> insertAll = client.writeTableEntries(entries.build(), INSERT, PIPECONF);
+
+        // A further write waits for room.
+        CompletableFuture<CompletableFuture<Boolean>> submitC = CompletableFuture.supplyAsync(
+                () -> client.writeTableEntries(ImmutableList.of(ENTRY_C), INSERT, PIPECONF));
+        Thread.sleep(200);
+        assertFalse(submitC.isDone());
+
+        first.complete();
+        assertTrue(insertA.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        PendingRequest third = serverImpl.nextRequest();
+        assertEquals(MAX_IN_FLIGHT_WRITES * MAX_WRITE_BATCH_SIZE, third.request.getUpdatesCount());
+        CompletableFuture<Boolean> insertC = submitC.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        second.complete();
+        third.complete();
+        assertTrue(insertB.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(insertAll.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        PendingRequest fourth = serverImpl.nextRequest();
+        assertTypes(fourth.request, Update.Type.INSERT);
+        fourth.complete();
+        assertTrue(insertC.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+    }
+
+    private static void assertTypes(WriteRequest request, Update.Type... types) {
+        assertEquals(P4_DEVICE_ID, request.getDeviceId());
+        assertEquals(types.length, request.getUpdatesCount());
+        List<Update> updates = request.getUpdatesList();
+        for (int i = 0; i < types.length; i++) {
+            assertEquals(types[i], updates.get(i).getType());
+        }
+    }
+
+    /**
+     * Write request received by the server, not yet responded to.
+     */
+    private static final class PendingRequest {
+        private final WriteRequest request;
+        private final StreamObserver<WriteResponse> responseObserver;
+
+        private PendingRequest(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
+            this.request = request;
+            this.responseObserver = responseObserver;
+        }
+
+        private void complete() {
+            responseObserver.onNext(WriteResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
+
+        private void fail(Status status) {
+            responseObserver.onError(status.asRuntimeException());
+        }
+    }
+
+    /**
+     * P4Runtime server holding on to write requests until told to respond.
+     */
+    private static final class HoldingP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
+        private final BlockingQueue<PendingRequest> requests = new LinkedBlockingQueue<>();
+
+        @Override
+        public void write(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
+            requests.add(new PendingRequest(request, responseObserver));
+        }
+
+        private PendingRequest nextRequest() throws InterruptedException {
+            PendingRequest request = requests.poll(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+            assertNotNull("write request expected", request);
+            return request;
+        }
+
+        private PendingRequest pollRequest() {
+            return requests.poll();
+        }
+    }
+}
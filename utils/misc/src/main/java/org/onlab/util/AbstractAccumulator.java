@@ -170,6 +170,18 @@ public abstract class AbstractAccumulator<T> implements Accumulator<T> {
         }
     }
 
+    /**
+     * Processes the accumulated items right away on the calling thread,
+     * regardless of the batch thresholds and of readiness. Useful to avoid
+     * losing items when the backing timer is about to be cancelled.
+     */
+    public void flush() {
+        List<T> batch = finalizeCurrentBatch();
+        if (!batch.isEmpty()) {
+            processItems(batch);
+        }
+    }
+
     /**
      * Returns an immutable copy of the existing items and clear the list.
      *
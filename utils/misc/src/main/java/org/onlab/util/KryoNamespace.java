@@ -33,7 +33,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.slf4j.Logger;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -349,6 +348,10 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @param bufferSize size of the buffer in front of the stream
      */
     public void serialize(final Object obj, final OutputStream stream, final int bufferSize) {
+        if (stream instanceof Output) {
+            serialize(obj, (Output) stream);
+            return;
+        }
         ByteBufferOutput out = new ByteBufferOutput(stream, bufferSize);
         Kryo kryo = borrow();
         try {
@@ -359,6 +362,24 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
         }
     }
 
+    /**
+     * Serializes given object to a Kryo Output using Kryo instance in pool.
+     * <p>
+     * The output is not flushed, so that callers can reuse a single output,
+     * and the buffer in front of its stream, across objects.
+     *
+     * @param obj Object to serialize
+     * @param output to write to
+     */
+    public void serialize(final Object obj, final Output output) {
+        Kryo kryo = borrow();
+        try {
+            kryo.writeClassAndObject(output, obj);
+        } finally {
+            release(kryo);
+        }
+    }
+
     /**
      * Deserializes given byte array to Object using Kryo instance in pool.
      *
@@ -367,7 +388,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final byte[] bytes) {
-        Input in = new Input(new ByteArrayInputStream(bytes));
+        Input in = new Input(bytes);
         Kryo kryo = borrow();
         try {
             @SuppressWarnings("unchecked")
@@ -134,6 +134,19 @@ public class AbstractAccumulatorTest {
         assertEquals("incorrect batch", "abcdefg", accumulator.batch);
     }
 
+    @Test
+    public void flush() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.flush();
+        assertEquals("should not have processed an empty batch", 0, accumulator.batchCount);
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        accumulator.flush();
+        assertEquals("incorrect batch", "ab", accumulator.batch);
+        timer.advanceTimeMillis(120, SHORT_REAL_TIME_DELAY);
+        assertEquals("should not have fired again", 1, accumulator.batchCount);
+    }
+
     @Test
     public void stormTest() {
         TestAccumulator accumulator = new TestAccumulator();